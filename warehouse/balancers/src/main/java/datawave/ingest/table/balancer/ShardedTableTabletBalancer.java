@@ -5,6 +5,7 @@ import com.google.common.collect.Iterables;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.impl.KeyExtent;
 import org.apache.accumulo.core.master.thrift.TabletServerStatus;
+import org.apache.accumulo.core.tabletserver.thrift.TabletStats;
 import org.apache.accumulo.core.util.Pair;
 import org.apache.accumulo.server.master.balancer.GroupBalancer;
 import org.apache.accumulo.server.master.state.TServerInstance;
@@ -13,9 +14,12 @@ import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.WritableComparator;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -34,16 +38,29 @@ import java.util.TreeMap;
  * Therefore, a legal balance could have successive days on the same tablet servers. For example, if a day were partitioned into 100 pieces and the cluster had
  * 500 tablet servers, a legal balance of 20 days of data could have days 1-5 all on the first 100 tablet servers, days 6-10 on the second 100 tablet servers,
  * and so on. This is not ideal, since the real goal is to spread data out across the cluster as much as possible.
+ * <p>
+ * Spreading the data evenly does not spread the query load evenly when queries concentrate on a few (usually recent) days. When {@link #SHARDED_LOAD_AWARE}
+ * is set, the balancer collects the query rate of every tablet at most once per {@link #getWaitTime() wait time} and partitions the days that are much
+ * hotter than average with the {@link LoadAwareShardGroupPartitioner}, which places the hot days in their own groups so that their tablets are spread evenly
+ * across all of the tablet servers, while the remaining days are grouped as usual.
  */
 public class ShardedTableTabletBalancer extends GroupBalancer {
     private static final String SHARDED_PROPERTY_PREFIX = Property.TABLE_ARBITRARY_PROP_PREFIX.getKey() + "sharded.balancer.";
     public static final String SHARDED_MAX_MIGRATIONS = SHARDED_PROPERTY_PREFIX + "max.migrations";
     public static final int MAX_MIGRATIONS_DEFAULT = 10000;
+    public static final String SHARDED_LOAD_AWARE = SHARDED_PROPERTY_PREFIX + "load.aware";
+    public static final String SHARDED_HOT_LOAD_FACTOR = SHARDED_PROPERTY_PREFIX + "load.hot.factor";
+    public static final double HOT_LOAD_FACTOR_DEFAULT = 2.0;
+    
+    // weight of the latest query rates against the previous balancer passes, so that a brief burst of queries doesn't move tablets around
+    private static final double LOAD_SMOOTHING = 0.5;
     
     private static final Logger log = Logger.getLogger(ShardedTableTabletBalancer.class);
     private Collection<Pair<KeyExtent,Location>> tabletLocationCache;
     private Function<KeyExtent,String> partitioner;
     private String tableId;
+    private Map<String,Double> dayLoads = new HashMap<>();
+    private long lastLoadCollection = 0;
     
     public ShardedTableTabletBalancer(String tableId) {
         super(tableId);
@@ -69,7 +86,17 @@ public class ShardedTableTabletBalancer extends GroupBalancer {
         // During balancing, we actually want to balance using groups that include multiple days, in order to ensure that
         // data doesn't cluster weeks or months of data on a subset of the cluster.
         final int numTservers = current.size();
-        partitioner = new ShardGroupPartitioner(numTservers, getLocationProvider());
+        if (isLoadAware()) {
+            // collecting the loads takes a call to every tablet server, so only do it as often as the balancer will act on them
+            long now = System.currentTimeMillis();
+            if (now - lastLoadCollection >= getWaitTime()) {
+                updateDayLoads(getTabletLoads(current));
+                lastLoadCollection = now;
+            }
+            partitioner = new LoadAwareShardGroupPartitioner(numTservers, getLocationProvider(), dayLoads, getHotLoadFactor());
+        } else {
+            partitioner = new ShardGroupPartitioner(numTservers, getLocationProvider());
+        }
         
         return super.balance(current, migrations, migrationsOut);
     }
@@ -108,6 +135,77 @@ public class ShardedTableTabletBalancer extends GroupBalancer {
         return maxMigrations;
     }
     
+    protected boolean isLoadAware() {
+        return Boolean.parseBoolean(getTableProperty(SHARDED_LOAD_AWARE));
+    }
+    
+    protected double getHotLoadFactor() {
+        double hotLoadFactor = HOT_LOAD_FACTOR_DEFAULT;
+        String hotLoadFactorProp = getTableProperty(SHARDED_HOT_LOAD_FACTOR);
+        if (hotLoadFactorProp != null && !hotLoadFactorProp.isEmpty()) {
+            try {
+                hotLoadFactor = Double.parseDouble(hotLoadFactorProp);
+            } catch (Exception e) {
+                log.error("Unable to parse " + SHARDED_HOT_LOAD_FACTOR + " value (" + hotLoadFactorProp + ") as a double.  Defaulting to " + hotLoadFactor);
+            }
+        }
+        return hotLoadFactor;
+    }
+    
+    private String getTableProperty(String property) {
+        try {
+            return this.configuration.getTableConfiguration(this.tableId).get(property);
+        } catch (Exception e) {
+            log.warn("Failed to get " + property + ".  Using the default.", e);
+            return null;
+        }
+    }
+    
+    /**
+     * Gets the recent query rate of every online tablet in the table from each of the tablet servers. Tablet servers that can't be reached are skipped, so
+     * their tablets are treated as idle for this pass.
+     * 
+     * @param current
+     *            the current tablet servers
+     * @return the query rate for each tablet
+     */
+    protected Map<KeyExtent,Double> getTabletLoads(SortedMap<TServerInstance,TabletServerStatus> current) {
+        Map<KeyExtent,Double> tabletLoads = new HashMap<>();
+        for (TServerInstance tserver : current.keySet()) {
+            try {
+                for (TabletStats stats : getOnlineTabletsForTable(tserver, tableId)) {
+                    tabletLoads.put(new KeyExtent(stats.getExtent()), stats.getQueryRate());
+                }
+            } catch (Exception e) {
+                log.warn("Failed to get tablet stats from " + tserver + ".  Its tablets will be considered idle.", e);
+            }
+        }
+        return tabletLoads;
+    }
+    
+    /**
+     * Folds the latest tablet query rates into the smoothed per-day loads
+     */
+    private void updateDayLoads(Map<KeyExtent,Double> tabletLoads) {
+        ShardDayPartitioner dayPartitioner = new ShardDayPartitioner();
+        Map<String,Double> latest = new HashMap<>();
+        for (Entry<KeyExtent,Double> entry : tabletLoads.entrySet()) {
+            latest.merge(dayPartitioner.apply(entry.getKey()), entry.getValue(), Double::sum);
+        }
+        
+        Map<String,Double> smoothed = new HashMap<>();
+        for (Entry<String,Double> entry : latest.entrySet()) {
+            Double previous = dayLoads.get(entry.getKey());
+            smoothed.put(entry.getKey(), previous == null ? entry.getValue() : (LOAD_SMOOTHING * entry.getValue()) + ((1 - LOAD_SMOOTHING) * previous));
+        }
+        for (Entry<String,Double> entry : dayLoads.entrySet()) {
+            if (!latest.containsKey(entry.getKey()) && entry.getValue() * (1 - LOAD_SMOOTHING) > 0.001) {
+                smoothed.put(entry.getKey(), entry.getValue() * (1 - LOAD_SMOOTHING));
+            }
+        }
+        dayLoads = smoothed;
+    }
+    
     /**
      * Gets the raw location provider. By default this just delegates to the parent class' {@link #getLocationProvider()} which scans the metadata table.
      * However, test cases might override in order to replace the parent metadata location provider whilst still allowing the caching mechanism in use here.
@@ -231,4 +329,101 @@ public class ShardedTableTabletBalancer extends GroupBalancer {
             }
         }
     }
+    
+    /**
+     * Partitions extents for this table into groups according to how heavily each day is being queried:
+     * <ul>
+     * <li>Days whose query load per tablet is at least {@code hotLoadFactor} times the average for the table are hot. The hot days are ordered from hottest to
+     * coolest and grouped into tiers, each with at least as many tablets as there are tservers, so that the balancer spreads each tier across every tserver
+     * and the hottest tablets never share a tserver with each other.</li>
+     * <li>The remaining days are grouped by the {@link ShardGroupPartitioner}, as they would be without the query load.</li>
+     * </ul>
+     * All pieces of a given day are always in the same group.
+     */
+    protected static class LoadAwareShardGroupPartitioner implements Function<KeyExtent,String> {
+        private final ShardDayPartitioner dayPartitioner = new ShardDayPartitioner();
+        private final Map<String,String> hotGroupIDs = new HashMap<>();
+        private final ShardGroupPartitioner coldPartitioner;
+        
+        /**
+         * @param numTservers
+         *            the number of active tablet servers
+         * @param tabletLocations
+         *            the sorted list of tablet and current/previous location pairs
+         * @param dayLoads
+         *            the query load for each day
+         * @param hotLoadFactor
+         *            how many times the average load per tablet a day must have to be considered hot
+         */
+        public LoadAwareShardGroupPartitioner(int numTservers, Iterable<Pair<KeyExtent,Location>> tabletLocations, Map<String,Double> dayLoads,
+                        double hotLoadFactor) {
+            Map<String,Integer> dayTablets = new HashMap<>();
+            int numTablets = 0;
+            for (Pair<KeyExtent,Location> pair : tabletLocations) {
+                dayTablets.merge(dayPartitioner.apply(pair.getFirst()), 1, Integer::sum);
+                numTablets++;
+            }
+            
+            double totalLoad = 0;
+            for (String day : dayTablets.keySet()) {
+                totalLoad += dayLoads.getOrDefault(day, 0.0);
+            }
+            double hotTabletLoad = hotLoadFactor * totalLoad / Math.max(numTablets, 1);
+            
+            List<String> hotDays = new ArrayList<>();
+            for (Entry<String,Integer> entry : dayTablets.entrySet()) {
+                double tabletLoad = dayLoads.getOrDefault(entry.getKey(), 0.0) / entry.getValue();
+                if (tabletLoad > 0 && tabletLoad >= hotTabletLoad) {
+                    hotDays.add(entry.getKey());
+                }
+            }
+            // hottest first, most recent first for equal loads
+            hotDays.sort((a, b) -> {
+                int cmp = Double.compare(dayLoads.get(b) / dayTablets.get(b), dayLoads.get(a) / dayTablets.get(a));
+                return cmp != 0 ? cmp : b.compareTo(a);
+            });
+            
+            // Fill each tier up to at least the number of tservers. A final tier that is too small to cover all of the tservers is merged into the previous
+            // one, since a tier with fewer tablets than tservers could be stacked onto the same tservers as the previous tier.
+            int tier = 1;
+            int numInTier = 0;
+            List<String> tierDays = new ArrayList<>();
+            for (String day : hotDays) {
+                tierDays.add(day);
+                hotGroupIDs.put(day, String.format("h%04d", tier));
+                numInTier += dayTablets.get(day);
+                if (numInTier >= numTservers) {
+                    tier++;
+                    numInTier = 0;
+                    tierDays.clear();
+                }
+            }
+            if (numInTier > 0 && tier > 1) {
+                for (String day : tierDays) {
+                    hotGroupIDs.put(day, String.format("h%04d", tier - 1));
+                }
+            }
+            
+            List<Pair<KeyExtent,Location>> coldLocations = new ArrayList<>();
+            for (Pair<KeyExtent,Location> pair : tabletLocations) {
+                if (!hotGroupIDs.containsKey(dayPartitioner.apply(pair.getFirst()))) {
+                    coldLocations.add(pair);
+                }
+            }
+            coldPartitioner = coldLocations.isEmpty() ? null : new ShardGroupPartitioner(numTservers, coldLocations);
+            
+            if (log.isDebugEnabled()) {
+                log.debug("Partitioned " + hotDays.size() + " hot days " + hotDays + " into " + new HashSet<>(hotGroupIDs.values()).size() + " tiers");
+            }
+        }
+        
+        @Override
+        public String apply(KeyExtent input) {
+            String groupID = hotGroupIDs.get(dayPartitioner.apply(input));
+            if (groupID == null) {
+                groupID = (coldPartitioner == null ? "extra" : coldPartitioner.apply(input));
+            }
+            return groupID;
+        }
+    }
 }
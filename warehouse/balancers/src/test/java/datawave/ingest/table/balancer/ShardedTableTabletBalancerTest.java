@@ -516,6 +516,106 @@ public class ShardedTableTabletBalancerTest {
         testTServers.checkDateDistribution();
     }
     
+    @Test
+    public void testLoadAwareBalance() {
+        config.set(ShardedTableTabletBalancer.SHARDED_LOAD_AWARE, "true");
+        
+        final int NUM_TSERVERS = 20;
+        final int NUM_SHARDS = 8;
+        final int NUM_DAYS = 30;
+        final int NUM_HOT_DAYS = 3;
+        for (int i = 0; i < NUM_TSERVERS; ++i) {
+            testTServers.addTServer("127.0.0.1");
+        }
+        
+        // Come up with extents for NUM_DAYS days at NUM_SHARDS shards per day, where the queries concentrate on the last few days.
+        Map<KeyExtent,TServerInstance> unassigned = new HashMap<>();
+        Set<KeyExtent> hotExtents = new HashSet<>();
+        SimpleDateFormat fmt = new SimpleDateFormat("yyyyMMdd");
+        GregorianCalendar cal = new GregorianCalendar();
+        cal.set(2010, Calendar.JULY, 1, 0, 0, 0);
+        String prevRow = null;
+        for (int i = 0; i < NUM_DAYS; i++) {
+            String date = fmt.format(cal.getTime());
+            for (int j = 0; j < NUM_SHARDS; j++) {
+                String endRow = date + "_" + j;
+                KeyExtent extent = makeExtent(TNAME, endRow, prevRow);
+                unassigned.put(extent, null);
+                if (i >= NUM_DAYS - NUM_HOT_DAYS) {
+                    hotExtents.add(extent);
+                    testBalancer.tabletLoads.put(extent, 100.0);
+                } else {
+                    testBalancer.tabletLoads.put(extent, 1.0);
+                }
+                prevRow = endRow;
+            }
+            cal.add(Calendar.DAY_OF_YEAR, 1);
+        }
+        
+        Map<KeyExtent,TServerInstance> assignments = new HashMap<>();
+        testBalancer.getAssignments(testTServers.getCurrent(), unassigned, assignments);
+        testTServers.applyAssignments(assignments);
+        testTServers.peturbBalance();
+        
+        runAndCheckBalance(5);
+        
+        // The hot days form a single group with more tablets than tservers, so every tserver should be serving one or two of the hot tablets.
+        MapCounter<TServerInstance> hotTablets = new MapCounter<>();
+        for (Entry<KeyExtent,TServerInstance> entry : testTServers.tabletLocs.entrySet()) {
+            if (hotExtents.contains(entry.getKey())) {
+                hotTablets.increment(entry.getValue(), 1);
+            }
+        }
+        assertEquals(NUM_TSERVERS, hotTablets.keySet().size());
+        for (TServerInstance tserver : hotTablets.keySet()) {
+            long count = hotTablets.get(tserver);
+            assertTrue(tserver + " is serving " + count + " hot tablets", count >= 1 && count <= 2);
+        }
+    }
+    
+    @Test
+    public void testLoadsCollectedOncePerWaitTime() {
+        config.set(ShardedTableTabletBalancer.SHARDED_LOAD_AWARE, "true");
+        TServerInstance tsi = testTServers.addTServer("127.0.0.1");
+        testTServers.addTServer("127.0.0.1");
+        testTServers.addTablet(makeExtent(TNAME, "20100123_1", null), tsi);
+        testTServers.addTablet(makeExtent(TNAME, "20100123_2", "20100123_1"), tsi);
+        
+        testBalancer.waitTime = 60000;
+        for (int i = 0; i < 3; i++) {
+            testBalancer.balance(testTServers.getCurrent(), new HashSet<>(), new ArrayList<>());
+        }
+        assertEquals(1, testBalancer.loadCollections);
+    }
+    
+    @Test
+    public void testLoadAwarePartitioner() {
+        List<Pair<KeyExtent,Location>> locations = new ArrayList<>();
+        Map<String,Double> dayLoads = new HashMap<>();
+        String prevRow = null;
+        for (String date : new String[] {"20100101", "20100102", "20100103", "20100104", "20100105"}) {
+            for (int j = 0; j < 4; j++) {
+                String endRow = date + "_" + j;
+                locations.add(new Pair<>(makeExtent(TNAME, endRow, prevRow), null));
+                prevRow = endRow;
+            }
+            dayLoads.put(date, 4.0);
+        }
+        dayLoads.put("20100104", 400.0);
+        dayLoads.put("20100105", 300.0);
+        
+        // With 6 tservers the two hot days are one tier, and the cold days are grouped by date as usual
+        Function<KeyExtent,String> partitioner = new ShardedTableTabletBalancer.LoadAwareShardGroupPartitioner(6, locations, dayLoads, 2.0);
+        assertEquals("h0001", partitioner.apply(makeExtent(TNAME, "20100104_2", "20100104_1")));
+        assertEquals("h0001", partitioner.apply(makeExtent(TNAME, "20100105_0", "20100104_3")));
+        assertEquals("g0001", partitioner.apply(makeExtent(TNAME, "20100101_1", "20100101_0")));
+        
+        // With 4 tservers each hot day fills a tier of its own
+        partitioner = new ShardedTableTabletBalancer.LoadAwareShardGroupPartitioner(4, locations, dayLoads, 2.0);
+        assertEquals("h0001", partitioner.apply(makeExtent(TNAME, "20100104_2", "20100104_1")));
+        assertEquals("h0002", partitioner.apply(makeExtent(TNAME, "20100105_0", "20100104_3")));
+    }
+    
     @Test
     public void testSingleTablet() {
         
@@ -922,6 +1022,9 @@ public class ShardedTableTabletBalancerTest {
     
     private class TestShardedTableTabletBalancer extends ShardedTableTabletBalancer {
         private TestTServers testTServers;
+        private Map<KeyExtent,Double> tabletLoads = new HashMap<>();
+        private long waitTime = 0;
+        private int loadCollections = 0;
         
         public TestShardedTableTabletBalancer(TestTServers testTServers, TableConfiguration config) {
             super(TNAME);
@@ -942,7 +1045,13 @@ public class ShardedTableTabletBalancerTest {
         
         @Override
         protected long getWaitTime() {
-            return 0;
+            return waitTime;
+        }
+        
+        @Override
+        protected Map<KeyExtent,Double> getTabletLoads(SortedMap<TServerInstance,TabletServerStatus> current) {
+            loadCollections++;
+            return tabletLoads;
         }
     }
     
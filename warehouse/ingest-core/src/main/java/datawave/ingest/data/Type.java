@@ -24,6 +24,8 @@ public class Type implements Comparable<Type> {
     private int filterPriority;
     
     private static final Map<Type,IngestHelperInterface> helpers = new HashMap<>();
+    // the ingest helpers of the threads that keep their own instead of using the ones shared by all threads
+    private static final ThreadLocal<Map<Type,IngestHelperInterface>> threadHelpers = new ThreadLocal<>();
     
     public Type(String name, Class<? extends IngestHelperInterface> helperClass, Class<? extends RecordReader<?,?>> readerClass,
                     String[] defaultDataTypeHandlers, int filterPriority, String[] defaultDataTypeFilters) {
@@ -80,7 +82,24 @@ public class Type implements Comparable<Type> {
         return readerClass;
     }
     
+    /**
+     * Get the ingest helper for this type. The helper is shared by every thread, unless the calling thread {@link #useThreadIngestHelpers() has helpers of
+     * its own}.
+     * 
+     * @param conf
+     *            the configuration to set the helper up with if it does not exist yet
+     * @return the ingest helper, or null if this type has none
+     */
     public IngestHelperInterface getIngestHelper(Configuration conf) {
+        Map<Type,IngestHelperInterface> ownHelpers = threadHelpers.get();
+        if (ownHelpers != null) {
+            IngestHelperInterface helper = ownHelpers.get(this);
+            if (helper == null && helperClass != null) {
+                helper = newIngestHelper(conf);
+                ownHelpers.put(this, helper);
+            }
+            return helper;
+        }
         if (!helpers.containsKey(this) && helperClass != null) {
             synchronized (helpers) {
                 if (!helpers.containsKey(this)) {
@@ -95,6 +114,27 @@ public class Type implements Comparable<Type> {
         synchronized (helpers) {
             helpers.remove(this);
         }
+        Map<Type,IngestHelperInterface> ownHelpers = threadHelpers.get();
+        if (ownHelpers != null) {
+            ownHelpers.remove(this);
+        }
+    }
+    
+    /**
+     * Give the calling thread ingest helpers of its own, created as they are first used, instead of the helpers shared by every thread. Ingest helpers keep
+     * state between and during calls, so a thread that processes events at the same time as others must call this before it sets up its handlers.
+     */
+    public static void useThreadIngestHelpers() {
+        if (threadHelpers.get() == null) {
+            threadHelpers.set(new HashMap<>());
+        }
+    }
+    
+    /**
+     * Drop the ingest helpers of the calling thread, which uses the helpers shared by every thread again
+     */
+    public static void clearThreadIngestHelpers() {
+        threadHelpers.remove();
     }
     
     /**
@@ -25,12 +25,12 @@ import datawave.webservice.common.logging.ThreadConfigurableLogger;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -135,22 +135,26 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     
     private Multimap<String,datawave.data.type.Type<?>> typeFieldMap = null;
     private Multimap<String,datawave.data.type.Type<?>> typePatternMap = null;
-    private Multimap<Matcher,datawave.data.type.Type<?>> typeCompiledPatternMap = null;
     protected Set<String> indexOnlyFields = Sets.newHashSet();
     
     protected Set<String> indexedFields = Sets.newHashSet();
     protected Map<String,Pattern> indexedPatterns = Maps.newHashMap();
-    protected Set<String> unindexedFields = Sets.newHashSet();
     
     protected Set<String> reverseIndexedFields = Sets.newHashSet();
     protected Map<String,Pattern> reverseIndexedPatterns = Maps.newHashMap();
-    protected Set<String> reverseUnindexedFields = Sets.newHashSet();
     
     // for all the atoms that are normalized, but not indexed
     protected Set<String> normalizedFields = Sets.newHashSet();
-    protected Set<String> unNormalizedFields = Sets.newHashSet();
     protected Map<String,Pattern> normalizedPatterns = Maps.newHashMap();
     
+    // the field name patterns compiled on first use, and the classification of each field name seen since
+    private FieldNameClassifier<String> indexedClassifier = null;
+    private FieldNameClassifier<String> reverseIndexedClassifier = null;
+    private FieldNameClassifier<String> normalizedClassifier = null;
+    private FieldNameClassifier<datawave.data.type.Type<?>> typeClassifier = null;
+    private FieldNameClassifier<FailurePolicy> failurePolicyClassifier = null;
+    private Map<String,FieldClassification> fieldClassifications = new HashMap<>();
+    
     protected Set<String> allIndexFields = Sets.newTreeSet(); // the indexed
                                                               // fields across
                                                               // all types
@@ -171,7 +175,6 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     protected FailurePolicy defaultFailedFieldPolicy = FailurePolicy.FAIL;
     protected Map<String,FailurePolicy> failedFieldPolicy = null;
     protected Map<String,FailurePolicy> failedFieldPatternPolicy = null;
-    protected Map<Matcher,FailurePolicy> failedFieldCompiledPatternPolicy = null;
     protected String failedNormalizationField = "FAILED_NORMALIZATION_FIELD";
     
     protected MarkingsHelper markingsHelper = null;
@@ -188,7 +191,7 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
         this.typeFieldMap = HashMultimap.create();
         this.typeFieldMap.put(null, new NoOpType());
         this.typePatternMap = HashMultimap.create();
-        this.typeCompiledPatternMap = null;
+        this.resetFieldClassifications();
         
         this.getVirtualIngest().setup(config);
         
@@ -413,6 +416,110 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
                 }
             }
         }
+        
+        this.resetFieldClassifications();
+    }
+    
+    /**
+     * Discards the compiled field name patterns and the classification of every field name, to be called whenever the field configuration changes
+     */
+    protected void resetFieldClassifications() {
+        this.indexedClassifier = null;
+        this.reverseIndexedClassifier = null;
+        this.normalizedClassifier = null;
+        this.typeClassifier = null;
+        this.failurePolicyClassifier = null;
+        this.fieldClassifications.clear();
+    }
+    
+    private void compileFieldClassifiers() {
+        this.indexedClassifier = compileFieldNamePatterns(this.indexedPatterns);
+        this.reverseIndexedClassifier = compileFieldNamePatterns(this.reverseIndexedPatterns);
+        this.normalizedClassifier = compileFieldNamePatterns(this.normalizedPatterns);
+        
+        FieldNameClassifier.Builder<datawave.data.type.Type<?>> types = new FieldNameClassifier.Builder<>();
+        if (this.typePatternMap != null) {
+            for (String pattern : this.typePatternMap.keySet()) {
+                types.addAll(pattern, this.typePatternMap.get(pattern));
+            }
+        }
+        this.typeClassifier = types.build();
+        
+        FieldNameClassifier.Builder<FailurePolicy> policies = new FieldNameClassifier.Builder<>();
+        if (this.failedFieldPatternPolicy != null) {
+            for (Entry<String,FailurePolicy> entry : this.failedFieldPatternPolicy.entrySet()) {
+                policies.add(entry.getKey(), entry.getValue());
+            }
+        }
+        this.failurePolicyClassifier = policies.build();
+    }
+    
+    private static FieldNameClassifier<String> compileFieldNamePatterns(Map<String,Pattern> patterns) {
+        FieldNameClassifier.Builder<String> builder = new FieldNameClassifier.Builder<>();
+        for (String pattern : patterns.keySet()) {
+            builder.add(pattern, pattern);
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Classifies a field name against all of the configured field names and patterns at once, so that each distinct field name is only matched against the
+     * patterns the first time it is seen
+     * 
+     * @param fieldName
+     *            the field name
+     * @return the classification of the field name
+     */
+    private FieldClassification getFieldClassification(String fieldName) {
+        FieldClassification classification = this.fieldClassifications.get(fieldName);
+        if (classification == null) {
+            if (this.typeClassifier == null) {
+                compileFieldClassifiers();
+            }
+            classification = new FieldClassification();
+            
+            if (this.indexedFields.contains(fieldName)) {
+                classification.indexed = true;
+            } else if (this.indexedClassifier.matches(fieldName)) {
+                this.indexedFields.add(fieldName);
+                classification.indexed = true;
+            }
+            
+            if (this.reverseIndexedFields.contains(fieldName)) {
+                classification.reverseIndexed = true;
+            } else if (this.reverseIndexedClassifier.matches(fieldName)) {
+                this.reverseIndexedFields.add(fieldName);
+                classification.reverseIndexed = true;
+            }
+            
+            if (this.normalizedFields.contains(fieldName)) {
+                classification.normalized = true;
+            } else if (this.normalizedClassifier.matches(fieldName)) {
+                this.normalizedFields.add(fieldName);
+                classification.normalized = true;
+            }
+            
+            if (this.typeFieldMap != null) {
+                List<datawave.data.type.Type<?>> types = new ArrayList<>(this.typeFieldMap.get(fieldName.toUpperCase()));
+                if (types.isEmpty()) {
+                    types.addAll(this.typeClassifier.getMatches(fieldName));
+                    this.typeFieldMap.putAll(fieldName, types);
+                }
+                if (types.isEmpty()) {
+                    types.addAll(this.typeFieldMap.get(null));
+                }
+                classification.dataTypes = Collections.unmodifiableList(types);
+            }
+            
+            FailurePolicy policy = (this.failedFieldPolicy == null ? null : this.failedFieldPolicy.get(fieldName));
+            if (policy == null) {
+                policy = this.failurePolicyClassifier.getFirstMatch(fieldName);
+            }
+            classification.failurePolicy = (policy == null ? this.defaultFailedFieldPolicy : policy);
+            
+            this.fieldClassifications.put(fieldName, classification);
+        }
+        return classification;
     }
     
     private void moveToPatternMap(Set<String> in, Map<String,Pattern> out) {
@@ -572,47 +679,13 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
         
     }
     
-    private void compilePatterns() {
-        Multimap<Matcher,datawave.data.type.Type<?>> patterns = HashMultimap.create();
-        if (typePatternMap != null) {
-            for (String pattern : typePatternMap.keySet()) {
-                patterns.putAll(compileFieldNamePattern(pattern), typePatternMap.get(pattern));
-            }
-        }
-        typeCompiledPatternMap = patterns;
-    }
-    
     public static Matcher compileFieldNamePattern(String fieldNamePattern) {
         return Pattern.compile(fieldNamePattern.replace("*", ".*")).matcher("");
     }
     
     @Override
     public List<datawave.data.type.Type<?>> getDataTypes(String fieldName) {
-        
-        final String typeFieldName = fieldName.toUpperCase();
-        
-        LinkedList<datawave.data.type.Type<?>> types = new LinkedList<>(typeFieldMap.get(typeFieldName));
-        
-        if (types.isEmpty()) {
-            if (typeCompiledPatternMap == null) {
-                compilePatterns();
-            }
-            
-            for (Matcher patternMatcher : typeCompiledPatternMap.keySet()) {
-                
-                if (patternMatcher.reset(fieldName).matches()) {
-                    Collection<datawave.data.type.Type<?>> patternTypes = typeCompiledPatternMap.get(patternMatcher);
-                    types.addAll(patternTypes);
-                    typeFieldMap.putAll(fieldName, patternTypes);
-                }
-            }
-        }
-        
-        if (types.isEmpty()) {
-            types.addAll(typeFieldMap.get(null));
-        }
-        
-        return types;
+        return getFieldClassification(fieldName).dataTypes;
     }
     
     /**
@@ -768,22 +841,7 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     
     @Override
     public boolean isNormalizedField(String fieldName) {
-        if (this.normalizedFields.contains(fieldName)) {
-            return true;
-        } else if (this.unNormalizedFields.contains(fieldName)) {
-            return false;
-        } else if (this.normalizedPatterns.isEmpty()) { // avoids filling unNormalizedFields if not necessary
-            return false;
-        } else {
-            for (Pattern pattern : this.normalizedPatterns.values()) {
-                if (pattern.matcher(fieldName).matches()) {
-                    this.normalizedFields.add(fieldName);
-                    return true;
-                }
-            }
-            this.unNormalizedFields.add(fieldName);
-            return false;
-        }
+        return getFieldClassification(fieldName).normalized;
     }
     
     @Override
@@ -805,22 +863,8 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     private boolean isIndexed(String fieldName) {
         if (fieldConfigHelper != null && fieldConfigHelper.isIndexedField(fieldName)) {
             return true;
-        } else if (this.indexedFields.contains(fieldName)) {
-            return true;
-        } else if (this.unindexedFields.contains(fieldName)) {
-            return false;
-        } else if (this.indexedPatterns.isEmpty()) { // avoids filling unindexedFields if not necessary
-            return false;
-        } else {
-            for (Pattern pattern : this.indexedPatterns.values()) {
-                if (pattern.matcher(fieldName).matches()) {
-                    this.indexedFields.add(fieldName); // update so we don't need to match the next time we see it
-                    return true;
-                }
-            }
-            this.unindexedFields.add(fieldName);
-            return false;
         }
+        return getFieldClassification(fieldName).indexed;
     }
     
     @Override
@@ -835,22 +879,8 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     private boolean isReverseIndexed(String fieldName) {
         if (fieldConfigHelper != null && fieldConfigHelper.isReverseIndexedField(fieldName)) {
             return true;
-        } else if (this.reverseIndexedFields.contains(fieldName)) {
-            return true;
-        } else if (this.reverseUnindexedFields.contains(fieldName)) {
-            return false;
-        } else if (this.reverseIndexedPatterns.isEmpty()) { // avoids filling reverseUnindexedFields if not necessary
-            return false;
-        } else {
-            for (Pattern pattern : this.reverseIndexedPatterns.values()) {
-                if (pattern.matcher(fieldName).matches()) {
-                    this.reverseIndexedFields.add(fieldName); // update so we don't need to match the next time we see it
-                    return true;
-                }
-            }
-            this.reverseUnindexedFields.add(fieldName);
-            return false;
         }
+        return getFieldClassification(fieldName).reverseIndexed;
     }
     
     /**
@@ -958,35 +988,8 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
         return ns;
     }
     
-    private void compilePolicyPatterns() {
-        Map<Matcher,FailurePolicy> patterns = new HashMap<>();
-        if (failedFieldPatternPolicy != null) {
-            for (String pattern : failedFieldPatternPolicy.keySet()) {
-                patterns.put(Pattern.compile(pattern.replace("*", ".*")).matcher(""), failedFieldPatternPolicy.get(pattern));
-            }
-        }
-        failedFieldCompiledPatternPolicy = patterns;
-    }
-    
     protected FailurePolicy getFailurePolicy(String fieldName) {
-        FailurePolicy policy = failedFieldPolicy.get(fieldName);
-        if (policy == null) {
-            if (failedFieldCompiledPatternPolicy == null)
-                compilePolicyPatterns();
-            if (!failedFieldCompiledPatternPolicy.isEmpty()) {
-                for (Matcher patternMatcher : failedFieldCompiledPatternPolicy.keySet()) {
-                    
-                    if (patternMatcher.reset(fieldName).matches()) {
-                        policy = failedFieldCompiledPatternPolicy.get(patternMatcher);
-                        break;
-                    }
-                }
-            }
-            if (policy == null) {
-                policy = defaultFailedFieldPolicy;
-            }
-        }
-        return policy;
+        return getFieldClassification(fieldName).failurePolicy;
     }
     
     /*
@@ -997,6 +1000,7 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     @Override
     public void addIndexedField(String fieldName) {
         this.indexedFields.add(fieldName);
+        this.fieldClassifications.remove(fieldName);
     }
     
     /*
@@ -1007,6 +1011,7 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     @Override
     public void addReverseIndexedField(String fieldName) {
         this.reverseIndexedFields.add(fieldName);
+        this.fieldClassifications.remove(fieldName);
     }
     
     /*
@@ -1017,6 +1022,7 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
     @Override
     public void addNormalizedField(String fieldName) {
         this.normalizedFields.add(fieldName);
+        this.fieldClassifications.remove(fieldName);
     }
     
     /*
@@ -1150,5 +1156,17 @@ public abstract class BaseIngestHelper extends AbstractIngestHelper implements C
                 log.debug("Registered a " + typeClass + " for type[" + this.getType().typeName() + "], field[" + fieldName + "]");
             }
         }
+        resetFieldClassifications();
+    }
+    
+    /**
+     * Everything the helper decides from the name of a field
+     */
+    private static class FieldClassification {
+        boolean indexed = false;
+        boolean reverseIndexed = false;
+        boolean normalized = false;
+        List<datawave.data.type.Type<?>> dataTypes = Collections.emptyList();
+        FailurePolicy failurePolicy = null;
     }
 }
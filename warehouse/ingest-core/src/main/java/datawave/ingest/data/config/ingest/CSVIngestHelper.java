@@ -1,5 +1,7 @@
 package datawave.ingest.data.config.ingest;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.collect.HashMultimap;
@@ -9,14 +11,15 @@ import datawave.ingest.data.config.CSVHelper;
 import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.util.StringUtils;
 import org.apache.commons.lang.StringEscapeUtils;
-import org.apache.commons.lang.text.StrTokenizer;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
 
 public class CSVIngestHelper extends ContentBaseIngestHelper {
     
     private static final Logger log = Logger.getLogger(CSVIngestHelper.class);
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
     protected CSVHelper helper = null;
+    private CSVTokenizer tokenizer = null;
     
     @Override
     public void setup(Configuration config) {
@@ -24,6 +27,8 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
         helper = createHelper();
         helper.setup(config);
         this.setEmbeddedHelper(helper);
+        // Allow subclasses to override the tokenizer
+        tokenizer = configureTokenizer(createTokenizer());
     }
     
     /**
@@ -34,24 +39,37 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
     }
     
     /**
-     * Allow classes extending this class to modify the StrTokenizer being used.
+     * Allow classes extending this class to modify the CSVTokenizer being used.
      * 
      * @param tokenizer
-     *            The StrTokenizer that will be used on each Event
+     *            The CSVTokenizer that will be used on each Event
      */
-    protected StrTokenizer configureTokenizer(StrTokenizer tokenizer) {
+    protected CSVTokenizer configureTokenizer(CSVTokenizer tokenizer) {
         return tokenizer;
     }
     
     /**
-     * Allow classes extending this class to modify the raw data before setting it on the StrTokenizer
+     * Allow classes extending this class to modify the raw data before it is tokenized
      * 
      * @param data
      *            The raw data from the Event
-     * @return
+     * @return the UTF-8 encoded data to tokenize
      */
-    protected String preProcessRawData(byte[] data) {
-        return new String(data);
+    protected byte[] preProcessRawData(byte[] data) {
+        return data;
+    }
+    
+    /**
+     * Create the tokenizer for the configured separator. Comma and tab separated values honor quotes and are trimmed, as the commons-lang CSV and TSV
+     * tokenizers did, while any other separator is matched literally.
+     */
+    protected CSVTokenizer createTokenizer() {
+        if (helper.getSeparator().equals(","))
+            return CSVTokenizer.getCSVInstance();
+        else if (helper.getSeparator().equals("\\t"))
+            return CSVTokenizer.getTSVInstance();
+        else
+            return new CSVTokenizer(helper.getSeparator());
     }
     
     /**
@@ -61,49 +79,35 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
     public Multimap<String,NormalizedContentInterface> getEventFields(RawRecordContainer event) {
         HashMultimap<String,String> fields = HashMultimap.create();
         
-        String data = preProcessRawData(event.getRawData());
-        
-        StrTokenizer tokenizer;
-        if (helper.getSeparator().equals(","))
-            tokenizer = StrTokenizer.getCSVInstance();
-        else if (helper.getSeparator().equals("\\t"))
-            tokenizer = StrTokenizer.getTSVInstance();
-        else
-            tokenizer = new StrTokenizer(data, helper.getSeparator());
-        
-        tokenizer.setIgnoreEmptyTokens(false);
-        tokenizer.setEmptyTokenAsNull(true);
-        
-        // Allow subclasses to override the tokenizer
-        tokenizer = configureTokenizer(tokenizer);
-        
-        tokenizer.reset(data);
-        
-        String[] dataFields = tokenizer.getTokenArray();
-        processFields(fields, dataFields);
+        // only the bounds of the fields are found here, the values are decoded as they are kept
+        tokenizer.tokenize(preProcessRawData(event.getRawData()));
+        processFields(fields, tokenizer);
         
         // and return the normalized fields
         return normalize(fields);
     }
     
-    protected void processFields(HashMultimap<String,String> fields, String[] dataFields) {
-        for (int i = 0; i < Math.max(dataFields.length, helper.getHeader().length); i++) {
+    protected void processFields(HashMultimap<String,String> fields, CSVTokenizer dataFields) {
+        String[] header = helper.getHeader();
+        for (int i = 0; i < Math.max(dataFields.size(), header.length); i++) {
             
-            if (i < helper.getHeader().length) {
-                String fieldName = helper.getHeader()[i];
+            if (i < header.length) {
+                String fieldName = header[i];
                 
-                if (keepField(fieldName) && dataFields[i] != null) {
-                    String fieldValue = StringEscapeUtils.unescapeCsv(dataFields[i]);
-                    fieldValue = helper.clean(fieldName, fieldValue);
+                if (keepField(fieldName)) {
+                    String fieldValue = StringEscapeUtils.unescapeCsv(dataFields.getString(i));
                     if (fieldValue != null) {
-                        processPreSplitField(fields, fieldName, fieldValue);
+                        fieldValue = helper.clean(fieldName, fieldValue);
+                        if (fieldValue != null) {
+                            processPreSplitField(fields, fieldName, fieldValue);
+                        }
                     }
                 }
             } else if (helper.processExtraFields()) {
                 // We have gone beyond the length of the header. In some cases,
                 // this will contain optional fields in the form of a map.
                 // Split on equals, to break the key and value
-                String fieldValue = StringEscapeUtils.unescapeCsv(dataFields[i]);
+                String fieldValue = StringEscapeUtils.unescapeCsv(dataFields.getString(i));
                 if (fieldValue != null) {
                     processExtraField(fields, fieldValue);
                 }
@@ -149,7 +153,7 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
                 String singleFieldName = helper.usingMultiValuedFieldsBlacklist() ? fieldName : helper.getMultiValuedFields().get(fieldName);
                 int limit = helper.getMultiFieldSizeThreshold();
                 int count = 0;
-                for (String value : StringUtils.splitIterable(fieldValue, helper.getEscapeSafeMultiValueSeparatorPattern())) {
+                for (String value : splitMultiValuedField(fieldValue)) {
                     value = helper.clean(singleFieldName, value);
                     if (value != null) {
                         if (count == limit) {
@@ -167,6 +171,46 @@ public class CSVIngestHelper extends ContentBaseIngestHelper {
         }
     }
     
+    /**
+     * Split a multi-valued field on the separators not escaped with a backslash. A literal separator is found with a scan of the value, rather than by
+     * matching the escape safe separator pattern.
+     * 
+     * @param fieldValue
+     * @return the values
+     */
+    protected Iterable<String> splitMultiValuedField(String fieldValue) {
+        String separator = helper.getMultiValueSeparator();
+        if (!isLiteral(separator)) {
+            return StringUtils.splitIterable(fieldValue, helper.getEscapeSafeMultiValueSeparatorPattern());
+        }
+        List<String> values = new ArrayList<>();
+        int start = 0;
+        int index = fieldValue.indexOf(separator);
+        while (index >= 0) {
+            if (index > 0 && fieldValue.charAt(index - 1) == '\\') {
+                index = fieldValue.indexOf(separator, index + 1);
+            } else {
+                values.add(fieldValue.substring(start, index));
+                start = index + separator.length();
+                index = fieldValue.indexOf(separator, start);
+            }
+        }
+        values.add(fieldValue.substring(start));
+        return values;
+    }
+    
+    private static boolean isLiteral(String separator) {
+        if (separator == null || separator.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < separator.length(); i++) {
+            if (REGEX_METACHARACTERS.indexOf(separator.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     protected void applyThresholdAction(Multimap<String,String> fields, String fieldName, String value, int sizeLimit) {
         switch (helper.getThresholdAction()) {
             case DROP:
@@ -0,0 +1,286 @@
+package datawave.ingest.data.config.ingest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits a delimited record into fields directly over the raw UTF-8 bytes of the record. Tokenizing only records where each field starts and ends, and a
+ * field is decoded into a String when it is asked for, so fields that are dropped are never decoded.
+ * 
+ * The fields are the same as those of the commons-lang {@code StrTokenizer} configured with the same delimiter, quote and trimming, with empty tokens kept and
+ * returned as null:
+ * <ul>
+ * <li>A field that starts with the quote character may contain the delimiter within quotes, and a doubled quote within quotes is a literal quote.</li>
+ * <li>When trimming, whitespace and control characters are removed from both ends of a field, but not from within quotes.</li>
+ * <li>An empty record has no fields, and a record that ends with the delimiter has an empty last field.</li>
+ * </ul>
+ * A tokenizer is reused across records and is not thread safe.
+ */
+public class CSVTokenizer {
+    
+    private final byte[] delimiter;
+    // a flag rather than a sentinel quote byte, as every byte value may be data
+    private boolean hasQuote = false;
+    private byte quote = 0;
+    private boolean trim = false;
+    
+    // the current record and the bounds of its fields
+    private byte[] data;
+    private int size = 0;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] quoted = new boolean[16];
+    private byte[] scratch = new byte[256];
+    
+    /**
+     * @param delimiter
+     *            the field delimiter, which is matched literally
+     */
+    public CSVTokenizer(String delimiter) {
+        this.delimiter = delimiter.getBytes(StandardCharsets.UTF_8);
+        if (this.delimiter.length == 0) {
+            throw new IllegalArgumentException("The delimiter may not be empty");
+        }
+    }
+    
+    /**
+     * @return a tokenizer for comma separated values, with double quotes and trimming
+     */
+    public static CSVTokenizer getCSVInstance() {
+        return new CSVTokenizer(",").setQuote('"').setTrim(true);
+    }
+    
+    /**
+     * @return a tokenizer for tab separated values, with double quotes and trimming
+     */
+    public static CSVTokenizer getTSVInstance() {
+        return new CSVTokenizer("\t").setQuote('"').setTrim(true);
+    }
+    
+    /**
+     * @param quote
+     *            the ASCII quote character
+     * @return this tokenizer
+     */
+    public CSVTokenizer setQuote(char quote) {
+        if (quote > 127) {
+            throw new IllegalArgumentException("The quote must be an ASCII character");
+        }
+        this.quote = (byte) quote;
+        this.hasQuote = true;
+        return this;
+    }
+    
+    public CSVTokenizer setNoQuote() {
+        this.hasQuote = false;
+        return this;
+    }
+    
+    /**
+     * @param trim
+     *            whether to remove whitespace and control characters from both ends of each field
+     * @return this tokenizer
+     */
+    public CSVTokenizer setTrim(boolean trim) {
+        this.trim = trim;
+        return this;
+    }
+    
+    public boolean isTrim() {
+        return trim;
+    }
+    
+    /**
+     * Splits a record into fields. The record is referenced, not copied, until the next call.
+     * 
+     * @param record
+     *            the UTF-8 encoded record
+     * @return the number of fields
+     */
+    public int tokenize(byte[] record) {
+        this.data = record;
+        this.size = 0;
+        int pos = 0;
+        while (pos >= 0 && pos < record.length) {
+            pos = readNextField(pos);
+            if (pos >= record.length) {
+                // the record ends with a delimiter
+                addField(pos, pos, false);
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * @return the number of fields in the current record
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @param index
+     *            the field index
+     * @return the field, or null if it is empty
+     */
+    public String getString(int index) {
+        if (index < 0 || index >= size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        if (quoted[index]) {
+            int length = unquote(starts[index], ends[index]);
+            return (length == 0 ? null : new String(scratch, 0, length, StandardCharsets.UTF_8));
+        }
+        int length = ends[index] - starts[index];
+        return (length == 0 ? null : new String(data, starts[index], length, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @return all of the fields of the current record
+     */
+    public String[] getTokenArray() {
+        String[] tokens = new String[size];
+        for (int i = 0; i < size; i++) {
+            tokens[i] = getString(i);
+        }
+        return tokens;
+    }
+    
+    private int readNextField(int start) {
+        // skip leading whitespace, unless it is the delimiter or the quote
+        while (start < data.length && trim && isTrimmed(data[start]) && !isDelimiter(start) && !isQuote(data[start])) {
+            start++;
+        }
+        if (start >= data.length) {
+            addField(start, start, false);
+            return -1;
+        }
+        if (isDelimiter(start)) {
+            addField(start, start, false);
+            return start + delimiter.length;
+        }
+        if (isQuote(data[start])) {
+            return readQuotedField(start);
+        }
+        
+        // without a leading quote, quotes are just part of the field
+        int pos = start;
+        int trimEnd = start;
+        while (pos < data.length) {
+            if (isDelimiter(pos)) {
+                addField(start, trim ? trimEnd : pos, false);
+                return pos + delimiter.length;
+            }
+            pos++;
+            if (!trim || !isTrimmed(data[pos - 1])) {
+                trimEnd = pos;
+            }
+        }
+        addField(start, trim ? trimEnd : pos, false);
+        return -1;
+    }
+    
+    private int readQuotedField(int start) {
+        boolean quoting = true;
+        int pos = start + 1;
+        while (pos < data.length) {
+            if (quoting) {
+                if (isQuote(data[pos])) {
+                    if (pos + 1 < data.length && isQuote(data[pos + 1])) {
+                        pos += 2;
+                    } else {
+                        quoting = false;
+                        pos++;
+                    }
+                } else {
+                    pos++;
+                }
+            } else if (isDelimiter(pos)) {
+                addField(start, pos, true);
+                return pos + delimiter.length;
+            } else {
+                if (isQuote(data[pos])) {
+                    quoting = true;
+                }
+                pos++;
+            }
+        }
+        addField(start, pos, true);
+        return -1;
+    }
+    
+    /**
+     * Removes the quotes from a field that starts with a quote, into the scratch buffer
+     * 
+     * @return the length of the unquoted field
+     */
+    private int unquote(int start, int end) {
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        }
+        int length = 0;
+        int trimEnd = 0;
+        boolean quoting = true;
+        int pos = start + 1;
+        while (pos < end) {
+            byte b = data[pos];
+            if (quoting) {
+                if (isQuote(b)) {
+                    if (pos + 1 < end && isQuote(data[pos + 1])) {
+                        scratch[length++] = quote;
+                        trimEnd = length;
+                        pos += 2;
+                    } else {
+                        quoting = false;
+                        pos++;
+                    }
+                    continue;
+                }
+                scratch[length++] = b;
+                trimEnd = length;
+            } else if (isQuote(b)) {
+                quoting = true;
+            } else {
+                scratch[length++] = b;
+                if (!trim || !isTrimmed(b)) {
+                    trimEnd = length;
+                }
+            }
+            pos++;
+        }
+        return trimEnd;
+    }
+    
+    private boolean isDelimiter(int pos) {
+        if (pos + delimiter.length > data.length) {
+            return false;
+        }
+        for (int i = 0; i < delimiter.length; i++) {
+            if (data[pos + i] != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private boolean isQuote(byte b) {
+        return hasQuote && b == quote;
+    }
+    
+    private static boolean isTrimmed(byte b) {
+        // bytes of multi-byte UTF-8 characters are negative, and never trimmed
+        return b >= 0 && b <= ' ';
+    }
+    
+    private void addField(int start, int end, boolean isQuoted) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            quoted = Arrays.copyOf(quoted, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        quoted[size] = isQuoted;
+        size++;
+    }
+}
@@ -0,0 +1,181 @@
+package datawave.ingest.data.config.ingest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable set of field name patterns, each associated with a value, compiled for fast lookup of the patterns that match a field name.
+ * 
+ * Patterns use the configuration syntax, where '*' matches any sequence of characters and anything else is a regular expression. The literal prefix of every
+ * pattern, up to its first wildcard or other regex character, is placed in a trie so that a lookup walks the field name once and only evaluates the patterns
+ * whose prefix it starts with. Patterns are evaluated with their own matcher so that a classifier may be shared across threads.
+ * 
+ * @param <T>
+ *            the type of the values associated with the patterns
+ */
+public class FieldNameClassifier<T> {
+    
+    private static final String REGEX_CHARS = "\\^$.|?*+()[]{}";
+    
+    private final Node<T> root = new Node<>();
+    private final int size;
+    
+    private FieldNameClassifier(Builder<T> builder) {
+        for (Entry<T> entry : builder.entries) {
+            Node<T> node = root;
+            for (int i = 0; i < entry.prefix.length(); i++) {
+                node = node.children.computeIfAbsent(entry.prefix.charAt(i), c -> new Node<>());
+            }
+            node.entries.add(entry);
+        }
+        this.size = builder.entries.size();
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @param fieldName
+     *            the field name
+     * @return true if any of the patterns match the field name
+     */
+    public boolean matches(String fieldName) {
+        Node<T> node = root;
+        for (int i = 0; node != null; i++) {
+            for (Entry<T> entry : node.entries) {
+                if (entry.pattern.matcher(fieldName).matches()) {
+                    return true;
+                }
+            }
+            node = (i < fieldName.length() ? node.children.get(fieldName.charAt(i)) : null);
+        }
+        return false;
+    }
+    
+    /**
+     * @param fieldName
+     *            the field name
+     * @return the value of the first pattern, in the order added, that matches the field name, or null if none match
+     */
+    public T getFirstMatch(String fieldName) {
+        Entry<T> first = null;
+        Node<T> node = root;
+        for (int i = 0; node != null; i++) {
+            for (Entry<T> entry : node.entries) {
+                if ((first == null || entry.order < first.order) && entry.pattern.matcher(fieldName).matches()) {
+                    first = entry;
+                }
+            }
+            node = (i < fieldName.length() ? node.children.get(fieldName.charAt(i)) : null);
+        }
+        return (first == null ? null : first.value);
+    }
+    
+    /**
+     * @param fieldName
+     *            the field name
+     * @return the values of all of the patterns that match the field name, in the order added
+     */
+    public List<T> getMatches(String fieldName) {
+        List<Entry<T>> matches = null;
+        Node<T> node = root;
+        for (int i = 0; node != null; i++) {
+            for (Entry<T> entry : node.entries) {
+                if (entry.pattern.matcher(fieldName).matches()) {
+                    if (matches == null) {
+                        matches = new ArrayList<>();
+                    }
+                    matches.add(entry);
+                }
+            }
+            node = (i < fieldName.length() ? node.children.get(fieldName.charAt(i)) : null);
+        }
+        if (matches == null) {
+            return Collections.emptyList();
+        }
+        matches.sort((a, b) -> Integer.compare(a.order, b.order));
+        List<T> values = new ArrayList<>(matches.size());
+        for (Entry<T> entry : matches) {
+            values.add(entry.value);
+        }
+        return values;
+    }
+    
+    /**
+     * @param fieldNamePattern
+     *            a field name pattern
+     * @return the literal characters at the start of the pattern that every matching field name must start with
+     */
+    static String literalPrefix(String fieldNamePattern) {
+        if (fieldNamePattern.indexOf('|') >= 0) {
+            // alternatives may start with anything
+            return "";
+        }
+        for (int i = 0; i < fieldNamePattern.length(); i++) {
+            if (REGEX_CHARS.indexOf(fieldNamePattern.charAt(i)) >= 0) {
+                // a quantifier applies to the preceding character, so that character is not part of the prefix. A '*' is a wildcard rather than a
+                // quantifier
+                char c = fieldNamePattern.charAt(i);
+                boolean quantifier = (c == '+' || c == '?' || c == '{');
+                return fieldNamePattern.substring(0, (quantifier && i > 0) ? i - 1 : i);
+            }
+        }
+        return fieldNamePattern;
+    }
+    
+    public static class Builder<T> {
+        
+        private final List<Entry<T>> entries = new ArrayList<>();
+        
+        /**
+         * @param fieldNamePattern
+         *            the field name pattern, where '*' matches any sequence of characters
+         * @param value
+         *            the value to associate with the pattern
+         * @return this builder
+         */
+        public Builder<T> add(String fieldNamePattern, T value) {
+            entries.add(new Entry<>(entries.size(), literalPrefix(fieldNamePattern), Pattern.compile(fieldNamePattern.replace("*", ".*")), value));
+            return this;
+        }
+        
+        public Builder<T> addAll(String fieldNamePattern, Iterable<? extends T> values) {
+            for (T value : values) {
+                add(fieldNamePattern, value);
+            }
+            return this;
+        }
+        
+        public FieldNameClassifier<T> build() {
+            return new FieldNameClassifier<>(this);
+        }
+    }
+    
+    private static class Entry<T> {
+        final int order;
+        final String prefix;
+        final Pattern pattern;
+        final T value;
+        
+        Entry(int order, String prefix, Pattern pattern, T value) {
+            this.order = order;
+            this.prefix = prefix;
+            this.pattern = pattern;
+            this.value = value;
+        }
+    }
+    
+    private static class Node<T> {
+        final Map<Character,Node<T>> children = new HashMap<>();
+        final List<Entry<T>> entries = new ArrayList<>();
+    }
+}
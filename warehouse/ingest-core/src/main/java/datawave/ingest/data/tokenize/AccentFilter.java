@@ -11,6 +11,9 @@ import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 public class AccentFilter extends TokenFilter {
     private CharTermAttribute termAtt;
     
+    /** reused for the folded term, so that folding does not allocate per token */
+    private char[] output = new char[256];
+    
     public AccentFilter(TokenStream input) {
         super(input);
         termAtt = addAttribute(CharTermAttribute.class);
@@ -26,12 +29,15 @@ public class AccentFilter extends TokenFilter {
             for (int i = 0; i < length; i++) {
                 final char c = buffer[i];
                 if (c >= '\u00c0' && c <= '\u0700') {
-                    char output[] = new char[buffer.length * 4]; // worst case
+                    if (output.length < length * 4) {
+                        output = new char[length * 4]; // worst case
+                    }
+                    // the whole term is folded at once
                     int outputPos = removeAccents(buffer, output, length);
                     if (outputPos > 0) {
                         termAtt.copyBuffer(output, 0, outputPos);
-                        break;
                     }
+                    break;
                 }
             }
             
@@ -45,6 +51,14 @@ public class AccentFilter extends TokenFilter {
      * Return the token with accents/diactirics/vowelization stripped off
      */
     public static String strip(String token) {
+        // only characters from \u00c0 up are ever rewritten
+        int i = 0;
+        while (i < token.length() && token.charAt(i) < '\u00c0') {
+            i++;
+        }
+        if (i == token.length()) {
+            return token;
+        }
         char c[] = token.toCharArray();
         char output[] = new char[c.length * 4]; // worst case
         int outputPos = removeAccents(c, output, c.length);
@@ -75,6 +75,9 @@ public class StandardTokenizer extends Tokenizer {
     /** Token typed truncation rules. */
     private final Map<String,Integer> typedTokenTruncateLength = new HashMap<>(DEFAULT_TYPED_TOKEN_LENGTHS);
     
+    /** The truncation length of each lexer token type, rebuilt from the rules when they change so that tokens don't look up the rules by name. */
+    private int[] truncateLengthsByType = null;
+    
     // this tokenizer generates three attributes:
     // offset, positionIncrement and type
     private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
@@ -143,6 +146,7 @@ public class StandardTokenizer extends Tokenizer {
      */
     public void setTokenTruncateLength(int length) {
         this.defaultTokenTruncateLength = length;
+        this.truncateLengthsByType = null;
     }
     
     /** @see #setMaxTokenLength */
@@ -153,6 +157,7 @@ public class StandardTokenizer extends Tokenizer {
     /** Clear the map of token type to truncationg length. */
     public void clearTokenTruncateLengths() {
         typedTokenTruncateLength.clear();
+        truncateLengthsByType = null;
     }
     
     /**
@@ -168,6 +173,7 @@ public class StandardTokenizer extends Tokenizer {
             throw new IllegalArgumentException("Length must be zero or greater");
         }
         typedTokenTruncateLength.put(type, Integer.valueOf(length));
+        truncateLengthsByType = null;
     }
     
     /**
@@ -231,10 +237,7 @@ public class StandardTokenizer extends Tokenizer {
             } else if (scanner.yylength() <= maxTokenLength) {
                 posIncrAtt.setPositionIncrement(skippedPositions + 1);
                 typeAtt.setType(Lexer.TOKEN_TYPES[tokenType]);
-                int truncateLength = getTokenTruncateLength(typeAtt.type());
-                if (truncateLength < 0) {
-                    truncateLength = defaultTokenTruncateLength;
-                }
+                int truncateLength = getTruncateLengthsByType()[tokenType];
                 scanner.getText(termAtt, truncateLength);
                 final int start = scanner.yychar();
                 offsetAtt.setOffset(correctOffset(start), correctOffset(start + termAtt.length()));
@@ -248,6 +251,23 @@ public class StandardTokenizer extends Tokenizer {
         }
     }
     
+    /**
+     * @return the truncation length of each lexer token type, falling back to the default truncation length
+     */
+    private int[] getTruncateLengthsByType() {
+        if (truncateLengthsByType == null) {
+            int[] lengths = new int[Lexer.TOKEN_TYPES.length];
+            for (int i = 0; i < lengths.length; i++) {
+                lengths[i] = getTokenTruncateLength(Lexer.TOKEN_TYPES[i]);
+                if (lengths[i] < 0) {
+                    lengths[i] = defaultTokenTruncateLength;
+                }
+            }
+            truncateLengthsByType = lengths;
+        }
+        return truncateLengthsByType;
+    }
+    
     /**
      * @return true if the scanner is positioned at a meta break character.
      */
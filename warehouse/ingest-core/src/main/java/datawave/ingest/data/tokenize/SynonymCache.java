@@ -0,0 +1,117 @@
+package datawave.ingest.data.tokenize;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A cache of the synonyms generated by a {@link TokenSearch}, looked up directly from a term's char buffer. Text repeats the same terms over and over, so
+ * most lookups find the synonyms of the term without creating a String for the term or generating its synonyms again.
+ * <p>
+ * The cache is direct mapped: the slot of a term is chosen by a hash over its chars and its type, and a term replaces whatever was in its slot before. Terms
+ * longer than {@link #MAX_TERM_LENGTH} are not cached. The returned synonyms are shared, and must not be modified.
+ * <p>
+ * The synonyms of a term must not change once the search util is configured. Not thread safe.
+ */
+public class SynonymCache {
+    
+    public static final int DEFAULT_SIZE = 4096;
+    public static final int MAX_TERM_LENGTH = 64;
+    
+    private static final String[] NO_SYNONYMS = new String[0];
+    
+    private final TokenSearch searchUtil;
+    private final boolean includeTerm;
+    private final int mask;
+    
+    private final char[][] terms;
+    private final String[] types;
+    private final String[][] synonyms;
+    
+    private final String[] zw = {"", ""};
+    
+    private long hits = 0;
+    private long misses = 0;
+    
+    /**
+     * @param searchUtil
+     *            generates the synonyms of a term
+     * @param includeTerm
+     *            passed to {@link TokenSearch#getSynonyms(String[], String, boolean)}
+     * @param size
+     *            the number of terms to cache, rounded up to a power of two
+     */
+    public SynonymCache(TokenSearch searchUtil, boolean includeTerm, int size) {
+        this.searchUtil = searchUtil;
+        this.includeTerm = includeTerm;
+        int slots = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+        this.mask = slots - 1;
+        this.terms = new char[slots][];
+        this.types = new String[slots];
+        this.synonyms = new String[slots][];
+    }
+    
+    /**
+     * Get the synonyms of a term
+     * 
+     * @param buffer
+     *            the buffer holding the term, starting at index 0
+     * @param length
+     *            the length of the term
+     * @param type
+     *            the token type of the term
+     * @return the synonyms, which may be empty
+     */
+    public String[] getSynonyms(char[] buffer, int length, String type) {
+        if (length > MAX_TERM_LENGTH) {
+            misses++;
+            return generateSynonyms(new String(buffer, 0, length), type);
+        }
+        
+        int slot = hash(buffer, length, type) & mask;
+        char[] cached = terms[slot];
+        if (cached != null && cached.length == length && type.equals(types[slot]) && matches(cached, buffer, length)) {
+            hits++;
+            return synonyms[slot];
+        }
+        
+        misses++;
+        String[] generated = generateSynonyms(new String(buffer, 0, length), type);
+        terms[slot] = Arrays.copyOf(buffer, length);
+        types[slot] = type;
+        synonyms[slot] = generated;
+        return generated;
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+    
+    private String[] generateSynonyms(String term, String type) {
+        zw[0] = term;
+        zw[1] = "";
+        Collection<String> generated = searchUtil.getSynonyms(zw, type, includeTerm);
+        return (generated.isEmpty() ? NO_SYNONYMS : generated.toArray(new String[generated.size()]));
+    }
+    
+    private static int hash(char[] buffer, int length, String type) {
+        int h = type.hashCode();
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + buffer[i];
+        }
+        // spread the high bits into the low bits used for the slot
+        return h ^ (h >>> 16);
+    }
+    
+    private static boolean matches(char[] cached, char[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (cached[i] != buffer[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,7 +1,8 @@
 package datawave.ingest.data.tokenize;
 
 import java.io.IOException;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 
@@ -25,16 +26,18 @@ public class TokenSearchSynonymFilter extends TokenFilter {
     private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
     private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
     
-    private final TokenSearch searchUtil;
+    private final SynonymCache synonymCache;
     boolean synonymPositionsEnabled = false;
     
     /** tokenizer state: output buffer for terms and synonyms */
     private final Queue<OutputTuple> output = new PriorityQueue<>(24);
-    private final String[] zw = {"", ""};
+    
+    /** the synonym type for each token type */
+    private final Map<String,String> synonymTypes = new HashMap<>();
     
     public TokenSearchSynonymFilter(TokenStream input, TokenSearch searchUtil) {
         super(input);
-        this.searchUtil = searchUtil;
+        this.synonymCache = new SynonymCache(searchUtil, false, SynonymCache.DEFAULT_SIZE);
     }
     
     public boolean isSynonymPositionsEnabled() {
@@ -73,11 +76,9 @@ public class TokenSearchSynonymFilter extends TokenFilter {
                 return false;
             }
             
-            State baseState = captureState();
-            
+            // the attributes are left as they are for the term itself
             int synonymCount = generateSynonyms();
             
-            restoreState(baseState);
             if (synonymCount > 0 && synonymPositionsEnabled) {
                 int currentLength = posLenAtt.getPositionLength();
                 posLenAtt.setPositionLength(Math.max(synonymCount, currentLength));
@@ -86,30 +87,29 @@ public class TokenSearchSynonymFilter extends TokenFilter {
         }
     }
     
+    /**
+     * Buffer the synonyms of the current term for output. The state of the current term is restored before returning.
+     * 
+     * @return the number of synonyms
+     */
     protected int generateSynonyms() {
-        String type = typeAtt.type();
-        
-        zw[0] = termAtt.toString();
-        zw[1] = ""; // placeholder for zone, unused in DefaultTokenSearch
+        String[] synonyms = synonymCache.getSynonyms(termAtt.buffer(), termAtt.length(), typeAtt.type());
+        if (synonyms.length == 0) {
+            // most terms have no synonyms, so there is no state to capture
+            return 0;
+        }
         
-        Collection<String> synonyms = searchUtil.getSynonyms(zw, type, false);
+        State baseState = captureState();
+        String type = getSynonymType(typeAtt.type());
         int position = 0;
         
-        // create output type for synonyms
-        if (type.startsWith("<") && type.endsWith(">")) {
-            type = "<" + type.substring(1, type.length() - 1) + "_SYNONYM>";
-        } else {
-            type = type + "_SYNONYM";
-        }
-        
         // TODO: it would be nice to capture proper character offset
         // information here, but that would require a significant change in
         // operation of DefaultTokenSearch. For now, the offset of each synonym
         // is that of the term from which it is derived.
         
         for (String synonym : synonyms) {
-            char[] cc = synonym.toCharArray();
-            termAtt.copyBuffer(cc, 0, cc.length);
+            termAtt.setEmpty().append(synonym);
             typeAtt.setType(type);
             
             posLenAtt.setPositionLength(1);
@@ -124,9 +124,27 @@ public class TokenSearchSynonymFilter extends TokenFilter {
             
             captureTuple(position++);
         }
+        
+        restoreState(baseState);
         return position;
     }
     
+    /**
+     * @return the output type for synonyms of the given token type
+     */
+    private String getSynonymType(String type) {
+        String synonymType = synonymTypes.get(type);
+        if (synonymType == null) {
+            if (type.startsWith("<") && type.endsWith(">")) {
+                synonymType = "<" + type.substring(1, type.length() - 1) + "_SYNONYM>";
+            } else {
+                synonymType = type + "_SYNONYM";
+            }
+            synonymTypes.put(type, synonymType);
+        }
+        return synonymType;
+    }
+    
     /** Capture information about the tuple to the output buffer */
     protected void captureTuple(int position) {
         output.add(new OutputTuple(termAtt.toString(), position, offsetAtt.startOffset(), offsetAtt.endOffset() - offsetAtt.startOffset(), captureState()));
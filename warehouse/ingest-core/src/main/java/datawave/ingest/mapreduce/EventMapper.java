@@ -3,6 +3,7 @@ package datawave.ingest.mapreduce;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import datawave.data.normalizer.DateNormalizer;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.Type;
@@ -27,6 +28,7 @@ import datawave.ingest.mapreduce.job.metrics.MetricsConfiguration;
 import datawave.ingest.mapreduce.job.metrics.MetricsService;
 import datawave.ingest.mapreduce.job.metrics.ReusableMetricsLabels;
 import datawave.ingest.mapreduce.job.statsd.StatsDEnabledMapper;
+import datawave.ingest.mapreduce.job.writer.BufferingContextWriter;
 import datawave.ingest.mapreduce.job.writer.BulkContextWriter;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
 import datawave.ingest.mapreduce.job.writer.LiveContextWriter;
@@ -44,19 +46,27 @@ import datawave.util.time.TraceStopwatch;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.mapreduce.Counter;
 import org.apache.hadoop.mapreduce.CounterGroup;
 import org.apache.hadoop.mapreduce.Counters;
 import org.apache.hadoop.mapreduce.InputSplit;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
 import org.apache.hadoop.mapreduce.lib.input.FileSplit;
 import org.apache.log4j.Logger;
 import org.apache.log4j.NDC;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -66,6 +76,13 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -78,9 +95,12 @@ import java.util.concurrent.TimeUnit;
  * is within the window, then the map will parse the Event into a map of field names and field values, the map method will call the process() method on each
  * DataTypeHandler implementation that has been configured for the Type of Event.
  *
- * This class no longer supports processing events in a multi-threaded fashion as that was proven to NOT be beneficial in the long run (i.e. The bulk of the
- * time is spent in the ContextWriter which is synchronized. Also multithreading mean potentially more memory use which we should already be maximizing per
- * machine in the hadoop map-reduce cluster.)
+ * By default events are processed on the map thread. Setting EVENT_MAPPER_THREADS above one parses events and runs them through the handlers on a pool of
+ * worker threads instead, each with its own instances of the handlers and ingest helpers. The keys and values created for an event are buffered by the worker
+ * and written through the ContextWriter on the map thread, in the order the events were read unless EVENT_MAPPER_ORDERED_OUTPUT is false. This only pays off
+ * when the parsing and handlers dominate the time spent (e.g. content indexing), and the memory used grows with the number of events being processed at once.
+ * Events being reprocessed from the error table are still processed on the map thread, and the multi-threaded mode is not used when ingest metrics are
+ * enabled.
  *
  *
  *
@@ -127,6 +147,21 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     
     public static final String ID_FILTER_FSTS = "ingest.event.mapper.id.filter.fsts";
     
+    /**
+     * The number of threads on which to process events. One (the default) processes the events on the map thread.
+     */
+    public static final String EVENT_MAPPER_THREADS = "ingest.event.mapper.threads";
+    
+    /**
+     * Whether the output of events processed on multiple threads is written in the order the events were read (the default), or as soon as each is done.
+     */
+    public static final String EVENT_MAPPER_ORDERED_OUTPUT = "ingest.event.mapper.ordered.output";
+    
+    /**
+     * The maximum number of events being processed on multiple threads at once, which defaults to four times the number of threads.
+     */
+    public static final String EVENT_MAPPER_MAX_PENDING = "ingest.event.mapper.max.pending";
+    
     protected Map<String,List<DataTypeHandler<K1>>> typeMap = new HashMap<>();
     
     /**
@@ -142,7 +177,7 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     
     private StandaloneStatusReporter reporter = new StandaloneStatusReporter();
     
-    private DateNormalizer dateNormalizer = new DateNormalizer();
+    private ThreadLocal<DateNormalizer> dateNormalizer = ThreadLocal.withInitial(DateNormalizer::new);
     
     private ContextWriter<K2,V2> contextWriter = null;
     
@@ -160,6 +195,17 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     private MetricsService<K2,V2> metricsService;
     private ReusableMetricsLabels metricsLabels;
     
+    // the worker threads, and the events they are processing in the order they were read, when processing events on multiple threads
+    private ExecutorService eventWorkers = null;
+    private CompletionService<ProcessedEvent> processedEvents = null;
+    private final Deque<Future<ProcessedEvent>> pendingEvents = new ArrayDeque<>();
+    private final List<EventWorker> workers = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<EventWorker> currentWorker = new ThreadLocal<>();
+    private Configuration workerConf = null;
+    private TaskAttemptID workerTaskAttemptID = null;
+    private boolean orderedOutput = true;
+    private int maxPendingEvents = 0;
+    
     /**
      * Set up the datatype handlers
      */
@@ -265,6 +311,21 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         
         validators = ArrayListMultimap.create();
         
+        int threads = context.getConfiguration().getInt(EVENT_MAPPER_THREADS, 1);
+        if (threads > 1) {
+            if (metricsEnabled) {
+                log.warn("Ingest metrics are not collected on multiple threads, processing events on the map thread instead of " + threads + " threads");
+            } else {
+                workerConf = context.getConfiguration();
+                workerTaskAttemptID = context.getTaskAttemptID();
+                eventWorkers = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("EventMapper worker %d").setDaemon(true).build());
+                processedEvents = new ExecutorCompletionService<>(eventWorkers);
+                orderedOutput = context.getConfiguration().getBoolean(EVENT_MAPPER_ORDERED_OUTPUT, true);
+                maxPendingEvents = Math.max(1, context.getConfiguration().getInt(EVENT_MAPPER_MAX_PENDING, threads * 4));
+                log.info("EventMapper processing events on " + threads + " threads with " + (orderedOutput ? "ordered" : "unordered") + " output");
+            }
+        }
+        
         if (null != split) {
             if (filterConf.getBoolean(FILE_NAME_COUNTERS, true)) {
                 getCounter(context, IngestInput.FILE_NAME.name(), split.getPath().toString()).increment(1);
@@ -303,52 +364,11 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
                 log.warn("Attempted to load configuration for a type that does not exist in the registry: " + typeStr);
             } else {
                 Type t = TypeRegistry.getType(typeStr);
-                String fieldValidators = context.getConfiguration().get(typeStr + FieldValidator.FIELD_VALIDATOR_NAMES);
-                
-                if (fieldValidators != null) {
-                    String[] validatorClasses = StringUtils.split(fieldValidators, ",");
-                    for (String validatorClass : validatorClasses) {
-                        try {
-                            Class<? extends FieldValidator> clazz = Class.forName(validatorClass).asSubclass(FieldValidator.class);
-                            FieldValidator validator = clazz.newInstance();
-                            validator.init(t, context.getConfiguration());
-                            validators.put(typeStr, validator);
-                        } catch (ClassNotFoundException e) {
-                            log.error("Error finding validator " + validatorClass, e);
-                        } catch (InstantiationException | IllegalAccessException e) {
-                            log.error("Error creating validator " + validatorClass, e);
-                        }
-                    }
-                }
-                
-                String[] handlerClassNames = t.getDefaultDataTypeHandlers();
-                
-                if (handlerClassNames != null) {
-                    for (String handlerClassName : handlerClassNames) {
-                        log.info("Configuring handler: " + handlerClassName);
-                        try {
-                            @SuppressWarnings("unchecked")
-                            Class<? extends DataTypeHandler<K1>> clazz = (Class<? extends DataTypeHandler<K1>>) Class.forName(handlerClassName);
-                            DataTypeHandler<K1> h = clazz.newInstance();
-                            // Create a counter initialized to zero for all handler types.
-                            getCounter(context, IngestOutput.ROWS_CREATED.name(), h.getClass().getSimpleName()).increment(0);
-                            // Trick here. Set the data.name parameter to type T, then call setup on the DataTypeHandler
-                            Configuration clone = new Configuration(context.getConfiguration());
-                            clone.set(DataTypeHelper.Properties.DATA_NAME, t.typeName());
-                            // Use the StandaloneReporter and StandaloneTaskAttemptContext for the Handlers. Because the StandaloneTaskAttemptContext
-                            // is a subclass of TaskInputOutputContext and TaskAttemptContext is not. We are using this to record the counters during
-                            // processing. We will need to add the counters in the StandaloneReporter to the Map.Context in the close call.
-                            // TaskAttemptContext newContext = new TaskAttemptContext(clone, context.getTaskAttemptID());
-                            StandaloneTaskAttemptContext<K1,V1,K2,V2> newContext = new StandaloneTaskAttemptContext<>(clone, context.getTaskAttemptID(),
-                                            reporter);
-                            h.setup(newContext);
-                            typeMap.get(typeStr).add(h);
-                        } catch (ClassNotFoundException e) {
-                            log.error("Error finding DataTypeHandler " + handlerClassName, e);
-                        } catch (InstantiationException | IllegalAccessException e) {
-                            log.error("Error creating DataTypeHandler " + handlerClassName, e);
-                        }
-                    }
+                createValidators(typeStr, t, context.getConfiguration(), validators);
+                for (DataTypeHandler<K1> h : createHandlers(t, context.getConfiguration(), context.getTaskAttemptID(), reporter)) {
+                    // Create a counter initialized to zero for all handler types.
+                    getCounter(context, IngestOutput.ROWS_CREATED.name(), h.getClass().getSimpleName()).increment(0);
+                    typeMap.get(typeStr).add(h);
                 }
             }
             log.info("EventMapper configured with the following handlers for " + typeStr + ": " + typeMap.get(typeStr));
@@ -357,6 +377,63 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         return typeMap.get(typeStr);
     }
     
+    /**
+     * Create the field validators configured for a type
+     */
+    private void createValidators(String typeStr, Type t, Configuration conf, Multimap<String,FieldValidator> validators) {
+        String fieldValidators = conf.get(typeStr + FieldValidator.FIELD_VALIDATOR_NAMES);
+        
+        if (fieldValidators != null) {
+            String[] validatorClasses = StringUtils.split(fieldValidators, ",");
+            for (String validatorClass : validatorClasses) {
+                try {
+                    Class<? extends FieldValidator> clazz = Class.forName(validatorClass).asSubclass(FieldValidator.class);
+                    FieldValidator validator = clazz.newInstance();
+                    validator.init(t, conf);
+                    validators.put(typeStr, validator);
+                } catch (ClassNotFoundException e) {
+                    log.error("Error finding validator " + validatorClass, e);
+                } catch (InstantiationException | IllegalAccessException e) {
+                    log.error("Error creating validator " + validatorClass, e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Create and set up the data type handlers configured for a type
+     */
+    private List<DataTypeHandler<K1>> createHandlers(Type t, Configuration conf, TaskAttemptID taskAttemptID, StatusReporter handlerReporter) {
+        List<DataTypeHandler<K1>> handlers = new ArrayList<>();
+        String[] handlerClassNames = t.getDefaultDataTypeHandlers();
+        
+        if (handlerClassNames != null) {
+            for (String handlerClassName : handlerClassNames) {
+                log.info("Configuring handler: " + handlerClassName);
+                try {
+                    @SuppressWarnings("unchecked")
+                    Class<? extends DataTypeHandler<K1>> clazz = (Class<? extends DataTypeHandler<K1>>) Class.forName(handlerClassName);
+                    DataTypeHandler<K1> h = clazz.newInstance();
+                    // Trick here. Set the data.name parameter to type T, then call setup on the DataTypeHandler
+                    Configuration clone = new Configuration(conf);
+                    clone.set(DataTypeHelper.Properties.DATA_NAME, t.typeName());
+                    // Use the StandaloneReporter and StandaloneTaskAttemptContext for the Handlers. Because the StandaloneTaskAttemptContext
+                    // is a subclass of TaskInputOutputContext and TaskAttemptContext is not. We are using this to record the counters during
+                    // processing. We will need to add the counters in the StandaloneReporter to the Map.Context in the close call.
+                    // TaskAttemptContext newContext = new TaskAttemptContext(clone, context.getTaskAttemptID());
+                    StandaloneTaskAttemptContext<K1,V1,K2,V2> newContext = new StandaloneTaskAttemptContext<>(clone, taskAttemptID, handlerReporter);
+                    h.setup(newContext);
+                    handlers.add(h);
+                } catch (ClassNotFoundException e) {
+                    log.error("Error finding DataTypeHandler " + handlerClassName, e);
+                } catch (InstantiationException | IllegalAccessException e) {
+                    log.error("Error creating DataTypeHandler " + handlerClassName, e);
+                }
+            }
+        }
+        return handlers;
+    }
+    
     private List<String> getDataTypeFilterClassNames() {
         
         SortedMap<Integer,String[]> priorityToFilters = new TreeMap<>();
@@ -419,7 +496,13 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         }
         
         // First lets clear this event from the error table if we are reprocessing a previously errored event
-        if (value.getAuxData() instanceof EventErrorSummary) {
+        boolean reprocessed = value.getAuxData() instanceof EventErrorSummary;
+        if (reprocessed) {
+            // purge and process the event on this thread, after the events read before it
+            if (eventWorkers != null) {
+                writeProcessedEvents(context, 0);
+            }
+            
             EventErrorSummary errorSummary = (EventErrorSummary) (value.getAuxData());
             value.setAuxData(null);
             
@@ -469,6 +552,7 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         List<DataTypeHandler<K1>> handlers = new ArrayList<>();
         handlers.addAll(typeHandlers);
         handlers.addAll(loadDataType(TypeRegistry.ALL_PREFIX, context));
+        List<String> handlerTypes = new ArrayList<>(Arrays.asList(value.getDataType().typeName(), TypeRegistry.ALL_PREFIX));
         
         // Always include any event errors in the counters
         for (String error : value.getErrors()) {
@@ -479,9 +563,11 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         if (value.fatalError()) {
             // now clear out the handlers to avoid processing this event
             handlers.clear();
+            handlerTypes.clear();
             if (!value.ignorableError()) {
                 // since this is not an ignorable error, lets add the error handlers back into the list
                 handlers.addAll(loadDataType(TypeRegistry.ERROR_PREFIX, context));
+                handlerTypes.add(TypeRegistry.ERROR_PREFIX);
                 
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "ValidationError").increment(1);
@@ -493,49 +579,18 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
             context.progress();
         }
         
+        if (eventWorkers != null && !reprocessed) {
+            // the handlers are run on a worker thread, and the keys and values created are written as the events are done
+            submitEvent(key, value, handlerTypes, context);
+            offset++;
+            return;
+        }
+        
         Multimap<String,NormalizedContentInterface> fields = HashMultimap.create();
         try {
             processEvent(key, value, handlers, fields, context);
         } catch (Exception e) {
-            // Rollback anything written for this event
-            contextWriter.rollback();
-            
-            // Fail job on constraint violations
-            if (e instanceof ConstraintChecker.ConstraintViolationException) {
-                throw ((RuntimeException) e);
-            }
-            
-            // ensure they know we are still working on it
-            context.progress();
-            
-            // log error
-            log.error("Runtime exception processing event", e);
-            
-            // now lets dump to the errors table
-            // first set the exception on the event if not a field normalization error in which case the fields contain the errors
-            if (!(e instanceof FieldNormalizationError)) {
-                value.setAuxData(e);
-            }
-            for (DataTypeHandler<K1> handler : loadDataType(TypeRegistry.ERROR_PREFIX, context)) {
-                if (log.isTraceEnabled())
-                    log.trace("executing handler: " + handler.getClass().getName());
-                try {
-                    executeHandler(key, value, fields, handler, context);
-                    context.progress();
-                } catch (Exception e2) {
-                    // This is a real bummer, we had a critical exception attempting to throw the event into the error table.
-                    // lets terminate this job
-                    log.error("Failed to process error data handlers for an event", e2);
-                    throw new IOException("Failed to process error data handlers for an event", e2);
-                }
-            }
-            
-            // now create some counters
-            getCounter(context, IngestProcess.RUNTIME_EXCEPTION).increment(1);
-            List<String> exceptions = getExceptionSynopsis(e);
-            for (String exception : exceptions) {
-                getCounter(context, IngestProcess.RUNTIME_EXCEPTION.name(), exception).increment(1);
-            }
+            handleEventError(key, value, fields, e, context);
         } finally {
             // Remove ORIG_FILE from NDC that was populated by reprocessing events from the error tables
             if (reprocessedNDCPush) {
@@ -560,6 +615,160 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         }
     }
     
+    /**
+     * Queue an event to be processed on a worker thread, and then write out the events that are done. This waits for events to be done when too many are
+     * pending.
+     */
+    private void submitEvent(K1 key, V1 value, List<String> handlerTypes, Context context) throws IOException, InterruptedException {
+        // the record reader may reuse the key and value, and the NDC holds the file name for the event
+        final K1 eventKey = copyKey(key);
+        final RawRecordContainer event = value.copy();
+        final long eventOffset = offset;
+        final Stack<?> ndc = NDC.cloneStack();
+        Callable<ProcessedEvent> task = () -> processOnWorker(eventKey, event, handlerTypes, eventOffset, ndc);
+        // only the unordered output takes the events from the completion service as they are done
+        pendingEvents.addLast(orderedOutput ? eventWorkers.submit(task) : processedEvents.submit(task));
+        
+        writeProcessedEvents(context, maxPendingEvents);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private K1 copyKey(K1 key) {
+        if (key instanceof Writable) {
+            return (K1) WritableUtils.clone((Writable) key, workerConf);
+        }
+        return key;
+    }
+    
+    /**
+     * Process an event on a worker thread with the handlers for that thread, buffering the keys and values created for it
+     */
+    @SuppressWarnings("rawtypes")
+    private ProcessedEvent processOnWorker(K1 key, RawRecordContainer value, List<String> handlerTypes, long eventOffset, Stack ndc) {
+        EventWorker worker = currentWorker.get();
+        if (worker == null) {
+            // ingest helpers are not thread safe, so the handlers of this worker get helpers of their own
+            Type.useThreadIngestHelpers();
+            worker = new EventWorker();
+            workers.add(worker);
+            currentWorker.set(worker);
+        }
+        NDC.inherit(ndc);
+        ProcessedEvent event = new ProcessedEvent(key, value);
+        try {
+            List<DataTypeHandler<K1>> handlers = new ArrayList<>();
+            for (String typeStr : handlerTypes) {
+                handlers.addAll(worker.getHandlers(typeStr));
+            }
+            processEvent(key, value, handlers, event.fields, worker.context, worker.writer, worker.validators, eventOffset);
+            event.output = worker.writer.take();
+        } catch (Exception e) {
+            worker.writer.rollback();
+            event.error = e;
+        } finally {
+            NDC.clear();
+        }
+        return event;
+    }
+    
+    /**
+     * Write out the events processed on the worker threads that are done, in the order they were read when the output is ordered, waiting for events until no
+     * more than maxPending are left
+     */
+    private void writeProcessedEvents(Context context, int maxPending) throws IOException, InterruptedException {
+        while (!pendingEvents.isEmpty()) {
+            Future<ProcessedEvent> next;
+            if (orderedOutput) {
+                if (pendingEvents.size() <= maxPending && !pendingEvents.peekFirst().isDone()) {
+                    break;
+                }
+                next = pendingEvents.removeFirst();
+            } else {
+                next = (pendingEvents.size() > maxPending ? processedEvents.take() : processedEvents.poll());
+                if (next == null) {
+                    break;
+                }
+                pendingEvents.remove(next);
+            }
+            
+            ProcessedEvent event;
+            try {
+                event = next.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to process an event", e.getCause());
+            }
+            writeProcessedEvent(event, context);
+        }
+    }
+    
+    private void writeProcessedEvent(ProcessedEvent event, Context context) throws IOException, InterruptedException {
+        Exception error = event.error;
+        if (error == null) {
+            try {
+                contextWriter.write(event.output, context);
+            } catch (Exception e) {
+                error = e;
+            }
+        }
+        try {
+            if (error != null) {
+                handleEventError(event.key, event.value, event.fields, error, context);
+            }
+        } finally {
+            // cleanup the context writer
+            contextWriter.commit(context);
+            context.progress();
+        }
+        
+        getCounter(context, IngestOutput.EVENTS_PROCESSED.name(), event.value.getDataType().typeName().toUpperCase()).increment(1);
+    }
+    
+    /**
+     * Handle an exception processing an event by rolling back what was written for it and running it through the error handlers instead
+     */
+    private void handleEventError(K1 key, RawRecordContainer value, Multimap<String,NormalizedContentInterface> fields, Exception e, Context context)
+                    throws IOException, InterruptedException {
+        // Rollback anything written for this event
+        contextWriter.rollback();
+        
+        // Fail job on constraint violations
+        if (e instanceof ConstraintChecker.ConstraintViolationException) {
+            throw ((RuntimeException) e);
+        }
+        
+        // ensure they know we are still working on it
+        context.progress();
+        
+        // log error
+        log.error("Runtime exception processing event", e);
+        
+        // now lets dump to the errors table
+        // first set the exception on the event if not a field normalization error in which case the fields contain the errors
+        if (!(e instanceof FieldNormalizationError)) {
+            value.setAuxData(e);
+        }
+        for (DataTypeHandler<K1> handler : loadDataType(TypeRegistry.ERROR_PREFIX, context)) {
+            if (log.isTraceEnabled())
+                log.trace("executing handler: " + handler.getClass().getName());
+            try {
+                executeHandler(key, value, fields, handler, context);
+                context.progress();
+            } catch (Exception e2) {
+                // This is a real bummer, we had a critical exception attempting to throw the event into the error table.
+                // lets terminate this job
+                log.error("Failed to process error data handlers for an event", e2);
+                throw new IOException("Failed to process error data handlers for an event", e2);
+            }
+        }
+        
+        // now create some counters
+        getCounter(context, IngestProcess.RUNTIME_EXCEPTION).increment(1);
+        List<String> exceptions = getExceptionSynopsis(e);
+        for (String exception : exceptions) {
+            getCounter(context, IngestProcess.RUNTIME_EXCEPTION.name(), exception).increment(1);
+        }
+    }
+    
     /**
      * Get an exception synopsis that is suitable as a counter. We want at a minimum the exception name and a useful location. A useful location is defined as
      * the highest location that is in the datawave.ingest package
@@ -613,8 +822,23 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     @Override
     public void cleanup(Context context) throws IOException, InterruptedException {
         
+        // Finish the events being processed on the worker threads
+        List<List<DataTypeHandler<K1>>> allHandlers = new ArrayList<>(typeMap.values());
+        List<StandaloneStatusReporter> reporters = new ArrayList<>();
+        reporters.add(reporter);
+        if (eventWorkers != null) {
+            writeProcessedEvents(context, 0);
+            eventWorkers.shutdown();
+            eventWorkers = null;
+            for (EventWorker worker : workers) {
+                allHandlers.addAll(worker.handlers.values());
+                reporters.add(worker.workerReporter);
+            }
+            workers.clear();
+        }
+        
         // Write the metadata to the output
-        for (List<DataTypeHandler<K1>> handlers : typeMap.values()) {
+        for (List<DataTypeHandler<K1>> handlers : allHandlers) {
             for (DataTypeHandler<K1> h : handlers)
                 if (h.getMetadata() != null) {
                     try {
@@ -633,17 +857,19 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         // cleanup the context writer
         contextWriter.cleanup(context);
         
-        for (List<DataTypeHandler<K1>> handlers : typeMap.values()) {
+        for (List<DataTypeHandler<K1>> handlers : allHandlers) {
             for (DataTypeHandler<K1> h : handlers)
                 h.close(context);
         }
         typeMap.clear();
         
-        // Add the counters from the standalone reporter to this context.
-        Counters counters = reporter.getCounters();
-        for (CounterGroup cg : counters) {
-            for (Counter c : cg) {
-                getCounter(context, cg.getName(), c.getName()).increment(c.getValue());
+        // Add the counters from the standalone reporters to this context.
+        for (StandaloneStatusReporter standaloneReporter : reporters) {
+            Counters counters = standaloneReporter.getCounters();
+            for (CounterGroup cg : counters) {
+                for (Counter c : cg) {
+                    getCounter(context, cg.getName(), c.getName()).increment(c.getValue());
+                }
             }
         }
         
@@ -672,6 +898,12 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
      */
     public void processEvent(K1 key, RawRecordContainer value, List<DataTypeHandler<K1>> handlers, Multimap<String,NormalizedContentInterface> fields,
                     Context context) throws Exception {
+        processEvent(key, value, handlers, fields, context, contextWriter, validators, offset);
+    }
+    
+    private void processEvent(K1 key, RawRecordContainer value, List<DataTypeHandler<K1>> handlers, Multimap<String,NormalizedContentInterface> fields,
+                    TaskInputOutputContext<K1,V1,K2,V2> context, ContextWriter<K2,V2> writer, Multimap<String,FieldValidator> fieldValidators,
+                    long eventOffset) throws Exception {
         IngestHelperInterface previousHelper = null;
         
         for (DataTypeHandler<K1> handler : handlers) {
@@ -696,7 +928,7 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
             if (null == previousHelper || !previousHelper.getClass().getName().equals(thisHelper.getClass().getName())) {
                 fields.clear();
                 Throwable e = null;
-                for (Map.Entry<String,NormalizedContentInterface> entry : getFields(value, handler).entries()) {
+                for (Map.Entry<String,NormalizedContentInterface> entry : getFields(value, handler, eventOffset).entries()) {
                     // noinspection ThrowableResultOfMethodCallIgnored
                     if (entry.getValue().getError() != null) {
                         e = entry.getValue().getError();
@@ -719,17 +951,58 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
                 previousHelper = thisHelper;
             }
             
-            Collection<FieldValidator> fieldValidators = validators.get(value.getDataType().outputName());
-            for (FieldValidator validator : fieldValidators) {
+            for (FieldValidator validator : fieldValidators.get(value.getDataType().outputName())) {
                 validator.validate(value, fields);
             }
             
-            executeHandler(key, value, fields, handler, context);
+            executeHandler(key, value, fields, handler, context, writer);
             
             context.progress();
         }
     }
     
+    /**
+     * An event processed on a worker thread, with the keys and values created for it or the exception that stopped it
+     */
+    private class ProcessedEvent {
+        private final K1 key;
+        private final RawRecordContainer value;
+        private final Multimap<String,NormalizedContentInterface> fields = HashMultimap.create();
+        private Multimap<BulkIngestKey,Value> output = null;
+        private Exception error = null;
+        
+        private ProcessedEvent(K1 key, RawRecordContainer value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+    
+    /**
+     * The handlers, validators, counters and buffered output of one worker thread
+     */
+    private class EventWorker {
+        private final StandaloneStatusReporter workerReporter = new StandaloneStatusReporter();
+        private final StandaloneTaskAttemptContext<K1,V1,K2,V2> context = new StandaloneTaskAttemptContext<>(workerConf, workerTaskAttemptID, workerReporter);
+        private final BufferingContextWriter<K2,V2> writer = new BufferingContextWriter<>();
+        private final Map<String,List<DataTypeHandler<K1>>> handlers = new HashMap<>();
+        private final Multimap<String,FieldValidator> validators = ArrayListMultimap.create();
+        
+        private List<DataTypeHandler<K1>> getHandlers(String typeStr) {
+            List<DataTypeHandler<K1>> typeHandlers = handlers.get(typeStr);
+            if (typeHandlers == null) {
+                if (TypeRegistry.getTypeNames().contains(typeStr)) {
+                    Type t = TypeRegistry.getType(typeStr);
+                    createValidators(typeStr, t, workerConf, validators);
+                    typeHandlers = createHandlers(t, workerConf, workerTaskAttemptID, workerReporter);
+                } else {
+                    typeHandlers = Collections.emptyList();
+                }
+                handlers.put(typeStr, typeHandlers);
+            }
+            return typeHandlers;
+        }
+    }
+    
     private static class FieldNormalizationError extends Exception {
         private static final long serialVersionUID = 1L;
         
@@ -739,6 +1012,10 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
     }
     
     public Multimap<String,NormalizedContentInterface> getFields(RawRecordContainer value, DataTypeHandler<K1> handler) throws Exception {
+        return getFields(value, handler, offset);
+    }
+    
+    private Multimap<String,NormalizedContentInterface> getFields(RawRecordContainer value, DataTypeHandler<K1> handler, long eventOffset) throws Exception {
         Multimap<String,NormalizedContentInterface> newFields;
         // Parse the event into its field names and field values using the DataTypeHandler's BaseIngestHelper object.
         newFields = handler.getHelper(value.getDataType()).getEventFields(value);
@@ -766,7 +1043,7 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         long loadDate = now.get();
         NormalizedFieldAndValue loadDateValue = new NormalizedFieldAndValue(LOAD_DATE_FIELDNAME, Long.toString(loadDate));
         // set an indexed field value for use by the date index data type handler
-        loadDateValue.setIndexedFieldValue(dateNormalizer.normalizeDelegateType(new Date(loadDate)));
+        loadDateValue.setIndexedFieldValue(dateNormalizer.get().normalizeDelegateType(new Date(loadDate)));
         newFields.put(LOAD_DATE_FIELDNAME, loadDateValue);
         
         String seqFileName = null;
@@ -782,7 +1059,7 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
             if (null != seqFileName) {
                 StringBuilder seqFile = new StringBuilder(seqFileName);
                 
-                seqFile.append(SRC_FILE_DEL).append(offset);
+                seqFile.append(SRC_FILE_DEL).append(eventOffset);
                 
                 if (null != splitStart) {
                     seqFile.append(SRC_FILE_DEL).append(splitStart);
@@ -805,9 +1082,14 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         return newFields;
     }
     
-    @SuppressWarnings("unchecked")
     public void executeHandler(K1 key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, DataTypeHandler<K1> handler,
                     Context context) throws Exception {
+        executeHandler(key, event, fields, handler, context, contextWriter);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void executeHandler(K1 key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields, DataTypeHandler<K1> handler,
+                    TaskInputOutputContext<K1,V1,K2,V2> context, ContextWriter<K2,V2> writer) throws Exception {
         long count = 0;
         
         TraceStopwatch handlerTimer = null;
@@ -829,11 +1111,11 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NullMultiMap").increment(1);
             } else {
-                contextWriter.write(r, context);
+                writer.write(r, context);
                 count = r.size();
             }
         } else {
-            count = ((ExtendedDataTypeHandler<K1,K2,V2>) handler).process(key, event, fields, context, contextWriter);
+            count = ((ExtendedDataTypeHandler<K1,K2,V2>) handler).process(key, event, fields, context, writer);
             if (count == -1) {
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR).increment(1);
                 getCounter(context, IngestInput.EVENT_FATAL_ERROR.name(), "NegOneCount").increment(1);
@@ -859,8 +1141,8 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
             metricsLabels.put("handler", handler.getClass().getName());
             metricsService.collect(Metric.MILLIS_IN_HANDLER, metricsLabels.get(), fields, handlerTime);
             
-            if (contextWriter instanceof KeyValueCountingContextWriter) {
-                ((KeyValueCountingContextWriter) contextWriter).writeMetrics(event, fields, handler);
+            if (writer instanceof KeyValueCountingContextWriter) {
+                ((KeyValueCountingContextWriter) writer).writeMetrics(event, fields, handler);
             }
         }
     }
@@ -5,8 +5,6 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
 
 public class BoundedOffsetQueue<T> implements OffsetQueue<T> {
     private static final long serialVersionUID = 452499360525244451L;
@@ -20,11 +18,30 @@ public class BoundedOffsetQueue<T> implements OffsetQueue<T> {
         }
     }
     
-    // The offsets
-    HashMap<String,List<T>> offsetsMap;
+    /**
+     * The offsets of a term and zone, linked into the bucket of terms that have the same number of offsets
+     */
+    private static class Entry<T> {
+        final TermAndZone termAndZone;
+        final List<T> offsets;
+        Entry<T> prev;
+        Entry<T> next;
+        
+        Entry(TermAndZone termAndZone, List<T> offsets) {
+            this.termAndZone = termAndZone;
+            this.offsets = offsets;
+        }
+    }
     
-    // The priority queue
-    PriorityQueue<String> queue;
+    // The offsets, keyed by the first instance of each term and zone added
+    HashMap<TermAndZone,Entry<T>> offsetsMap;
+    
+    // The heads of the lists of terms, indexed by their number of offsets. Adding an offset moves a term up one bucket, and the overflow is taken from the
+    // lowest non-empty bucket, so neither needs a search through all of the terms.
+    private final ArrayList<Entry<T>> buckets = new ArrayList<>();
+    
+    // No bucket below this one has any terms
+    private int minBucket = 0;
     
     // The max size
     private int maxNumOffsets;
@@ -36,10 +53,31 @@ public class BoundedOffsetQueue<T> implements OffsetQueue<T> {
      * Create a bounded offset queue
      */
     public BoundedOffsetQueue(int maxNumOffsets) {
-        OffsetListComparator comparator = new OffsetListComparator();
         this.maxNumOffsets = maxNumOffsets;
-        this.queue = new PriorityQueue<>(maxNumOffsets / 10, comparator);
-        this.offsetsMap = new HashMap<>(maxNumOffsets / 10);
+        this.offsetsMap = new HashMap<>(Math.max(maxNumOffsets / 10, 16));
+    }
+    
+    /**
+     * Create a bounded offset queue that keeps the offsets of each term in an {@link IntList}
+     * 
+     * @param maxNumOffsets
+     *            the max number of offsets
+     * @return the offset queue
+     */
+    public static BoundedOffsetQueue<Integer> ofIntegers(int maxNumOffsets) {
+        return new BoundedOffsetQueue<Integer>(maxNumOffsets) {
+            @Override
+            protected List<Integer> newOffsetList() {
+                return new IntList();
+            }
+        };
+    }
+    
+    /**
+     * @return a new, empty list for the offsets of a term
+     */
+    protected List<T> newOffsetList() {
+        return new ArrayList<>();
     }
     
     public int size() {
@@ -56,26 +94,24 @@ public class BoundedOffsetQueue<T> implements OffsetQueue<T> {
      * @see datawave.ingest.mapreduce.handler.shard.OffsetQueue#addOffset(datawave.ingest.mapreduce.handler.shard.TermAndZone, T)
      */
     @Override
-    public OffsetList addOffset(TermAndZone termAndZone, T offset) {
-        String key = termAndZone.getToken();
-        queue.remove(key);
-        
-        List<T> offsets = offsetsMap.remove(key);
-        if (null == offsets) {
-            offsets = new ArrayList<>();
+    public OffsetList<T> addOffset(TermAndZone termAndZone, T offset) {
+        Entry<T> entry = offsetsMap.get(termAndZone);
+        if (null == entry) {
+            entry = new Entry<>(termAndZone, newOffsetList());
+            offsetsMap.put(termAndZone, entry);
+        } else {
+            unlink(entry);
         }
-        offsets.add(offset);
-        
-        offsetsMap.put(key, offsets);
-        queue.add(key);
+        entry.offsets.add(offset);
+        link(entry);
         
         numOffsets++;
         if (numOffsets > maxNumOffsets) {
+            Entry<T> smallest = removeSmallest();
             OffsetList<T> list = new OffsetList<>();
-            String token = queue.remove();
-            list.offsets = offsetsMap.remove(token);
+            list.offsets = smallest.offsets;
+            list.termAndZone = smallest.termAndZone;
             numOffsets -= list.offsets.size();
-            list.termAndZone = new TermAndZone(token);
             return list;
         } else {
             return null;
@@ -84,48 +120,94 @@ public class BoundedOffsetQueue<T> implements OffsetQueue<T> {
     
     @Override
     public void clear() {
-        queue.clear();
+        buckets.clear();
         offsetsMap.clear();
+        minBucket = 0;
         numOffsets = 0;
     }
     
     @Override
     public List<T> getOffsets(TermAndZone termAndZone) {
-        return offsetsMap.get(termAndZone.getToken());
+        Entry<T> entry = offsetsMap.get(termAndZone);
+        return (entry == null ? null : entry.offsets);
     }
     
     @Override
     public boolean containsKey(TermAndZone termAndZone) {
-        return offsetsMap.containsKey(termAndZone.getToken());
+        return offsetsMap.containsKey(termAndZone);
     }
     
     @Override
     public Iterable<OffsetList<T>> offsets() {
         return () -> {
-            final Iterator<Map.Entry<String,List<T>>> entries = offsetsMap.entrySet().iterator();
+            final Iterator<Entry<T>> entries = offsetsMap.values().iterator();
             final OffsetList<T> offsets = new OffsetList<>();
             return new Iterator<OffsetList<T>>() {
+                private Entry<T> current = null;
+                
                 @Override
                 public boolean hasNext() {
                     return entries.hasNext();
                 }
                 
                 @Override
-                public OffsetList next() {
-                    Map.Entry<String,List<T>> entry = entries.next();
-                    offsets.offsets = entry.getValue();
-                    offsets.termAndZone = new TermAndZone(entry.getKey());
+                public OffsetList<T> next() {
+                    current = entries.next();
+                    offsets.offsets = current.offsets;
+                    offsets.termAndZone = current.termAndZone;
                     return offsets;
                 }
                 
                 @Override
                 public void remove() {
                     entries.remove();
+                    unlink(current);
+                    numOffsets -= current.offsets.size();
                 }
             };
         };
     }
     
+    private void link(Entry<T> entry) {
+        int bucket = entry.offsets.size();
+        while (buckets.size() <= bucket) {
+            buckets.add(null);
+        }
+        Entry<T> head = buckets.get(bucket);
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        buckets.set(bucket, entry);
+        if (bucket < minBucket) {
+            minBucket = bucket;
+        }
+    }
+    
+    private void unlink(Entry<T> entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            buckets.set(entry.offsets.size(), entry.next);
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+    
+    private Entry<T> removeSmallest() {
+        while (buckets.get(minBucket) == null) {
+            minBucket++;
+        }
+        Entry<T> smallest = buckets.get(minBucket);
+        unlink(smallest);
+        offsetsMap.remove(smallest.termAndZone);
+        return smallest;
+    }
+    
     public class OffsetListComparator implements Comparator<String> {
         @Override
         public int compare(String o1, String o2) {
@@ -133,11 +215,11 @@ public class BoundedOffsetQueue<T> implements OffsetQueue<T> {
         }
         
         private int getSize(String o) {
-            List<T> offsetList = offsetsMap.get(o);
-            if (offsetList == null) {
+            Entry<T> entry = (o.lastIndexOf(':') < 0 ? null : offsetsMap.get(new TermAndZone(o)));
+            if (entry == null) {
                 throw new IllegalArgumentException("Cannot compare a key that has no offsets to be found");
             }
-            return offsetList.size();
+            return entry.offsets.size();
         }
         
     }
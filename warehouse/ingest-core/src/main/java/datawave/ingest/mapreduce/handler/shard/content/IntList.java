@@ -0,0 +1,71 @@
+package datawave.ingest.mapreduce.handler.shard.content;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A growable list of ints backed by an int array, rather than an array of boxed Integers. Used to accumulate the offsets of a term, where a large document
+ * can have many offsets for a single term.
+ */
+public class IntList extends AbstractList<Integer> implements RandomAccess {
+    
+    private int[] values;
+    private int size = 0;
+    
+    public IntList() {
+        this(8);
+    }
+    
+    public IntList(int capacity) {
+        this.values = new int[Math.max(capacity, 1)];
+    }
+    
+    public void addInt(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        modCount++;
+    }
+    
+    public int getInt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+    
+    public int[] toIntArray() {
+        return Arrays.copyOf(values, size);
+    }
+    
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        return true;
+    }
+    
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+    
+    @Override
+    public Integer set(int index, Integer value) {
+        int previous = getInt(index);
+        values[index] = value;
+        return previous;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+}
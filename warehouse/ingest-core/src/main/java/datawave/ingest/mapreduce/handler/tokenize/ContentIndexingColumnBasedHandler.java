@@ -2,6 +2,7 @@ package datawave.ingest.mapreduce.handler.tokenize;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -14,6 +15,7 @@ import datawave.ingest.data.config.NormalizedFieldAndValue;
 import datawave.ingest.data.config.ingest.AbstractContentIngestHelper;
 import datawave.ingest.data.config.ingest.TermFrequencyIngestHelperInterface;
 import datawave.ingest.data.tokenize.DefaultTokenSearch;
+import datawave.ingest.data.tokenize.SynonymCache;
 import datawave.ingest.data.tokenize.TokenSearch;
 import datawave.ingest.data.tokenize.TokenizationHelper;
 import datawave.ingest.data.tokenize.TokenizationHelper.HeartBeatThread;
@@ -97,6 +99,8 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
     
     private TokenSearch searchUtil;
     
+    private SynonymCache synonymCache;
+    
     private TokenSearch searchUtilReverse;
     
     protected ContentIndexCounters counters = null;
@@ -128,12 +132,13 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
         // TODO: refactor explicit DefaultTokenSearch usage here and get class from config
         searchUtil = TokenSearch.Factory.newInstance(DefaultTokenSearch.class.getCanonicalName(), tokenHelper.getStopWords(), false);
         tokenHelper.configureSearchUtil(searchUtil);
+        synonymCache = new SynonymCache(searchUtil, true, SynonymCache.DEFAULT_SIZE);
         
         // TODO: refactor explicit DefaultTokenSearch usage here and get class from config
         searchUtilReverse = TokenSearch.Factory.newInstance(DefaultTokenSearch.class.getCanonicalName(), tokenHelper.getStopWords(), true);
         tokenHelper.configureSearchUtil(searchUtilReverse);
         
-        tokenOffsetCache = new BoundedOffsetQueue<>(tokenHelper.getTokenOffsetCacheMaxSize());
+        tokenOffsetCache = BoundedOffsetQueue.ofIntegers(tokenHelper.getTokenOffsetCacheMaxSize());
         
         // Conditionally create an NGrams factory
         if (this.getBloomFiltersEnabled()) {
@@ -454,7 +459,7 @@ public abstract class ContentIndexingColumnBasedHandler<KEYIN> extends AbstractC
                     if (tokenHelper.isSynonymGenerationEnabled()) {
                         // Get the list of synonyms including the term itself
                         // Zone is empty in this case.
-                        synonyms = searchUtil.getSynonyms(new String[] {token, ""}, typeAtt.type(), true);
+                        synonyms = Arrays.asList(synonymCache.getSynonyms(termAtt.buffer(), termAtt.length(), typeAtt.type()));
                     } else {
                         synonyms = Collections.singletonList(token);
                     }
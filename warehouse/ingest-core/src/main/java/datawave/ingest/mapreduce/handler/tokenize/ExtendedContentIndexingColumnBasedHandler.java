@@ -119,6 +119,14 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
      * base64.dcolumn allows you to turn off base64 gzipped content and store gzipped bytes. If not set, base64 encoding is on by default.
      */
     public static final String OPT_BASE64 = "content.ingest.base64.dcolumn";
+    /**
+     * The number of document mutations to collect before handing them to the document writer, so documents are written in batches rather than one at a time.
+     */
+    public static final String OPT_DOC_BATCH_SIZE = "content.ingest.documents.batch.size";
+    /**
+     * The number of bytes of document content to collect before handing the batch to the document writer, even if it holds fewer mutations than the batch size.
+     */
+    public static final String OPT_DOC_BATCH_BYTES = "content.ingest.documents.batch.bytes";
     
     private static final Logger log = Logger.getLogger(ExtendedContentIndexingColumnBasedHandler.class);
     
@@ -139,6 +147,10 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
     protected boolean disableDCol = false;
     protected ExecutorService docWriterService;
     protected BatchWriter docWriter;
+    protected int docBatchSize = 100;
+    protected long docBatchBytes = 10000000L;
+    protected List<Mutation> docBatch = new ArrayList<>();
+    protected long docBatchSizeBytes = 0;
     
     protected boolean tokenizerTimeWarned = false;
     
@@ -174,6 +186,8 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         }
         
         if (!offlineDocProcessing) {
+            docBatchSize = Math.max(conf.getInt(OPT_DOC_BATCH_SIZE, docBatchSize), 1);
+            docBatchBytes = conf.getLong(OPT_DOC_BATCH_BYTES, docBatchBytes);
             docWriterService = Executors.newSingleThreadExecutor();
             try {
                 AccumuloHelper accumuloHelper = new AccumuloHelper();
@@ -203,7 +217,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         }
         // The tokens offsets queue is a bounded priority queue that will allow us to cache the
         // highest cardinality offsets up to a predetermined max size
-        tokenOffsetCache = new BoundedOffsetQueue<>(tokenHelper.getTokenOffsetCacheMaxSize());
+        tokenOffsetCache = BoundedOffsetQueue.ofIntegers(tokenHelper.getTokenOffsetCacheMaxSize());
         
         stopWords = tokenHelper.getStopWords();
         
@@ -225,6 +239,7 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
         if (!offlineDocProcessing) {
             try {
                 log.info("Attempting to flush document writer.");
+                flushDocBatch();
                 this.docWriterService.shutdown();
                 this.docWriterService.awaitTermination(1, TimeUnit.MINUTES);
                 this.docWriter.close();
@@ -570,16 +585,31 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
                 BulkIngestKey bKey = new BulkIngestKey(new Text(this.getShardTableName()), k);
                 contextWriter.write(bKey, value, context);
             } else {
-                DocWriter dw = new DocWriter();
-                dw.k = k;
-                dw.shardId = shardId;
-                dw.visibility = visibility;
-                dw.value = value;
-                this.docWriterService.execute(dw);
+                Mutation m = new Mutation(new Text(shardId));
+                m.put(k.getColumnFamily(), k.getColumnQualifier(), new ColumnVisibility(visibility), k.getTimestamp(), value);
+                docBatch.add(m);
+                docBatchSizeBytes += value.getSize();
+                if (docBatch.size() >= docBatchSize || docBatchSizeBytes >= docBatchBytes) {
+                    flushDocBatch();
+                }
             }
         }
     }
     
+    /**
+     * Hands the documents collected so far to the document writer
+     */
+    protected void flushDocBatch() {
+        if (!docBatch.isEmpty()) {
+            DocWriter dw = new DocWriter();
+            dw.mutations = docBatch;
+            dw.size = docBatchSizeBytes;
+            this.docWriterService.execute(dw);
+            docBatch = new ArrayList<>();
+            docBatchSizeBytes = 0;
+        }
+    }
+    
     /**
      * Ensures all of the output streams are closed
      * 
@@ -641,18 +671,14 @@ public abstract class ExtendedContentIndexingColumnBasedHandler<KEYIN,KEYOUT,VAL
     }
     
     private class DocWriter implements Runnable {
-        Key k;
-        byte[] shardId;
-        byte[] visibility;
-        Value value;
+        List<Mutation> mutations;
+        long size;
         
         @Override
         public void run() {
-            log.debug("Writing out a document of size " + value.get().length + " bytes.");
-            Mutation m = new Mutation(new Text(shardId));
-            m.put(k.getColumnFamily(), k.getColumnQualifier(), new ColumnVisibility(visibility), k.getTimestamp(), value);
+            log.debug("Writing out " + mutations.size() + " documents of size " + size + " bytes.");
             try {
-                docWriter.addMutation(m);
+                docWriter.addMutations(mutations);
             } catch (MutationsRejectedException e) {
                 log.error("Could not write document payload to Accumulo!", e);
             }
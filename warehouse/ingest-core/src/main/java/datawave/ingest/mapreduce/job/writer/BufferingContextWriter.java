@@ -0,0 +1,68 @@
+package datawave.ingest.mapreduce.job.writer;
+
+import java.io.IOException;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+/**
+ * A context writer that only collects the keys and values written to it, so that they can be handed to the real context writer by another thread. This is used
+ * by the EventMapper to process events on worker threads while the output is still written through the (single threaded) configured context writer. Nothing is
+ * written to the context by this writer, and commit leaves the buffer in place until it is taken.
+ * 
+ * @param <OK>
+ *            The output key
+ * @param <OV>
+ *            The output value
+ */
+public class BufferingContextWriter<OK,OV> implements ContextWriter<OK,OV> {
+    
+    private Multimap<BulkIngestKey,Value> buffer = ArrayListMultimap.create();
+    
+    @Override
+    public void setup(Configuration conf, boolean outputTableCounters) throws IOException, InterruptedException {
+        // nothing to set up
+    }
+    
+    @Override
+    public void write(BulkIngestKey key, Value value, TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        buffer.put(key, value);
+    }
+    
+    @Override
+    public void write(Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        buffer.putAll(entries);
+    }
+    
+    @Override
+    public void commit(TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        // the buffer is kept until it is taken
+    }
+    
+    @Override
+    public void rollback() throws IOException, InterruptedException {
+        buffer = ArrayListMultimap.create();
+    }
+    
+    @Override
+    public void cleanup(TaskInputOutputContext<?,?,OK,OV> context) throws IOException, InterruptedException {
+        rollback();
+    }
+    
+    /**
+     * Take the keys and values written since the last take or rollback
+     * 
+     * @return the buffered keys and values
+     */
+    public Multimap<BulkIngestKey,Value> take() {
+        Multimap<BulkIngestKey,Value> entries = buffer;
+        buffer = ArrayListMultimap.create();
+        return entries;
+    }
+}
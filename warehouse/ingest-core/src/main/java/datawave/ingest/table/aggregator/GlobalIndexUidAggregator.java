@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 public class GlobalIndexUidAggregator extends PropogatingCombiner {
     private static final Logger log = LoggerFactory.getLogger(GlobalIndexUidAggregator.class);
     private static final String TIMESTAMPS_IGNORED = "timestampsIgnored";
+    private static final String SORTED_MERGE = "sortedMerge";
     
     /**
      * Using a set instead of a list so that duplicate UIDs are filtered out of the list. This might happen in the case of rows with masked fields that share a
@@ -62,6 +63,14 @@ public class GlobalIndexUidAggregator extends PropogatingCombiner {
      */
     private boolean timestampsIgnored = true;
     
+    /**
+     * Indicates whether UID lists are combined with a streaming merge of their serialized UIDs, rather than by collecting the UIDs into sets. Only applies when
+     * timestamps are ignored, since otherwise the result depends on the order of the values. See {@link SortedUidListMerger}.
+     */
+    private boolean sortedMerge = false;
+    
+    private final SortedUidListMerger merger = new SortedUidListMerger();
+    
     public GlobalIndexUidAggregator(int max) {
         this.maxUids = max;
     }
@@ -77,6 +86,14 @@ public class GlobalIndexUidAggregator extends PropogatingCombiner {
         return seenIgnore;
     }
     
+    /**
+     * @param sortedMerge
+     *            whether to combine UID lists with a {@link SortedUidListMerger} when timestamps are ignored
+     */
+    protected void setSortedMerge(boolean sortedMerge) {
+        this.sortedMerge = sortedMerge;
+    }
+    
     public Value aggregate() {
         
         Builder builder = Uid.List.newBuilder();
@@ -140,6 +157,9 @@ public class GlobalIndexUidAggregator extends PropogatingCombiner {
     @Override
     public Value reduce(Key key, Iterator<Value> iter) {
         log.trace("has next ? {}", iter.hasNext());
+        if (sortedMerge && timestampsIgnored) {
+            return reduceSorted(key, iter);
+        }
         while (iter.hasNext()) {
             
             Value value = iter.next();
@@ -220,6 +240,40 @@ public class GlobalIndexUidAggregator extends PropogatingCombiner {
         return aggregate();
     }
     
+    /**
+     * Combines UID lists with a {@link SortedUidListMerger}. The UIDs are written in sorted order, and removals take priority over additions as they do in
+     * {@link #reduce(Key, Iterator)} when timestamps are ignored. Once the max number of UIDs is exceeded, the count is estimated from the sizes and counts of
+     * the lists, without regard for duplicates across them.
+     * 
+     * @param key
+     *            the current key
+     * @param iter
+     *            an {@link Iterator} providing the UID lists to be aggregated
+     * @return a new {@link Value} containing the aggregated result
+     */
+    private Value reduceSorted(Key key, Iterator<Value> iter) {
+        merger.reset();
+        while (iter.hasNext()) {
+            if (!merger.add(iter.next().get())) {
+                if (key.isDeleted()) {
+                    log.warn("Value passed to aggregator for a delete key was not of type Uid.List");
+                } else {
+                    log.error("Value passed to aggregator was not of type Uid.List");
+                }
+            }
+        }
+        
+        seenIgnore = !merger.merge(maxUids);
+        count = merger.getCount();
+        if (seenIgnore && !propogate) {
+            count = Math.max(0, count);
+        }
+        
+        log.trace("Merged sorted aggregate. propogate={}, count={}, uids={}, removedUids={}", propogate, count, merger.getUidCount(),
+                        merger.getRemovedUidCount());
+        return new Value(merger.write(count, propogate));
+    }
+    
     /**
      * Remove any UIDs in the REMOVEDUID list.
      * 
@@ -309,6 +363,7 @@ public class GlobalIndexUidAggregator extends PropogatingCombiner {
         seenIgnore = false;
         uids.clear();
         uidsToRemove.clear();
+        merger.reset();
     }
     
     @Override
@@ -330,6 +385,9 @@ public class GlobalIndexUidAggregator extends PropogatingCombiner {
             if (options.containsKey(TIMESTAMPS_IGNORED)) {
                 timestampsIgnored = Boolean.parseBoolean(options.get(TIMESTAMPS_IGNORED));
             }
+            if (options.containsKey(SORTED_MERGE)) {
+                sortedMerge = Boolean.parseBoolean(options.get(SORTED_MERGE));
+            }
         }
         return valid;
     }
@@ -338,6 +396,7 @@ public class GlobalIndexUidAggregator extends PropogatingCombiner {
     public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
         GlobalIndexUidAggregator copy = (GlobalIndexUidAggregator) super.deepCopy(env);
         copy.timestampsIgnored = timestampsIgnored;
+        copy.sortedMerge = sortedMerge;
         copy.propogate = propogate;
         // Not copying other fields that are all cleared in the reset() method.
         return copy;
@@ -349,9 +408,16 @@ public class GlobalIndexUidAggregator extends PropogatingCombiner {
         if (options.containsKey(TIMESTAMPS_IGNORED)) {
             timestampsIgnored = Boolean.parseBoolean(options.get(TIMESTAMPS_IGNORED));
         }
+        if (options.containsKey(SORTED_MERGE)) {
+            sortedMerge = Boolean.parseBoolean(options.get(SORTED_MERGE));
+        }
     }
     
     public static void setTimestampsIgnoredOpt(IteratorSetting is, boolean timestampsIgnored) {
         is.addOption(TIMESTAMPS_IGNORED, Boolean.toString(timestampsIgnored));
     }
+    
+    public static void setSortedMergeOpt(IteratorSetting is, boolean sortedMerge) {
+        is.addOption(SORTED_MERGE, Boolean.toString(sortedMerge));
+    }
 }
@@ -0,0 +1,21 @@
+package datawave.ingest.table.aggregator;
+
+/**
+ * An extension of {@link GlobalIndexUidAggregator} that combines Uid.List protobufs with a streaming, sorted merge of their serialized UIDs instead of
+ * collecting the UIDs into sets. The UIDs of the combined protobufs are kept in sorted order. This is the same as setting the sortedMerge option, for when the
+ * aggregator is configured through an iterator that does not pass options on to it.
+ * 
+ * @see SortedUidListMerger
+ */
+public class SortedMergeUidAggregator extends GlobalIndexUidAggregator {
+    
+    public SortedMergeUidAggregator(int max) {
+        super(max);
+        setSortedMerge(true);
+    }
+    
+    public SortedMergeUidAggregator() {
+        super();
+        setSortedMerge(true);
+    }
+}
@@ -0,0 +1,432 @@
+package datawave.ingest.table.aggregator;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+/**
+ * Merges serialized {@link datawave.ingest.protobuf.Uid.List} protocol buffers without parsing their UIDs into Strings. The UIDs of each list are recorded as
+ * slices of its serialized bytes, and the lists are combined with a k-way merge that keeps the UIDs in sorted, de-duplicated order, comparing the UTF-8 bytes
+ * of the UIDs directly. Lists written by this class are already sorted; any other list is sorted when it is added.
+ * <p>
+ * Removals take priority over additions, regardless of the order in which the lists are added, which matches the aggregation semantics when timestamps are
+ * ignored. The merge stops as soon as the number of UIDs (or removals) reaches the max, at which point only an estimated count is kept.
+ * <p>
+ * The merger is reused between keys, and is not thread safe.
+ */
+class SortedUidListMerger {
+    
+    private static final int IGNORE_FIELD = 1;
+    private static final int COUNT_FIELD = 2;
+    private static final int UID_FIELD = 3;
+    private static final int REMOVEDUID_FIELD = 4;
+    
+    /**
+     * The UIDs of all of the lists, as slices of the serialized lists. The slices of list i are at [from[i], from[i + 1]).
+     */
+    private static class Slices {
+        int[] list = new int[64];
+        int[] pos = new int[64];
+        int[] len = new int[64];
+        int size = 0;
+        
+        int[] from = new int[17];
+        
+        // the merge state
+        int[] cursor = new int[16];
+        int[] heap = new int[16];
+        int heapSize = 0;
+        int last = -1;
+        
+        void add(int listIndex, int position, int length) {
+            if (size == pos.length) {
+                list = Arrays.copyOf(list, size * 2);
+                pos = Arrays.copyOf(pos, size * 2);
+                len = Arrays.copyOf(len, size * 2);
+            }
+            list[size] = listIndex;
+            pos[size] = position;
+            len[size] = length;
+            size++;
+        }
+        
+        int count(int listIndex) {
+            return from[listIndex + 1] - from[listIndex];
+        }
+        
+        void clear() {
+            size = 0;
+            heapSize = 0;
+            last = -1;
+        }
+    }
+    
+    private byte[][] lists = new byte[16][];
+    private boolean[] ignore = new boolean[16];
+    private long[] counts = new long[16];
+    private int numLists = 0;
+    
+    private final Slices uids = new Slices();
+    private final Slices removedUids = new Slices();
+    
+    // the result of the merge, as indices into the slices
+    private int[] mergedUids = new int[16];
+    private int numMergedUids = 0;
+    private int[] mergedRemovedUids = new int[16];
+    private int numMergedRemovedUids = 0;
+    
+    private boolean countOnly = false;
+    private long count = 0;
+    
+    public void reset() {
+        Arrays.fill(lists, 0, numLists, null);
+        numLists = 0;
+        uids.clear();
+        removedUids.clear();
+        numMergedUids = 0;
+        numMergedRemovedUids = 0;
+        countOnly = false;
+        count = 0;
+    }
+    
+    /**
+     * Add a serialized UID list to be merged
+     * 
+     * @param value
+     *            the serialized list, which must not be modified until the merger is reset
+     * @return false if the value is not a UID list, in which case it is ignored
+     */
+    public boolean add(byte[] value) {
+        ensureListCapacity(numLists + 1);
+        int listIndex = numLists;
+        boolean seenIgnoreField = false;
+        boolean seenCountField = false;
+        try {
+            CodedInputStream in = CodedInputStream.newInstance(value);
+            int tag;
+            while ((tag = in.readTag()) != 0) {
+                switch (WireFormat.getTagFieldNumber(tag)) {
+                    case IGNORE_FIELD:
+                        ignore[listIndex] = in.readBool();
+                        seenIgnoreField = true;
+                        break;
+                    case COUNT_FIELD:
+                        counts[listIndex] = in.readUInt64();
+                        seenCountField = true;
+                        break;
+                    case UID_FIELD:
+                        addSlice(uids, in, listIndex);
+                        break;
+                    case REMOVEDUID_FIELD:
+                        addSlice(removedUids, in, listIndex);
+                        break;
+                    default:
+                        in.skipField(tag);
+                }
+            }
+        } catch (IOException e) {
+            seenIgnoreField = false;
+        }
+        
+        if (!seenIgnoreField || !seenCountField) {
+            // drop whatever was read from the value
+            uids.size = uids.from[listIndex];
+            removedUids.size = removedUids.from[listIndex];
+            return false;
+        }
+        
+        lists[listIndex] = value;
+        numLists++;
+        uids.from[numLists] = uids.size;
+        removedUids.from[numLists] = removedUids.size;
+        return true;
+    }
+    
+    /**
+     * Merge the lists that have been added
+     * 
+     * @param maxUids
+     *            the max number of UIDs to keep
+     * @return true if the UIDs were merged, or false if the max was exceeded (or a list was count only), in which case only the estimated count is available
+     */
+    public boolean merge(int maxUids) {
+        for (int i = 0; i < numLists; i++) {
+            if (ignore[i]) {
+                return enterCountOnlyMode();
+            }
+        }
+        
+        // removals take priority, so find them all first
+        start(removedUids);
+        int removed;
+        while ((removed = nextDistinct(removedUids)) >= 0) {
+            mergedRemovedUids = append(mergedRemovedUids, numMergedRemovedUids++, removed);
+            if (numMergedRemovedUids >= maxUids) {
+                return enterCountOnlyMode();
+            }
+        }
+        
+        start(uids);
+        int r = 0;
+        int uid;
+        while ((uid = nextDistinct(uids)) >= 0) {
+            // both are sorted, so walk the removals alongside the UIDs
+            int cmp = 1;
+            while (r < numMergedRemovedUids && (cmp = compare(removedUids, mergedRemovedUids[r], uids, uid)) < 0) {
+                r++;
+            }
+            if (r < numMergedRemovedUids && cmp == 0) {
+                continue;
+            }
+            mergedUids = append(mergedUids, numMergedUids++, uid);
+            if (numMergedUids > maxUids) {
+                return enterCountOnlyMode();
+            }
+        }
+        
+        count = numMergedUids;
+        return true;
+    }
+    
+    /**
+     * @return true if the merge exceeded the max, and only the estimated count is available
+     */
+    public boolean isCountOnly() {
+        return countOnly;
+    }
+    
+    /**
+     * @return the number of UIDs after the merge, or the estimated count if count only
+     */
+    public long getCount() {
+        return count;
+    }
+    
+    public int getUidCount() {
+        return numMergedUids;
+    }
+    
+    public int getRemovedUidCount() {
+        return numMergedRemovedUids;
+    }
+    
+    /**
+     * Serialize the merged list, copying the bytes of the UIDs directly from the lists they came from
+     * 
+     * @param count
+     *            the count to write
+     * @param includeRemovedUids
+     *            whether to write the removed UIDs
+     * @return the serialized {@link datawave.ingest.protobuf.Uid.List}
+     */
+    public byte[] write(long count, boolean includeRemovedUids) {
+        int numUids = (countOnly ? 0 : numMergedUids);
+        int numRemovedUids = (countOnly || !includeRemovedUids ? 0 : numMergedRemovedUids);
+        
+        int size = CodedOutputStream.computeBoolSize(IGNORE_FIELD, countOnly) + CodedOutputStream.computeUInt64Size(COUNT_FIELD, count);
+        for (int i = 0; i < numUids; i++) {
+            size += computeSliceSize(UID_FIELD, uids.len[mergedUids[i]]);
+        }
+        for (int i = 0; i < numRemovedUids; i++) {
+            size += computeSliceSize(REMOVEDUID_FIELD, removedUids.len[mergedRemovedUids[i]]);
+        }
+        
+        byte[] result = new byte[size];
+        CodedOutputStream out = CodedOutputStream.newInstance(result);
+        try {
+            out.writeBool(IGNORE_FIELD, countOnly);
+            out.writeUInt64(COUNT_FIELD, count);
+            for (int i = 0; i < numUids; i++) {
+                writeSlice(out, UID_FIELD, uids, mergedUids[i]);
+            }
+            for (int i = 0; i < numRemovedUids; i++) {
+                writeSlice(out, REMOVEDUID_FIELD, removedUids, mergedRemovedUids[i]);
+            }
+            out.checkNoSpaceLeft();
+        } catch (IOException e) {
+            // cannot happen when writing to an array of the computed size
+            throw new IllegalStateException("Failed to write the merged UID list", e);
+        }
+        return result;
+    }
+    
+    /**
+     * Once the max is exceeded, the UIDs are no longer tracked by name. Lists that are count only contribute their count, and other lists contribute their
+     * additions less their removals.
+     */
+    private boolean enterCountOnlyMode() {
+        countOnly = true;
+        count = 0;
+        for (int i = 0; i < numLists; i++) {
+            count += (ignore[i] ? counts[i] : uids.count(i) - removedUids.count(i));
+        }
+        numMergedUids = 0;
+        numMergedRemovedUids = 0;
+        return false;
+    }
+    
+    private void addSlice(Slices slices, CodedInputStream in, int listIndex) throws IOException {
+        int length = in.readRawVarint32();
+        slices.add(listIndex, in.getTotalBytesRead(), length);
+        in.skipRawBytes(length);
+    }
+    
+    private static int computeSliceSize(int field, int length) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeRawVarint32Size(length) + length;
+    }
+    
+    private void writeSlice(CodedOutputStream out, int field, Slices slices, int slice) throws IOException {
+        out.writeTag(field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        out.writeRawVarint32(slices.len[slice]);
+        out.writeRawBytes(lists[slices.list[slice]], slices.pos[slice], slices.len[slice]);
+    }
+    
+    /**
+     * Sort the slices of each list that is not already sorted, and build the heap of lists for the merge
+     */
+    private void start(Slices slices) {
+        if (slices.cursor.length < numLists) {
+            slices.cursor = new int[lists.length];
+            slices.heap = new int[lists.length];
+        }
+        slices.heapSize = 0;
+        slices.last = -1;
+        for (int i = 0; i < numLists; i++) {
+            int from = slices.from[i];
+            int to = slices.from[i + 1];
+            if (from == to) {
+                continue;
+            }
+            if (!isSorted(slices, from, to)) {
+                sort(slices, from, to);
+            }
+            slices.cursor[i] = from;
+            slices.heap[slices.heapSize] = i;
+            siftUp(slices, slices.heapSize++);
+        }
+    }
+    
+    /**
+     * @return the index of the next smallest slice that is not equal to the previous one, or -1 when all of the lists have been merged
+     */
+    private int nextDistinct(Slices slices) {
+        while (slices.heapSize > 0) {
+            int listIndex = slices.heap[0];
+            int slice = slices.cursor[listIndex]++;
+            if (slices.cursor[listIndex] < slices.from[listIndex + 1]) {
+                siftDown(slices, 0);
+            } else {
+                slices.heap[0] = slices.heap[--slices.heapSize];
+                if (slices.heapSize > 0) {
+                    siftDown(slices, 0);
+                }
+            }
+            if (slices.last < 0 || compare(slices, slices.last, slices, slice) != 0) {
+                slices.last = slice;
+                return slice;
+            }
+        }
+        return -1;
+    }
+    
+    private void siftUp(Slices slices, int index) {
+        int[] heap = slices.heap;
+        int listIndex = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(slices, slices.cursor[heap[parent]], slices, slices.cursor[listIndex]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = listIndex;
+    }
+    
+    private void siftDown(Slices slices, int index) {
+        int[] heap = slices.heap;
+        int listIndex = heap[index];
+        int half = slices.heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < slices.heapSize && compare(slices, slices.cursor[heap[right]], slices, slices.cursor[heap[child]]) < 0) {
+                child = right;
+            }
+            if (compare(slices, slices.cursor[listIndex], slices, slices.cursor[heap[child]]) <= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = listIndex;
+    }
+    
+    private boolean isSorted(Slices slices, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            if (compare(slices, i - 1, slices, i) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * An insertion sort of the slices of one list. Only lists that were not written by this class need sorting, and those are usually short.
+     */
+    private void sort(Slices slices, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int pos = slices.pos[i];
+            int len = slices.len[i];
+            int j = i - 1;
+            while (j >= from && compare(lists[slices.list[j]], slices.pos[j], slices.len[j], lists[slices.list[i]], pos, len) > 0) {
+                j--;
+            }
+            if (j + 1 < i) {
+                System.arraycopy(slices.pos, j + 1, slices.pos, j + 2, i - j - 1);
+                System.arraycopy(slices.len, j + 1, slices.len, j + 2, i - j - 1);
+                slices.pos[j + 1] = pos;
+                slices.len[j + 1] = len;
+            }
+        }
+    }
+    
+    private int compare(Slices a, int sliceA, Slices b, int sliceB) {
+        return compare(lists[a.list[sliceA]], a.pos[sliceA], a.len[sliceA], lists[b.list[sliceB]], b.pos[sliceB], b.len[sliceB]);
+    }
+    
+    private static int compare(byte[] a, int posA, int lenA, byte[] b, int posB, int lenB) {
+        int len = Math.min(lenA, lenB);
+        for (int i = 0; i < len; i++) {
+            int cmp = (a[posA + i] & 0xff) - (b[posB + i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return lenA - lenB;
+    }
+    
+    private static int[] append(int[] array, int index, int value) {
+        if (index == array.length) {
+            array = Arrays.copyOf(array, index * 2);
+        }
+        array[index] = value;
+        return array;
+    }
+    
+    private void ensureListCapacity(int capacity) {
+        if (capacity > lists.length) {
+            int newLength = Math.max(capacity, lists.length * 2);
+            lists = Arrays.copyOf(lists, newLength);
+            ignore = Arrays.copyOf(ignore, newLength);
+            counts = Arrays.copyOf(counts, newLength);
+        }
+        if (capacity + 1 > uids.from.length) {
+            uids.from = Arrays.copyOf(uids.from, lists.length + 1);
+            removedUids.from = Arrays.copyOf(removedUids.from, lists.length + 1);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
 import datawave.ingest.table.aggregator.CombinerConfiguration;
 import datawave.ingest.table.aggregator.GlobalIndexUidAggregator;
 import datawave.ingest.table.aggregator.KeepCountOnlyUidAggregator;
+import datawave.ingest.table.aggregator.SortedMergeUidAggregator;
 import datawave.ingest.table.balancer.ShardedTableTabletBalancer;
 import datawave.ingest.table.bloomfilter.ShardKeyFunctor;
 import datawave.ingest.table.bloomfilter.ShardIndexKeyFunctor;
@@ -33,6 +34,8 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
     
     public static final String KEEP_COUNT_ONLY_INDEX_ENTRIES = "index.tables.keep.count.only.entries";
     
+    public static final String SORTED_UID_MERGE_INDEX_ENTRIES = "index.tables.sorted.uid.merge";
+    
     public static final String SHARD_TABLE_BALANCER_CONFIG = "shard.table.balancer.class";
     protected String shardTableBalancerClass = SHARDED_TABLET_BALANCER_CLASS;
     
@@ -191,6 +194,18 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
         setPropertyIfNecessary(tableName, Property.TABLE_LOAD_BALANCER.getKey(), shardTableBalancerClass, tops, log);
     }
     
+    /**
+     * @return the class of the aggregator for the UID lists of the index tables. Keeping count only entries takes precedence over the sorted merge.
+     */
+    protected String getUidAggregatorClass() {
+        if (conf.getBoolean(KEEP_COUNT_ONLY_INDEX_ENTRIES, false)) {
+            return KeepCountOnlyUidAggregator.class.getName();
+        } else if (conf.getBoolean(SORTED_UID_MERGE_INDEX_ENTRIES, false)) {
+            return SortedMergeUidAggregator.class.getName();
+        }
+        return GlobalIndexUidAggregator.class.getName();
+    }
+    
     protected void configureGidxTable(TableOperations tops) throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
         // Add the UID aggregator
         for (IteratorScope scope : IteratorScope.values()) {
@@ -198,12 +213,7 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
             setPropertyIfNecessary(tableName, stem, "19,datawave.iterators.TotalAggregatingIterator", tops, log);
             stem += ".opt.";
             
-            String aggClass = GlobalIndexUidAggregator.class.getName();
-            if (conf.getBoolean(KEEP_COUNT_ONLY_INDEX_ENTRIES, false)) {
-                aggClass = KeepCountOnlyUidAggregator.class.getName();
-            }
-            
-            setPropertyIfNecessary(tableName, stem + "*", aggClass, tops, log);
+            setPropertyIfNecessary(tableName, stem + "*", getUidAggregatorClass(), tops, log);
             
             if (markingsSetupIteratorEnabled) {
                 // we want the markings setup iterator init method to be called up front
@@ -227,12 +237,7 @@ public class ShardTableConfigHelper extends AbstractTableConfigHelper {
             setPropertyIfNecessary(tableName, stem, "19,datawave.iterators.TotalAggregatingIterator", tops, log);
             stem += ".opt.";
             
-            String aggClass = GlobalIndexUidAggregator.class.getName();
-            if (conf.getBoolean(KEEP_COUNT_ONLY_INDEX_ENTRIES, false)) {
-                aggClass = KeepCountOnlyUidAggregator.class.getName();
-            }
-            
-            setPropertyIfNecessary(tableName, stem + "*", aggClass, tops, log);
+            setPropertyIfNecessary(tableName, stem + "*", getUidAggregatorClass(), tops, log);
             
             if (markingsSetupIteratorEnabled) {
                 // we want the markings setup iterator init method to be called up front
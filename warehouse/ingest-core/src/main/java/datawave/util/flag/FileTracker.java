@@ -0,0 +1,335 @@
+package datawave.util.flag;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.GlobPattern;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the files matching a glob pattern without listing every directory on every pass. The listing of each directory is kept along with the directory's
+ * modification time, which changes whenever a file is added to, removed from or renamed within the directory, and the directory is only listed again once its
+ * modification time changes. The listings can be saved to a local file so that they survive a restart.
+ * 
+ * A directory is listed a second time the first time its modification time is seen unchanged, so that a change made within the same millisecond as the first
+ * listing is not missed.
+ * 
+ * A directory's modification time does not change when a file within it is appended to or closed, so the length and modification time of a matching file
+ * are those of the last listing of its directory. Input files are expected to be complete when they are moved into the tracked directories; a file that is
+ * written in place is only seen with its new status once its directory is reported as changed.
+ * 
+ * When the tracker is told about changed directories, e.g. by a feed of namespace events sent to the flag maker, the modification times only need to be
+ * polled every {@code pollInterval} passes. Directories reported as changed are always listed again on the next pass.
+ */
+public class FileTracker {
+    
+    private static final Logger log = LoggerFactory.getLogger(FileTracker.class);
+    
+    private static final int FILE_MAGIC = 0x46544b31;
+    private static final int FILE_VERSION = 1;
+    
+    private final FileSystem fs;
+    private final File stateFile;
+    private final int pollInterval;
+    
+    private final Map<Path,Listing> listings = new HashMap<>();
+    private final Set<Path> changed = Collections.synchronizedSet(new HashSet<>());
+    private Set<Path> pending = new HashSet<>();
+    private boolean pollAll = true;
+    private long passes = 0;
+    private boolean modified = false;
+    
+    // counts of the name node calls made, for logging and testing
+    private long statusCalls = 0;
+    private long listCalls = 0;
+    
+    /**
+     * @param fs
+     *            the file system to track
+     * @param stateFile
+     *            local file in which the listings are saved, or null to not save them
+     * @param pollInterval
+     *            the number of passes between polling the modification time of every directory, 0 or less to poll on every pass
+     * @throws IOException
+     *             if the saved listings cannot be read
+     */
+    public FileTracker(FileSystem fs, File stateFile, int pollInterval) throws IOException {
+        this.fs = fs;
+        this.stateFile = stateFile;
+        this.pollInterval = pollInterval;
+        if (stateFile != null && stateFile.exists()) {
+            load();
+        }
+    }
+    
+    /**
+     * Starts a pass over the tracked patterns, picking up any directories reported as changed since the last pass
+     */
+    public void startPass() {
+        pollAll = (pollInterval <= 0 || passes % pollInterval == 0);
+        passes++;
+        synchronized (changed) {
+            pending = new HashSet<>(changed);
+            changed.clear();
+        }
+        statusCalls = 0;
+        listCalls = 0;
+    }
+    
+    /**
+     * Report a directory as changed, so that it is listed again on the next pass. May be called from any thread.
+     * 
+     * @param directory
+     *            the directory that changed
+     */
+    public void markChanged(Path directory) {
+        changed.add(Path.getPathWithoutSchemeAndAuthority(directory));
+    }
+    
+    /**
+     * Equivalent to {@link FileSystem#globStatus(Path)} for the tracked file system
+     * 
+     * @param pathPattern
+     *            the glob pattern
+     * @return the matching files and directories, empty if there are none
+     * @throws IOException
+     *             if the file system cannot be listed
+     */
+    public FileStatus[] globStatus(String pathPattern) throws IOException {
+        String[] components = pathPattern.split("/");
+        
+        // the leading components without any glob characters are the directory to start from
+        int first = 0;
+        while (first < components.length && !isGlob(components[first])) {
+            first++;
+        }
+        if (first == components.length) {
+            // no glob at all
+            try {
+                return new FileStatus[] {fs.getFileStatus(new Path(pathPattern))};
+            } catch (FileNotFoundException e) {
+                return new FileStatus[0];
+            }
+        }
+        
+        String root = String.join("/", Arrays.copyOfRange(components, 0, first));
+        if (root.isEmpty()) {
+            root = (pathPattern.startsWith("/") ? "/" : ".");
+        }
+        List<Path> directories = Collections.singletonList(new Path(root));
+        List<FileStatus> matches = new ArrayList<>();
+        for (int i = first; i < components.length && !directories.isEmpty(); i++) {
+            if (components[i].isEmpty()) {
+                continue;
+            }
+            GlobPattern pattern = new GlobPattern(components[i]);
+            boolean last = (i == components.length - 1);
+            List<Path> next = new ArrayList<>();
+            for (Path directory : directories) {
+                Listing listing = list(directory);
+                for (FileStatus child : listing.children) {
+                    if (pattern.matches(child.getPath().getName())) {
+                        if (last) {
+                            matches.add(child);
+                        } else if (child.isDirectory()) {
+                            next.add(child.getPath());
+                        }
+                    }
+                }
+            }
+            directories = next;
+        }
+        return matches.toArray(new FileStatus[matches.size()]);
+    }
+    
+    /**
+     * Saves the listings to the state file, if one was configured and anything changed
+     * 
+     * @throws IOException
+     *             if the state cannot be written
+     */
+    public void save() throws IOException {
+        if (stateFile == null || !modified) {
+            return;
+        }
+        File tmp = new File(stateFile.getParentFile(), "." + stateFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(listings.size());
+            for (Map.Entry<Path,Listing> entry : listings.entrySet()) {
+                out.writeUTF(entry.getKey().toString());
+                entry.getValue().write(out);
+            }
+        }
+        Files.move(tmp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        modified = false;
+    }
+    
+    public int getTrackedDirectories() {
+        return listings.size();
+    }
+    
+    public long getStatusCalls() {
+        return statusCalls;
+    }
+    
+    public long getListCalls() {
+        return listCalls;
+    }
+    
+    private void load() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                log.warn("Ignoring unrecognized file tracker state in {}", stateFile);
+                return;
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                Path directory = new Path(in.readUTF());
+                listings.put(directory, Listing.read(in, directory));
+            }
+        }
+        log.info("Loaded {} directory listings from {}", listings.size(), stateFile);
+    }
+    
+    private Listing list(Path directory) throws IOException {
+        Path key = Path.getPathWithoutSchemeAndAuthority(directory);
+        Listing listing = listings.get(key);
+        if (listing != null && listing.confirmed && !pollAll && !pending.contains(key)) {
+            return listing;
+        }
+        
+        FileStatus status;
+        try {
+            statusCalls++;
+            status = fs.getFileStatus(directory);
+        } catch (FileNotFoundException e) {
+            if (listings.remove(key) != null) {
+                modified = true;
+            }
+            return Listing.EMPTY;
+        }
+        if (!status.isDirectory()) {
+            return Listing.EMPTY;
+        }
+        
+        if (listing != null && listing.modificationTime == status.getModificationTime() && !pending.contains(key)) {
+            if (listing.confirmed) {
+                return listing;
+            }
+            // list once more in case the directory changed within the same millisecond as the last listing
+            listing.confirmed = true;
+        } else {
+            listing = new Listing(status.getModificationTime());
+        }
+        
+        FileStatus[] previous = listings.containsKey(key) ? listings.get(key).children : new FileStatus[0];
+        listCalls++;
+        try {
+            listing.children = fs.listStatus(directory);
+        } catch (FileNotFoundException e) {
+            listing.children = new FileStatus[0];
+        }
+        listings.put(key, listing);
+        forgetRemovedDirectories(previous, listing.children);
+        modified = true;
+        return listing;
+    }
+    
+    /**
+     * Drops the listings of the subdirectories that are no longer in a directory so that they do not accumulate
+     */
+    private void forgetRemovedDirectories(FileStatus[] previous, FileStatus[] current) {
+        Set<Path> removed = new HashSet<>();
+        for (FileStatus child : previous) {
+            if (child.isDirectory()) {
+                removed.add(Path.getPathWithoutSchemeAndAuthority(child.getPath()));
+            }
+        }
+        for (FileStatus child : current) {
+            removed.remove(Path.getPathWithoutSchemeAndAuthority(child.getPath()));
+        }
+        for (Path directory : removed) {
+            String prefix = directory.toString() + Path.SEPARATOR;
+            listings.keySet().removeIf(p -> p.equals(directory) || p.toString().startsWith(prefix));
+        }
+    }
+    
+    private static boolean isGlob(String component) {
+        for (int i = 0; i < component.length(); i++) {
+            switch (component.charAt(i)) {
+                case '*':
+                case '?':
+                case '[':
+                case '{':
+                case '\\':
+                    return true;
+            }
+        }
+        return false;
+    }
+    
+    private static class Listing {
+        static final Listing EMPTY = new Listing(0);
+        
+        final long modificationTime;
+        boolean confirmed = false;
+        FileStatus[] children = new FileStatus[0];
+        
+        Listing(long modificationTime) {
+            this.modificationTime = modificationTime;
+        }
+        
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(modificationTime);
+            out.writeBoolean(confirmed);
+            out.writeInt(children.length);
+            for (FileStatus child : children) {
+                out.writeUTF(child.getPath().getName());
+                out.writeBoolean(child.isDirectory());
+                out.writeLong(child.getLen());
+                out.writeLong(child.getBlockSize());
+                out.writeShort(child.getReplication());
+                out.writeLong(child.getModificationTime());
+            }
+        }
+        
+        static Listing read(DataInputStream in, Path directory) throws IOException {
+            Listing listing = new Listing(in.readLong());
+            listing.confirmed = in.readBoolean();
+            listing.children = new FileStatus[in.readInt()];
+            for (int i = 0; i < listing.children.length; i++) {
+                Path path = new Path(directory, in.readUTF());
+                boolean isDirectory = in.readBoolean();
+                long length = in.readLong();
+                long blockSize = in.readLong();
+                short replication = in.readShort();
+                long modificationTime = in.readLong();
+                listing.children[i] = new FileStatus(length, isDirectory, replication, blockSize, modificationTime, path);
+            }
+            return listing;
+        }
+    }
+}
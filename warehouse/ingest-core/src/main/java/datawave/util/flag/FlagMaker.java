@@ -77,6 +77,8 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
     private FlagSocket flagSocket;
     private final DecimalFormat df = new DecimalFormat("#0.00");
     private DateUtils util = new DateUtils();
+    // tracks the input directory listings when enabled, see getFileTracker
+    private volatile FileTracker fileTracker;
     
     protected JobConf config;
     
@@ -239,6 +241,11 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
         FileSystem fs = getHadoopFS();
         log.trace("Querying for files on {}", fs.getUri().toString());
         
+        FileTracker tracker = getFileTracker(fs);
+        if (tracker != null) {
+            tracker.startPass();
+        }
+        
         for (FlagDataTypeConfig fc : fmc.getFlagConfigs()) {
             String dataName = fc.getDataName();
             fd.setup(fc);
@@ -256,6 +263,29 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
             }
             
         }
+        
+        if (tracker != null) {
+            log.debug("File tracker made {} status and {} list calls for {} tracked directories", tracker.getStatusCalls(), tracker.getListCalls(),
+                            tracker.getTrackedDirectories());
+            tracker.save();
+        }
+    }
+    
+    /**
+     * Creates the {@link FileTracker} on first use when it is enabled in the configuration.
+     * 
+     * @param fs
+     *            hadoop filesystem
+     * @return the file tracker, or null if the input directories are globbed directly on every cycle
+     * @throws IOException
+     *             if the saved tracker state cannot be read
+     */
+    FileTracker getFileTracker(FileSystem fs) throws IOException {
+        if (fileTracker == null && fmc.isUseFileTracker()) {
+            File stateFile = (fmc.getFileTrackerFile() == null ? null : new File(fmc.getFileTrackerFile()));
+            fileTracker = new FileTracker(fs, stateFile, fmc.getFileTrackerPollInterval());
+        }
+        return fileTracker;
     }
     
     /**
@@ -275,7 +305,7 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
                 if (log.isTraceEnabled()) {
                     log.trace("searching for " + fc.getDataName() + " files in " + folderPattern);
                 }
-                FileStatus[] files = fs.globStatus(new Path(folderPattern));
+                FileStatus[] files = (fileTracker != null ? fileTracker.globStatus(folderPattern) : fs.globStatus(new Path(folderPattern)));
                 if (files == null || files.length == 0) {
                     continue;
                 }
@@ -423,6 +453,9 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
             final AtomicLong latestTime = new AtomicLong(-1);
             
             for (final InputFile e : inFiles) {
+                if (fileTracker != null) {
+                    fileTracker.markChanged(e.getPath().getParent());
+                }
                 // Create directories and move to flagging
                 final FlagEntryMover mover = new FlagEntryMover(directoryCache, fs, e);
                 final Future<InputFile> exec = executor.submit(mover);
@@ -585,6 +618,9 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
             return;
         }
         for (InputFile flagEntry : files) {
+            if (fileTracker != null) {
+                fileTracker.markChanged(flagEntry.getPath().getParent());
+            }
             final SimpleMover mover = new SimpleMover(directoryCache, flagEntry, InputFile.TrackedDir.PATH_DIR, fs);
             final Future<InputFile> exec = executor.submit(mover);
             futures.add(exec);
@@ -632,6 +668,17 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
                 }
             }
         }
+        String[] command = s.trim().split("\\s+", 2);
+        if ("changed".equals(command[0])) {
+            // a directory was changed by something other than the flag maker, e.g. as reported by a namespace event feed
+            FileTracker tracker = fileTracker;
+            if (command.length < 2) {
+                log.warn("Ignoring changed command without a directory: {}", s);
+            } else if (tracker != null) {
+                log.debug("Marking {} as changed", command[1]);
+                tracker.markChanged(new Path(command[1]));
+            }
+        }
         
     }
     
@@ -67,6 +67,12 @@ public class FlagMakerConfig {
     protected long directoryCacheTimeout = (2 * 60 * 60 * 1000);
     // implementation of flagmaker to run
     private String flagMakerClass = FlagMaker.class.getName();
+    // track the listings of the input directories and only list them again when they change
+    private boolean useFileTracker = false;
+    // local file in which to save the tracked listings across restarts, unset to not save them
+    private String fileTrackerFile = null;
+    // number of cycles between polling every tracked directory for changes, 0 to poll on every cycle
+    private int fileTrackerPollInterval = 0;
     
     public FlagDataTypeConfig getDefaultCfg() {
         return defaultCfg;
@@ -212,6 +218,30 @@ public class FlagMakerConfig {
         this.flagMakerClass = flagMakerClass;
     }
     
+    public boolean isUseFileTracker() {
+        return useFileTracker;
+    }
+    
+    public void setUseFileTracker(boolean useFileTracker) {
+        this.useFileTracker = useFileTracker;
+    }
+    
+    public String getFileTrackerFile() {
+        return fileTrackerFile;
+    }
+    
+    public void setFileTrackerFile(String fileTrackerFile) {
+        this.fileTrackerFile = fileTrackerFile;
+    }
+    
+    public int getFileTrackerPollInterval() {
+        return fileTrackerPollInterval;
+    }
+    
+    public void setFileTrackerPollInterval(int fileTrackerPollInterval) {
+        this.fileTrackerPollInterval = fileTrackerPollInterval;
+    }
+    
     /**
      * Gets the list of <code>FlagConfig</code>s
      *
@@ -369,6 +399,9 @@ public class FlagMakerConfig {
         result.append("directoryCacheSize: " + this.getDirectoryCacheSize() + "\n");
         result.append("directoryCacheTimeout: " + this.getDirectoryCacheTimeout() + "\n");
         result.append("flagMakerClass: " + this.getFlagMakerClass() + "\n");
+        result.append("useFileTracker: " + this.isUseFileTracker() + "\n");
+        result.append("fileTrackerFile: " + this.getFileTrackerFile() + "\n");
+        result.append("fileTrackerPollInterval: " + this.getFileTrackerPollInterval() + "\n");
         return result.toString();
     }
 }
@@ -0,0 +1,96 @@
+package datawave.ingest.data.config.ingest;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class CSVTokenizerTest {
+    
+    private static String[] tokenize(CSVTokenizer tokenizer, String record) {
+        tokenizer.tokenize(record.getBytes(StandardCharsets.UTF_8));
+        return tokenizer.getTokenArray();
+    }
+    
+    @Test
+    public void testCSV() {
+        CSVTokenizer tokenizer = CSVTokenizer.getCSVInstance();
+        assertArrayEquals(new String[] {"a", "b", "c"}, tokenize(tokenizer, "a,b,c"));
+        assertArrayEquals(new String[] {"a", null, "c", null}, tokenize(tokenizer, " a , ,c,"));
+        assertArrayEquals(new String[] {null, null}, tokenize(tokenizer, ","));
+        assertArrayEquals(new String[0], tokenize(tokenizer, ""));
+        assertArrayEquals(new String[] {null}, tokenize(tokenizer, "   "));
+        assertArrayEquals(new String[] {"a b", "c\td"}, tokenize(tokenizer, "a b\t,\tc\td "));
+    }
+    
+    @Test
+    public void testQuotes() {
+        CSVTokenizer tokenizer = CSVTokenizer.getCSVInstance();
+        assertArrayEquals(new String[] {"a,b", "c"}, tokenize(tokenizer, "\"a,b\",c"));
+        assertArrayEquals(new String[] {" a \"b\" ", "c"}, tokenize(tokenizer, " \" a \"\"b\"\" \" ,c"));
+        assertArrayEquals(new String[] {null, "x"}, tokenize(tokenizer, "\"\",x"));
+        // quotes that do not start the field are part of the field
+        assertArrayEquals(new String[] {"a\"b", "c\""}, tokenize(tokenizer, "a\"b,c\""));
+        // quoting can start again after it ends
+        assertArrayEquals(new String[] {"a,b c,d"}, tokenize(tokenizer, "\"a,b\" \"c,d\""));
+        // an unterminated quote runs to the end of the record
+        assertArrayEquals(new String[] {"a", "b,c "}, tokenize(tokenizer, "a,\"b,c "));
+    }
+    
+    @Test
+    public void testTSV() {
+        CSVTokenizer tokenizer = CSVTokenizer.getTSVInstance();
+        assertArrayEquals(new String[] {"a,b", null, "c d"}, tokenize(tokenizer, "a,b\t\t c d\r\n"));
+        assertArrayEquals(new String[] {"x\ty", "z"}, tokenize(tokenizer, "\"x\ty\"\tz"));
+    }
+    
+    @Test
+    public void testCustomSeparator() {
+        CSVTokenizer tokenizer = new CSVTokenizer("||");
+        // no quoting or trimming
+        assertArrayEquals(new String[] {" a ", "\"b", "c|d\"", null}, tokenize(tokenizer, " a ||\"b||c|d\"||"));
+        assertArrayEquals(new String[] {"a|"}, tokenize(tokenizer, "a|"));
+    }
+    
+    @Test
+    public void testByteValuesWithoutQuote() {
+        // a field starting with 0xFF is not quoted when there is no quote character
+        byte[] record = {'a', '|', (byte) 0xFF, 'b', '|', 'c'};
+        assertEquals(3, new CSVTokenizer("|").tokenize(record));
+        assertEquals(3, CSVTokenizer.getCSVInstance().setNoQuote().tokenize(new byte[] {(byte) 0xFF, ',', '"', ',', 'c'}));
+    }
+    
+    @Test
+    public void testNoTrim() {
+        CSVTokenizer tokenizer = CSVTokenizer.getCSVInstance().setTrim(false);
+        assertArrayEquals(new String[] {" a ", " ", "b c "}, tokenize(tokenizer, " a , ,\"b\" c "));
+    }
+    
+    @Test
+    public void testMultiByteCharacters() {
+        CSVTokenizer tokenizer = CSVTokenizer.getCSVInstance();
+        assertArrayEquals(new String[] {"été", "日本", "\"ü\""}, tokenize(tokenizer, "été, 日本 ,\"\"\"ü\"\"\""));
+    }
+    
+    @Test
+    public void testReuse() {
+        CSVTokenizer tokenizer = CSVTokenizer.getCSVInstance();
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            record.append(i).append(',');
+        }
+        assertEquals(101, tokenizer.tokenize(record.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals("99", tokenizer.getString(99));
+        assertEquals(2, tokenizer.tokenize("x,y".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("y", tokenizer.getString(1));
+    }
+    
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testMissingField() {
+        CSVTokenizer tokenizer = CSVTokenizer.getCSVInstance();
+        tokenizer.tokenize("a,b".getBytes(StandardCharsets.UTF_8));
+        tokenizer.getString(2);
+    }
+}
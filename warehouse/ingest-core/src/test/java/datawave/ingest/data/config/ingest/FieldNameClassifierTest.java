@@ -0,0 +1,51 @@
+package datawave.ingest.data.config.ingest;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FieldNameClassifierTest {
+    
+    @Test
+    public void testLiteralPrefix() {
+        Assert.assertEquals("FOO_", FieldNameClassifier.literalPrefix("FOO_*"));
+        Assert.assertEquals("FOO_", FieldNameClassifier.literalPrefix("FOO_*_BAR"));
+        Assert.assertEquals("", FieldNameClassifier.literalPrefix("*_BAR"));
+        Assert.assertEquals("FO", FieldNameClassifier.literalPrefix("FOO+"));
+        Assert.assertEquals("FOO", FieldNameClassifier.literalPrefix("FOO.BAR"));
+        Assert.assertEquals("", FieldNameClassifier.literalPrefix("FOO|BAR"));
+        Assert.assertEquals("FOO", FieldNameClassifier.literalPrefix("FOO"));
+    }
+    
+    @Test
+    public void testMatches() {
+        FieldNameClassifier<String> classifier = new FieldNameClassifier.Builder<String>().add("FOO_*", "a").add("*_BAR", "b").add("FOO_BA+R", "c")
+                        .add("F|G", "d").build();
+        Assert.assertEquals(4, classifier.size());
+        Assert.assertTrue(classifier.matches("FOO_1"));
+        Assert.assertTrue(classifier.matches("BAZ_BAR"));
+        Assert.assertTrue(classifier.matches("G"));
+        Assert.assertFalse(classifier.matches("FOO"));
+        Assert.assertFalse(classifier.matches("BAZ"));
+        Assert.assertFalse(classifier.matches(""));
+        
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), classifier.getMatches("FOO_BAR"));
+        Assert.assertEquals(Collections.singletonList("b"), classifier.getMatches("X_BAR"));
+        Assert.assertEquals(Collections.emptyList(), classifier.getMatches("X_BAZ"));
+        
+        Assert.assertEquals("a", classifier.getFirstMatch("FOO_BAR"));
+        Assert.assertEquals("b", classifier.getFirstMatch("X_BAR"));
+        Assert.assertNull(classifier.getFirstMatch("X"));
+    }
+    
+    @Test
+    public void testEmpty() {
+        FieldNameClassifier<String> classifier = new FieldNameClassifier.Builder<String>().build();
+        Assert.assertTrue(classifier.isEmpty());
+        Assert.assertFalse(classifier.matches("FOO"));
+        Assert.assertTrue(classifier.getMatches("FOO").isEmpty());
+        Assert.assertNull(classifier.getFirstMatch("FOO"));
+    }
+}
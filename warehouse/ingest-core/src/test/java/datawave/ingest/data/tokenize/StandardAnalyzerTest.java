@@ -0,0 +1,53 @@
+package datawave.ingest.data.tokenize;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class StandardAnalyzerTest {
+    
+    private static final String TEXT = "The Café Müller in São Paulo serves crème brûlée to bob@example.com from 192.168.1.1, "
+                    + "and O'Brien's foo_bar file is at /tmp/naïve.txt. ";
+    
+    private static class AccentFoldingAnalyzer extends StandardAnalyzer {
+        AccentFoldingAnalyzer(TokenSearch searchUtil) {
+            super(searchUtil);
+            applyAccentFilter = true;
+        }
+    }
+    
+    private static List<String> tokenize(StandardAnalyzer analyzer, String text) throws IOException {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream("FIELD", text)) {
+            CharTermAttribute termAtt = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(termAtt.toString());
+            }
+            stream.end();
+        }
+        return terms;
+    }
+    
+    @Test
+    public void testAccentsAndSynonyms() throws IOException {
+        StandardAnalyzer analyzer = new AccentFoldingAnalyzer(new DefaultTokenSearch(new CharArraySet(Arrays.asList("the", "a"), true)));
+        List<String> terms = tokenize(analyzer, TEXT);
+        
+        Assert.assertFalse(terms.contains("the"));
+        Assert.assertTrue(terms.contains("cafe"));
+        Assert.assertTrue(terms.contains("muller"));
+        Assert.assertTrue(terms.contains("creme"));
+        Assert.assertFalse(terms.contains("café"));
+        
+        // the same text tokenized again gives the same terms, now that the synonyms are cached
+        Assert.assertEquals(terms, tokenize(analyzer, TEXT));
+    }
+}
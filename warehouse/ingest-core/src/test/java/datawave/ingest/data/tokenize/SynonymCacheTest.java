@@ -0,0 +1,70 @@
+package datawave.ingest.data.tokenize;
+
+import org.apache.lucene.analysis.CharArraySet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SynonymCacheTest {
+    
+    private static final String[][] TERMS = { {"Hello", "<ALPHANUM>"}, {"hello", "<ALPHANUM>"}, {"Café", "<ALPHANUM>"}, {"foo_bar", "<UNDERSCORE>"},
+            {"bob@example.com", "<EMAIL>"}, {"192.168.1.1", "<IP_ADDR>"}, {"O'Brien", "<APOSTROPHE>"}, {"the", "<ALPHANUM>"}};
+    
+    private final TokenSearch searchUtil = new DefaultTokenSearch(new CharArraySet(Arrays.asList("the", "a"), true));
+    
+    private static String[] synonyms(SynonymCache cache, String term, String type) {
+        // pass a buffer larger than the term, as a term attribute would
+        char[] buffer = Arrays.copyOf(term.toCharArray(), term.length() + 10);
+        return cache.getSynonyms(buffer, term.length(), type);
+    }
+    
+    @Test
+    public void testMatchesTokenSearch() {
+        for (boolean includeTerm : new boolean[] {true, false}) {
+            SynonymCache cache = new SynonymCache(searchUtil, includeTerm, 16);
+            // twice, so that the second pass comes from the cache
+            for (int pass = 0; pass < 2; pass++) {
+                for (String[] term : TERMS) {
+                    List<String> expected = new ArrayList<>(searchUtil.getSynonyms(new String[] {term[0], ""}, term[1], includeTerm));
+                    Assert.assertEquals(term[0], expected, Arrays.asList(synonyms(cache, term[0], term[1])));
+                }
+            }
+            Assert.assertTrue(cache.getHits() > 0);
+        }
+    }
+    
+    @Test
+    public void testTypeIsPartOfTheKey() {
+        SynonymCache cache = new SynonymCache(searchUtil, false, 2);
+        String[] asTerm = synonyms(cache, "a.b.c", "<ALPHANUM>");
+        String[] asFile = synonyms(cache, "a.b.c", "<FILE>");
+        Assert.assertEquals(new ArrayList<>(searchUtil.getSynonyms(new String[] {"a.b.c", ""}, "<ALPHANUM>", false)), Arrays.asList(asTerm));
+        Assert.assertEquals(new ArrayList<>(searchUtil.getSynonyms(new String[] {"a.b.c", ""}, "<FILE>", false)), Arrays.asList(asFile));
+        Assert.assertNotEquals(Arrays.asList(asTerm), Arrays.asList(asFile));
+    }
+    
+    @Test
+    public void testRepeatedTermsAreHits() {
+        SynonymCache cache = new SynonymCache(searchUtil, true, SynonymCache.DEFAULT_SIZE);
+        String[] first = synonyms(cache, "Repeated", "<ALPHANUM>");
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(first, synonyms(cache, "Repeated", "<ALPHANUM>"));
+        }
+        Assert.assertEquals(1, cache.getMisses());
+        Assert.assertEquals(10, cache.getHits());
+    }
+    
+    @Test
+    public void testLongTermsAreNotCached() {
+        SynonymCache cache = new SynonymCache(searchUtil, true, SynonymCache.DEFAULT_SIZE);
+        char[] chars = new char[SynonymCache.MAX_TERM_LENGTH + 1];
+        Arrays.fill(chars, 'X');
+        String term = new String(chars);
+        Assert.assertEquals(Arrays.asList(term.toLowerCase()), Arrays.asList(synonyms(cache, term, "<ALPHANUM>")));
+        synonyms(cache, term, "<ALPHANUM>");
+        Assert.assertEquals(0, cache.getHits());
+    }
+}
@@ -28,7 +28,9 @@ import static org.easymock.EasyMock.*;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 public class EventMapperTest {
     
@@ -204,6 +206,32 @@ public class EventMapperTest {
         assertEquals(4, written.size());
     }
     
+    @Test
+    public void shouldProcessEventsOnMultipleThreads() throws IOException, InterruptedException {
+        conf.setInt(EventMapper.EVENT_MAPPER_THREADS, 4);
+        conf.setInt(EventMapper.EVENT_MAPPER_MAX_PENDING, 2);
+        
+        eventMapper.setup(mapContext);
+        for (int i = 0; i < 10; i++) {
+            eventMapper.map(new LongWritable(i), record, mapContext);
+        }
+        eventMapper.map(new LongWritable(10), errorRecord, mapContext);
+        eventMapper.cleanup(mapContext);
+        
+        Multimap<BulkIngestKey,Value> written = TestContextWriter.getWritten();
+        
+        // each event keeps its own offset in the ORIG_FILE
+        Set<String> origFiles = new HashSet<>();
+        for (BulkIngestKey key : written.keySet()) {
+            if (key.getKey().getColumnFamily().toString().equals(EventMapper.SEQUENCE_FILE_FIELDNAME)) {
+                origFiles.add(key.getKey().getColumnQualifier().toString());
+            }
+        }
+        assertEquals(11, origFiles.size());
+        assertNotNull(getFieldEntry(written, "fileExtension"));
+        assertNotNull(getRawFileName(written));
+    }
+    
     private Map.Entry<BulkIngestKey,Value> getMetric(Multimap<BulkIngestKey,Value> written) {
         return getFieldEntry(written, Metric.EVENT_COUNT.toString());
     }
@@ -3,6 +3,12 @@ package datawave.ingest.mapreduce.handler.shard.content;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
 /**
  * 
  */
@@ -79,4 +85,63 @@ public class BoundedOffsetQueueTest {
         Assert.assertTrue("BoundedOffsetQueue.OffsetListComparator failed to correctly order two TermAndZone instances.", (0 < uut.compare(token1, token)));
     }
     
+    @Test
+    public void testOverflowTakesSmallest() {
+        BoundedOffsetQueue<Integer> uut = BoundedOffsetQueue.ofIntegers(10);
+        TermAndZone frequent = new TermAndZone("frequent", "ZONE");
+        TermAndZone rare = new TermAndZone("rare", "ZONE");
+        
+        for (int offset = 0; offset < 8; offset++) {
+            Assert.assertNull(uut.addOffset(frequent, offset));
+        }
+        Assert.assertNull(uut.addOffset(rare, 8));
+        Assert.assertNull(uut.addOffset(rare, 9));
+        Assert.assertEquals(10, uut.size());
+        
+        // an equal term and zone finds the same offsets
+        BoundedOffsetQueue.OffsetList<Integer> overflow = uut.addOffset(new TermAndZone("frequent", "ZONE"), 10);
+        Assert.assertNotNull(overflow);
+        Assert.assertEquals(rare, overflow.termAndZone);
+        Assert.assertEquals(2, overflow.size());
+        Assert.assertEquals(9, uut.size());
+        Assert.assertFalse(uut.containsKey(rare));
+        
+        List<Integer> offsets = uut.getOffsets(frequent);
+        Assert.assertTrue(offsets instanceof IntList);
+        Assert.assertEquals(9, offsets.size());
+        for (int i = 0; i < offsets.size(); i++) {
+            Assert.assertEquals(i < 8 ? i : 10, ((IntList) offsets).getInt(i));
+        }
+    }
+    
+    @Test
+    public void testAllOffsetsAreKept() {
+        BoundedOffsetQueue<Integer> uut = BoundedOffsetQueue.ofIntegers(50);
+        Random random = new Random(42);
+        Map<TermAndZone,List<Integer>> expected = new HashMap<>();
+        Map<TermAndZone,List<Integer>> actual = new HashMap<>();
+        
+        for (int offset = 0; offset < 2000; offset++) {
+            // a skewed distribution, like the terms of a document
+            TermAndZone taz = new TermAndZone("term" + (int) Math.abs(random.nextGaussian() * 20), "ZONE");
+            expected.computeIfAbsent(taz, k -> new ArrayList<>()).add(offset);
+            BoundedOffsetQueue.OffsetList<Integer> overflow = uut.addOffset(taz, offset);
+            Assert.assertTrue(uut.size() <= uut.getCapacity());
+            if (overflow != null) {
+                // the overflow has no more offsets than any term left in the queue
+                for (BoundedOffsetQueue.OffsetList<Integer> remaining : uut.offsets()) {
+                    Assert.assertTrue(overflow.size() <= remaining.size() || remaining.termAndZone.equals(taz));
+                }
+                actual.computeIfAbsent(overflow.termAndZone, k -> new ArrayList<>()).addAll(overflow.offsets);
+            }
+        }
+        for (BoundedOffsetQueue.OffsetList<Integer> remaining : uut.offsets()) {
+            actual.computeIfAbsent(remaining.termAndZone, k -> new ArrayList<>()).addAll(remaining.offsets);
+        }
+        for (List<Integer> offsets : actual.values()) {
+            offsets.sort(null);
+        }
+        Assert.assertEquals(expected, actual);
+    }
+    
 }
@@ -0,0 +1,154 @@
+package datawave.ingest.table.aggregator;
+
+import datawave.ingest.protobuf.Uid;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static datawave.ingest.table.aggregator.UidTestUtils.countOnlyList;
+import static datawave.ingest.table.aggregator.UidTestUtils.removeUidList;
+import static datawave.ingest.table.aggregator.UidTestUtils.uidList;
+import static datawave.ingest.table.aggregator.UidTestUtils.valueToUidList;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SortedMergeUidAggregatorTest {
+    
+    private static final Key KEY = new Key("key");
+    
+    private final SortedMergeUidAggregator agg = new SortedMergeUidAggregator();
+    
+    @Before
+    public void setup() {
+        agg.reset();
+        agg.setPropogate(true);
+    }
+    
+    @Test
+    public void testUidsAreSortedAndDeduplicated() {
+        List<Value> values = asList(uidList("uid3", "uid1"), uidList("uid2", "uid3"), uidList("uid1"));
+        Uid.List result = valueToUidList(agg.reduce(KEY, values.iterator()));
+        
+        assertFalse(result.getIGNORE());
+        assertEquals(3, result.getCOUNT());
+        assertEquals(asList("uid1", "uid2", "uid3"), result.getUIDList());
+        assertTrue(agg.propogateKey());
+    }
+    
+    @Test
+    public void testMatchesSetBasedAggregation() {
+        Random random = new Random(7);
+        GlobalIndexUidAggregator setAgg = new GlobalIndexUidAggregator();
+        for (int trial = 0; trial < 100; trial++) {
+            List<Value> values = new ArrayList<>();
+            for (int i = random.nextInt(8) + 1; i > 0; i--) {
+                String[] uids = new String[random.nextInt(4)];
+                for (int j = 0; j < uids.length; j++) {
+                    uids[j] = "uid" + random.nextInt(15);
+                }
+                values.add(random.nextInt(4) == 0 ? removeUidList(uids) : uidList(uids));
+            }
+            
+            agg.reset();
+            setAgg.reset();
+            Uid.List sorted = valueToUidList(agg.reduce(KEY, values.iterator()));
+            Uid.List expected = valueToUidList(setAgg.reduce(KEY, values.iterator()));
+            
+            assertEquals(expected.getIGNORE(), sorted.getIGNORE());
+            assertEquals(expected.getCOUNT(), sorted.getCOUNT());
+            assertEquals(new HashSet<>(expected.getUIDList()), new HashSet<>(sorted.getUIDList()));
+            assertEquals(new HashSet<>(expected.getREMOVEDUIDList()), new HashSet<>(sorted.getREMOVEDUIDList()));
+            List<String> uids = new ArrayList<>(sorted.getUIDList());
+            uids.sort(null);
+            assertEquals(uids, sorted.getUIDList());
+        }
+    }
+    
+    @Test
+    public void testRemovalTakesPriority() {
+        List<Value> values = asList(uidList("uid1", "uid2"), removeUidList("uid1"), uidList("uid1"));
+        Uid.List result = valueToUidList(agg.reduce(KEY, values.iterator()));
+        
+        assertEquals(asList("uid2"), result.getUIDList());
+        assertEquals(asList("uid1"), result.getREMOVEDUIDList());
+        assertEquals(1, result.getCOUNT());
+    }
+    
+    @Test
+    public void testRemovalsAreDroppedWhenNotPropagating() {
+        agg.setPropogate(false);
+        List<Value> values = asList(uidList("uid1"), removeUidList("uid1"));
+        Uid.List result = valueToUidList(agg.reduce(KEY, values.iterator()));
+        
+        assertEquals(0, result.getCOUNT());
+        assertTrue(result.getUIDList().isEmpty());
+        assertTrue(result.getREMOVEDUIDList().isEmpty());
+        assertFalse(agg.propogateKey());
+    }
+    
+    @Test
+    public void testExceedingMaxIsCountOnly() {
+        List<Value> values = new ArrayList<>();
+        for (int i = 0; i < GlobalIndexUidAggregator.MAX + 10; i++) {
+            values.add(uidList(String.format("uid%03d", i)));
+        }
+        Uid.List result = valueToUidList(agg.reduce(KEY, values.iterator()));
+        
+        assertTrue(result.getIGNORE());
+        assertEquals(GlobalIndexUidAggregator.MAX + 10, result.getCOUNT());
+        assertTrue(result.getUIDList().isEmpty());
+        assertTrue(agg.propogateKey());
+    }
+    
+    @Test
+    public void testEqualsMaxIsNotCountOnly() {
+        List<Value> values = new ArrayList<>();
+        for (int i = 0; i < GlobalIndexUidAggregator.MAX; i++) {
+            // duplicates do not count towards the max
+            values.add(uidList(String.format("uid%03d", i), String.format("uid%03d", i)));
+        }
+        Uid.List result = valueToUidList(agg.reduce(KEY, values.iterator()));
+        
+        assertFalse(result.getIGNORE());
+        assertEquals(GlobalIndexUidAggregator.MAX, result.getCOUNT());
+        assertEquals(GlobalIndexUidAggregator.MAX, result.getUIDCount());
+    }
+    
+    @Test
+    public void testCombineCountAndUidListAndRemoval() {
+        List<Value> values = asList(countOnlyList(100), uidList("uid1", "uid2"), removeUidList("uid3", "uid4", "uid5"));
+        Uid.List result = valueToUidList(agg.reduce(KEY, values.iterator()));
+        
+        assertEquals(99, result.getCOUNT());
+        assertTrue(result.getIGNORE());
+        assertTrue(result.getREMOVEDUIDList().isEmpty());
+        assertTrue(result.getUIDList().isEmpty());
+    }
+    
+    @Test
+    public void testDropKeyWhenCountGoesNegative() {
+        agg.setPropogate(false);
+        List<Value> values = asList(countOnlyList(1), removeUidList("uid1", "uid2"));
+        Uid.List result = valueToUidList(agg.reduce(KEY, values.iterator()));
+        
+        assertEquals(0, result.getCOUNT());
+        assertTrue(result.getIGNORE());
+        assertFalse(agg.propogateKey());
+    }
+    
+    @Test
+    public void testInvalidValuesAreSkipped() {
+        List<Value> values = asList(uidList("uid2"), new Value("not a uid list".getBytes()), uidList("uid1"));
+        Uid.List result = valueToUidList(agg.reduce(KEY, values.iterator()));
+        
+        assertEquals(asList("uid1", "uid2"), result.getUIDList());
+    }
+}
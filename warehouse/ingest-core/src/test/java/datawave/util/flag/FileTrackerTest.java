@@ -0,0 +1,159 @@
+package datawave.util.flag;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileTrackerTest {
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private FileSystem fs;
+    private File base;
+    private File day;
+    private String pattern;
+    
+    @Before
+    public void setUp() throws Exception {
+        fs = FileSystem.getLocal(new Configuration());
+        base = temporaryFolder.newFolder("base");
+        day = new File(base, "2018/01/01");
+        assertTrue(day.mkdirs());
+        createFile(day, "a");
+        createFile(day, "b");
+        pattern = base.getAbsolutePath() + "/2*/*/*/*";
+    }
+    
+    private void createFile(File dir, String name) throws IOException {
+        assertTrue(new File(dir, name).createNewFile());
+        // make sure the change is visible even if the file system only keeps the modification time to the second
+        assertTrue(dir.setLastModified(dir.lastModified() + 2000));
+    }
+    
+    private Set<String> pass(FileTracker tracker) throws IOException {
+        tracker.startPass();
+        Set<String> names = new TreeSet<>();
+        for (FileStatus status : tracker.globStatus(pattern)) {
+            names.add(status.getPath().getName());
+        }
+        return names;
+    }
+    
+    @Test
+    public void testUnchangedDirectoriesAreNotListed() throws Exception {
+        FileTracker tracker = new FileTracker(fs, null, 0);
+        assertEquals(new TreeSet<>(Arrays.asList("a", "b")), pass(tracker));
+        assertEquals(4, tracker.getListCalls());
+        
+        // listed once more to confirm, then only the modification times are checked
+        assertEquals(new TreeSet<>(Arrays.asList("a", "b")), pass(tracker));
+        assertEquals(4, tracker.getListCalls());
+        assertEquals(new TreeSet<>(Arrays.asList("a", "b")), pass(tracker));
+        // only the four directories, the files are not fetched one by one
+        assertEquals(4, tracker.getStatusCalls());
+        assertEquals(0, tracker.getListCalls());
+        
+        createFile(day, "c");
+        assertEquals(new TreeSet<>(Arrays.asList("a", "b", "c")), pass(tracker));
+        assertEquals(1, tracker.getListCalls());
+    }
+    
+    @Test
+    public void testRemovedDirectory() throws Exception {
+        FileTracker tracker = new FileTracker(fs, null, 0);
+        assertEquals(2, pass(tracker).size());
+        
+        assertTrue(new File(day, "a").delete());
+        assertTrue(new File(day, "b").delete());
+        assertTrue(day.delete());
+        assertTrue(day.getParentFile().setLastModified(day.getParentFile().lastModified() + 2000));
+        assertTrue(pass(tracker).isEmpty());
+        assertEquals(3, tracker.getTrackedDirectories());
+    }
+    
+    @Test
+    public void testChangedDirectoriesBetweenPolls() throws Exception {
+        FileTracker tracker = new FileTracker(fs, null, 10);
+        assertEquals(2, pass(tracker).size());
+        assertEquals(2, pass(tracker).size());
+        
+        // the directories are trusted until the next poll unless they are marked as changed
+        createFile(day, "c");
+        assertEquals(2, pass(tracker).size());
+        assertEquals(0, tracker.getStatusCalls());
+        
+        tracker.markChanged(new Path(day.getAbsolutePath()));
+        assertEquals(3, pass(tracker).size());
+        assertEquals(1, tracker.getListCalls());
+    }
+    
+    @Test
+    public void testAppendedFileIsSeenOnceItsDirectoryIsChanged() throws Exception {
+        FileTracker tracker = new FileTracker(fs, null, 0);
+        pass(tracker);
+        pass(tracker);
+        
+        // appending to a file does not change the modification time of its directory
+        long dayModified = day.lastModified();
+        File a = new File(day, "a");
+        try (FileOutputStream out = new FileOutputStream(a, true)) {
+            out.write(new byte[10]);
+        }
+        assertTrue(a.setLastModified(a.lastModified() + 2000));
+        assertTrue(day.setLastModified(dayModified));
+        
+        tracker.startPass();
+        assertEquals(0, length(tracker.globStatus(pattern), "a"));
+        assertEquals(0, tracker.getListCalls());
+        
+        tracker.markChanged(new Path(day.getAbsolutePath()));
+        tracker.startPass();
+        FileStatus[] files = tracker.globStatus(pattern);
+        assertEquals(1, tracker.getListCalls());
+        assertEquals(10, length(files, "a"));
+        assertEquals(0, length(files, "b"));
+    }
+    
+    private long length(FileStatus[] files, String name) {
+        for (FileStatus status : files) {
+            if (status.getPath().getName().equals(name)) {
+                return status.getLen();
+            }
+        }
+        throw new AssertionError(name + " not found");
+    }
+    
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File stateFile = new File(temporaryFolder.getRoot(), "tracker.state");
+        FileTracker tracker = new FileTracker(fs, stateFile, 0);
+        pass(tracker);
+        pass(tracker);
+        tracker.save();
+        assertTrue(stateFile.exists());
+        
+        FileTracker loaded = new FileTracker(fs, stateFile, 0);
+        assertEquals(4, loaded.getTrackedDirectories());
+        assertEquals(new TreeSet<>(Arrays.asList("a", "b")), pass(loaded));
+        assertEquals(0, loaded.getListCalls());
+        
+        createFile(day, "c");
+        assertEquals(new TreeSet<>(Arrays.asList("a", "b", "c")), pass(loaded));
+    }
+}
@@ -8,15 +8,15 @@ import datawave.ingest.data.config.CSVHelper;
 import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.NormalizedFieldAndValue;
 import datawave.ingest.data.config.ingest.CSVIngestHelper;
+import datawave.ingest.data.config.ingest.CSVTokenizer;
 import datawave.ingest.data.config.ingest.EventFieldNormalizerHelper;
 import datawave.ingest.data.normalizer.SimpleGroupFieldNameParser;
 import datawave.ingest.metadata.id.MetadataIdParser;
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang.text.StrMatcher;
-import org.apache.commons.lang.text.StrTokenizer;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -131,33 +131,28 @@ public class ExtendedCSVIngestHelper extends CSVIngestHelper {
     }
     
     @Override
-    protected StrTokenizer configureTokenizer(StrTokenizer tokenizer) {
-        // Remove the trim matcher, trim in preProcessRawData instead so
+    protected CSVTokenizer configureTokenizer(CSVTokenizer tokenizer) {
+        // Remove the trimming, trim in preProcessRawData instead so
         // we don't lost any trailing whitespace on the last metadata pair
         // on the record
-        return tokenizer.setTrimmerMatcher(StrMatcher.noneMatcher());
+        return tokenizer.setTrim(false);
     }
     
     @Override
-    protected String preProcessRawData(byte[] data) {
-        String buf = new String(data);
-        
-        // Need to make sure we're operating on chars in case
-        // we're manipulating multi-byte characters
-        char[] chars = buf.toCharArray();
-        
-        // Trim all initial whitespace by skipping
+    protected byte[] preProcessRawData(byte[] data) {
+        // Trim all initial whitespace by skipping. The bytes of multi-byte
+        // characters are all above 127, so they are never skipped
         int index = 0;
-        while (index < chars.length && chars[index] <= 32) {
+        while (index < data.length && (data[index] & 0xff) <= 32) {
             index++;
         }
         
-        // If we trimmed the front, return a new String
+        // If we trimmed the front, return the rest of the data
         if (index > 0) {
-            return new String(chars, index, chars.length - index);
+            return Arrays.copyOfRange(data, index, data.length);
         } else {
-            // Otherwise, we don't have to
-            return buf;
+            // Otherwise, we don't have to copy
+            return data;
         }
     }
 }
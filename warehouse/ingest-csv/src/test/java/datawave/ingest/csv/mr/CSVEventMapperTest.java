@@ -0,0 +1,246 @@
+package datawave.ingest.csv.mr;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import datawave.ingest.csv.mr.input.CSVRecordReader;
+import datawave.ingest.data.RawRecordContainer;
+import datawave.ingest.data.Type;
+import datawave.ingest.data.TypeRegistry;
+import datawave.ingest.data.config.NormalizedContentInterface;
+import datawave.ingest.data.config.ingest.IngestHelperInterface;
+import datawave.ingest.mapreduce.EventMapper;
+import datawave.ingest.mapreduce.StandaloneStatusReporter;
+import datawave.ingest.mapreduce.StandaloneTaskAttemptContext;
+import datawave.ingest.mapreduce.handler.DataTypeHandler;
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+import datawave.ingest.mapreduce.job.writer.ContextWriter;
+import datawave.ingest.metadata.RawRecordMetadata;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.hadoop.mapreduce.StatusReporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+import org.apache.hadoop.mapreduce.TaskAttemptID;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.hadoop.mapreduce.lib.input.FileSplit;
+import org.apache.hadoop.mapreduce.task.TaskAttemptContextImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs csv events through the EventMapper on multiple threads, which must not share the csv ingest helper
+ */
+public class CSVEventMapperTest {
+    
+    private static final int EVENTS = 500;
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private Configuration conf;
+    private Mapper.Context mapContext;
+    
+    @Before
+    public void setup() {
+        TypeRegistry.reset();
+        conf = new Configuration();
+        conf.addResource(ClassLoader.getSystemResource("config/ingest/all-config.xml"));
+        conf.addResource(ClassLoader.getSystemResource("config/ingest/csv-ingest-config.xml"));
+        conf.addResource(ClassLoader.getSystemResource("config/ingest/metadata-config.xml"));
+        conf.set(TypeRegistry.INGEST_DATA_TYPES, "mycsv");
+        conf.set("all" + TypeRegistry.HANDLER_CLASSES, "");
+        conf.set("mycsv" + TypeRegistry.HANDLER_CLASSES, EventFieldsHandler.class.getName());
+        conf.setClass(EventMapper.CONTEXT_WRITER_CLASS, EventFieldsContextWriter.class, ContextWriter.class);
+        conf.setInt(EventMapper.EVENT_MAPPER_THREADS, 4);
+        conf.setInt(EventMapper.EVENT_MAPPER_MAX_PENDING, 32);
+        TypeRegistry.getInstance(conf);
+        
+        mapContext = createMock(Mapper.Context.class);
+        expect(mapContext.getConfiguration()).andReturn(conf).anyTimes();
+        mapContext.progress();
+        expectLastCall().anyTimes();
+        expect(mapContext.getInputSplit()).andReturn(null);
+        expect(mapContext.getMapOutputValueClass()).andReturn(null);
+        expect(mapContext.getTaskAttemptID()).andReturn(new TaskAttemptID()).anyTimes();
+        StandaloneTaskAttemptContext standaloneContext = new StandaloneTaskAttemptContext(conf, new StandaloneStatusReporter());
+        expect(mapContext.getCounter(anyObject())).andDelegateTo(standaloneContext).anyTimes();
+        expect(mapContext.getCounter(anyString(), anyString())).andDelegateTo(standaloneContext).anyTimes();
+        replay(mapContext);
+    }
+    
+    @After
+    public void cleanup() {
+        TypeRegistry.reset();
+    }
+    
+    private static String eventId(int i) {
+        return String.format("trrn.n2016117aamy.%010d", i);
+    }
+    
+    private CSVRecordReader createReader() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            lines.add("2016-04-26 03:00:00," + eventId(i) + ",english" + i + "," + i + "," + (i * 2) + ",mime" + i + ",md5" + i + ",sha1" + i + ",sha256" + i
+                            + ",2016-04-26T01:31:53Z,PUBLIC,FOO_FIELD=foo" + i + ",BAR_FIELD=bar" + i);
+        }
+        File file = temporaryFolder.newFile("events.csv");
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        
+        CSVRecordReader reader = new CSVRecordReader();
+        reader.initialize(new FileSplit(new Path(file.toURI().toString()), 0, file.length(), null), new TaskAttemptContextImpl(conf, new TaskAttemptID()));
+        return reader;
+    }
+    
+    @Test
+    public void testFieldsOnMultipleThreads() throws Exception {
+        EventMapper<LongWritable,RawRecordContainer,BulkIngestKey,Value> eventMapper = new EventMapper<>();
+        eventMapper.setup(mapContext);
+        CSVRecordReader reader = createReader();
+        try {
+            while (reader.nextKeyValue()) {
+                eventMapper.map(reader.getCurrentKey(), reader.getEvent(), mapContext);
+            }
+        } finally {
+            reader.close();
+        }
+        eventMapper.cleanup(mapContext);
+        
+        // every event has the values of its own line, which are lost or mixed up when the workers share the ingest helper
+        Multimap<String,String> written = HashMultimap.create();
+        for (BulkIngestKey key : EventFieldsContextWriter.getWritten().keySet()) {
+            written.put(key.getKey().getRow() + " " + key.getKey().getColumnFamily(), key.getKey().getColumnQualifier().toString());
+        }
+        Set<String> rows = new HashSet<>();
+        for (BulkIngestKey key : EventFieldsContextWriter.getWritten().keySet()) {
+            rows.add(key.getKey().getRow().toString());
+        }
+        assertEquals(EVENTS, rows.size());
+        for (int i = 0; i < EVENTS; i++) {
+            String row = eventId(i) + " ";
+            assertEquals(Collections.singleton("english" + i), written.get(row + "LANGUAGE"));
+            assertEquals(Collections.singleton(Integer.toString(i)), written.get(row + "ORIGINAL_SIZE"));
+            assertEquals(Collections.singleton(Integer.toString(i * 2)), written.get(row + "PROCESSED_SIZE"));
+            assertEquals(Collections.singleton("md5" + i), written.get(row + "MD5"));
+            assertEquals(Collections.singleton("sha256" + i), written.get(row + "SHA256"));
+            assertEquals(Collections.singleton("foo" + i), written.get(row + "FOO_FIELD"));
+            assertEquals(Collections.singleton("bar" + i), written.get(row + "BAR_FIELD"));
+        }
+    }
+    
+    /**
+     * Writes every field of an event, with the id of the event as the row, the field name as the column family and the field value as the column qualifier
+     */
+    public static class EventFieldsHandler<K> implements DataTypeHandler<K> {
+        
+        private Configuration conf;
+        
+        @Override
+        public void setup(TaskAttemptContext context) {
+            conf = context.getConfiguration();
+        }
+        
+        @Override
+        public String[] getTableNames(Configuration conf) {
+            return new String[0];
+        }
+        
+        @Override
+        public int[] getTableLoaderPriorities(Configuration conf) {
+            return new int[0];
+        }
+        
+        @Override
+        public Multimap<BulkIngestKey,Value> processBulk(K key, RawRecordContainer event, Multimap<String,NormalizedContentInterface> fields,
+                        StatusReporter reporter) {
+            String row = fields.get("EVENT_ID").iterator().next().getEventFieldValue();
+            Multimap<BulkIngestKey,Value> pairs = HashMultimap.create();
+            for (Map.Entry<String,NormalizedContentInterface> entry : fields.entries()) {
+                pairs.put(new BulkIngestKey(new Text("fields"), new Key(row, entry.getKey(), entry.getValue().getEventFieldValue())), new Value(new byte[0]));
+            }
+            return pairs;
+        }
+        
+        @Override
+        public IngestHelperInterface getHelper(Type datatype) {
+            return datatype.getIngestHelper(conf);
+        }
+        
+        @Override
+        public void close(TaskAttemptContext context) {}
+        
+        @Override
+        public RawRecordMetadata getMetadata() {
+            return null;
+        }
+    }
+    
+    /**
+     * Keeps the keys written by the EventMapper
+     */
+    public static class EventFieldsContextWriter<OK,OV> implements ContextWriter<OK,OV> {
+        
+        private static final Multimap<BulkIngestKey,Value> written = HashMultimap.create();
+        
+        public EventFieldsContextWriter() {
+            synchronized (written) {
+                written.clear();
+            }
+        }
+        
+        @Override
+        public void setup(Configuration conf, boolean outputTableCounters) {}
+        
+        @Override
+        public void write(BulkIngestKey key, Value value, TaskInputOutputContext<?,?,OK,OV> context) {
+            synchronized (written) {
+                written.put(key, value);
+            }
+        }
+        
+        @Override
+        public void write(Multimap<BulkIngestKey,Value> entries, TaskInputOutputContext<?,?,OK,OV> context) {
+            synchronized (written) {
+                written.putAll(entries);
+            }
+        }
+        
+        @Override
+        public void commit(TaskInputOutputContext<?,?,OK,OV> context) {}
+        
+        @Override
+        public void rollback() {}
+        
+        @Override
+        public void cleanup(TaskInputOutputContext<?,?,OK,OV> context) {}
+        
+        public static Multimap<BulkIngestKey,Value> getWritten() {
+            return written;
+        }
+    }
+}
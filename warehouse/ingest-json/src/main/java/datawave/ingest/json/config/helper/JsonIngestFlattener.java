@@ -48,6 +48,10 @@ public class JsonIngestFlattener extends JsonObjectFlattenerImpl {
     protected JsonIngestFlattener(Builder builder) {
         super(builder);
         this.jsonDataTypeHelper = builder.jsonDataTypeHelper;
+        if (this.keyValueNormalizer instanceof DefaultMapKeyValueNormalizer) {
+            // Keys are the upper-cased paths, so whitelisting can be applied to whole subtrees
+            this.whitelistedPaths = getWhitelistedPaths();
+        }
     }
     
     @Override
@@ -3,7 +3,12 @@ package datawave.ingest.json.config.helper;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.config.NormalizedContentInterface;
 import datawave.ingest.data.config.NormalizedFieldAndValue;
@@ -13,6 +18,9 @@ import datawave.ingest.json.util.JsonObjectFlattener;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.log4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.Map;
 
 /**
@@ -43,11 +51,27 @@ public class JsonIngestHelper extends ContentBaseIngestHelper {
         }
         
         HashMultimap<String,String> fields = HashMultimap.create();
-        String jsonString = new String(event.getRawData());
         
-        JsonParser parser = new JsonParser();
-        JsonElement jsonElement = parser.parse(jsonString);
-        flattener.flatten(jsonElement.getAsJsonObject(), fields);
+        // Flatten straight from the raw bytes rather than building the whole json tree first
+        boolean flattened;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(event.getRawData())))) {
+            reader.setLenient(true);
+            flattened = flattener.flatten(reader, fields);
+            if (flattened && reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Did not consume the entire document.");
+            }
+        } catch (MalformedJsonException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        
+        if (!flattened) {
+            // A repeated property name keeps its last value, so the object is flattened from its tree
+            fields.clear();
+            JsonElement jsonElement = new JsonParser().parse(new String(event.getRawData()));
+            flattener.flatten(jsonElement.getAsJsonObject(), fields);
+        }
         
         return normalizeMap(getGroupNormalizedMap(fields));
     }
@@ -2,7 +2,9 @@ package datawave.ingest.json.util;
 
 import com.google.common.collect.Multimap;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
+import java.io.IOException;
 import java.util.Set;
 
 /**
@@ -97,6 +99,27 @@ public interface JsonObjectFlattener {
      */
     void flatten(JsonObject object, Multimap<String,String> map) throws IllegalStateException, NullPointerException;
     
+    /**
+     * Flattens the next json object from the specified reader, without first building a tree of the object in memory. The keys and values are the same as
+     * those produced by {@link #flatten(JsonObject, Multimap)}, unless an object within it repeats a property name. The tree keeps only the last value of a
+     * repeated name, so such an object is not flattened and must be flattened as a tree instead
+     * 
+     * @param reader
+     *            {@link JsonReader} positioned at the start of a json object
+     * @param map
+     *            {@link com.google.common.collect.Multimap} instance to receive the flattened keys and associated values
+     * @return true if the object was flattened, or false if it repeats a property name, in which case the reader is left within the object and the map may
+     *         hold some of its keys
+     * @throws IOException
+     *             if the json cannot be read or is malformed
+     * @throws IllegalStateException
+     *             if the next value is not a json object, or if {@link FlattenMode#GROUPED} is used and {@link Builder#pathDelimiter} is found to exist
+     *             already within a json property name
+     * @throws NullPointerException
+     *             if map is null
+     */
+    boolean flatten(JsonReader reader, Multimap<String,String> map) throws IOException, IllegalStateException, NullPointerException;
+    
     /**
      * <p>
      * Allows clients to specify custom normalization behavior per their needs to affect the final presentation of flattened keys and their values to the
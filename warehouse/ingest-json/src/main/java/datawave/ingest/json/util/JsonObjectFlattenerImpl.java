@@ -7,7 +7,10 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -40,6 +43,12 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
     protected final String occurrenceDelimiter;
     protected final boolean addArrayIndexToFieldName;
     
+    /**
+     * Every path that may lead to a whitelisted key, used by {@link #flatten(JsonReader, Multimap)} to skip any subtree that cannot. Null when subtrees can't
+     * be skipped, i.e., when there is no whitelist or when the keys are not simply the upper-cased paths
+     */
+    protected Set<String> whitelistedPaths;
+    
     protected JsonObjectFlattenerImpl(Builder builder) {
         this.pathDelimiter = builder.pathDelimiter;
         this.mapKeyWhitelist = builder.fieldNameWhitelist != null ? new HashSet<>(builder.fieldNameWhitelist) : null;
@@ -66,6 +75,7 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         }
         
         if (null == builder.keyValueNormalizer) {
+            this.whitelistedPaths = getWhitelistedPaths();
             this.keyValueNormalizer = new MapKeyValueNormalizer() {
                 @Override
                 public String normalizeMapKey(String key, String value) throws IllegalStateException {
@@ -100,6 +110,19 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         addKeysToMap("", object, map, occurrenceCounts);
     }
     
+    @Override
+    public boolean flatten(JsonReader reader, Multimap<String,String> map) throws IOException, IllegalStateException, NullPointerException {
+        Preconditions.checkNotNull(map, "'map' argument cannot be null");
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            throw new IllegalStateException("Expected a json object but was " + reader.peek());
+        }
+        Map<String,Integer> occurrenceCounts = null;
+        if (this.flattenMode == FlattenMode.GROUPED || this.flattenMode == FlattenMode.GROUPED_AND_NORMAL) {
+            occurrenceCounts = new HashMap<>();
+        }
+        return addKeysToMap(new StringBuilder(), reader, map, occurrenceCounts);
+    }
+    
     @Override
     public FlattenMode getFlattenMode() {
         return this.flattenMode;
@@ -160,6 +183,106 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         }
     }
     
+    /**
+     * Streaming equivalent of {@link #addKeysToMap(String, JsonElement, Multimap, Map)}, which consumes the next value from the reader. The path buffer is
+     * shared by the whole object and is restored to its original length before returning
+     * 
+     * @return false if an object repeats a property name, in which case reading stops there
+     */
+    protected boolean addKeysToMap(StringBuilder path, JsonReader reader, Multimap<String,String> map, Map<String,Integer> occurrenceCounts)
+                    throws IOException {
+        
+        switch (reader.peek()) {
+            case NULL:
+                // Don't add nulls
+                reader.nextNull();
+                return true;
+            case BEGIN_OBJECT:
+                return addObjectKeysToMap(path, reader, map, occurrenceCounts);
+            case BEGIN_ARRAY:
+                return addArrayKeysToMap(path, reader, map, occurrenceCounts);
+            case BOOLEAN:
+                mapPut(path.toString(), Boolean.toString(reader.nextBoolean()), map, occurrenceCounts);
+                return true;
+            default:
+                // Strings and numbers, as their literal text
+                mapPut(path.toString(), reader.nextString(), map, occurrenceCounts);
+                return true;
+        }
+    }
+    
+    private boolean addObjectKeysToMap(StringBuilder path, JsonReader reader, Multimap<String,String> map, Map<String,Integer> occurrenceCounts)
+                    throws IOException {
+        
+        int length = path.length();
+        if (length > 0) {
+            switch (this.flattenMode) {
+                case SIMPLE:
+                    // No recursion in simple mode
+                    reader.skipValue();
+                    return true;
+                case GROUPED:
+                case GROUPED_AND_NORMAL:
+                    // Append occurrence delimiter + ordinal suffix
+                    int occurrence = incrementCount(path.toString(), occurrenceCounts);
+                    path.append(this.occurrenceDelimiter).append(occurrence);
+                    break;
+            }
+        }
+        
+        String currentPath = path.toString();
+        int prefixLength = path.length();
+        
+        // A tree keeps only the last value of a repeated name, which can't be known until the name repeats
+        Set<String> names = new HashSet<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!names.add(name)) {
+                return false;
+            }
+            path.setLength(prefixLength);
+            if (prefixLength > 0) {
+                path.append(this.pathDelimiter);
+            }
+            path.append(this.nameNormalizer.normalizeElementName(name, currentPath));
+            
+            if (null != this.whitelistedPaths && !this.whitelistedPaths.contains(path.toString().toUpperCase())) {
+                // Nothing below here can be whitelisted
+                reader.skipValue();
+            } else if (!addKeysToMap(path, reader, map, occurrenceCounts)) {
+                return false;
+            }
+        }
+        reader.endObject();
+        path.setLength(length);
+        return true;
+    }
+    
+    private boolean addArrayKeysToMap(StringBuilder path, JsonReader reader, Multimap<String,String> map, Map<String,Integer> occurrenceCounts)
+                    throws IOException {
+        
+        int length = path.length();
+        reader.beginArray();
+        for (int i = 0; reader.hasNext(); i++) {
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY || token == JsonToken.NULL) {
+                if (this.addArrayIndexToFieldName) {
+                    path.append(this.pathDelimiter).append(i);
+                }
+                boolean added = addKeysToMap(path, reader, map, occurrenceCounts);
+                path.setLength(length);
+                if (!added) {
+                    return false;
+                }
+            } else if (!addKeysToMap(path, reader, map, occurrenceCounts)) {
+                return false;
+            }
+        }
+        reader.endArray();
+        return true;
+    }
+    
     protected String defaultNormalizeJsonElementName(String name) {
         switch (this.flattenMode) {
             case GROUPED:
@@ -260,6 +383,29 @@ public class JsonObjectFlattenerImpl implements JsonObjectFlattener {
         return false;
     }
     
+    /**
+     * Only valid when the map keys are the upper-cased paths, as they are with the default {@link MapKeyValueNormalizer}
+     * 
+     * @return every upper-cased path that is either a whitelisted key or the parent of one, or null if subtrees can't be skipped
+     */
+    protected Set<String> getWhitelistedPaths() {
+        if (null == this.mapKeyWhitelist || this.mapKeyWhitelist.isEmpty()) {
+            return null;
+        }
+        if (this.flattenMode != FlattenMode.NORMAL && this.flattenMode != FlattenMode.SIMPLE) {
+            // Grouped keys are rearranged, so they no longer start with the path
+            return null;
+        }
+        Set<String> paths = new HashSet<>();
+        for (String key : this.mapKeyWhitelist) {
+            paths.add(key);
+            for (int i = key.indexOf(this.pathDelimiter); i > 0; i = key.indexOf(this.pathDelimiter, i + 1)) {
+                paths.add(key.substring(0, i));
+            }
+        }
+        return paths;
+    }
+    
     protected int incrementCount(String elementName, Map<String,Integer> occurrenceCounts) {
         int count = 0;
         if (occurrenceCounts.containsKey(elementName)) {
@@ -1,6 +1,7 @@
 package datawave.ingest.json.config.helper;
 
 import com.google.common.collect.Multimap;
+import com.google.gson.JsonSyntaxException;
 import datawave.ingest.config.RawRecordContainerImpl;
 import datawave.ingest.data.RawRecordContainer;
 import datawave.ingest.data.TypeRegistry;
@@ -118,6 +119,34 @@ public class JsonIngestHelperTest {
         }
     }
     
+    @Test
+    public void testGetEventFieldsKeepsLastValueOfRepeatedName() throws Exception {
+        JsonIngestHelper ingestHelper = init(initConfig(FlattenMode.SIMPLE));
+        
+        RawRecordContainer event = new RawRecordContainerImpl();
+        event.setDate((new Date()).getTime());
+        event.setRawData("{ \"MISC_TEXT\" : \"first\", \"HEADER_ID\" : \"ID00000000001\", \"MISC_TEXT\" : \"last\" }".getBytes());
+        event.generateId(null);
+        
+        Multimap<String,NormalizedContentInterface> fieldMap = ingestHelper.getEventFields(event);
+        
+        Assert.assertEquals(2, fieldMap.keySet().size());
+        Assert.assertEquals(1, fieldMap.get("MISC_TEXT").size());
+        Assert.assertEquals("last", fieldMap.get("MISC_TEXT").iterator().next().getEventFieldValue());
+    }
+    
+    @Test(expected = JsonSyntaxException.class)
+    public void testGetEventFieldsRejectsContentAfterTheObject() throws Exception {
+        JsonIngestHelper ingestHelper = init(initConfig(FlattenMode.SIMPLE));
+        
+        RawRecordContainer event = new RawRecordContainerImpl();
+        event.setDate((new Date()).getTime());
+        event.setRawData("{ \"MISC_TEXT\" : \"text\" } { \"HEADER_ID\" : \"ID00000000001\" }".getBytes());
+        event.generateId(null);
+        
+        ingestHelper.getEventFields(event);
+    }
+    
     /**
      * Slightly more real-world, using the record reader to feed events to the ingest helper...
      *
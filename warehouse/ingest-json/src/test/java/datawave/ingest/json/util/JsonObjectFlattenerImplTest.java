@@ -1,22 +1,27 @@
 package datawave.ingest.json.util;
 
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 
 import datawave.ingest.json.util.JsonObjectFlattener.FlattenMode;
 
@@ -266,6 +271,61 @@ public class JsonObjectFlattenerImplTest {
         }
     }
     
+    @Test
+    public void testStreamingFlattenMatchesTree() throws Exception {
+        for (FlattenMode mode : FlattenMode.values()) {
+            for (boolean addArrayIndex : new boolean[] {true, false}) {
+                JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder().flattenMode(mode).addArrayIndexToFieldName(addArrayIndex).build();
+                
+                JsonParser parser = new JsonParser();
+                Multimap<String,String> expected = flattener.flatten(parser.parse(json).getAsJsonObject());
+                
+                Multimap<String,String> fieldMap = HashMultimap.create();
+                flattener.flatten(new JsonReader(new StringReader(json)), fieldMap);
+                
+                Assert.assertEquals(mode + ", addArrayIndex=" + addArrayIndex, expected, fieldMap);
+            }
+        }
+    }
+    
+    @Test
+    public void testStreamingFlattenSkipsSubtreesNotWhitelisted() throws Exception {
+        List<String> visited = new ArrayList<>();
+        JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder()
+                        .mapKeyWhitelist(new HashSet<>(Arrays.asList("ROOTOBJECT.RANDOMOBJECT.STRING", "ROOTID"))).jsonElementNameNormalizer((name, parent) -> {
+                            visited.add(name);
+                            return name;
+                        }).build();
+        
+        JsonParser parser = new JsonParser();
+        Multimap<String,String> expected = flattener.flatten(parser.parse(json).getAsJsonObject());
+        
+        visited.clear();
+        Multimap<String,String> fieldMap = HashMultimap.create();
+        flattener.flatten(new JsonReader(new StringReader(json)), fieldMap);
+        
+        Assert.assertEquals(expected, fieldMap);
+        Assert.assertEquals(2, fieldMap.keySet().size());
+        Assert.assertEquals("horse", fieldMap.get("ROOTOBJECT.RANDOMOBJECT.STRING").iterator().next());
+        Assert.assertTrue(visited.contains("randomobject"));
+        Assert.assertFalse(visited.contains("array"));
+        Assert.assertFalse(visited.contains("more"));
+    }
+    
+    @Test
+    public void testStreamingFlattenStopsAtRepeatedName() throws Exception {
+        JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder().build();
+        Multimap<String,String> fieldMap = HashMultimap.create();
+        Assert.assertFalse(flattener.flatten(new JsonReader(new StringReader("{ \"a\" : 1, \"b\" : { \"c\" : 1, \"c\" : 2 } }")), fieldMap));
+        Assert.assertTrue(flattener.flatten(new JsonReader(new StringReader("{ \"a\" : 1, \"b\" : { \"c\" : 1 }, \"c\" : 2 }")), fieldMap));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testStreamingFlattenRequiresObject() throws Exception {
+        JsonObjectFlattener flattener = new JsonObjectFlattenerImpl.Builder().build();
+        flattener.flatten(new JsonReader(new StringReader("[ 1, 2 ]")), HashMultimap.create());
+    }
+    
     private void printMap(Multimap<String,String> fieldMap) {
         TreeMultimap<String,String> sorted = TreeMultimap.create(fieldMap);
         for (String key : sorted.keySet()) {
@@ -244,6 +244,9 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
     @SuppressWarnings("unchecked")
     protected static final Collection<ByteSequence> EMPTY_CFS = Collections.EMPTY_LIST;
     
+    // the number of keys to step through before seeking to a seek key
+    protected static final int SEEK_NEXT_THRESHOLD = 10;
+    
     // These are the ranges to scan in the field index
     private final List<Range> boundingFiRanges = new ArrayList<>();
     protected Range currentFiRange = null;
@@ -1175,6 +1178,16 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
                         if (!totalResults.increment()) {
                             throw new DatawaveIvaratorMaxResultsException("Exceeded the maximum set size");
                         }
+                    } else if (!negated) {
+                        // skip ahead to the next key that could match, if the iterator can tell where that is
+                        Key seekKey = getNextSeekKey(top);
+                        if (seekKey != null) {
+                            if (boundingFiRange.afterEndKey(seekKey)) {
+                                break;
+                            }
+                            scanned += skipTo(source, seekKey, boundingFiRange);
+                            continue;
+                        }
                     }
                     
                     source.next();
@@ -1204,6 +1217,33 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
         
     }
     
+    /**
+     * Move a source past a key that did not match to a seek key, by calling next a few times in case the seek key is close and seeking otherwise.
+     * 
+     * @param source
+     *            the source, positioned at the key that did not match
+     * @param seekKey
+     *            the key to move to
+     * @param boundingFiRange
+     *            the range being scanned
+     * @return the number of keys scanned
+     * @throws IOException
+     */
+    protected int skipTo(SortedKeyValueIterator<Key,Value> source, Key seekKey, Range boundingFiRange) throws IOException {
+        int scanned = 0;
+        while (scanned < SEEK_NEXT_THRESHOLD) {
+            source.next();
+            scanned++;
+            this.scannedKeys.incrementAndGet();
+            if (!source.hasTop() || source.getTopKey().compareTo(seekKey) >= 0) {
+                return scanned;
+            }
+        }
+        source.seek(new Range(seekKey, true, boundingFiRange.getEndKey(), boundingFiRange.isEndKeyInclusive()), EMPTY_CFS, false);
+        this.scannedKeys.incrementAndGet();
+        return scanned + 1;
+    }
+    
     /**
      * Get the unique directory for a specific row
      *
@@ -1389,6 +1429,18 @@ public abstract class DatawaveFieldIndexCachingIteratorJexl extends WrappingIter
      */
     protected abstract boolean matches(Key k) throws IOException;
     
+    /**
+     * Get the key to seek to after a key that did not match, when the keys in between cannot match either. This allows an ivarator to skip the values that it
+     * knows cannot match rather than testing them one at a time. NOTE: This method must be thread safe
+     * 
+     * @param k
+     *            the key that did not match
+     * @return the key to seek to, or null to simply move on to the next key
+     */
+    protected Key getNextSeekKey(Key k) {
+        return null;
+    }
+    
     /**
      * A protected method to force persistence of the set. This can be used by test cases to verify tear down and rebuilding with reuse of the previous results.
      * 
@@ -1,9 +1,17 @@
 package datawave.core.iterators;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import datawave.core.iterators.filesystem.FileSystemCache;
 import datawave.query.Constants;
 import datawave.query.jexl.DatawaveArithmetic;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
@@ -17,6 +25,7 @@ import org.apache.lucene.store.InputStreamDataInput;
 import org.apache.lucene.util.IntsRef;
 import org.apache.lucene.util.IntsRefBuilder;
 import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.IntsRefFSTEnum;
 import org.apache.lucene.util.fst.NoOutputs;
 import org.apache.lucene.util.fst.Outputs;
 import org.apache.lucene.util.fst.Util;
@@ -26,10 +35,10 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.SortedSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 
@@ -78,6 +87,8 @@ public class DatawaveFieldIndexListIteratorJexl extends DatawaveFieldIndexCachin
     private FST<?> fst = null;
     // we need the values sorted for buildBoundingRanges to return sorted ranges
     private List<String> values = null;
+    // an enumeration of the FST values per thread, to find the next value to seek to
+    private ThreadLocal<IntsRefFSTEnum<?>> fstEnum = ThreadLocal.withInitial(() -> newFstEnum(fst));
     
     // -------------------------------------------------------------------------
     // ------------- Constructors
@@ -165,14 +176,99 @@ public class DatawaveFieldIndexListIteratorJexl extends DatawaveFieldIndexCachin
      */
     @Override
     protected boolean matches(Key k) throws IOException {
+        String value = getValue(k);
+        return (this.fst != null) ? DatawaveArithmetic.matchesFst(value, fst) : Collections.binarySearch(values, value) >= 0;
+    }
+    
+    /**
+     * Leapfrog the field index and the sorted list values: after a key that did not match, seek to the next value in the list rather than testing every value
+     * in between. The caller steps through a few keys before seeking, so dense runs of values are still scanned sequentially. NOTE: This method must be thread
+     * safe
+     * 
+     * @param k
+     *            the key that did not match
+     * @return the key of the next value in the list, or null to move on to the next key
+     */
+    @Override
+    protected Key getNextSeekKey(Key k) {
+        String value = getValue(k);
+        if (!isOrderedAsUtf8(value)) {
+            return null;
+        }
+        String next;
+        try {
+            next = ceiling(value);
+        } catch (IOException e) {
+            log.warn("Unable to find the value following " + value + " in " + this, e);
+            return null;
+        }
+        if (next == null) {
+            // no more values in this field can match
+            return k.followingKey(PartialKey.ROW_COLFAM);
+        } else if (next.equals(value) || !isOrderedAsUtf8(next)) {
+            return null;
+        }
+        return new Key(k.getRow(), k.getColumnFamily(), new Text(next));
+    }
+    
+    /**
+     * Find the smallest list value that is greater than or equal to a value
+     * 
+     * @param value
+     *            the value
+     * @return the list value, or null if there is none
+     * @throws IOException
+     */
+    protected String ceiling(String value) throws IOException {
+        if (fst == null) {
+            int index = Collections.binarySearch(values, value);
+            index = (index < 0 ? -index - 1 : index);
+            return (index < values.size() ? values.get(index) : null);
+        }
+        
+        IntsRefBuilder irBuilder = new IntsRefBuilder();
+        Util.toUTF16(value, irBuilder);
+        // the FST is read only and each thread has its own enumeration, so the shared FST does not need a lock
+        IntsRefFSTEnum.InputOutput<?> ceiling = fstEnum.get().seekCeil(irBuilder.get());
+        if (ceiling == null) {
+            return null;
+        }
+        char[] chars = new char[ceiling.input.length];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ceiling.input.ints[ceiling.input.offset + i];
+        }
+        return new String(chars);
+    }
+    
+    /**
+     * The list values are sorted as UTF-16 while the field index is sorted as UTF-8. The two orders only differ between surrogates and the characters above
+     * them, so a value without either is in the same place in both.
+     */
+    private static boolean isOrderedAsUtf8(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= Character.MIN_SURROGATE) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static <T> IntsRefFSTEnum<T> newFstEnum(FST<T> fst) {
+        return (fst == null ? null : new IntsRefFSTEnum<>(fst));
+    }
+    
+    /**
+     * @param k
+     *            a field index key
+     * @return the value of the key
+     */
+    private static String getValue(Key k) {
         String colq = k.getColumnQualifier().toString();
         
         // search backwards for the null bytes to expose the value in value\0datatype\0UID
         int index = colq.lastIndexOf('\0');
         index = colq.lastIndexOf('\0', index - 1);
-        String value = colq.substring(0, index);
-        
-        return (this.fst != null) ? DatawaveArithmetic.matchesFst(value, fst) : values.contains(value);
+        return colq.substring(0, index);
     }
     
     public static FST<?> getFST(SortedSet<String> values) throws IOException {
@@ -201,29 +297,64 @@ public class DatawaveFieldIndexListIteratorJexl extends DatawaveFieldIndexCachin
         return fstBuilder.finish();
     }
     
-    /** Utility class to load one instance of any FST per classloader */
+    /**
+     * Utility class to load one instance of any FST per classloader. The FSTs are kept in a cache bounded by the memory they use, so that a long running
+     * tserver does not accumulate every FST it has ever loaded. Each file is loaded by the first thread to ask for it while the other threads wait for it, but
+     * threads asking for other files are not blocked.
+     * <p>
+     * The bound is a property of the tserver, read once from the {@link #MAX_BYTES_PROPERTY} system property, and the cache statistics are logged every
+     * {@link #STATS_LOG_INTERVAL_MS} while the cache is in use.
+     */
     public static class FSTManager {
-        static final Map<Path,FST<Object>> fstCache = new HashMap<>();
+        public static final String MAX_BYTES_PROPERTY = "datawave.query.fst.cache.max.bytes";
+        public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+        public static final long STATS_LOG_INTERVAL_MS = 10 * 60 * 1000L;
+        
+        private static long maxBytes = Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+        static volatile Cache<Path,FST<Object>> fstCache = createCache(maxBytes);
+        private static final AtomicLong lastStatsLog = new AtomicLong(System.currentTimeMillis());
         
         static private FileSystemCache hdfsFileSystem;
         static private String hdfsFileCompressionCodec;
         
-        public static synchronized FST<Object> get(Path fstfile) throws IOException {
+        private static Cache<Path,FST<Object>> createCache(long maxBytes) {
+            // @formatter:off
+            // a single segment so that the bound applies to all of the FSTs rather than to each segment, loads still run outside of the segment lock
+            return CacheBuilder.newBuilder()
+                            .concurrencyLevel(1)
+                            .maximumWeight(maxBytes)
+                            .weigher((Weigher<Path,FST<Object>>) (path, fst) -> (int) Math.min(Integer.MAX_VALUE, fst.ramBytesUsed()))
+                            .removalListener((RemovalListener<Path,FST<Object>>) notification -> {
+                                if (notification.wasEvicted() && log.isDebugEnabled()) {
+                                    log.debug("Evicted FST " + notification.getKey() + " using " + notification.getValue().ramBytesUsed() + " bytes");
+                                }
+                            })
+                            .recordStats()
+                            .build();
+            // @formatter:on
+        }
+        
+        public static FST<Object> get(Path fstfile) throws IOException {
             return get(fstfile, hdfsFileCompressionCodec, hdfsFileSystem.getFileSystem(fstfile.toUri()));
         }
         
-        public static synchronized FST<Object> get(Path fstfile, String compressedCodec, FileSystem fs) throws IOException {
+        public static FST<Object> get(Path fstfile, String compressedCodec, FileSystem fs) throws IOException {
             if (fstfile == null)
                 throw new NullPointerException("input fst key was null");
-            FST<Object> fst = fstCache.get(fstfile);
-            if (fst != null) {
-                return fst;
-            }
             
-            // Attempt to load fst from HDFS
-            fst = loadFSTFromFile(fstfile, compressedCodec, fs);
-            fstCache.put(fstfile, fst);
-            return fst;
+            try {
+                // Attempt to load fst from HDFS if not already cached
+                return fstCache.get(fstfile, () -> loadFSTFromFile(fstfile, compressedCodec, fs));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException("Unable to load FST from " + fstfile, e.getCause());
+            } catch (UncheckedExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            } finally {
+                logStats();
+            }
         }
         
         public static FST<Object> loadFSTFromFile(Path filename, String compressionCodec, FileSystem fs) throws IOException {
@@ -256,12 +387,64 @@ public class DatawaveFieldIndexListIteratorJexl extends DatawaveFieldIndexCachin
             return new FST<>(di, outputs);
         }
         
-        public static synchronized void clear(String file) {
-            fstCache.remove(new Path(file));
+        public static void clear(String file) {
+            fstCache.invalidate(new Path(file));
         }
         
-        public static synchronized void clear() {
-            fstCache.clear();
+        public static void clear() {
+            fstCache.invalidateAll();
+        }
+        
+        /**
+         * Set the maximum memory used by the cached FSTs, overriding {@link #MAX_BYTES_PROPERTY}. The cache is rebuilt, keeping as many of the cached FSTs as
+         * fit, if the maximum changes.
+         * 
+         * @param maxBytes
+         *            the maximum memory in bytes
+         */
+        static synchronized void setMaxBytes(long maxBytes) {
+            if (maxBytes != FSTManager.maxBytes) {
+                Cache<Path,FST<Object>> cache = createCache(maxBytes);
+                cache.putAll(fstCache.asMap());
+                FSTManager.maxBytes = maxBytes;
+                fstCache = cache;
+            }
+        }
+        
+        public static long getMaxBytes() {
+            return maxBytes;
+        }
+        
+        /**
+         * @return the memory used by the cached FSTs in bytes
+         */
+        public static long getCachedBytes() {
+            long bytes = 0;
+            for (FST<Object> fst : fstCache.asMap().values()) {
+                bytes += fst.ramBytesUsed();
+            }
+            return bytes;
+        }
+        
+        /**
+         * @return the hit, miss, load and eviction counts of the cache
+         */
+        public static CacheStats getStats() {
+            return fstCache.stats();
+        }
+        
+        /**
+         * Logs the cache statistics if they have not been logged for {@link #STATS_LOG_INTERVAL_MS}
+         */
+        private static void logStats() {
+            long last = lastStatsLog.get();
+            long now = System.currentTimeMillis();
+            if (now - last >= STATS_LOG_INTERVAL_MS && lastStatsLog.compareAndSet(last, now)) {
+                CacheStats stats = getStats();
+                log.info("FST cache holds " + fstCache.size() + " FSTs using " + getCachedBytes() + " of " + maxBytes + " bytes: " + stats.hitCount()
+                                + " hits, " + stats.missCount() + " misses, " + stats.evictionCount() + " evictions, " + stats.loadExceptionCount()
+                                + " failed loads");
+            }
         }
         
         public static void setHdfsFileSystem(FileSystemCache hdfsFileSystem) {
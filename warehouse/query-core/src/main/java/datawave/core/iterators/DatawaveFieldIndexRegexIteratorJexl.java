@@ -4,8 +4,10 @@ import datawave.data.ColumnFamilyConstants;
 import datawave.query.Constants;
 import datawave.query.parser.JavaRegexAnalyzer;
 import datawave.query.parser.JavaRegexAnalyzer.JavaRegexParseException;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Column;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
@@ -55,10 +57,12 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
         } catch (JavaRegexParseException ex) {
             throw new IllegalStateException("Unable to parse regex " + regex, ex);
         }
-        
+        this.dfa = RegexDfa.compile(this.regex);
     }
     
     private String regex = null;
+    // the regex compiled to match the value bytes directly, or null if it can only be matched with a Pattern
+    private RegexDfa dfa = null;
     private ThreadLocal<Pattern> pattern = ThreadLocal.withInitial(() -> Pattern.compile(regex));
     
     // -------------------------------------------------------------------------
@@ -70,6 +74,7 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
     public DatawaveFieldIndexRegexIteratorJexl(DatawaveFieldIndexRegexIteratorJexl other, IteratorEnvironment env) {
         super(other, env);
         this.regex = other.regex;
+        this.dfa = other.dfa;
     }
     
     // -------------------------------------------------------------------------
@@ -123,6 +128,11 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
      */
     @Override
     protected boolean matches(Key k) throws IOException {
+        if (dfa != null) {
+            ByteSequence colq = k.getColumnQualifierData();
+            return dfa.matches(colq.getBackingArray(), colq.offset(), valueLength(colq));
+        }
+        
         boolean matches = false;
         String colq = k.getColumnQualifier().toString();
         
@@ -134,4 +144,46 @@ public class DatawaveFieldIndexRegexIteratorJexl extends DatawaveFieldIndexCachi
         return matches;
     }
     
+    /**
+     * Seek past the values which the regex cannot match, when it is matched by a {@link RegexDfa}. NOTE: This method must be thread safe
+     * 
+     * @param k
+     *            the key that did not match
+     * @return the key of the next value that could match, or null if the regex is matched with a Pattern
+     */
+    @Override
+    protected Key getNextSeekKey(Key k) {
+        if (dfa == null) {
+            return null;
+        }
+        ByteSequence colq = k.getColumnQualifierData();
+        int length = valueLength(colq);
+        if (dfa.matches(colq.getBackingArray(), colq.offset(), length)) {
+            // the key was filtered out by something other than its value, so the following keys for the value may still match
+            return null;
+        }
+        byte[] prefix = dfa.nextPrefix(colq.getBackingArray(), colq.offset(), length);
+        if (prefix == null) {
+            // no more values in this field can match
+            return k.followingKey(PartialKey.ROW_COLFAM);
+        }
+        return new Key(k.getRow(), k.getColumnFamily(), new Text(prefix));
+    }
+    
+    /**
+     * @param colq
+     *            the column qualifier of a field index key, value\0datatype\0uid
+     * @return the length of the value
+     */
+    private static int valueLength(ByteSequence colq) {
+        byte[] bytes = colq.getBackingArray();
+        int index = colq.offset() + colq.length() - 1;
+        // search backwards for the null bytes to expose the value
+        for (int nulls = 0; index >= colq.offset(); index--) {
+            if (bytes[index] == 0 && ++nulls == 2) {
+                break;
+            }
+        }
+        return index - colq.offset();
+    }
 }
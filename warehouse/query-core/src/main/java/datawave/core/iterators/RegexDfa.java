@@ -0,0 +1,731 @@
+package datawave.core.iterators;
+
+import org.apache.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A deterministic automaton over the UTF-8 bytes of a value, compiled from a java regular expression. A value is matched with one table lookup per byte,
+ * without decoding it to a String and without backtracking, and the automaton can tell where the next value that could possibly match starts so that an
+ * ivarator can seek past the values in between.
+ * <p>
+ * Only the regular subset of the java syntax is supported: literals, '.', character classes of ascii characters, the predefined \d, \s and \w classes and their
+ * negations, groups, alternations and greedy or reluctant quantifiers. Anything else (flags, anchors within the pattern, back references, look arounds,
+ * possessive quantifiers, unicode classes, ...) makes {@link #compile(String)} return null, in which case the value should be matched with a
+ * {@link java.util.regex.Pattern} as before. The semantics of the supported subset are those of {@link java.util.regex.Matcher#matches()} without any flags.
+ */
+public class RegexDfa {
+    
+    private static final Logger log = Logger.getLogger(RegexDfa.class);
+    
+    public static final int MAX_NFA_STATES = 10000;
+    public static final int MAX_DFA_STATES = 1000;
+    
+    private static final int DEAD = -1;
+    
+    // UTF-8 encodings of all non ascii code points, as sequences of the byte ranges allowed at each position
+    private static final int[][][][] NON_ASCII = {{{{0xC2, 0xDF}}, {{0x80, 0xBF}}},
+            {{{0xE0, 0xEF}}, {{0x80, 0xBF}}, {{0x80, 0xBF}}},
+            {{{0xF0, 0xF4}}, {{0x80, 0xBF}}, {{0x80, 0xBF}}, {{0x80, 0xBF}}}};
+    
+    // UTF-8 encodings of the non ascii code points matched by '.', which excludes the line terminators U+0085, U+2028 and U+2029
+    private static final int[][][][] NON_ASCII_DOT = {{{{0xC2, 0xC2}}, {{0x80, 0x84}, {0x86, 0xBF}}},
+            {{{0xC3, 0xDF}}, {{0x80, 0xBF}}},
+            {{{0xE2, 0xE2}}, {{0x80, 0x80}}, {{0x80, 0xA7}, {0xAA, 0xBF}}},
+            {{{0xE2, 0xE2}}, {{0x81, 0xBF}}, {{0x80, 0xBF}}},
+            {{{0xE0, 0xE1}, {0xE3, 0xEF}}, {{0x80, 0xBF}}, {{0x80, 0xBF}}},
+            {{{0xF0, 0xF4}}, {{0x80, 0xBF}}, {{0x80, 0xBF}}, {{0x80, 0xBF}}}};
+    
+    private final String regex;
+    // the next state for a state and a byte, at state * 256 + byte
+    private final int[] transitions;
+    private final boolean[] accept;
+    private final int start;
+    
+    private RegexDfa(String regex, int[] transitions, boolean[] accept, int start) {
+        this.regex = regex;
+        this.transitions = transitions;
+        this.accept = accept;
+        this.start = start;
+    }
+    
+    /**
+     * Compile a regex into an automaton
+     * 
+     * @param regex
+     *            the regex
+     * @return the automaton, or null if the regex uses any syntax that is not supported
+     */
+    public static RegexDfa compile(String regex) {
+        try {
+            Nfa nfa = new Nfa();
+            int[] fragment = new Parser(regex).parse().build(nfa);
+            return nfa.determinize(regex, fragment[0], fragment[1]);
+        } catch (UnsupportedRegexException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Cannot compile " + regex + " to an automaton: " + e.getMessage());
+            }
+            return null;
+        }
+    }
+    
+    public String getRegex() {
+        return regex;
+    }
+    
+    public int getStateCount() {
+        return accept.length;
+    }
+    
+    /**
+     * @param bytes
+     *            the UTF-8 bytes of the value
+     * @param offset
+     *            the offset of the value
+     * @param length
+     *            the length of the value
+     * @return whether the regex matches the whole value
+     */
+    public boolean matches(byte[] bytes, int offset, int length) {
+        int state = start;
+        for (int i = offset, end = offset + length; i < end && state != DEAD; i++) {
+            state = transitions[(state << 8) | (bytes[i] & 0xFF)];
+        }
+        return state != DEAD && accept[state];
+    }
+    
+    /**
+     * Find the smallest value greater than a value that the regex does not match, that could be the start of a value that matches. No value between the two
+     * can match, so they can be skipped.
+     * 
+     * @param bytes
+     *            the UTF-8 bytes of the value that did not match
+     * @param offset
+     *            the offset of the value
+     * @param length
+     *            the length of the value
+     * @return the prefix of the next value that could match, or null if no greater value can match
+     */
+    public byte[] nextPrefix(byte[] bytes, int offset, int length) {
+        if (start == DEAD) {
+            return null;
+        }
+        
+        // walk the value until the automaton cannot match any value with the prefix
+        int[] states = new int[length + 1];
+        states[0] = start;
+        int position = 0;
+        while (position < length) {
+            int next = transitions[(states[position] << 8) | (bytes[offset + position] & 0xFF)];
+            if (next == DEAD) {
+                break;
+            }
+            states[++position] = next;
+        }
+        
+        // all of the values with the prefix up to and including the byte at position are not matched, so look for the smallest byte that can follow the
+        // prefix before it and still match, backing up when there is none. Values never contain a null byte, so do not bother extending the whole value by one.
+        for (int i = position; i >= 0; i--) {
+            int from = (i == length ? 1 : (bytes[offset + i] & 0xFF) + 1);
+            int row = states[i] << 8;
+            for (int b = from; b < 256; b++) {
+                if (transitions[row | b] != DEAD) {
+                    byte[] prefix = Arrays.copyOfRange(bytes, offset, offset + i + 1);
+                    prefix[i] = (byte) b;
+                    return prefix;
+                }
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public String toString() {
+        return "RegexDfa(" + regex + ", " + accept.length + " states)";
+    }
+    
+    private static class UnsupportedRegexException extends Exception {
+        UnsupportedRegexException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * A parsed regex, which can add a fragment for itself to an automaton. A fragment is the pair of its start and end states.
+     */
+    private interface RegexNode {
+        int[] build(Nfa nfa) throws UnsupportedRegexException;
+    }
+    
+    /**
+     * A nondeterministic automaton over bytes
+     */
+    private static class Nfa {
+        private final List<List<int[]>> edges = new ArrayList<>();
+        private final List<List<Integer>> epsilons = new ArrayList<>();
+        
+        int state() throws UnsupportedRegexException {
+            if (edges.size() >= MAX_NFA_STATES) {
+                throw new UnsupportedRegexException("more than " + MAX_NFA_STATES + " states");
+            }
+            edges.add(new ArrayList<>());
+            epsilons.add(new ArrayList<>());
+            return edges.size() - 1;
+        }
+        
+        void edge(int from, int lo, int hi, int to) {
+            edges.get(from).add(new int[] {lo, hi, to});
+        }
+        
+        void epsilon(int from, int to) {
+            epsilons.get(from).add(to);
+        }
+        
+        private void closure(BitSet states) {
+            Deque<Integer> stack = new ArrayDeque<>();
+            for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+                stack.push(s);
+            }
+            while (!stack.isEmpty()) {
+                for (int to : epsilons.get(stack.pop())) {
+                    if (!states.get(to)) {
+                        states.set(to);
+                        stack.push(to);
+                    }
+                }
+            }
+        }
+        
+        RegexDfa determinize(String regex, int start, int end) throws UnsupportedRegexException {
+            Map<BitSet,Integer> ids = new HashMap<>();
+            List<BitSet> sets = new ArrayList<>();
+            int[] transitions = new int[256 * 16];
+            
+            BitSet initial = new BitSet();
+            initial.set(start);
+            closure(initial);
+            ids.put(initial, 0);
+            sets.add(initial);
+            
+            for (int id = 0; id < sets.size(); id++) {
+                BitSet set = sets.get(id);
+                
+                // the bytes where the outgoing edges of the set change, so that each interval between them has the same next set
+                TreeSet<Integer> bounds = new TreeSet<>();
+                bounds.add(0);
+                bounds.add(256);
+                for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+                    for (int[] edge : edges.get(s)) {
+                        bounds.add(edge[0]);
+                        bounds.add(edge[1] + 1);
+                    }
+                }
+                
+                if (transitions.length < (id + 1) * 256) {
+                    transitions = Arrays.copyOf(transitions, transitions.length * 2);
+                }
+                Integer lo = bounds.pollFirst();
+                for (Integer hi : bounds) {
+                    BitSet next = new BitSet();
+                    for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+                        for (int[] edge : edges.get(s)) {
+                            if (edge[0] <= lo && lo <= edge[1]) {
+                                next.set(edge[2]);
+                            }
+                        }
+                    }
+                    int nextId = DEAD;
+                    if (!next.isEmpty()) {
+                        closure(next);
+                        Integer existing = ids.get(next);
+                        if (existing == null) {
+                            if (sets.size() >= MAX_DFA_STATES) {
+                                throw new UnsupportedRegexException("more than " + MAX_DFA_STATES + " deterministic states");
+                            }
+                            existing = sets.size();
+                            ids.put(next, existing);
+                            sets.add(next);
+                        }
+                        nextId = existing;
+                    }
+                    Arrays.fill(transitions, (id << 8) + lo, (id << 8) + hi, nextId);
+                    lo = hi;
+                }
+            }
+            
+            int count = sets.size();
+            boolean[] accept = new boolean[count];
+            for (int id = 0; id < count; id++) {
+                accept[id] = sets.get(id).get(end);
+            }
+            
+            // states from which no value can be accepted are dead, so that a mismatch is found as early as possible
+            boolean[] live = Arrays.copyOf(accept, count);
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int id = 0; id < count; id++) {
+                    for (int b = 0; !live[id] && b < 256; b++) {
+                        int next = transitions[(id << 8) | b];
+                        if (next != DEAD && live[next]) {
+                            live[id] = changed = true;
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < count * 256; i++) {
+                if (transitions[i] != DEAD && !live[transitions[i]]) {
+                    transitions[i] = DEAD;
+                }
+            }
+            
+            return new RegexDfa(regex, Arrays.copyOf(transitions, count * 256), accept, live[0] ? 0 : DEAD);
+        }
+    }
+    
+    /**
+     * A set of code points: a subset of the ascii characters, plus optionally all of the non ascii code points (or all but the line terminators)
+     */
+    private static class CharSet implements RegexNode {
+        private final boolean[] ascii = new boolean[128];
+        private int[][][][] nonAscii = null;
+        
+        void add(int lo, int hi) {
+            for (int c = lo; c <= hi; c++) {
+                ascii[c] = true;
+            }
+        }
+        
+        void add(CharSet other) {
+            for (int c = 0; c < 128; c++) {
+                ascii[c] |= other.ascii[c];
+            }
+            if (other.nonAscii != null) {
+                nonAscii = NON_ASCII;
+            }
+        }
+        
+        CharSet negate() {
+            CharSet negated = new CharSet();
+            for (int c = 0; c < 128; c++) {
+                negated.ascii[c] = !ascii[c];
+            }
+            negated.nonAscii = (nonAscii == null ? NON_ASCII : null);
+            return negated;
+        }
+        
+        @Override
+        public int[] build(Nfa nfa) throws UnsupportedRegexException {
+            int start = nfa.state();
+            int end = nfa.state();
+            for (int c = 0; c < 128; c++) {
+                if (ascii[c]) {
+                    int hi = c;
+                    while (hi + 1 < 128 && ascii[hi + 1]) {
+                        hi++;
+                    }
+                    nfa.edge(start, c, hi, end);
+                    c = hi;
+                }
+            }
+            if (nonAscii != null) {
+                for (int[][][] sequence : nonAscii) {
+                    int from = start;
+                    for (int i = 0; i < sequence.length; i++) {
+                        int to = (i == sequence.length - 1 ? end : nfa.state());
+                        for (int[] range : sequence[i]) {
+                            nfa.edge(from, range[0], range[1], to);
+                        }
+                        from = to;
+                    }
+                }
+            }
+            return new int[] {start, end};
+        }
+    }
+    
+    /**
+     * A recursive descent parser for the supported subset of the java regex syntax
+     */
+    private static class Parser {
+        private final String regex;
+        private int pos = 0;
+        
+        Parser(String regex) {
+            this.regex = regex;
+        }
+        
+        RegexNode parse() throws UnsupportedRegexException {
+            // the value must be matched in its entirety, so anchors at the ends change nothing
+            if (regex.startsWith("^")) {
+                pos++;
+            }
+            RegexNode node = parseAlternation();
+            if (pos == regex.length() - 1 && regex.charAt(pos) == '$') {
+                pos++;
+            }
+            if (pos != regex.length()) {
+                throw new UnsupportedRegexException("unexpected '" + regex.charAt(pos) + "' at " + pos);
+            }
+            return node;
+        }
+        
+        private boolean more() {
+            return pos < regex.length();
+        }
+        
+        private char peek() {
+            return regex.charAt(pos);
+        }
+        
+        private RegexNode parseAlternation() throws UnsupportedRegexException {
+            final List<RegexNode> alternatives = new ArrayList<>();
+            alternatives.add(parseConcatenation());
+            while (more() && peek() == '|') {
+                pos++;
+                alternatives.add(parseConcatenation());
+            }
+            if (alternatives.size() == 1) {
+                return alternatives.get(0);
+            }
+            return nfa -> {
+                int start = nfa.state();
+                int end = nfa.state();
+                for (RegexNode alternative : alternatives) {
+                    int[] fragment = alternative.build(nfa);
+                    nfa.epsilon(start, fragment[0]);
+                    nfa.epsilon(fragment[1], end);
+                }
+                return new int[] {start, end};
+            };
+        }
+        
+        private RegexNode parseConcatenation() throws UnsupportedRegexException {
+            final List<RegexNode> sequence = new ArrayList<>();
+            while (more() && peek() != '|' && peek() != ')' && !(peek() == '$' && pos == regex.length() - 1)) {
+                sequence.add(parseRepetition());
+            }
+            return nfa -> {
+                int start = nfa.state();
+                int end = start;
+                for (RegexNode node : sequence) {
+                    int[] fragment = node.build(nfa);
+                    nfa.epsilon(end, fragment[0]);
+                    end = fragment[1];
+                }
+                return new int[] {start, end};
+            };
+        }
+        
+        private RegexNode parseRepetition() throws UnsupportedRegexException {
+            RegexNode node = parseAtom();
+            while (more()) {
+                int min;
+                int max;
+                char c = peek();
+                if (c == '*') {
+                    min = 0;
+                    max = -1;
+                    pos++;
+                } else if (c == '+') {
+                    min = 1;
+                    max = -1;
+                    pos++;
+                } else if (c == '?') {
+                    min = 0;
+                    max = 1;
+                    pos++;
+                } else if (c == '{') {
+                    int close = regex.indexOf('}', pos);
+                    if (close < 0) {
+                        throw new UnsupportedRegexException("unclosed repetition at " + pos);
+                    }
+                    String[] bounds = regex.substring(pos + 1, close).split(",", -1);
+                    try {
+                        min = Integer.parseInt(bounds[0]);
+                        max = (bounds.length == 1 ? min : (bounds[1].isEmpty() ? -1 : Integer.parseInt(bounds[1])));
+                    } catch (NumberFormatException e) {
+                        throw new UnsupportedRegexException("invalid repetition at " + pos);
+                    }
+                    if (bounds.length > 2 || min < 0 || (max >= 0 && max < min)) {
+                        throw new UnsupportedRegexException("invalid repetition at " + pos);
+                    }
+                    pos = close + 1;
+                } else {
+                    break;
+                }
+                
+                if (more() && peek() == '?') {
+                    // reluctance does not change which values match
+                    pos++;
+                } else if (more() && peek() == '+') {
+                    throw new UnsupportedRegexException("possessive quantifier at " + pos);
+                }
+                node = repeat(node, min, max);
+            }
+            return node;
+        }
+        
+        private static RegexNode repeat(final RegexNode node, final int min, final int max) {
+            return nfa -> {
+                int start = nfa.state();
+                int end = start;
+                for (int i = 0; i < min; i++) {
+                    int[] fragment = node.build(nfa);
+                    nfa.epsilon(end, fragment[0]);
+                    end = fragment[1];
+                }
+                if (max < 0) {
+                    int[] fragment = node.build(nfa);
+                    int loopEnd = nfa.state();
+                    nfa.epsilon(end, fragment[0]);
+                    nfa.epsilon(end, loopEnd);
+                    nfa.epsilon(fragment[1], fragment[0]);
+                    nfa.epsilon(fragment[1], loopEnd);
+                    end = loopEnd;
+                } else {
+                    int optionalEnd = nfa.state();
+                    for (int i = min; i < max; i++) {
+                        int[] fragment = node.build(nfa);
+                        nfa.epsilon(end, fragment[0]);
+                        nfa.epsilon(end, optionalEnd);
+                        end = fragment[1];
+                    }
+                    nfa.epsilon(end, optionalEnd);
+                    end = optionalEnd;
+                }
+                return new int[] {start, end};
+            };
+        }
+        
+        private RegexNode parseAtom() throws UnsupportedRegexException {
+            char c = peek();
+            switch (c) {
+                case '(':
+                    pos++;
+                    if (more() && peek() == '?') {
+                        if (!regex.startsWith("?:", pos)) {
+                            throw new UnsupportedRegexException("special group at " + pos);
+                        }
+                        pos += 2;
+                    }
+                    RegexNode group = parseAlternation();
+                    if (!more() || peek() != ')') {
+                        throw new UnsupportedRegexException("unclosed group");
+                    }
+                    pos++;
+                    return group;
+                case '[':
+                    pos++;
+                    return parseClass();
+                case '.':
+                    pos++;
+                    CharSet dot = new CharSet();
+                    dot.add(0, 127);
+                    dot.ascii['\n'] = false;
+                    dot.ascii['\r'] = false;
+                    dot.nonAscii = NON_ASCII_DOT;
+                    return dot;
+                case '\\':
+                    pos++;
+                    if (regex.startsWith("Q", pos)) {
+                        int quoteEnd = regex.indexOf("\\E", pos);
+                        String quoted = regex.substring(pos + 1, quoteEnd < 0 ? regex.length() : quoteEnd);
+                        pos = (quoteEnd < 0 ? regex.length() : quoteEnd + 2);
+                        return literal(quoted);
+                    }
+                    CharSet predefined = parsePredefinedClass();
+                    if (predefined != null) {
+                        return predefined;
+                    }
+                    return literal(new String(Character.toChars(parseEscapedChar())));
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                case '}':
+                case ']':
+                case '^':
+                case '$':
+                    throw new UnsupportedRegexException("unexpected '" + c + "' at " + pos);
+                default:
+                    int codePoint = regex.codePointAt(pos);
+                    if (Character.isSurrogate((char) codePoint)) {
+                        throw new UnsupportedRegexException("unpaired surrogate at " + pos);
+                    }
+                    pos += Character.charCount(codePoint);
+                    return literal(new String(Character.toChars(codePoint)));
+            }
+        }
+        
+        private static RegexNode literal(String value) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            return nfa -> {
+                int start = nfa.state();
+                int end = start;
+                for (byte b : bytes) {
+                    int next = nfa.state();
+                    nfa.edge(end, b & 0xFF, b & 0xFF, next);
+                    end = next;
+                }
+                return new int[] {start, end};
+            };
+        }
+        
+        /**
+         * Parse a \d, \s or \w class or its negation, the backslash having been consumed
+         * 
+         * @return the class, or null if the escape is not a predefined class
+         */
+        private CharSet parsePredefinedClass() throws UnsupportedRegexException {
+            if (!more()) {
+                throw new UnsupportedRegexException("trailing backslash");
+            }
+            CharSet set = new CharSet();
+            switch (Character.toLowerCase(peek())) {
+                case 'd':
+                    set.add('0', '9');
+                    break;
+                case 's':
+                    set.add('\t', '\r');
+                    set.add(' ', ' ');
+                    break;
+                case 'w':
+                    set.add('a', 'z');
+                    set.add('A', 'Z');
+                    set.add('0', '9');
+                    set.add('_', '_');
+                    break;
+                default:
+                    return null;
+            }
+            boolean negated = Character.isUpperCase(peek());
+            pos++;
+            return negated ? set.negate() : set;
+        }
+        
+        /**
+         * Parse an escaped character, the backslash having been consumed
+         * 
+         * @return the code point
+         */
+        private int parseEscapedChar() throws UnsupportedRegexException {
+            char c = peek();
+            pos++;
+            switch (c) {
+                case 't':
+                    return '\t';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 'f':
+                    return '\f';
+                case 'a':
+                    return '\u0007';
+                case 'e':
+                    return '\u001B';
+                case 'x':
+                    return parseHex(2);
+                case 'u':
+                    return parseHex(4);
+                default:
+                    if (Character.isLetterOrDigit(c)) {
+                        throw new UnsupportedRegexException("unsupported escape \\" + c);
+                    }
+                    return c;
+            }
+        }
+        
+        private int parseHex(int digits) throws UnsupportedRegexException {
+            if (pos + digits > regex.length()) {
+                throw new UnsupportedRegexException("invalid hex escape at " + pos);
+            }
+            try {
+                int value = Integer.parseInt(regex.substring(pos, pos + digits), 16);
+                pos += digits;
+                if (Character.isSurrogate((char) value)) {
+                    throw new UnsupportedRegexException("surrogate escape at " + pos);
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                throw new UnsupportedRegexException("invalid hex escape at " + pos);
+            }
+        }
+        
+        /**
+         * Parse a character class of ascii characters, the opening bracket having been consumed
+         */
+        private CharSet parseClass() throws UnsupportedRegexException {
+            boolean negated = false;
+            if (more() && peek() == '^') {
+                negated = true;
+                pos++;
+            }
+            CharSet set = new CharSet();
+            boolean first = true;
+            while (true) {
+                if (!more()) {
+                    throw new UnsupportedRegexException("unclosed class");
+                }
+                char c = peek();
+                if (c == ']' && !first) {
+                    pos++;
+                    break;
+                } else if (c == '[' || c == ']' || regex.startsWith("&&", pos)) {
+                    throw new UnsupportedRegexException("nested class at " + pos);
+                }
+                first = false;
+                
+                int lo;
+                if (c == '\\') {
+                    pos++;
+                    CharSet predefined = parsePredefinedClass();
+                    if (predefined != null) {
+                        set.add(predefined);
+                        continue;
+                    }
+                    lo = parseEscapedChar();
+                } else {
+                    lo = c;
+                    pos++;
+                }
+                
+                int hi = lo;
+                if (pos + 1 < regex.length() && peek() == '-' && regex.charAt(pos + 1) != ']') {
+                    pos++;
+                    c = peek();
+                    if (c == '\\') {
+                        pos++;
+                        if (more() && "dDsSwW".indexOf(peek()) >= 0) {
+                            throw new UnsupportedRegexException("class range to a class at " + pos);
+                        }
+                        hi = parseEscapedChar();
+                    } else if (c == '[') {
+                        throw new UnsupportedRegexException("nested class at " + pos);
+                    } else {
+                        hi = c;
+                        pos++;
+                    }
+                    if (hi < lo) {
+                        throw new UnsupportedRegexException("invalid class range at " + pos);
+                    }
+                }
+                if (hi >= 128) {
+                    throw new UnsupportedRegexException("non ascii class at " + pos);
+                }
+                set.add(lo, hi);
+            }
+            return negated ? set.negate() : set;
+        }
+    }
+}
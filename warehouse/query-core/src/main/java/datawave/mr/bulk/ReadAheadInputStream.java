@@ -0,0 +1,233 @@
+package datawave.mr.bulk;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.PositionedReadable;
+import org.apache.hadoop.fs.Seekable;
+
+/**
+ * An input stream over a file that reads the upcoming blocks of the file on background threads while the current block is being consumed, so that a reader
+ * working through the file sequentially does not wait on the file system between blocks.
+ * 
+ * Read ahead starts once two reads in a row are sequential, and reads up to {@code depth} blocks of {@code blockSize} bytes past the current position. A read
+ * outside of the blocks already read ahead, such as when an RFile reader seeks to the index or to the next range, discards them and waits for the reads to be
+ * sequential again, so the memory held is bounded by {@code depth * blockSize} and random access does not waste reads. The underlying stream is only accessed
+ * with positional reads, which may be issued concurrently.
+ */
+public class ReadAheadInputStream extends InputStream implements Seekable, PositionedReadable {
+    
+    private final PositionedReadable in;
+    private final long length;
+    private final int blockSize;
+    private final int depth;
+    private final ExecutorService executor;
+    
+    // the blocks being read ahead, contiguous and in file order
+    private final Deque<Block> blocks = new ArrayDeque<>();
+    private long pos = 0;
+    private long lastReadEnd = -1;
+    private boolean closed = false;
+    
+    /**
+     * @param in
+     *            the underlying stream, which must support concurrent positional reads
+     * @param length
+     *            the length of the file
+     * @param blockSize
+     *            the number of bytes to read in each background read
+     * @param depth
+     *            the maximum number of blocks to read ahead
+     * @param executor
+     *            the executor on which to read the blocks
+     */
+    public ReadAheadInputStream(PositionedReadable in, long length, int blockSize, int depth, ExecutorService executor) {
+        this.in = in;
+        this.length = length;
+        this.blockSize = blockSize;
+        this.depth = depth;
+        this.executor = executor;
+    }
+    
+    @Override
+    public synchronized int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return (n <= 0 ? -1 : (b[0] & 0xff));
+    }
+    
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        int n = read(pos, b, off, len);
+        if (n > 0) {
+            pos += n;
+        }
+        return n;
+    }
+    
+    @Override
+    public synchronized long skip(long n) throws IOException {
+        long skipped = Math.max(0, Math.min(n, length - pos));
+        pos += skipped;
+        return skipped;
+    }
+    
+    @Override
+    public synchronized int available() throws IOException {
+        Block first = blocks.peekFirst();
+        if (first != null && first.contains(pos) && first.data.isDone()) {
+            return (int) (first.end() - pos);
+        }
+        return 0;
+    }
+    
+    @Override
+    public synchronized void seek(long position) throws IOException {
+        if (position < 0 || position > length) {
+            throw new EOFException("Cannot seek to " + position + " in a file of length " + length);
+        }
+        pos = position;
+    }
+    
+    @Override
+    public synchronized long getPos() throws IOException {
+        return pos;
+    }
+    
+    @Override
+    public boolean seekToNewSource(long targetPos) throws IOException {
+        return false;
+    }
+    
+    @Override
+    public synchronized int read(long position, byte[] buffer, int offset, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (position >= length) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        
+        int n;
+        discardBlocksBefore(position);
+        Block first = blocks.peekFirst();
+        if (first != null && first.contains(position)) {
+            byte[] data = first.get();
+            n = (int) Math.min(len, first.end() - position);
+            System.arraycopy(data, (int) (position - first.offset), buffer, offset, n);
+        } else {
+            discardBlocks();
+            n = in.read(position, buffer, offset, len);
+        }
+        
+        if (n > 0) {
+            if (position == lastReadEnd) {
+                readAhead(position + n);
+            }
+            lastReadEnd = position + n;
+        }
+        return n;
+    }
+    
+    @Override
+    public void readFully(long position, byte[] buffer, int offset, int len) throws IOException {
+        int read = 0;
+        while (read < len) {
+            int n = read(position + read, buffer, offset + read, len - read);
+            if (n < 0) {
+                throw new EOFException("End of file reached before reading " + len + " bytes at " + position);
+            }
+            read += n;
+        }
+    }
+    
+    @Override
+    public void readFully(long position, byte[] buffer) throws IOException {
+        readFully(position, buffer, 0, buffer.length);
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            discardBlocks();
+            if (in instanceof Closeable) {
+                ((Closeable) in).close();
+            }
+        }
+    }
+    
+    /**
+     * Queues reads of the blocks after the given position, up to the read ahead depth
+     */
+    private void readAhead(long position) {
+        long next = (blocks.isEmpty() ? position : blocks.peekLast().end());
+        while (blocks.size() < depth && next < length) {
+            final long offset = next;
+            final int size = (int) Math.min(blockSize, length - offset);
+            blocks.addLast(new Block(offset, size, executor.submit(() -> {
+                byte[] data = new byte[size];
+                in.readFully(offset, data, 0, size);
+                return data;
+            })));
+            next += size;
+        }
+    }
+    
+    private void discardBlocksBefore(long position) {
+        while (!blocks.isEmpty() && blocks.peekFirst().end() <= position) {
+            blocks.removeFirst().data.cancel(false);
+        }
+    }
+    
+    private void discardBlocks() {
+        while (!blocks.isEmpty()) {
+            blocks.removeFirst().data.cancel(false);
+        }
+    }
+    
+    private static class Block {
+        final long offset;
+        final int size;
+        final Future<byte[]> data;
+        
+        Block(long offset, int size, Future<byte[]> data) {
+            this.offset = offset;
+            this.size = size;
+            this.data = data;
+        }
+        
+        long end() {
+            return offset + size;
+        }
+        
+        boolean contains(long position) {
+            return position >= offset && position < end();
+        }
+        
+        byte[] get() throws IOException {
+            try {
+                return data.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading ahead");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+}
@@ -76,6 +76,21 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
     
     public static final String RECORDITER_FAILURE_SLEEP_INTERVAL = "recorditer.failure.sleep.interval";
     
+    /**
+     * The number of blocks to read ahead of the current position in each file, 0 to read the files synchronously
+     */
+    public static final String RECORDITER_READAHEAD_DEPTH = "recorditer.readahead.depth";
+    
+    public static final String RECORDITER_READAHEAD_BLOCK_SIZE = "recorditer.readahead.block.size";
+    
+    public static final String RECORDITER_READAHEAD_THREADS = "recorditer.readahead.threads";
+    
+    public static final int READAHEAD_DEPTH_DEFAULT = 0;
+    
+    public static final int READAHEAD_BLOCK_SIZE_DEFAULT = 1024 * 1024;
+    
+    public static final int READAHEAD_THREADS_DEFAULT = 4;
+    
     protected TabletSplitSplit fileSplit;
     
     protected Deque<Range> rangeQueue;
@@ -102,6 +117,14 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
     
     private final long failureSleep;
     
+    private final int readAheadDepth;
+    
+    private final int readAheadBlockSize;
+    
+    private final int readAheadThreads;
+    
+    protected ExecutorService readAheadExecutor = null;
+    
     protected Range currentRange;
     
     protected AccumuloConfiguration acuTableConf;
@@ -225,6 +248,12 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
         
         failureSleep = conf.getLong(RECORDITER_FAILURE_SLEEP_INTERVAL, DEFAULT_FAILURE_SLEEP);
         
+        readAheadDepth = conf.getInt(RECORDITER_READAHEAD_DEPTH, READAHEAD_DEPTH_DEFAULT);
+        
+        readAheadBlockSize = conf.getInt(RECORDITER_READAHEAD_BLOCK_SIZE, READAHEAD_BLOCK_SIZE_DEFAULT);
+        
+        readAheadThreads = conf.getInt(RECORDITER_READAHEAD_THREADS, READAHEAD_THREADS_DEFAULT);
+        
         String[] authStrings = conf.getStrings("recorditer.auth.string");
         
         List<ByteBuffer> authBuffer = Lists.newArrayList();
@@ -286,6 +315,10 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
             executor = Executors.newFixedThreadPool(READ_AHEAD_THREADS, new RecordIteratorFactory("RecordIterator "));
         }
         
+        if (readAheadDepth > 0 && (readAheadExecutor == null || readAheadExecutor.isShutdown())) {
+            readAheadExecutor = Executors.newFixedThreadPool(readAheadThreads, new RecordIteratorFactory("RecordIterator read ahead "));
+        }
+        
         fileIterators = new ConcurrentLinkedDeque<>();
         
         rfileReferences = new ConcurrentLinkedDeque<>();
@@ -475,10 +508,14 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
                 
                 // Path path = new Path(file);
                 
-                closeable.setInputStream(fs.open(path));
-                
                 long length = fs.getFileStatus(path).getLen();
                 
+                FSDataInputStream inputStream = fs.open(path);
+                if (readAheadDepth > 0) {
+                    inputStream = new FSDataInputStream(new ReadAheadInputStream(inputStream, length, readAheadBlockSize, readAheadDepth, readAheadExecutor));
+                }
+                closeable.setInputStream(inputStream);
+                
                 closeable.setBlockFile(new Reader(path.getName(), closeable.getInputStream(), length, conf, null, null, acuTableConf));
                 
                 fileIterator = new RFile.Reader(closeable.getReader());
@@ -607,6 +644,10 @@ public class RecordIterator extends RangeSplit implements SortedKeyValueIterator
         // attempt to interrupt and then clean up those resources.
         closeOnExit();
         
+        if (null != readAheadExecutor) {
+            readAheadExecutor.shutdownNow();
+        }
+        
         futures.clear();
         fileIterators.clear();
         
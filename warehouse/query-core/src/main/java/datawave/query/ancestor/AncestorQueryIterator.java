@@ -129,7 +129,7 @@ public class AncestorQueryIterator extends QueryIterator {
     
     @Override
     protected JexlEvaluation getJexlEvaluation(NestedQueryIterator<Key> documentSource) {
-        return new JexlEvaluation(query, getArithmetic()) {
+        return new JexlEvaluation(query, getArithmetic(), isCompileEvaluation()) {
             private Key currentKey = null;
             
             private boolean isCurrentDoc(Key key) {
@@ -295,6 +295,9 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private ReturnType returnType = DocumentSerialization.DEFAULT_RETURN_TYPE;
     private int eventPerDayThreshold = 10000;
     private int shardsPerDayThreshold = 10;
+    // Path of the term cardinality index used to skip the index lookup for very large terms in an intersection
+    private String termCardinalityIndexPath = null;
+    private long maxTermCardinality = -1;
     private int maxTermThreshold = 2500;
     private int maxDepthThreshold = 2500;
     private boolean expandFields = true;
@@ -349,6 +352,10 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
      * should the sizes of documents be tracked for this query
      */
     private boolean trackSizes = true;
+    /**
+     * should the query be compiled to closures for evaluation rather than interpreted for every document
+     */
+    private boolean compileEvaluation = false;
     
     private List<String> contentFieldNames = Collections.emptyList();
     
@@ -499,6 +506,8 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setReturnType(other.getReturnType());
         this.setEventPerDayThreshold(other.getEventPerDayThreshold());
         this.setShardsPerDayThreshold(other.getShardsPerDayThreshold());
+        this.setTermCardinalityIndexPath(other.getTermCardinalityIndexPath());
+        this.setMaxTermCardinality(other.getMaxTermCardinality());
         this.setMaxTermThreshold(other.getMaxTermThreshold());
         this.setMaxDepthThreshold(other.getMaxDepthThreshold());
         this.setMaxUnfieldedExpansionThreshold(other.getMaxUnfieldedExpansionThreshold());
@@ -544,6 +553,7 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setUniqueFields(UniqueFields.copyOf(other.getUniqueFields()));
         this.setCacheModel(other.getCacheModel());
         this.setTrackSizes(other.isTrackSizes());
+        this.setCompileEvaluation(other.isCompileEvaluation());
         this.setContentFieldNames(null == other.getContentFieldNames() ? null : Lists.newArrayList(other.getContentFieldNames()));
         this.setEvaluationOnlyFields(other.getEvaluationOnlyFields());
         this.setDisallowedRegexPatterns(null == other.getEvaluationOnlyFields() ? null : Sets.newHashSet(other.getDisallowedRegexPatterns()));
@@ -1092,6 +1102,22 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.shardsPerDayThreshold = shardsPerDayThreshold;
     }
     
+    public String getTermCardinalityIndexPath() {
+        return termCardinalityIndexPath;
+    }
+    
+    public void setTermCardinalityIndexPath(String termCardinalityIndexPath) {
+        this.termCardinalityIndexPath = termCardinalityIndexPath;
+    }
+    
+    public long getMaxTermCardinality() {
+        return maxTermCardinality;
+    }
+    
+    public void setMaxTermCardinality(long maxTermCardinality) {
+        this.maxTermCardinality = maxTermCardinality;
+    }
+    
     public int getMaxTermThreshold() {
         return maxTermThreshold;
     }
@@ -2105,6 +2131,14 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.trackSizes = trackSizes;
     }
     
+    public boolean isCompileEvaluation() {
+        return compileEvaluation;
+    }
+    
+    public void setCompileEvaluation(boolean compileEvaluation) {
+        this.compileEvaluation = compileEvaluation;
+    }
+    
     public List<String> getContentFieldNames() {
         return contentFieldNames;
     }
@@ -0,0 +1,142 @@
+package datawave.query.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Drains the discovery scanners concurrently and merges what they return into one result per term, field, datatype and date, ordered by descending count.
+ * 
+ * The {@link DiscoveryIterator} already aggregates the counts for a term and field on the tablet server, so the same key is only seen more than once when it
+ * was matched by both the forward and the reverse index. In that case the results describe the same index entries and only one of them is kept.
+ */
+public class DiscoveredThingAggregator {
+    
+    private static final Logger log = Logger.getLogger(DiscoveredThingAggregator.class);
+    
+    /**
+     * Descending count, then the natural ordering so that the results are deterministic
+     */
+    public static final Comparator<DiscoveredThing> BY_COUNT = (a, b) -> {
+        int cmp = Long.compare(b.getCount(), a.getCount());
+        return (cmp != 0 ? cmp : a.compareTo(b));
+    };
+    
+    private final Map<String,DiscoveredThing> things = new HashMap<>();
+    
+    public void add(DiscoveredThing thing) {
+        String key = key(thing);
+        DiscoveredThing current = things.get(key);
+        if (current == null || current.getCount() < thing.getCount()) {
+            things.put(key, thing);
+        }
+    }
+    
+    public void addAll(Iterator<DiscoveredThing> it) {
+        while (it.hasNext()) {
+            DiscoveredThing thing = it.next();
+            if (thing != null) {
+                add(thing);
+            }
+        }
+    }
+    
+    public void merge(DiscoveredThingAggregator other) {
+        for (DiscoveredThing thing : other.things.values()) {
+            add(thing);
+        }
+    }
+    
+    public int size() {
+        return things.size();
+    }
+    
+    /**
+     * @param limit
+     *            the maximum number of results to return, 0 or less for all of them
+     * @return the results ordered by descending count
+     */
+    public List<DiscoveredThing> getTop(int limit) {
+        if (limit <= 0 || limit >= things.size()) {
+            List<DiscoveredThing> sorted = new ArrayList<>(things.values());
+            sorted.sort(BY_COUNT);
+            return sorted;
+        }
+        
+        // keep the smallest of the current top results at the head of the queue so that it can be replaced
+        PriorityQueue<DiscoveredThing> top = new PriorityQueue<>(limit, BY_COUNT.reversed());
+        for (DiscoveredThing thing : things.values()) {
+            if (top.size() < limit) {
+                top.add(thing);
+            } else if (BY_COUNT.compare(thing, top.peek()) < 0) {
+                top.poll();
+                top.add(thing);
+            }
+        }
+        List<DiscoveredThing> sorted = new ArrayList<>(top);
+        sorted.sort(BY_COUNT);
+        return sorted;
+    }
+    
+    /**
+     * Drains each of the iterators on its own thread and merges the results.
+     * 
+     * @param iterators
+     *            the discovery iterators, one per scanner
+     * @param limit
+     *            the maximum number of results to return, 0 or less for all of them
+     * @return the merged results ordered by descending count
+     * @throws ExecutionException
+     *             if any of the iterators fail
+     * @throws InterruptedException
+     *             if interrupted while waiting on the iterators
+     */
+    public static List<DiscoveredThing> aggregate(List<Iterator<DiscoveredThing>> iterators, int limit) throws ExecutionException, InterruptedException {
+        DiscoveredThingAggregator aggregator = new DiscoveredThingAggregator();
+        if (iterators.size() == 1) {
+            aggregator.addAll(iterators.get(0));
+        } else if (iterators.size() > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(iterators.size(), new ThreadFactoryBuilder().setDaemon(true)
+                            .setNameFormat("DiscoveredThingAggregator-%d").build());
+            try {
+                List<Future<DiscoveredThingAggregator>> partials = new ArrayList<>();
+                for (Iterator<DiscoveredThing> it : iterators) {
+                    partials.add(executor.submit(() -> {
+                        DiscoveredThingAggregator partial = new DiscoveredThingAggregator();
+                        partial.addAll(it);
+                        return partial;
+                    }));
+                }
+                for (Future<DiscoveredThingAggregator> partial : partials) {
+                    aggregator.merge(partial.get());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        } else {
+            return Collections.emptyList();
+        }
+        
+        if (log.isDebugEnabled()) {
+            log.debug("Aggregated " + aggregator.size() + " discovered terms, returning up to " + (limit > 0 ? limit : aggregator.size()));
+        }
+        return aggregator.getTop(limit);
+    }
+    
+    private static String key(DiscoveredThing thing) {
+        return thing.getTerm() + '\u0000' + thing.getField() + '\u0000' + thing.getType() + '\u0000' + thing.getDate();
+    }
+}
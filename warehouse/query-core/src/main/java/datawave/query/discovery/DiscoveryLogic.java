@@ -4,6 +4,7 @@ import static com.google.common.collect.Iterators.concat;
 import static com.google.common.collect.Iterators.transform;
 
 import java.io.IOException;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -36,6 +37,8 @@ import datawave.query.tables.ScannerFactory;
 import datawave.query.util.MetadataHelper;
 import datawave.webservice.query.Query;
 import datawave.webservice.query.configuration.GenericQueryConfiguration;
+import datawave.webservice.query.exception.BadRequestQueryException;
+import datawave.webservice.query.exception.DatawaveErrorCode;
 import datawave.webservice.query.exception.QueryException;
 
 import org.apache.accumulo.core.client.BatchScanner;
@@ -74,9 +77,13 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
     public static final String SEPARATE_COUNTS_BY_COLVIS = "separate.counts.by.colvis";
     public static final String SHOW_REFERENCE_COUNT = "show.reference.count";
     public static final String REVERSE_INDEX = "reverse.index";
+    public static final String SUM_COUNTS = "sum.counts";
+    public static final String TOP_K = "top.k";
     
     private Boolean separateCountsByColVis = false;
     private Boolean showReferenceCount = false;
+    private Boolean sumCounts = false;
+    private int topK = 0;
     private MetadataHelper metadataHelper;
     
     public DiscoveryLogic() {
@@ -126,6 +133,18 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
             config.setShowReferenceCount(showReferenceCount);
         }
         
+        // Check if user would like one count for the entire date range instead of one per day
+        if (null != settings.findParameter(SUM_COUNTS) && !settings.findParameter(SUM_COUNTS).getParameterValue().trim().isEmpty()) {
+            sumCounts = Boolean.valueOf(settings.findParameter(SUM_COUNTS).getParameterValue().trim());
+        }
+        config.setSumCounts(sumCounts);
+        
+        // Check if user would like only the most frequent terms
+        if (null != settings.findParameter(TOP_K) && !settings.findParameter(TOP_K).getParameterValue().trim().isEmpty()) {
+            topK = parseTopK(settings.findParameter(TOP_K).getParameterValue().trim());
+        }
+        config.setTopK(topK);
+        
         this.queryModel = metadataHelper.getQueryModel(modelTableName, modelName, null);
         
         // get the data type filter set if any
@@ -229,7 +248,17 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
         config.setSeparateCountsByColVis(separateCountsByColVis);
         config.setShowReferenceCount(showReferenceCount);
         
-        this.iterator = concat(iterators.iterator());
+        if (config.getSumCounts() || config.getTopK() > 0) {
+            // the results have to be merged and ordered by count, so drain the scanners up front
+            try {
+                this.iterator = DiscoveredThingAggregator.aggregate(iterators, config.getTopK()).iterator();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new QueryException(e);
+            }
+        } else {
+            this.iterator = concat(iterators.iterator());
+        }
     }
     
     public static BatchScanner configureBatchScannerForDiscovery(DiscoveryQueryConfiguration config, ScannerFactory scannerFactory, String tableName,
@@ -268,6 +297,9 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
         if (config.getShowReferenceCount()) {
             discoveryIteratorSetting.addOption(SHOW_REFERENCE_COUNT, config.getShowReferenceCount().toString());
         }
+        if (config.getSumCounts()) {
+            discoveryIteratorSetting.addOption(SUM_COUNTS, config.getSumCounts().toString());
+        }
         bs.addScanIterator(discoveryIteratorSetting);
         
         return bs;
@@ -497,6 +529,8 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
     public Set<String> getOptionalQueryParameters() {
         Set<String> params = super.getOptionalQueryParameters();
         params.add(SEPARATE_COUNTS_BY_COLVIS);
+        params.add(SUM_COUNTS);
+        params.add(TOP_K);
         return params;
     }
     
@@ -516,4 +550,40 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
         this.showReferenceCount = showReferenceCount;
     }
     
+    public Boolean getSumCounts() {
+        return sumCounts;
+    }
+    
+    public void setSumCounts(Boolean sumCounts) {
+        this.sumCounts = sumCounts;
+    }
+    
+    public int getTopK() {
+        return topK;
+    }
+    
+    /**
+     * @param value
+     *            the {@value #TOP_K} parameter
+     * @return the number of most frequent terms to return
+     * @throws BadRequestQueryException
+     *             if the value is not a positive integer
+     */
+    private static int parseTopK(String value) throws BadRequestQueryException {
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestQueryException(DatawaveErrorCode.INVALID_FORMAT, e, MessageFormat.format("{0} must be a positive integer: {1}", TOP_K, value));
+        }
+        if (parsed <= 0) {
+            throw new BadRequestQueryException(DatawaveErrorCode.INVALID_FORMAT, MessageFormat.format("{0} must be a positive integer: {1}", TOP_K, value));
+        }
+        return parsed;
+    }
+    
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+    
 }
@@ -15,6 +15,8 @@ public class DiscoveryQueryConfiguration extends ShardIndexQueryConfiguration {
     private Multimap<String,LiteralRange<String>> ranges;
     private Boolean separateCountsByColVis = false;
     private Boolean showReferenceCount = false;
+    private Boolean sumCounts = false;
+    private int topK = 0;
     
     public DiscoveryQueryConfiguration(ShardIndexQueryTable logic, Query query) {
         super(logic, query);
@@ -60,4 +62,20 @@ public class DiscoveryQueryConfiguration extends ShardIndexQueryConfiguration {
         this.showReferenceCount = showReferenceCount;
         
     }
+    
+    public Boolean getSumCounts() {
+        return sumCounts;
+    }
+    
+    public void setSumCounts(Boolean sumCounts) {
+        this.sumCounts = sumCounts;
+    }
+    
+    public int getTopK() {
+        return topK;
+    }
+    
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
 }
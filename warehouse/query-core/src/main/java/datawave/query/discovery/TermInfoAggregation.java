@@ -56,7 +56,7 @@ public class TermInfoAggregation implements Function<Collection<TermInfo>,Discov
             return null;
         } else {
             TermInfo info = from.iterator().next();
-            final String term, field = info.fieldName, type = info.datatype, date = info.date;
+            final String term, field = info.fieldName, type = info.datatype;
             if (reverseIndex) {
                 term = new StringBuilder().append(info.fieldValue).reverse().toString();
             } else {
@@ -67,7 +67,16 @@ public class TermInfoAggregation implements Function<Collection<TermInfo>,Discov
             long termCount = 0L;
             long referenceCount = 0L;
             long chosenCount = 0L;
+            String firstDate = info.date;
+            String lastDate = info.date;
             for (TermInfo ti : from) {
+                // the term infos span multiple dates when counts are summed across the date range
+                if (ti.date.compareTo(firstDate) < 0) {
+                    firstDate = ti.date;
+                } else if (ti.date.compareTo(lastDate) > 0) {
+                    lastDate = ti.date;
+                }
+                
                 termCount = ti.count;
                 referenceCount = ti.getListSize();
                 
@@ -98,6 +107,7 @@ public class TermInfoAggregation implements Function<Collection<TermInfo>,Discov
                 }
                 count += chosenCount;
             }
+            final String date = (firstDate.equals(lastDate) ? firstDate : firstDate + '-' + lastDate);
             // adjust it so that if we have zero or fewer records
             // do nothing
             if (count <= 0) {
@@ -3,6 +3,7 @@ package datawave.query.function;
 import datawave.query.attributes.Attributes;
 import datawave.query.attributes.ValueTuple;
 import datawave.query.jexl.ArithmeticJexlEngines;
+import datawave.query.jexl.CompiledJexlScript;
 import datawave.query.jexl.DefaultArithmetic;
 import datawave.query.jexl.DelayedNonEventIndexContext;
 import org.apache.accumulo.core.data.Key;
@@ -35,11 +36,28 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
      */
     protected Script script;
     
+    /**
+     * The script compiled to closures, if the query is to be evaluated without the interpreter
+     */
+    protected CompiledJexlScript compiledScript;
+    
     public JexlEvaluation(String query) {
         this(query, new DefaultArithmetic());
     }
     
     public JexlEvaluation(String query, JexlArithmetic arithmetic) {
+        this(query, arithmetic, false);
+    }
+    
+    /**
+     * @param query
+     *            the query
+     * @param arithmetic
+     *            the arithmetic to evaluate the query with
+     * @param compile
+     *            whether to compile the query to a {@link CompiledJexlScript} rather than interpret it for every document
+     */
+    public JexlEvaluation(String query, JexlArithmetic arithmetic, boolean compile) {
         this.query = query;
         this.arithmetic = arithmetic;
         
@@ -48,6 +66,10 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
         
         // Evaluate the JexlContext against the Script
         this.script = this.engine.createScript(this.query);
+        
+        if (compile) {
+            this.compiledScript = new CompiledJexlScript(this.engine, this.engine.parse(this.query));
+        }
     }
     
     public JexlArithmetic getArithmetic() {
@@ -69,7 +91,7 @@ public class JexlEvaluation implements Predicate<Tuple3<Key,Document,DatawaveJex
     @Override
     public boolean apply(Tuple3<Key,Document,DatawaveJexlContext> input) {
         
-        Object o = script.execute(input.third());
+        Object o = (compiledScript != null ? compiledScript.execute(input.third()) : script.execute(input.third()));
         
         if (log.isTraceEnabled()) {
             log.trace("Evaluation of " + query + " against " + input.third() + " returned " + o);
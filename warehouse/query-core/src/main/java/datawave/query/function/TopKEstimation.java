@@ -0,0 +1,85 @@
+package datawave.query.function;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+
+import datawave.query.attributes.Attribute;
+import datawave.query.attributes.Attributes;
+import datawave.query.attributes.Cardinality;
+import datawave.query.attributes.Document;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.log4j.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Maps;
+import com.google.common.collect.TreeMultimap;
+
+/**
+ * Keeps only the facet values with the largest estimated cardinality for each field. Fields with no more than the maximum number of values are kept whole.
+ */
+public class TopKEstimation implements Function<Entry<Key,Document>,Entry<Key,Document>> {
+    
+    private static final Logger log = Logger.getLogger(TopKEstimation.class);
+    
+    private static final Comparator<Cardinality> BY_ESTIMATE = Comparator.comparingLong(card -> card.getContent().getEstimate().cardinality());
+    
+    protected int maximumValues;
+    
+    public TopKEstimation(int maximumValues) {
+        if (maximumValues < 0) {
+            throw new IllegalArgumentException("The maximum number of values must not be negative: " + maximumValues);
+        }
+        this.maximumValues = maximumValues;
+    }
+    
+    @Override
+    public Entry<Key,Document> apply(Entry<Key,Document> input) {
+        TreeMultimap<String,Attribute<? extends Comparable<?>>> newDocumentAttributes = TreeMultimap.create();
+        
+        for (Entry<String,Attribute<? extends Comparable<?>>> attr : input.getValue().getDictionary().entrySet()) {
+            if (attr.getKey().equals(Document.DOCKEY_FIELD_NAME)) {
+                continue;
+            }
+            
+            if (attr.getValue() instanceof Attributes) {
+                Collection<Attribute<? extends Comparable<?>>> attributes = ((Attributes) attr.getValue()).getAttributes();
+                if (attributes.size() <= maximumValues) {
+                    newDocumentAttributes.putAll(attr.getKey(), attributes);
+                } else {
+                    newDocumentAttributes.putAll(attr.getKey(), topValues(attributes));
+                    if (log.isTraceEnabled())
+                        log.trace("Kept " + maximumValues + " of " + attributes.size() + " values for " + attr.getKey());
+                }
+            } else if (maximumValues > 0) {
+                newDocumentAttributes.put(attr.getKey(), attr.getValue());
+            }
+        }
+        
+        Document currentDoc = new Document();
+        currentDoc.putAll(newDocumentAttributes.entries().iterator(), false);
+        return Maps.immutableEntry(input.getKey(), currentDoc);
+    }
+    
+    /**
+     * Select the values with the largest estimates using a heap of the current best, so that a field with many values costs O(n log k).
+     */
+    private List<Cardinality> topValues(Collection<Attribute<? extends Comparable<?>>> attributes) {
+        PriorityQueue<Cardinality> top = new PriorityQueue<>(maximumValues + 1, BY_ESTIMATE);
+        for (Attribute<?> attribute : attributes) {
+            if (!(attribute instanceof Cardinality)) {
+                throw new RuntimeException("Have " + attribute.getClass());
+            }
+            top.add((Cardinality) attribute);
+            if (top.size() > maximumValues) {
+                top.poll();
+            }
+        }
+        return new ArrayList<>(top);
+    }
+}
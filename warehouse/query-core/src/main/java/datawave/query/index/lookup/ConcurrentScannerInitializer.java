@@ -1,6 +1,7 @@
 package datawave.query.index.lookup;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -20,10 +21,32 @@ import com.google.common.collect.Lists;
  */
 public class ConcurrentScannerInitializer implements Callable<BaseIndexStream> {
     
+    /**
+     * The cost of a stream whose size could not be estimated
+     */
+    public static final long UNKNOWN_COST = Long.MAX_VALUE;
+    
     private BaseIndexStream stream;
     
+    private long cost;
+    
     public ConcurrentScannerInitializer(BaseIndexStream stream) {
+        this(stream, UNKNOWN_COST);
+    }
+    
+    /**
+     * @param stream
+     *            the stream to initialize
+     * @param cost
+     *            the estimated number of index entries the stream will scan, or {@link #UNKNOWN_COST}
+     */
+    public ConcurrentScannerInitializer(BaseIndexStream stream, long cost) {
         this.stream = stream;
+        this.cost = cost;
+    }
+    
+    public long getCost() {
+        return cost;
     }
     
     /*
@@ -44,6 +67,40 @@ public class ConcurrentScannerInitializer implements Callable<BaseIndexStream> {
         }
     }
     
+    /**
+     * Initialize the streams of an intersection. When the cost of any stream is known, the cheapest one is initialized first. If it finds nothing then the
+     * intersection cannot match, so the scanners of the other streams are never started and those streams are returned as absent. Otherwise the remaining
+     * streams are initialized concurrently as in {@link #initializeScannerStreams(List, ExecutorService)}.
+     * 
+     * @param todo
+     *            the streams of the intersection
+     * @param executor
+     *            the executor to initialize the streams with
+     * @return the initialized streams
+     */
+    public static Collection<BaseIndexStream> initializeIntersectedScannerStreams(List<ConcurrentScannerInitializer> todo, ExecutorService executor) {
+        List<ConcurrentScannerInitializer> remaining = Lists.newArrayList(todo);
+        todo.clear();
+        
+        remaining.sort(Comparator.comparingLong(ConcurrentScannerInitializer::getCost));
+        ConcurrentScannerInitializer cheapest = remaining.isEmpty() ? null : remaining.get(0);
+        if (remaining.size() < 2 || cheapest.getCost() == UNKNOWN_COST || cheapest.stream.context() != StreamContext.INITIALIZED) {
+            return initializeScannerStreams(remaining, executor);
+        }
+        remaining.remove(0);
+        
+        List<BaseIndexStream> streams = Lists.newArrayList(initializeScannerStreams(Lists.newArrayList(cheapest), executor));
+        if (streams.size() == 1 && streams.get(0).context() == StreamContext.ABSENT) {
+            for (ConcurrentScannerInitializer initializer : remaining) {
+                BaseIndexStream stream = initializer.stream;
+                streams.add(stream.context() == StreamContext.INITIALIZED ? ScannerStream.noData(stream.currentNode()) : stream);
+            }
+        } else {
+            streams.addAll(initializeScannerStreams(remaining, executor));
+        }
+        return streams;
+    }
+    
     public static Collection<BaseIndexStream> initializeScannerStreams(List<ConcurrentScannerInitializer> todo, ExecutorService executor) {
         
         List<Future<BaseIndexStream>> futures;
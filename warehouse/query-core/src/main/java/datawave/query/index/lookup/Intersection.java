@@ -568,7 +568,7 @@ public class Intersection extends BaseIndexStream {
             if (!todo.isEmpty()) {
                 if (log.isTraceEnabled())
                     log.trace("building " + todo.size() + " scanners concurrently");
-                Collection<BaseIndexStream> streams = ConcurrentScannerInitializer.initializeScannerStreams(todo, service);
+                Collection<BaseIndexStream> streams = ConcurrentScannerInitializer.initializeIntersectedScannerStreams(todo, service);
                 for (BaseIndexStream stream : streams) {
                     addChild(stream);
                 }
@@ -11,6 +11,7 @@ import datawave.query.Constants;
 import datawave.query.config.ShardQueryConfiguration;
 import datawave.query.exceptions.DatawaveFatalQueryException;
 import datawave.query.index.lookup.IndexStream.StreamContext;
+import datawave.query.index.stats.TermCardinalityIndex;
 import datawave.query.iterator.QueryOptions;
 import datawave.query.jexl.JexlASTHelper;
 import datawave.query.jexl.JexlASTHelper.IdentifierOpLiteral;
@@ -73,6 +74,7 @@ import org.apache.commons.jexl2.parser.JexlNode;
 import org.apache.hadoop.io.Text;
 import org.apache.log4j.Logger;
 
+import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -136,6 +138,8 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
     
     protected Set<String> indexOnlyFields = Sets.newHashSet();
     
+    protected TermCardinalityIndex termCardinalityIndex = null;
+    
     public RangeStream(ShardQueryConfiguration config, ScannerFactory scanners, MetadataHelper metadataHelper) {
         this.config = config;
         this.scanners = scanners;
@@ -155,6 +159,13 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
         } catch (TableNotFoundException e) {
             // ignore
         }
+        if (config.getTermCardinalityIndexPath() != null && config.getMaxTermCardinality() > 0) {
+            try {
+                termCardinalityIndex = TermCardinalityIndex.load(config.getTermCardinalityIndexPath());
+            } catch (IOException e) {
+                log.warn("Unable to load the term cardinality index from " + config.getTermCardinalityIndexPath(), e);
+            }
+        }
     }
     
     public CloseableIterable<QueryPlan> streamPlans(JexlNode script) {
@@ -348,13 +359,20 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
         builder.setUidIntersector(uidIntersector);
         
         // join the index streams
-        List<ConcurrentScannerInitializer> todo = Lists.newArrayList();
+        List<BaseIndexStream> children = Lists.newArrayList();
         for (int i = 0; i < node.jjtGetNumChildren(); i++) {
             BaseIndexStream child = (BaseIndexStream) node.jjtGetChild(i).jjtAccept(this, builder);
             if (null != child) {
-                todo.add(new ConcurrentScannerInitializer(child));
+                children.add(child);
             }
         }
+        long[] costs = estimateCosts(children);
+        delayLargeTerms(children, costs);
+        
+        List<ConcurrentScannerInitializer> todo = Lists.newArrayList();
+        for (int i = 0; i < children.size(); i++) {
+            todo.add(new ConcurrentScannerInitializer(children.get(i), costs[i]));
+        }
         
         builder.addChildren(todo);
         
@@ -389,6 +407,81 @@ public class RangeStream extends BaseVisitor implements CloseableIterable<QueryP
         }
     }
     
+    /**
+     * Estimates the number of index entries each child of an intersection will scan using the term cardinality index, so that the cheapest child can be looked
+     * up first. Only equality terms that have not been looked up yet, on fields that the index has entries for within the query dates, can be estimated.
+     * 
+     * @param children
+     *            the index streams of an intersection
+     * @return the estimated cost of each child, or {@link ConcurrentScannerInitializer#UNKNOWN_COST}
+     */
+    protected long[] estimateCosts(List<BaseIndexStream> children) {
+        long[] costs = new long[children.size()];
+        Arrays.fill(costs, ConcurrentScannerInitializer.UNKNOWN_COST);
+        if (termCardinalityIndex == null) {
+            return costs;
+        }
+        
+        for (int i = 0; i < children.size(); i++) {
+            BaseIndexStream child = children.get(i);
+            if (StreamContext.INITIALIZED == child.context() && child.currentNode() instanceof ASTEQNode) {
+                IdentifierOpLiteral op = JexlASTHelper.getIdentifierOpLiteral(child.currentNode());
+                if (op != null && op.getLiteralValue() != null) {
+                    String field = op.deconstructIdentifier();
+                    // a field that is missing from the index is not known to be cheap
+                    if (termCardinalityIndex.hasField(field, config.getBeginDate(), config.getEndDate())) {
+                        costs[i] = termCardinalityIndex.estimate(field, op.getLiteralValue().toString(), config.getBeginDate(), config.getEndDate());
+                    }
+                }
+            }
+        }
+        return costs;
+    }
+    
+    /**
+     * Replaces the index lookups for intersected terms that the term cardinality index estimates will match more than the configured maximum with delayed
+     * terms, so that they are evaluated against the shards found by the other terms instead of being scanned out of the global index. Nothing is replaced
+     * unless at least one of the other children will still be looked up.
+     * 
+     * @param children
+     *            the index streams of an intersection
+     * @param costs
+     *            the estimated cost of each child, from {@link #estimateCosts(List)}
+     */
+    protected void delayLargeTerms(List<BaseIndexStream> children, long[] costs) {
+        if (termCardinalityIndex == null || children.size() < 2) {
+            return;
+        }
+        
+        long maxCardinality = config.getMaxTermCardinality();
+        boolean[] large = new boolean[children.size()];
+        int lookups = 0;
+        for (int i = 0; i < children.size(); i++) {
+            BaseIndexStream child = children.get(i);
+            if (StreamContext.INITIALIZED != child.context() && StreamContext.PRESENT != child.context()) {
+                continue;
+            }
+            large[i] = costs[i] != ConcurrentScannerInitializer.UNKNOWN_COST && costs[i] > maxCardinality;
+            if (large[i] && log.isDebugEnabled()) {
+                log.debug("Delaying " + JexlStringBuildingVisitor.buildQuery(child.currentNode()) + ", estimated count " + costs[i] + " exceeds "
+                                + maxCardinality);
+            }
+            if (!large[i]) {
+                lookups++;
+            }
+        }
+        
+        if (lookups == 0) {
+            return;
+        }
+        for (int i = 0; i < children.size(); i++) {
+            if (large[i]) {
+                children.set(i, ScannerStream.exceededTermThreshold(children.get(i).currentNode()));
+                costs[i] = ConcurrentScannerInitializer.UNKNOWN_COST;
+            }
+        }
+    }
+    
     @Override
     public ScannerStream visit(ASTEQNode node, Object data) {
         
@@ -0,0 +1,434 @@
+package datawave.query.index.stats;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import datawave.ingest.protobuf.Uid;
+import datawave.query.Constants;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.Logger;
+
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * A compact, pre-aggregated summary of the global index used by the planner to estimate how many events a term will match on each day without scanning the
+ * index.
+ * 
+ * For every field and day the index keeps the total count and a {@link HyperLogLogPlus} estimate of the distinct values. Fields with few distinct values keep
+ * an exact count for every value. Once a field exceeds {@link #getMaxExactValues()} values, only the values whose count meets {@link #getHeavyTermCount()}
+ * are kept exactly and the remaining values are estimated as the average of the rest of the field.
+ * 
+ * The index is built from the shard index with a {@link Builder}, see {@link TermCardinalityIndexBuilder}, and is persisted as a single file.
+ */
+public class TermCardinalityIndex {
+    
+    private static final Logger log = Logger.getLogger(TermCardinalityIndex.class);
+    
+    private static final int FILE_MAGIC = 0x54434931;
+    private static final int FILE_VERSION = 1;
+    
+    private static final int HYPERLOG_NORMAL_PRECISION = 10;
+    private static final int HYPERLOG_SPARSE_PRECISION = 16;
+    
+    // how long a loaded index is used before the file is checked for a replacement
+    private static final long RECHECK_INTERVAL_MS = 5 * 60 * 1000L;
+    
+    private static final Map<String,Loaded> loaded = new ConcurrentHashMap<>();
+    
+    private final long heavyTermCount;
+    private final int maxExactValues;
+    private final Map<String,FieldDay> fieldDays;
+    
+    private TermCardinalityIndex(long heavyTermCount, int maxExactValues, Map<String,FieldDay> fieldDays) {
+        this.heavyTermCount = heavyTermCount;
+        this.maxExactValues = maxExactValues;
+        this.fieldDays = fieldDays;
+    }
+    
+    public long getHeavyTermCount() {
+        return heavyTermCount;
+    }
+    
+    public int getMaxExactValues() {
+        return maxExactValues;
+    }
+    
+    /**
+     * Estimate the number of events matching a term on a day
+     * 
+     * @param field
+     *            the field name
+     * @param value
+     *            the normalized value
+     * @param day
+     *            the day, yyyyMMdd
+     * @return the estimated count, 0 if the field was not seen on that day
+     */
+    public long estimate(String field, String value, String day) {
+        FieldDay fieldDay = fieldDays.get(key(field, day));
+        return (fieldDay == null ? 0 : fieldDay.estimate(value));
+    }
+    
+    /**
+     * Estimate the number of events matching a term over a date range
+     * 
+     * @param field
+     *            the field name
+     * @param value
+     *            the normalized value
+     * @param begin
+     *            the begin date
+     * @param end
+     *            the end date
+     * @return the estimated count
+     */
+    public long estimate(String field, String value, Date begin, Date end) {
+        long count = 0;
+        for (String day : days(begin, end)) {
+            count += estimate(field, value, day);
+        }
+        return count;
+    }
+    
+    /**
+     * Whether the index has any entry for a field over a date range. An estimate of 0 for a field without entries means nothing is known about the field, not
+     * that it matches nothing.
+     * 
+     * @param field
+     *            the field name
+     * @param begin
+     *            the begin date
+     * @param end
+     *            the end date
+     * @return true if the field was seen on any day of the range
+     */
+    public boolean hasField(String field, Date begin, Date end) {
+        for (String day : days(begin, end)) {
+            if (fieldDays.containsKey(key(field, day))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @param field
+     *            the field name
+     * @param day
+     *            the day, yyyyMMdd
+     * @return the estimated number of distinct values for the field on the day
+     */
+    public long getCardinality(String field, String day) {
+        FieldDay fieldDay = fieldDays.get(key(field, day));
+        return (fieldDay == null ? 0 : fieldDay.cardinality());
+    }
+    
+    /**
+     * @param field
+     *            the field name
+     * @param day
+     *            the day, yyyyMMdd
+     * @return the total count for the field on the day
+     */
+    public long getCount(String field, String day) {
+        FieldDay fieldDay = fieldDays.get(key(field, day));
+        return (fieldDay == null ? 0 : fieldDay.count);
+    }
+    
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        out.writeLong(heavyTermCount);
+        out.writeInt(maxExactValues);
+        out.writeInt(fieldDays.size());
+        for (Map.Entry<String,FieldDay> entry : fieldDays.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().write(out);
+        }
+    }
+    
+    public static TermCardinalityIndex read(DataInput in) throws IOException {
+        if (in.readInt() != FILE_MAGIC) {
+            throw new IOException("Not a term cardinality index");
+        }
+        int version = in.readInt();
+        if (version != FILE_VERSION) {
+            throw new IOException("Unsupported term cardinality index version " + version);
+        }
+        long heavyTermCount = in.readLong();
+        int maxExactValues = in.readInt();
+        int size = in.readInt();
+        Map<String,FieldDay> fieldDays = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            fieldDays.put(key, FieldDay.read(in));
+        }
+        return new TermCardinalityIndex(heavyTermCount, maxExactValues, fieldDays);
+    }
+    
+    public void save(FileSystem fs, Path path) throws IOException {
+        Path tmp = new Path(path.getParent(), '.' + path.getName() + ".tmp");
+        try (FSDataOutputStream out = fs.create(tmp, true)) {
+            write(out);
+        }
+        fs.delete(path, false);
+        if (!fs.rename(tmp, path)) {
+            throw new IOException("Unable to rename " + tmp + " to " + path);
+        }
+    }
+    
+    /**
+     * Load the index from a path. The loaded copy is shared and is used without touching the file system until it is {@link #RECHECK_INTERVAL_MS} old, after
+     * which the file is only read again if its modification time changed.
+     * 
+     * @param path
+     *            the path of the index file
+     * @return the index, or null if the file does not exist
+     * @throws IOException
+     *             if the index cannot be read
+     */
+    public static TermCardinalityIndex load(String path) throws IOException {
+        return load(path, RECHECK_INTERVAL_MS);
+    }
+    
+    static TermCardinalityIndex load(String path, long recheckIntervalMs) throws IOException {
+        Loaded current = loaded.get(path);
+        if (current != null && System.currentTimeMillis() - current.checked < recheckIntervalMs) {
+            return current.index;
+        }
+        synchronized (loaded) {
+            current = loaded.get(path);
+            long now = System.currentTimeMillis();
+            if (current != null && now - current.checked < recheckIntervalMs) {
+                return current.index;
+            }
+            Path p = new Path(path);
+            FileSystem fs = p.getFileSystem(new Configuration());
+            if (!fs.exists(p)) {
+                log.debug("Term cardinality index " + path + " does not exist");
+                loaded.put(path, new Loaded(-1, null, now));
+                return null;
+            }
+            FileStatus status = fs.getFileStatus(p);
+            if (current == null || current.modificationTime != status.getModificationTime()) {
+                try (FSDataInputStream in = fs.open(p)) {
+                    current = new Loaded(status.getModificationTime(), read(new DataInputStream(in)), now);
+                }
+                log.info("Loaded term cardinality index " + path + " with " + current.index.fieldDays.size() + " field days");
+            } else {
+                current = new Loaded(current.modificationTime, current.index, now);
+            }
+            loaded.put(path, current);
+            return current.index;
+        }
+    }
+    
+    static List<String> days(Date begin, Date end) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd");
+        List<String> days = new ArrayList<>();
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(begin);
+        String last = format.format(end);
+        String day = format.format(calendar.getTime());
+        while (day.compareTo(last) <= 0) {
+            days.add(day);
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            day = format.format(calendar.getTime());
+        }
+        return days;
+    }
+    
+    private static String key(String field, String day) {
+        return field + Constants.NULL_BYTE_STRING + day;
+    }
+    
+    private static class Loaded {
+        final long modificationTime;
+        final TermCardinalityIndex index;
+        final long checked;
+        
+        Loaded(long modificationTime, TermCardinalityIndex index, long checked) {
+            this.modificationTime = modificationTime;
+            this.index = index;
+            this.checked = checked;
+        }
+    }
+    
+    /**
+     * The summary of one field on one day
+     */
+    private static class FieldDay {
+        long count = 0;
+        HyperLogLogPlus values = new HyperLogLogPlus(HYPERLOG_NORMAL_PRECISION, HYPERLOG_SPARSE_PRECISION);
+        // exact counts for every value until the field has too many values, then only for the heavy values
+        Map<String,Long> exact = new HashMap<>();
+        boolean complete = true;
+        long heavyCount = 0;
+        
+        void add(String value, long valueCount, long heavyTermCount, int maxExactValues) {
+            count += valueCount;
+            values.offer(value);
+            if (complete) {
+                exact.merge(value, valueCount, Long::sum);
+                if (exact.size() > maxExactValues) {
+                    // too many values to keep exactly, only keep the heavy ones
+                    complete = false;
+                    exact.values().removeIf(c -> c < heavyTermCount);
+                    for (long c : exact.values()) {
+                        heavyCount += c;
+                    }
+                }
+            } else if (valueCount >= heavyTermCount || exact.containsKey(value)) {
+                exact.merge(value, valueCount, Long::sum);
+                heavyCount += valueCount;
+            }
+        }
+        
+        long cardinality() {
+            return (complete ? exact.size() : Math.max(values.cardinality(), exact.size()));
+        }
+        
+        long estimate(String value) {
+            Long c = exact.get(value);
+            if (c != null) {
+                return c;
+            } else if (complete) {
+                return 0;
+            }
+            // not a heavy value, so use the average of the values that are not heavy
+            long others = Math.max(1, cardinality() - exact.size());
+            return (count - heavyCount + others - 1) / others;
+        }
+        
+        void write(DataOutput out) throws IOException {
+            out.writeLong(count);
+            out.writeBoolean(complete);
+            out.writeLong(heavyCount);
+            out.writeInt(exact.size());
+            for (Map.Entry<String,Long> entry : exact.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            if (!complete) {
+                byte[] bytes = values.getBytes();
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+        
+        static FieldDay read(DataInput in) throws IOException {
+            FieldDay fieldDay = new FieldDay();
+            fieldDay.count = in.readLong();
+            fieldDay.complete = in.readBoolean();
+            fieldDay.heavyCount = in.readLong();
+            int size = in.readInt();
+            fieldDay.exact = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                fieldDay.exact.put(in.readUTF(), in.readLong());
+            }
+            if (!fieldDay.complete) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                fieldDay.values = HyperLogLogPlus.Builder.build(bytes);
+            }
+            return fieldDay;
+        }
+    }
+    
+    /**
+     * Builds the index from the entries of the shard index, which must be supplied in sorted order so that the shards of a term on a day are contiguous.
+     */
+    public static class Builder {
+        private final long heavyTermCount;
+        private final int maxExactValues;
+        private final Map<String,FieldDay> fieldDays = new HashMap<>();
+        
+        private String field = null;
+        private String value = null;
+        private String day = null;
+        private long count = 0;
+        
+        /**
+         * @param heavyTermCount
+         *            the count per day at which a value is always kept exactly
+         * @param maxExactValues
+         *            the number of distinct values per field and day that are kept exactly
+         */
+        public Builder(long heavyTermCount, int maxExactValues) {
+            this.heavyTermCount = heavyTermCount;
+            this.maxExactValues = maxExactValues;
+        }
+        
+        /**
+         * Add a shard index entry
+         * 
+         * @param key
+         *            row is the value, column family is the field and column qualifier is the shard and datatype
+         * @param value
+         *            the {@link Uid.List}
+         */
+        public void add(Key key, Value value) {
+            String cq = key.getColumnQualifier().toString();
+            if (cq.length() < 8) {
+                return;
+            }
+            long uidCount;
+            try {
+                uidCount = Uid.List.parseFrom(value.get()).getCOUNT();
+            } catch (InvalidProtocolBufferException e) {
+                log.debug("Unable to parse uid list for " + key, e);
+                return;
+            }
+            add(key.getColumnFamily().toString(), key.getRow().toString(), cq.substring(0, 8), uidCount);
+        }
+        
+        /**
+         * Add a count for a term on a day
+         */
+        public void add(String field, String value, String day, long count) {
+            if (field.equals(this.field) && value.equals(this.value) && day.equals(this.day)) {
+                this.count += count;
+            } else {
+                flush();
+                this.field = field;
+                this.value = value;
+                this.day = day;
+                this.count = count;
+            }
+        }
+        
+        public TermCardinalityIndex build() {
+            flush();
+            return new TermCardinalityIndex(heavyTermCount, maxExactValues, fieldDays);
+        }
+        
+        private void flush() {
+            if (field != null && count > 0) {
+                fieldDays.computeIfAbsent(key(field, day), k -> new FieldDay()).add(value, count, heavyTermCount, maxExactValues);
+            }
+            field = null;
+            value = null;
+            day = null;
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package datawave.query.index.stats;
+
+import java.util.Collections;
+import java.util.Map;
+
+import datawave.common.cl.OptionBuilder;
+import datawave.security.util.ScannerHelper;
+import datawave.util.cli.PasswordConverter;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ZooKeeperInstance;
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.cli.BasicParser;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.Logger;
+
+/**
+ * Builds a {@link TermCardinalityIndex} by scanning the shard index and saves it to the path configured as the term cardinality index path of the
+ * ShardQueryLogic. Run it periodically, e.g. daily after ingest, so the planner's estimates follow the data.
+ */
+public class TermCardinalityIndexBuilder {
+    
+    private static final Logger log = Logger.getLogger(TermCardinalityIndexBuilder.class);
+    
+    private static final String ZOOKEEPERS = "zookeepers";
+    private static final String INSTANCE = "instance";
+    private static final String USERNAME = "username";
+    private static final String PASSWORD = "password";
+    private static final String AUTHS = "auths";
+    private static final String TABLE = "table";
+    private static final String OUTPUT = "output";
+    private static final String HEAVY_TERM_COUNT = "heavyTermCount";
+    private static final String MAX_EXACT_VALUES = "maxExactValues";
+    private static final String HELP_OPT = "help";
+    
+    public static final long DEFAULT_HEAVY_TERM_COUNT = 100000;
+    public static final int DEFAULT_MAX_EXACT_VALUES = 1000;
+    
+    public static void main(String[] args) {
+        Options opts = getConfigurationOptions();
+        CommandLine cl;
+        try {
+            cl = new BasicParser().parse(opts, args);
+            if (cl.hasOption(HELP_OPT)) {
+                new HelpFormatter().printHelp(TermCardinalityIndexBuilder.class.getName() + ":", opts, true);
+                return;
+            }
+        } catch (ParseException pe) {
+            System.out.println(pe.getMessage());
+            new HelpFormatter().printHelp(TermCardinalityIndexBuilder.class.getName() + ":", opts, true);
+            return;
+        }
+        
+        try {
+            ZooKeeperInstance instance = new ZooKeeperInstance(cl.getOptionValue(INSTANCE), cl.getOptionValue(ZOOKEEPERS));
+            Connector connector = instance.getConnector(cl.getOptionValue(USERNAME),
+                            new PasswordToken(PasswordConverter.parseArg(cl.getOptionValue(PASSWORD))));
+            String table = cl.getOptionValue(TABLE);
+            if (!connector.tableOperations().exists(table)) {
+                throw new IllegalArgumentException("Table " + table + " does not exist");
+            }
+            long heavyTermCount = Long.parseLong(cl.getOptionValue(HEAVY_TERM_COUNT, Long.toString(DEFAULT_HEAVY_TERM_COUNT)));
+            int maxExactValues = Integer.parseInt(cl.getOptionValue(MAX_EXACT_VALUES, Integer.toString(DEFAULT_MAX_EXACT_VALUES)));
+            
+            TermCardinalityIndex index;
+            Scanner scanner = ScannerHelper.createScanner(connector, table, Collections.singleton(new Authorizations(cl.getOptionValue(AUTHS).split(","))));
+            try {
+                index = build(scanner, heavyTermCount, maxExactValues);
+            } finally {
+                scanner.close();
+            }
+            
+            Path output = new Path(cl.getOptionValue(OUTPUT));
+            FileSystem fs = output.getFileSystem(new Configuration());
+            index.save(fs, output);
+            log.info("Saved term cardinality index to " + output);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+    
+    public static Options getConfigurationOptions() {
+        final OptionBuilder builder = new OptionBuilder();
+        final Options opt = new Options();
+        
+        opt.addOption(builder.create(HELP_OPT, null, "show help"));
+        
+        builder.args = 1;
+        builder.type = String.class;
+        builder.required = true;
+        
+        opt.addOption(builder.create(ZOOKEEPERS, null, "list of Zookeepers host[:port],host[:port]"));
+        opt.addOption(builder.create(INSTANCE, null, "accumulo instance name"));
+        opt.addOption(builder.create(USERNAME, null, "accumulo user name"));
+        opt.addOption(builder.create(PASSWORD, null, "accumulo password"));
+        opt.addOption(builder.create(AUTHS, null, "authorizations"));
+        opt.addOption(builder.create(TABLE, null, "the shard index table"));
+        opt.addOption(builder.create(OUTPUT, null, "the path of the index file"));
+        
+        builder.required = false;
+        opt.addOption(builder.create(HEAVY_TERM_COUNT, null, "the count per day at which a value is always kept exactly (default " + DEFAULT_HEAVY_TERM_COUNT
+                        + ")"));
+        opt.addOption(builder.create(MAX_EXACT_VALUES, null, "the number of distinct values per field and day that are kept exactly (default "
+                        + DEFAULT_MAX_EXACT_VALUES + ")"));
+        
+        return opt;
+    }
+    
+    /**
+     * Build the index from the entries of the shard index
+     * 
+     * @param shardIndex
+     *            the shard index entries, in sorted order
+     * @param heavyTermCount
+     *            the count per day at which a value is always kept exactly
+     * @param maxExactValues
+     *            the number of distinct values per field and day that are kept exactly
+     * @return the index
+     */
+    public static TermCardinalityIndex build(Iterable<Map.Entry<Key,Value>> shardIndex, long heavyTermCount, int maxExactValues) {
+        TermCardinalityIndex.Builder builder = new TermCardinalityIndex.Builder(heavyTermCount, maxExactValues);
+        long entries = 0;
+        for (Map.Entry<Key,Value> entry : shardIndex) {
+            builder.add(entry.getKey(), entry.getValue());
+            if (++entries % 1000000 == 0) {
+                log.info("Read " + entries + " shard index entries");
+            }
+        }
+        return builder.build();
+    }
+}
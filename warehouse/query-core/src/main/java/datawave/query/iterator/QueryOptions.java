@@ -153,6 +153,7 @@ public class QueryOptions implements OptionDescriber {
     public static final String STATSD_MAX_QUEUE_SIZE = "statsd.max.queue.size";
     public static final String DATATYPE_FIELDNAME = "include.datatype.fieldname";
     public static final String TRACK_SIZES = "track.sizes";
+    public static final String COMPILE_EVALUATION = "compile.evaluation";
     
     // pass through to Evaluating iterator to ensure consistency between query
     // logics
@@ -386,6 +387,11 @@ public class QueryOptions implements OptionDescriber {
      */
     protected boolean trackSizes = true;
     
+    /**
+     * should the query be compiled to closures for evaluation rather than interpreted for every document
+     */
+    protected boolean compileEvaluation = false;
+    
     /**
      * The name of the {@link datawave.query.tracking.ActiveQueryLog} instance to use.
      */
@@ -487,6 +493,7 @@ public class QueryOptions implements OptionDescriber {
         this.debugMultithreadedSources = other.debugMultithreadedSources;
         
         this.trackSizes = other.trackSizes;
+        this.compileEvaluation = other.compileEvaluation;
         this.activeQueryLogName = other.activeQueryLogName;
     }
     
@@ -548,6 +555,14 @@ public class QueryOptions implements OptionDescriber {
         this.trackSizes = trackSizes;
     }
     
+    public boolean isCompileEvaluation() {
+        return compileEvaluation;
+    }
+    
+    public void setCompileEvaluation(boolean compileEvaluation) {
+        this.compileEvaluation = compileEvaluation;
+    }
+    
     public void setTypeMetadata(TypeMetadata typeMetadata) {
         this.typeMetadata = typeMetadata;
     }
@@ -1171,6 +1186,10 @@ public class QueryOptions implements OptionDescriber {
             setTrackSizes(Boolean.parseBoolean(options.get(TRACK_SIZES)));
         }
         
+        if (options.containsKey(COMPILE_EVALUATION)) {
+            setCompileEvaluation(Boolean.parseBoolean(options.get(COMPILE_EVALUATION)));
+        }
+        
         if (options.containsKey(PROJECTION_FIELDS)) {
             this.projectResults = true;
             this.useWhiteListedFields = true;
@@ -36,6 +36,7 @@ import datawave.query.function.DocumentCountCardinality;
 import datawave.query.function.JexlEvaluation;
 import datawave.query.function.KeyToDocumentData;
 import datawave.query.function.MinimumEstimation;
+import datawave.query.function.TopKEstimation;
 import datawave.query.function.serializer.KryoDocumentSerializer;
 import datawave.query.function.serializer.ToStringDocumentSerializer;
 import datawave.query.function.serializer.WritableDocumentSerializer;
@@ -60,6 +61,13 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
     public static final String FACETED_SEARCH_TYPE = "query.facet.type";
     public static final String FACETED_MINIMUM = "query.facet.minimum";
     public static final String FACETED_SEARCH_FIELDS = "query.facet.fields";
+    public static final String FACETED_MAXIMUM_VALUES = "query.facet.maximum.values";
+    
+    /**
+     * Each tserver keeps this many times the maximum number of facet values, so that a value just outside of the top values on one tserver can still make the
+     * top values once the counts of all of the tservers are merged.
+     */
+    public static final int FACETED_MAXIMUM_VALUES_OVERSAMPLE = 2;
     
     FacetedConfiguration configuration;
     
@@ -76,6 +84,7 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
         options.put(FACETED_SEARCH_TYPE, "Type of faceted search");
         options.put(FACETED_MINIMUM, "Minimum Facet count. Defaults to 0");
         options.put(FACETED_SEARCH_FIELDS, "Comma separated list of facets that we must include. If this is empty, we return all facets");
+        options.put(FACETED_MAXIMUM_VALUES, "Maximum number of values returned for each facet, keeping those with the largest counts. Defaults to all values");
         
         return new IteratorOptions(getClass().getSimpleName(), "Runs a Faceted search against event data", options, null);
     }
@@ -102,6 +111,15 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
             }
         }
         
+        if (options.containsKey(FACETED_MAXIMUM_VALUES)) {
+            try {
+                configuration.setMaximumFacetValues(Integer.parseInt(options.get(FACETED_MAXIMUM_VALUES)));
+            } catch (IllegalArgumentException iae) {
+                log.error(iae);
+                // defaulting to all values
+            }
+        }
+        
         String fields = "";
         if (options.containsKey(FACETED_SEARCH_FIELDS)) {
             
@@ -252,6 +270,12 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
         // minimize the list of facets that are returned.
         fieldIndexDocuments = Iterators.transform(fieldIndexDocuments, new MinimumEstimation(configuration.getMinimumFacetCount()));
         
+        // only send the values with the largest counts back to the webserver
+        if (configuration.isTopValuesEnabled()) {
+            int maximumValues = (int) Math.min(Integer.MAX_VALUE, (long) configuration.getMaximumFacetValues() * FACETED_MAXIMUM_VALUES_OVERSAMPLE);
+            fieldIndexDocuments = Iterators.transform(fieldIndexDocuments, new TopKEstimation(maximumValues));
+        }
+        
         if (this.getReturnType() == ReturnType.kryo) {
             // Serialize the Document using Kryo
             this.serializedDocuments = Iterators.transform(fieldIndexDocuments, new KryoDocumentSerializer(isReducedResponse(), isCompressResults()));
@@ -0,0 +1,453 @@
+package datawave.query.jexl;
+
+import datawave.query.attributes.ValueTuple;
+import datawave.query.collections.FunctionalSet;
+import datawave.query.jexl.functions.QueryFunctions;
+import datawave.query.jexl.nodes.ExceededOrThresholdMarkerJexlNode;
+import datawave.query.jexl.nodes.QueryPropertyMarker;
+import org.apache.commons.jexl2.Interpreter;
+import org.apache.commons.jexl2.JexlArithmetic;
+import org.apache.commons.jexl2.JexlContext;
+import org.apache.commons.jexl2.JexlException;
+import org.apache.commons.jexl2.MapContext;
+import org.apache.commons.jexl2.parser.ASTAndNode;
+import org.apache.commons.jexl2.parser.ASTEQNode;
+import org.apache.commons.jexl2.parser.ASTERNode;
+import org.apache.commons.jexl2.parser.ASTFalseNode;
+import org.apache.commons.jexl2.parser.ASTGENode;
+import org.apache.commons.jexl2.parser.ASTGTNode;
+import org.apache.commons.jexl2.parser.ASTIdentifier;
+import org.apache.commons.jexl2.parser.ASTJexlScript;
+import org.apache.commons.jexl2.parser.ASTLENode;
+import org.apache.commons.jexl2.parser.ASTLTNode;
+import org.apache.commons.jexl2.parser.ASTNENode;
+import org.apache.commons.jexl2.parser.ASTNRNode;
+import org.apache.commons.jexl2.parser.ASTNotNode;
+import org.apache.commons.jexl2.parser.ASTNullLiteral;
+import org.apache.commons.jexl2.parser.ASTNumberLiteral;
+import org.apache.commons.jexl2.parser.ASTOrNode;
+import org.apache.commons.jexl2.parser.ASTReference;
+import org.apache.commons.jexl2.parser.ASTReferenceExpression;
+import org.apache.commons.jexl2.parser.ASTStringLiteral;
+import org.apache.commons.jexl2.parser.ASTTrueNode;
+import org.apache.commons.jexl2.parser.JexlNode;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A query script compiled once into a tree of closures, for evaluating the same query against many documents. The {@link DatawaveInterpreter} dispatches on
+ * every node of the query for every document, builds the query string of every EQ, ER and function node to look up its cached result, and looks for ranges in
+ * every AND node. The compiled script does all of that once: the boolean structure of the query, field lookups, literals, regex patterns and the bounds of
+ * ranges are all resolved when the script is compiled.
+ * <p>
+ * The comparisons themselves are still made by the arithmetic of the engine, so the type coercion and any hits tracked by a {@link HitListArithmetic} are the
+ * same as when the script is interpreted. Any node that is not compiled (functions, methods, assignments, exceeded value markers, ...) is evaluated by a
+ * {@link DatawaveInterpreter}, shared by all such nodes for the evaluation of one document.
+ * <p>
+ * A compiled script may be reused for any number of documents, but by one thread at a time.
+ */
+public class CompiledJexlScript {
+    
+    private static final Logger log = Logger.getLogger(CompiledJexlScript.class);
+    
+    /**
+     * A compiled node, which evaluates to the same value as the interpreter would for the node it was compiled from
+     */
+    interface Node {
+        Object evaluate(Frame frame);
+    }
+    
+    /**
+     * The state of the evaluation of one document
+     */
+    class Frame {
+        final JexlContext context;
+        private Interpreter interpreter;
+        
+        Frame(JexlContext context) {
+            this.context = context;
+        }
+        
+        Interpreter interpreter() {
+            if (interpreter == null) {
+                interpreter = engine.newInterpreter(context);
+            }
+            return interpreter;
+        }
+    }
+    
+    private static final int EQ = 0, NE = 1, ER = 2, NR = 3, LT = 4, LE = 5, GT = 6, GE = 7;
+    private static final String[] OPERATORS = {"==", "!=", "=~", "!~", "<", "<=", ">", ">="};
+    
+    private final DatawaveJexlEngine engine;
+    private final JexlArithmetic arithmetic;
+    private final Node root;
+    
+    // evaluates literals while compiling
+    private final Interpreter literalInterpreter;
+    
+    private int interpretedNodes = 0;
+    
+    /**
+     * Compile a script
+     * 
+     * @param engine
+     *            the engine the script was created with, whose arithmetic is used for all comparisons
+     * @param script
+     *            the parsed script
+     */
+    public CompiledJexlScript(DatawaveJexlEngine engine, ASTJexlScript script) {
+        this.engine = engine;
+        this.arithmetic = engine.getArithmetic();
+        this.literalInterpreter = engine.newInterpreter(new MapContext());
+        this.root = compile(script);
+        
+        if (log.isDebugEnabled()) {
+            log.debug("Compiled script with " + interpretedNodes + " interpreted nodes");
+        }
+    }
+    
+    /**
+     * Evaluate the script against a context
+     * 
+     * @param context
+     *            the context
+     * @return the result, which may be interpreted with {@link ArithmeticJexlEngines#isMatched(Object)}
+     */
+    public Object execute(JexlContext context) {
+        return root.evaluate(new Frame(context));
+    }
+    
+    /**
+     * @return the number of nodes that are evaluated by the interpreter rather than compiled
+     */
+    public int getInterpretedNodeCount() {
+        return interpretedNodes;
+    }
+    
+    private Node compile(JexlNode node) {
+        if (node instanceof ASTJexlScript || node instanceof ASTReferenceExpression) {
+            // a script or a parenthesized expression with one child evaluates to that child
+            if (node.jjtGetNumChildren() == 1) {
+                return compile(node.jjtGetChild(0));
+            }
+        } else if (node instanceof ASTReference) {
+            if (node.jjtGetNumChildren() == 1 && !QueryPropertyMarker.findInstance(node).isType(ExceededOrThresholdMarkerJexlNode.class)) {
+                JexlNode child = node.jjtGetChild(0);
+                return (child instanceof ASTIdentifier ? identifier(child.image) : compile(child));
+            }
+        } else if (node instanceof ASTAndNode) {
+            return compileAnd((ASTAndNode) node);
+        } else if (node instanceof ASTOrNode) {
+            return compileOr((ASTOrNode) node);
+        } else if (node instanceof ASTNotNode) {
+            if (node.jjtGetNumChildren() == 1) {
+                return compileNot(compile(node.jjtGetChild(0)));
+            }
+        } else if (node instanceof ASTEQNode) {
+            return compileComparison(node, EQ);
+        } else if (node instanceof ASTNENode) {
+            return compileComparison(node, NE);
+        } else if (node instanceof ASTERNode) {
+            return compileComparison(node, ER);
+        } else if (node instanceof ASTNRNode) {
+            return compileComparison(node, NR);
+        } else if (node instanceof ASTLTNode) {
+            return compileComparison(node, LT);
+        } else if (node instanceof ASTLENode) {
+            return compileComparison(node, LE);
+        } else if (node instanceof ASTGTNode) {
+            return compileComparison(node, GT);
+        } else if (node instanceof ASTGENode) {
+            return compileComparison(node, GE);
+        } else if (isLiteral(node)) {
+            return constant(literalInterpreter.interpret(node));
+        }
+        return interpreted(node);
+    }
+    
+    /**
+     * Compile an operand of a comparison: an identifier, a literal, or else an interpreted node
+     */
+    private Node compileOperand(JexlNode node) {
+        if (node instanceof ASTReference && node.jjtGetNumChildren() == 1 && node.jjtGetChild(0) instanceof ASTIdentifier) {
+            return identifier(node.jjtGetChild(0).image);
+        } else if (isLiteral(node)) {
+            return constant(literalInterpreter.interpret(node));
+        }
+        return interpreted(node);
+    }
+    
+    private static boolean isLiteral(JexlNode node) {
+        return node instanceof ASTStringLiteral || node instanceof ASTNumberLiteral || node instanceof ASTTrueNode || node instanceof ASTFalseNode
+                        || node instanceof ASTNullLiteral;
+    }
+    
+    private Node identifier(final String name) {
+        return frame -> frame.context.get(name);
+    }
+    
+    private Node constant(final Object value) {
+        return frame -> value;
+    }
+    
+    private Node interpreted(final JexlNode node) {
+        interpretedNodes++;
+        return frame -> frame.interpreter().interpret(node);
+    }
+    
+    private Node compileComparison(final JexlNode node, final int op) {
+        if (node.jjtGetNumChildren() != 2) {
+            return interpreted(node);
+        }
+        final Node left = compileOperand(node.jjtGetChild(0));
+        final Node right;
+        if (op == ER || op == NR) {
+            // only a regex literal is compiled, since the interpreter treats other right hand values as collections to search
+            JexlNode regex = node.jjtGetChild(1);
+            if (!(regex instanceof ASTStringLiteral)) {
+                return interpreted(node);
+            }
+            right = constant(JexlPatternCache.getPattern(String.valueOf(literalInterpreter.interpret(regex))));
+        } else {
+            right = compileOperand(node.jjtGetChild(1));
+        }
+        
+        return frame -> {
+            Object l = left.evaluate(frame);
+            Object r = right.evaluate(frame);
+            try {
+                return compare(op, l, r) ? Boolean.TRUE : Boolean.FALSE;
+            } catch (ArithmeticException xrt) {
+                throw new JexlException(node, OPERATORS[op] + " error", xrt);
+            }
+        };
+    }
+    
+    private boolean compare(int op, Object left, Object right) {
+        switch (op) {
+            case EQ:
+                return arithmetic.equals(left, right);
+            case NE:
+                return !arithmetic.equals(left, right);
+            case ER:
+                return arithmetic.matches(left, right);
+            case NR:
+                return !arithmetic.matches(left, right);
+            case LT:
+                return arithmetic.lessThan(left, right);
+            case LE:
+                return arithmetic.lessThanOrEqual(left, right);
+            case GT:
+                return arithmetic.greaterThan(left, right);
+            default:
+                return arithmetic.greaterThanOrEqual(left, right);
+        }
+    }
+    
+    private Node compileNot(final Node child) {
+        return frame -> arithmetic.toBoolean(child.evaluate(frame)) ? Boolean.FALSE : Boolean.TRUE;
+    }
+    
+    /**
+     * An AND is evaluated as by {@link DatawaveInterpreter#visit(ASTAndNode, Object)}: exceeded value markers are interpreted, bounded ranges are evaluated as
+     * a between function, and otherwise only a false non collection value on the left stops the right from being evaluated.
+     */
+    private Node compileAnd(final ASTAndNode node) {
+        if (QueryPropertyMarker.findInstance(node).isType(ExceededOrThresholdMarkerJexlNode.class)) {
+            return interpreted(node);
+        }
+        
+        Node range;
+        try {
+            range = compileRange(node);
+        } catch (RuntimeException e) {
+            // let the interpreter fail in the same way when the node is evaluated
+            return interpreted(node);
+        }
+        if (range != null) {
+            return range;
+        } else if (node.jjtGetNumChildren() != 2) {
+            return interpreted(node);
+        }
+        
+        final Node left = compile(node.jjtGetChild(0));
+        final Node right = compile(node.jjtGetChild(1));
+        return frame -> {
+            Object l = left.evaluate(frame);
+            if (l != null && !(l instanceof Collection) && !toBoolean(node.jjtGetChild(0), l)) {
+                return Boolean.FALSE;
+            }
+            Object r = right.evaluate(frame);
+            if (r != null && !(r instanceof Collection) && !toBoolean(node.jjtGetChild(1), r)) {
+                return Boolean.FALSE;
+            }
+            return isTrue(l) && isTrue(r) ? Boolean.TRUE : Boolean.FALSE;
+        };
+    }
+    
+    private boolean toBoolean(JexlNode node, Object value) {
+        try {
+            return arithmetic.toBoolean(value);
+        } catch (RuntimeException xrt) {
+            throw new JexlException(node, "boolean coercion error", xrt);
+        }
+    }
+    
+    /**
+     * @return whether a value is true, where null is an empty collection as far as the interpreter is concerned
+     */
+    private boolean isTrue(Object value) {
+        if (value == null) {
+            return false;
+        } else if (value instanceof Collection) {
+            return !((Collection<?>) value).isEmpty();
+        }
+        return arithmetic.toBoolean(value);
+    }
+    
+    /**
+     * An OR is evaluated as by {@link DatawaveInterpreter#visit(ASTOrNode, Object)}: the nested ORs are flattened, and the children are evaluated from left to
+     * right until one is true. An OR of identifiers gathers their values for a function, and is left to the interpreter.
+     */
+    private Node compileOr(final ASTOrNode node) {
+        List<JexlNode> children = new ArrayList<>();
+        Deque<JexlNode> stack = new ArrayDeque<>();
+        stack.push(node);
+        boolean allIdentifiers = true;
+        
+        // iterative, to avoid a stack overflow on large or'd lists
+        while (!stack.isEmpty()) {
+            JexlNode current = stack.pop();
+            if (current instanceof ASTOrNode) {
+                for (int i = current.jjtGetNumChildren() - 1; i >= 0; i--) {
+                    stack.push(JexlASTHelper.dereference(current.jjtGetChild(i)));
+                }
+            } else {
+                children.add(current);
+                allIdentifiers &= (current instanceof ASTIdentifier);
+            }
+        }
+        if (allIdentifiers) {
+            return interpreted(node);
+        }
+        
+        final Node[] compiled = new Node[children.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = compile(children.get(i));
+        }
+        return frame -> {
+            for (Node child : compiled) {
+                Object value = child.evaluate(frame);
+                if (value instanceof Collection) {
+                    if (!((Collection<?>) value).isEmpty()) {
+                        return Boolean.TRUE;
+                    }
+                } else if (value != null) {
+                    try {
+                        if (arithmetic.toBoolean(value)) {
+                            return Boolean.TRUE;
+                        }
+                    } catch (ArithmeticException xrt) {
+                        throw new RuntimeException(value.toString() + " boolean coercion error", xrt);
+                    }
+                }
+            }
+            return Boolean.FALSE;
+        };
+    }
+    
+    /**
+     * Compile a bounded range into a between function, when the interpreter would evaluate the AND node as one
+     * 
+     * @return the compiled range, or null if the node is not evaluated as a range
+     */
+    private Node compileRange(ASTAndNode node) {
+        LiteralRange<?> range = JexlASTHelper.findRange().getRange(node);
+        if (range == null) {
+            return null;
+        }
+        JexlNode lower = range.getLowerNode();
+        JexlNode upper = range.getUpperNode();
+        if (lower instanceof ASTLENode || lower instanceof ASTLTNode) {
+            JexlNode temp = lower;
+            lower = upper;
+            upper = temp;
+        }
+        if (!(lower instanceof ASTGENode || lower instanceof ASTGTNode) || !(upper instanceof ASTLENode || upper instanceof ASTLTNode)) {
+            return null;
+        }
+        JexlNode lowerIdentifier = dereference(lower.jjtGetChild(0));
+        JexlNode upperIdentifier = dereference(upper.jjtGetChild(0));
+        if (!(lowerIdentifier instanceof ASTIdentifier) || !(upperIdentifier instanceof ASTIdentifier)
+                        || !lowerIdentifier.image.equals(upperIdentifier.image)) {
+            return null;
+        }
+        if (!isLiteral(lower.jjtGetChild(1)) || !isLiteral(upper.jjtGetChild(1))) {
+            // the bounds are evaluated against the document, so leave the whole range to the interpreter
+            return interpreted(node);
+        }
+        
+        final String fieldName = lowerIdentifier.image;
+        final Object lowerValue = literalInterpreter.interpret(lower.jjtGetChild(1));
+        final Object upperValue = literalInterpreter.interpret(upper.jjtGetChild(1));
+        final boolean lowerInclusive = lower instanceof ASTGENode;
+        final boolean upperInclusive = upper instanceof ASTLENode;
+        
+        if (lowerValue instanceof Number && upperValue instanceof Number) {
+            final float lowerBound = ((Number) lowerValue).floatValue();
+            final float upperBound = ((Number) upperValue).floatValue();
+            return frame -> {
+                Object fieldValue = frame.context.get(fieldName);
+                Collection<?> evaluation;
+                if (fieldValue instanceof Collection) {
+                    evaluation = QueryFunctions.between((Collection) fieldValue, lowerBound, lowerInclusive, upperBound, upperInclusive);
+                } else {
+                    evaluation = QueryFunctions.between(fieldValue, lowerBound, lowerInclusive, upperBound, upperInclusive);
+                }
+                addHits(fieldValue);
+                return evaluation;
+            };
+        }
+        
+        final String lowerBound = String.valueOf(lowerValue);
+        final String upperBound = String.valueOf(upperValue);
+        return frame -> {
+            Object fieldValue = frame.context.get(fieldName);
+            Collection<?> evaluation;
+            if (fieldValue instanceof Collection) {
+                evaluation = QueryFunctions.between((Collection) fieldValue, lowerBound, lowerInclusive, upperBound, upperInclusive);
+            } else {
+                evaluation = QueryFunctions.between(fieldValue, lowerBound, lowerInclusive, upperBound, upperInclusive);
+            }
+            addHits(fieldValue);
+            return evaluation;
+        };
+    }
+    
+    private static JexlNode dereference(JexlNode node) {
+        while (node.jjtGetNumChildren() == 1 && (node instanceof ASTReferenceExpression || node instanceof ASTReference)) {
+            node = node.jjtGetChild(0);
+        }
+        return node;
+    }
+    
+    private void addHits(Object fieldValue) {
+        if (this.arithmetic instanceof HitListArithmetic && fieldValue != null) {
+            HitListArithmetic hitListArithmetic = (HitListArithmetic) arithmetic;
+            if (fieldValue instanceof Collection<?>) {
+                for (Object o : ((Collection<?>) fieldValue)) {
+                    addHits(o);
+                }
+            } else if (fieldValue instanceof ValueTuple) {
+                hitListArithmetic.add((ValueTuple) fieldValue);
+            }
+        }
+    }
+}
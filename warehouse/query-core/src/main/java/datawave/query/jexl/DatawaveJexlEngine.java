@@ -35,6 +35,17 @@ public class DatawaveJexlEngine extends JexlEngine {
         return new DatawaveInterpreter(this, context, strictFlag, silentFlag);
     }
     
+    /**
+     * Create an interpreter for the parts of a {@link CompiledJexlScript} that are not compiled
+     * 
+     * @param context
+     *            the context to evaluate against
+     * @return the interpreter
+     */
+    public Interpreter newInterpreter(JexlContext context) {
+        return createInterpreter(context);
+    }
+    
     public ASTJexlScript parse(CharSequence expression) {
         return super.parse(expression, null, null);
     }
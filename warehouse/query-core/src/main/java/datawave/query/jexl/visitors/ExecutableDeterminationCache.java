@@ -0,0 +1,92 @@
+package datawave.query.jexl.visitors;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.util.MetadataHelper;
+import org.apache.commons.jexl2.parser.JexlNode;
+import org.apache.log4j.Logger;
+
+/**
+ * Remembers the {@link ExecutableDeterminationVisitor.STATE} of subtrees by their structure, for visitors that ask for the state of the same subtrees over and
+ * over while they rewrite the tree. Determining the state copies the subtree twice to push down negations before visiting it, so asking again for a subtree
+ * that has not changed costs a copy of the whole subtree each time. Subtrees are keyed by their node type, their query string and whether they are negated, so
+ * a subtree that has been rewritten gets a new key and is determined again, while an identical subtree elsewhere in the tree reuses the same state.
+ * 
+ * The fields, configuration and helper must not change while the cache is in use. Not thread safe.
+ */
+public class ExecutableDeterminationCache {
+    private static final Logger log = Logger.getLogger(ExecutableDeterminationCache.class);
+    
+    private final ShardQueryConfiguration config;
+    private final Set<String> indexedFields;
+    private final Set<String> indexOnlyFields;
+    private final Set<String> nonEventFields;
+    private final MetadataHelper helper;
+    
+    private final Map<String,ExecutableDeterminationVisitor.STATE> states = new HashMap<>();
+    private long hits = 0;
+    private long misses = 0;
+    
+    public ExecutableDeterminationCache(ShardQueryConfiguration config, Set<String> indexedFields, Set<String> indexOnlyFields, Set<String> nonEventFields,
+                    MetadataHelper helper) {
+        this.config = config;
+        this.indexedFields = indexedFields;
+        this.indexOnlyFields = indexOnlyFields;
+        this.nonEventFields = nonEventFields;
+        this.helper = helper;
+    }
+    
+    /**
+     * Get the state of a subtree, determining it only if an identical subtree has not been seen
+     * 
+     * @param node
+     *            the subtree
+     * @param parentage
+     *            null or a string used for tracking negations
+     * @param forFieldIndex
+     *            whether to determine the state against the field index rather than the global index
+     * @return the state of the subtree
+     */
+    public ExecutableDeterminationVisitor.STATE getState(JexlNode node, Object parentage, boolean forFieldIndex) {
+        String key = key(node, parentage, forFieldIndex);
+        ExecutableDeterminationVisitor.STATE state = states.get(key);
+        if (state == null) {
+            misses++;
+            state = ExecutableDeterminationVisitor.getState(node, parentage, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null,
+                            helper);
+            states.put(key, state);
+        } else {
+            hits++;
+        }
+        return state;
+    }
+    
+    public boolean isExecutable(JexlNode node, Object parentage, boolean forFieldIndex) {
+        return getState(node, parentage, forFieldIndex) == ExecutableDeterminationVisitor.STATE.EXECUTABLE;
+    }
+    
+    private static String key(JexlNode node, Object parentage, boolean forFieldIndex) {
+        StringBuilder key = new StringBuilder();
+        key.append(forFieldIndex ? 'F' : 'G').append(ExecutableDeterminationVisitor.isNegated(parentage) ? '!' : ' ');
+        key.append(node.getClass().getSimpleName()).append(':');
+        key.append(JexlStringBuildingVisitor.buildQueryWithoutParse(node));
+        return key.toString();
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+    
+    public void logStats(String name) {
+        if (log.isDebugEnabled()) {
+            log.debug(name + " determined the state of " + misses + " subtrees and reused " + hits + " states");
+        }
+    }
+}
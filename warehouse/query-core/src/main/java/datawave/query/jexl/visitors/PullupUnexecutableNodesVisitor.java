@@ -75,6 +75,7 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
     protected Set<String> indexOnlyFields;
     protected Set<String> indexedFields;
     protected boolean forFieldIndex;
+    protected ExecutableDeterminationCache states;
     
     public PullupUnexecutableNodesVisitor(ShardQueryConfiguration config, boolean forFieldIndex, Set<String> indexedFields, Set<String> indexOnlyFields,
                     Set<String> nonEventFields, MetadataHelper helper) {
@@ -112,6 +113,7 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
                 throw new RuntimeException("got exception when using MetadataHelper to get non-event fields", e);
             }
         }
+        this.states = new ExecutableDeterminationCache(config, this.indexedFields, this.indexOnlyFields, this.nonEventFields, helper);
     }
     
     private static final Logger log = Logger.getLogger(PullupUnexecutableNodesVisitor.class);
@@ -123,12 +125,14 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
         
         // rewrite the trees by pushing down all negations first
         JexlNode pushDownTree = PushdownNegationVisitor.pushdownNegations(queryTree);
-        return (JexlNode) pushDownTree.jjtAccept(visitor, null);
+        JexlNode result = (JexlNode) pushDownTree.jjtAccept(visitor, null);
+        visitor.states.logStats("PullupUnexecutableNodesVisitor");
+        return result;
     }
     
     @Override
     public Object visit(ASTJexlScript node, Object data) {
-        if (!ExecutableDeterminationVisitor.isExecutable(node, forFieldIndex, config, indexedFields, indexOnlyFields, nonEventFields, false, null, helper)) {
+        if (!states.isExecutable(node, forFieldIndex, false)) {
             super.visit(node, data);
         }
         return node;
@@ -137,8 +141,7 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
     private boolean containsChild(JexlNode node, ExecutableDeterminationVisitor.STATE state) {
         for (int i = 0; i < node.jjtGetNumChildren(); i++) {
             JexlNode child = node.jjtGetChild(i);
-            if (state == ExecutableDeterminationVisitor.getState(child, forFieldIndex, config, indexedFields, indexOnlyFields, nonEventFields, false, null,
-                            helper)) {
+            if (state == states.getState(child, forFieldIndex, false)) {
                 return true;
             }
         }
@@ -151,7 +154,7 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
         // TODO we should use some cost/index stats info
         
         // determine if we have any executable children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, "", forFieldIndex)) {
             
             boolean executable = containsChild(node, ExecutableDeterminationVisitor.STATE.EXECUTABLE);
             
@@ -162,11 +165,10 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
             // first flip the error states regardless of the executable state
             for (int i = 0; i < node.jjtGetNumChildren(); i++) {
                 JexlNode child = node.jjtGetChild(i);
-                ExecutableDeterminationVisitor.STATE state = ExecutableDeterminationVisitor.getState(child, config, indexedFields, indexOnlyFields,
-                                nonEventFields, forFieldIndex, null, helper);
+                ExecutableDeterminationVisitor.STATE state = states.getState(child, "", forFieldIndex);
                 if (state == ExecutableDeterminationVisitor.STATE.ERROR) {
                     child.jjtAccept(this, data);
-                    state = ExecutableDeterminationVisitor.getState(child, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper);
+                    state = states.getState(child, "", forFieldIndex);
                 }
                 if (state == ExecutableDeterminationVisitor.STATE.EXECUTABLE) {
                     executable = true;
@@ -176,11 +178,10 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
             // then try flipping the partial states
             for (int i = 0; i < node.jjtGetNumChildren() && !executable; i++) {
                 JexlNode child = node.jjtGetChild(i);
-                ExecutableDeterminationVisitor.STATE state = ExecutableDeterminationVisitor.getState(child, config, indexedFields, indexOnlyFields,
-                                nonEventFields, forFieldIndex, null, helper);
+                ExecutableDeterminationVisitor.STATE state = states.getState(child, "", forFieldIndex);
                 if (state == ExecutableDeterminationVisitor.STATE.PARTIAL) {
                     child.jjtAccept(this, data);
-                    state = ExecutableDeterminationVisitor.getState(child, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper);
+                    state = states.getState(child, "", forFieldIndex);
                 }
                 if (state == ExecutableDeterminationVisitor.STATE.EXECUTABLE) {
                     executable = true;
@@ -190,11 +191,10 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
             // if no executable nodes found, then flip any non-executable nodes
             for (int i = 0; i < node.jjtGetNumChildren() && !executable; i++) {
                 JexlNode child = node.jjtGetChild(i);
-                ExecutableDeterminationVisitor.STATE state = ExecutableDeterminationVisitor.getState(child, config, indexedFields, indexOnlyFields,
-                                nonEventFields, forFieldIndex, null, helper);
+                ExecutableDeterminationVisitor.STATE state = states.getState(child, "", forFieldIndex);
                 if (state == ExecutableDeterminationVisitor.STATE.NON_EXECUTABLE) {
                     child.jjtAccept(this, data);
-                    state = ExecutableDeterminationVisitor.getState(child, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper);
+                    state = states.getState(child, "", forFieldIndex);
                 }
                 if (state == ExecutableDeterminationVisitor.STATE.EXECUTABLE) {
                     executable = true;
@@ -210,10 +210,10 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
     @Override
     public Object visit(ASTOrNode node, Object data) {
         // if not executable, then visit all non-executable children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, "", forFieldIndex)) {
             for (int i = 0; i < node.jjtGetNumChildren(); i++) {
                 JexlNode child = node.jjtGetChild(i);
-                if (!ExecutableDeterminationVisitor.isExecutable(child, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+                if (!states.isExecutable(child, "", forFieldIndex)) {
                     child.jjtAccept(this, data);
                 }
             }
@@ -224,7 +224,7 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
     @Override
     public Object visit(ASTReferenceExpression node, Object data) {
         // if not executable, then visit all children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, "", forFieldIndex)) {
             super.visit(node, data);
         }
         return node;
@@ -233,7 +233,7 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
     @Override
     public Object visit(ASTNotNode node, Object data) {
         // if not executable, then visit all children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, "", forFieldIndex)) {
             super.visit(node, data);
         }
         return node;
@@ -247,7 +247,7 @@ public class PullupUnexecutableNodesVisitor extends BaseVisitor {
             JexlNode source = instance.getSource();
             JexlNodes.swap(node.jjtGetParent(), node, source);
             return source;
-        } else if (!ExecutableDeterminationVisitor.isExecutable(node, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        } else if (!states.isExecutable(node, "", forFieldIndex)) {
             super.visit(node, data);
         }
         return node;
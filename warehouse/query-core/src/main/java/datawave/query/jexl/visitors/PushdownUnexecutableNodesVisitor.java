@@ -74,6 +74,7 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
     protected Set<String> indexOnlyFields;
     protected Set<String> indexedFields;
     protected boolean forFieldIndex;
+    protected ExecutableDeterminationCache states;
     
     public PushdownUnexecutableNodesVisitor(ShardQueryConfiguration config, boolean forFieldIndex, Set<String> indexedFields, Set<String> indexOnlyFields,
                     Set<String> nonEventFields, MetadataHelper helper) {
@@ -111,6 +112,7 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
                 throw new RuntimeException("got exception when using MetadataHelper to get non-event fields", e);
             }
         }
+        this.states = new ExecutableDeterminationCache(config, this.indexedFields, this.indexOnlyFields, this.nonEventFields, helper);
     }
     
     private static final Logger log = Logger.getLogger(PushdownUnexecutableNodesVisitor.class);
@@ -122,12 +124,14 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
         
         // rewrite the tree to push down all negations before anything else
         JexlNode pushedDownTree = PushdownNegationVisitor.pushdownNegations(queryTree);
-        return (JexlNode) pushedDownTree.jjtAccept(visitor, null);
+        JexlNode result = (JexlNode) pushedDownTree.jjtAccept(visitor, null);
+        visitor.states.logStats("PushdownUnexecutableNodesVisitor");
+        return result;
     }
     
     @Override
     public Object visit(ASTJexlScript node, Object data) {
-        if (!ExecutableDeterminationVisitor.isExecutable(node, data, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, data, forFieldIndex)) {
             super.visit(node, data);
         }
         return node;
@@ -136,7 +140,7 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
     @Override
     public Object visit(ASTAndNode node, Object data) {
         // if we have a non-executable and node, then we may be able to resolve this by pushing down the partial children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, data, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, data, forFieldIndex)) {
             if (ExecutableDeterminationVisitor.isNegated(data)) {
                 super.visit(node, data);
             } else {
@@ -149,7 +153,7 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
     @Override
     public Object visit(ASTOrNode node, Object data) {
         // if not executable, then we may be able to resolve this by fixing the children children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, data, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, data, forFieldIndex)) {
             if (ExecutableDeterminationVisitor.isNegated(data)) {
                 // this is a negated Or so for executability needs to be treated like an AND
                 addDelays(node, data);
@@ -173,12 +177,11 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
         // first attempt to fix this by visiting the underlying nodes
         super.visit(node, data);
         // if still not executable, then we may be able to resolve this by pushing down the partial children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, data, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, data, forFieldIndex)) {
             // push down any partial states
             for (int i = 0; i < node.jjtGetNumChildren(); i++) {
                 JexlNode child = node.jjtGetChild(i);
-                ExecutableDeterminationVisitor.STATE state = ExecutableDeterminationVisitor.getState(child, data, config, indexedFields, indexOnlyFields,
-                                nonEventFields, forFieldIndex, null, helper);
+                ExecutableDeterminationVisitor.STATE state = states.getState(child, data, forFieldIndex);
                 if (state == ExecutableDeterminationVisitor.STATE.PARTIAL) {
                     ASTDelayedPredicate.create(child);
                 }
@@ -189,7 +192,7 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
     @Override
     public Object visit(ASTReferenceExpression node, Object data) {
         // if not executable, then visit all children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, data, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, data, forFieldIndex)) {
             super.visit(node, data);
         }
         return node;
@@ -200,8 +203,7 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
         // if a delayed predicate, then leave it alone
         if (QueryPropertyMarker.findInstance(node).isType(ASTDelayedPredicate.class)) {
             return node;
-        } else if (!ExecutableDeterminationVisitor
-                        .isExecutable(node, data, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        } else if (!states.isExecutable(node, data, forFieldIndex)) {
             super.visit(node, data);
         }
         return node;
@@ -210,7 +212,7 @@ public class PushdownUnexecutableNodesVisitor extends BaseVisitor {
     @Override
     public Object visit(ASTNotNode node, Object data) {
         // if not executable, then visit all children
-        if (!ExecutableDeterminationVisitor.isExecutable(node, data, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper)) {
+        if (!states.isExecutable(node, data, forFieldIndex)) {
             super.visit(node, ExecutableDeterminationVisitor.negateData(data));
         }
         return node;
@@ -242,6 +242,12 @@ public class ContentQueryMetricsIngestHelper extends CSVIngestHelper implements
                     fields.put("PREDICTION", prediction.getName() + ":" + prediction.getPrediction());
                 }
             }
+            Map<String,String> delegateMetrics = updatedQueryMetric.getDelegateMetrics();
+            if (delegateMetrics != null) {
+                for (Map.Entry<String,String> delegateMetric : delegateMetrics.entrySet()) {
+                    fields.put("DELEGATE_METRICS", delegateMetric.getKey() + ":" + delegateMetric.getValue());
+                }
+            }
             
             putExtendedFieldsToWrite(updatedQueryMetric, fields);
             
@@ -335,6 +341,15 @@ public class ContentQueryMetricsIngestHelper extends CSVIngestHelper implements
             if (updatedQueryMetric.getFiRanges() != storedQueryMetric.getFiRanges()) {
                 fields.put("FI_RANGES", Long.toString(storedQueryMetric.getFiRanges()));
             }
+            Map<String,String> storedDelegateMetrics = storedQueryMetric.getDelegateMetrics();
+            if (storedDelegateMetrics != null) {
+                Map<String,String> updatedDelegateMetrics = updatedQueryMetric.getDelegateMetrics();
+                for (Map.Entry<String,String> delegateMetric : storedDelegateMetrics.entrySet()) {
+                    if (updatedDelegateMetrics == null || !delegateMetric.getValue().equals(updatedDelegateMetrics.get(delegateMetric.getKey()))) {
+                        fields.put("DELEGATE_METRICS", delegateMetric.getKey() + ":" + delegateMetric.getValue());
+                    }
+                }
+            }
             
             putExtendedFieldsToDelete(updatedQueryMetric, fields);
             
@@ -708,6 +708,13 @@ public class ShardTableQueryMetricHandler extends BaseQueryMetricHandler<QueryMe
                         m.setYieldCount(Long.parseLong(fieldValue));
                     } else if (fieldName.equals("LOGIN_TIME")) {
                         m.setLoginTime(Long.parseLong(fieldValue));
+                    } else if (fieldName.equals("DELEGATE_METRICS")) {
+                        int index = fieldValue.indexOf(":");
+                        if (-1 == index) {
+                            log.error("Could not parse delegate metric: " + fieldValue);
+                        } else {
+                            m.getDelegateMetrics().put(fieldValue.substring(0, index), fieldValue.substring(index + 1));
+                        }
                     } else {
                         log.debug("encountered unanticipated field name: " + fieldName);
                     }
@@ -74,6 +74,9 @@ public class FacetedQueryPlanner extends IndexQueryPlanner {
         cfg.addOption(DynamicFacetIterator.FACETED_SEARCH_TYPE, facetedConfig.getType().toString());
         cfg.addOption(DynamicFacetIterator.FACETED_MINIMUM, Integer.toString(facetedConfig.getMinimumFacetCount()));
         cfg.addOption(DynamicFacetIterator.FACETED_SEARCH_FIELDS, Joiner.on(",").join(facetedConfig.getFacetedFields()));
+        if (facetedConfig.isTopValuesEnabled()) {
+            cfg.addOption(DynamicFacetIterator.FACETED_MAXIMUM_VALUES, Integer.toString(facetedConfig.getMaximumFacetValues()));
+        }
         
         if (log.isTraceEnabled())
             log.trace("Configuration is " + facetedConfig);
@@ -1271,6 +1271,22 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setShardsPerDayThreshold(shardsPerDayThreshold);
     }
     
+    public String getTermCardinalityIndexPath() {
+        return getConfig().getTermCardinalityIndexPath();
+    }
+    
+    public void setTermCardinalityIndexPath(String termCardinalityIndexPath) {
+        getConfig().setTermCardinalityIndexPath(termCardinalityIndexPath);
+    }
+    
+    public long getMaxTermCardinality() {
+        return getConfig().getMaxTermCardinality();
+    }
+    
+    public void setMaxTermCardinality(long maxTermCardinality) {
+        getConfig().setMaxTermCardinality(maxTermCardinality);
+    }
+    
     public int getMaxTermThreshold() {
         return getConfig().getMaxTermThreshold();
     }
@@ -2250,6 +2266,14 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> {
         getConfig().setTrackSizes(trackSizes);
     }
     
+    public boolean isCompileEvaluation() {
+        return getConfig().isCompileEvaluation();
+    }
+    
+    public void setCompileEvaluation(boolean compileEvaluation) {
+        getConfig().setCompileEvaluation(compileEvaluation);
+    }
+    
     public Profile getSelectedProfile() {
         return this.selectedProfile;
     }
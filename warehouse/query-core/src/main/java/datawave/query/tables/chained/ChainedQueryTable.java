@@ -1,5 +1,7 @@
 package datawave.query.tables.chained;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -81,6 +83,9 @@ public abstract class ChainedQueryTable<T1,T2> extends BaseQueryLogic<T2> {
     public GenericQueryConfiguration initialize(Connector connection, Query settings, Set<Authorizations> runtimeQueryAuthorizations) throws Exception {
         
         ChainedQueryConfiguration config = new ChainedQueryConfiguration();
+        config.setQueryImpl(settings);
+        config.setConnector(connection);
+        config.setAuthorizations(runtimeQueryAuthorizations);
         
         if (log.isDebugEnabled()) {
             log.debug("Max Results: " + this.getMaxResults());
@@ -88,6 +93,43 @@ public abstract class ChainedQueryTable<T1,T2> extends BaseQueryLogic<T2> {
         return config;
     }
     
+    /**
+     * Runs the query against the former query logic and hands its results to the chain strategy, whose results are the results of this query
+     */
+    @Override
+    public void setupQuery(GenericQueryConfiguration configuration) throws Exception {
+        if (!(configuration instanceof ChainedQueryConfiguration)) {
+            throw new IllegalArgumentException("Expected a ChainedQueryConfiguration but got " + configuration.getClass().getName());
+        }
+        ChainedQueryConfiguration config = (ChainedQueryConfiguration) configuration;
+        
+        GenericQueryConfiguration config1 = logic1.initialize(config.getConnector(), config.getQueryImpl(), config.getAuthorizations());
+        logic1.setupQuery(config1);
+        
+        this.iterator = chainStrategy.runChainedQuery(config.getConnector(), config.getQueryImpl(), config.getAuthorizations(), logic1.iterator(), logic2);
+    }
+    
+    /**
+     * Closes the results of the chain strategy, which stops any latter queries it is running, and then both query logics
+     */
+    @Override
+    public void close() {
+        super.close();
+        if (this.iterator instanceof Closeable) {
+            try {
+                ((Closeable) this.iterator).close();
+            } catch (IOException e) {
+                log.warn("Failed to close the chained query results", e);
+            }
+        }
+        if (logic1 != null) {
+            logic1.close();
+        }
+        if (logic2 != null) {
+            logic2.close();
+        }
+    }
+    
     @Override
     public Set<String> getOptionalQueryParameters() {
         Set<String> params = new TreeSet<>();
@@ -0,0 +1,289 @@
+package datawave.query.tables.chained.strategy;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import datawave.webservice.query.Query;
+import datawave.webservice.query.configuration.GenericQueryConfiguration;
+import datawave.webservice.query.logic.QueryLogic;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.log4j.Logger;
+
+/**
+ * Defines the logic to issue a query against the latter query logic for each batch of results from the former query logic. Unlike {@link FullChainStrategy},
+ * the latter queries start as soon as their batch of former results is available, up to {@link #getMaxConcurrentBatches()} of them run at once, and their
+ * results are returned in the order they arrive. Each latter query runs against a clone of the latter query logic.
+ * 
+ * @param <T1>
+ *            Type of former {@link datawave.webservice.query.logic.QueryLogic}
+ * @param <T2>
+ *            Type of latter {@link datawave.webservice.query.logic.QueryLogic}
+ */
+public abstract class BatchedChainStrategy<T1,T2> implements ChainStrategy<T1,T2> {
+    protected final Logger log = Logger.getLogger(BatchedChainStrategy.class);
+    
+    private static final Object END = new Object();
+    
+    protected int batchSize = 1000;
+    protected int maxConcurrentBatches = 4;
+    protected int resultQueueSize = 1000;
+    protected long resultTimeoutMs = TimeUnit.HOURS.toMillis(1);
+    
+    @Override
+    public Iterator<T2> runChainedQuery(Connector connector, Query initialQuery, Set<Authorizations> auths, Iterator<T1> initialQueryResults,
+                    QueryLogic<T2> latterQueryLogic) throws Exception {
+        BatchedResults results = new BatchedResults(connector, initialQuery, auths, initialQueryResults, latterQueryLogic);
+        results.start();
+        return results;
+    }
+    
+    /**
+     * Build the latter query for one batch of results from the former query logic. This is called from a single thread for each batch in turn.
+     * 
+     * @param initialQuery
+     *            the query the user submitted
+     * @param initialQueryResults
+     *            a batch of at most {@link #getBatchSize()} results from the former query logic
+     * @param latterLogicName
+     *            the name of the latter query logic
+     * @return the query to run against the latter query logic, or null if there is nothing to query for this batch
+     */
+    protected abstract Query buildLatterQuery(Query initialQuery, Iterator<T1> initialQueryResults, String latterLogicName);
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public int getMaxConcurrentBatches() {
+        return maxConcurrentBatches;
+    }
+    
+    public void setMaxConcurrentBatches(int maxConcurrentBatches) {
+        this.maxConcurrentBatches = maxConcurrentBatches;
+    }
+    
+    public int getResultQueueSize() {
+        return resultQueueSize;
+    }
+    
+    public void setResultQueueSize(int resultQueueSize) {
+        this.resultQueueSize = resultQueueSize;
+    }
+    
+    public long getResultTimeoutMs() {
+        return resultTimeoutMs;
+    }
+    
+    /**
+     * Set how long a latter query waits for the caller to make room for its next result before the chained query fails
+     */
+    public void setResultTimeoutMs(long resultTimeoutMs) {
+        this.resultTimeoutMs = resultTimeoutMs;
+    }
+    
+    /**
+     * Reads the former results in batches on one thread, runs the latter query for each batch on the others, and hands their results to the caller through a
+     * bounded queue so that a slow caller holds up the queries rather than filling memory. The queries give up once the results are closed, or if the caller
+     * takes no results for {@link #getResultTimeoutMs()}.
+     */
+    protected class BatchedResults implements Iterator<T2>, Closeable {
+        private final Connector connector;
+        private final Query initialQuery;
+        private final Set<Authorizations> auths;
+        private final Iterator<T1> initialQueryResults;
+        private final QueryLogic<T2> latterQueryLogic;
+        
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(resultQueueSize);
+        private final Semaphore batches = new Semaphore(maxConcurrentBatches);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final ExecutorService executor;
+        
+        private volatile boolean closed = false;
+        // set once the latter queries are done and the end marker was put or could not be put
+        private volatile boolean finished = false;
+        private Object next = null;
+        
+        public BatchedResults(Connector connector, Query initialQuery, Set<Authorizations> auths, Iterator<T1> initialQueryResults,
+                        QueryLogic<T2> latterQueryLogic) {
+            this.connector = connector;
+            this.initialQuery = initialQuery;
+            this.auths = auths;
+            this.initialQueryResults = initialQueryResults;
+            this.latterQueryLogic = latterQueryLogic;
+            this.executor = Executors.newFixedThreadPool(maxConcurrentBatches + 1,
+                            new ThreadFactoryBuilder().setNameFormat("BatchedChainStrategy-" + initialQuery.getId() + "-%d").setDaemon(true).build());
+        }
+        
+        protected void start() {
+            executor.execute(this::produceBatches);
+        }
+        
+        private void produceBatches() {
+            try {
+                int batchCount = 0;
+                while (!isStopped() && initialQueryResults.hasNext()) {
+                    List<T1> batch = new ArrayList<>(batchSize);
+                    while (batch.size() < batchSize && initialQueryResults.hasNext()) {
+                        batch.add(initialQueryResults.next());
+                    }
+                    
+                    Query latterQuery = buildLatterQuery(initialQuery, batch.iterator(), latterQueryLogic.getLogicName());
+                    if (null == latterQuery) {
+                        log.debug("Could not compute a query to run for batch " + batchCount);
+                    } else {
+                        batches.acquire();
+                        executor.execute(() -> runBatch(latterQuery));
+                    }
+                    batchCount++;
+                }
+                
+                if (log.isDebugEnabled()) {
+                    log.debug("Launched latter queries for " + batchCount + " batches of former results");
+                }
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                try {
+                    // wait for the running batches before marking the end of the results
+                    batches.acquire(maxConcurrentBatches);
+                } catch (InterruptedException e) {
+                    fail(e);
+                }
+                put(END);
+                finished = true;
+                executor.shutdown();
+            }
+        }
+        
+        private void runBatch(Query latterQuery) {
+            QueryLogic<T2> logic = null;
+            try {
+                @SuppressWarnings("unchecked")
+                QueryLogic<T2> clone = (QueryLogic<T2>) latterQueryLogic.clone();
+                logic = clone;
+                GenericQueryConfiguration config = logic.initialize(connector, latterQuery, auths);
+                logic.setupQuery(config);
+                
+                Iterator<T2> results = logic.iterator();
+                while (!isStopped() && results.hasNext() && put(results.next())) {}
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                try {
+                    if (logic != null) {
+                        logic.close();
+                    }
+                } finally {
+                    batches.release();
+                }
+            }
+        }
+        
+        private boolean isStopped() {
+            return closed || failure.get() != null;
+        }
+        
+        private void fail(Throwable t) {
+            // failures caused by closing the results early are expected
+            if (failure.compareAndSet(null, t) && !closed) {
+                log.error("Failed to run chained query", t);
+            }
+        }
+        
+        /**
+         * Put a result on the queue, waiting while it is full
+         * 
+         * @return true if the result was put, false if the results were closed, or if the wait timed out or was interrupted which fails the query
+         */
+        private boolean put(Object result) {
+            long deadline = System.currentTimeMillis() + resultTimeoutMs;
+            try {
+                // the end marker must be delivered after a failure so that the caller sees it
+                while (!closed) {
+                    if (queue.offer(result, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                    if (System.currentTimeMillis() >= deadline) {
+                        fail(new TimeoutException("No chained query results were taken within " + resultTimeoutMs + "ms"));
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+            return false;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null && !closed) {
+                    next = queue.poll(100, TimeUnit.MILLISECONDS);
+                    // the end marker may not fit on the queue if the latter queries gave up on the caller
+                    if (next == null && finished && queue.isEmpty()) {
+                        next = END;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new RuntimeException("Interrupted while waiting for chained query results", e);
+            }
+            if (next == END) {
+                close();
+                Throwable t = failure.get();
+                if (t != null) {
+                    throw new RuntimeException("Failed to run chained query", t);
+                }
+                return false;
+            }
+            return next != null;
+        }
+        
+        @SuppressWarnings("unchecked")
+        @Override
+        public T2 next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T2 result = (T2) next;
+            next = null;
+            return result;
+        }
+        
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove() is not supported by this Iterator.");
+        }
+        
+        /**
+         * Stop launching and running latter queries. Results not yet returned are discarded.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            queue.clear();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -20,6 +20,8 @@ public class FacetedConfiguration {
     
     public static final String MAXIMUM_GROUP_COUNT = "facet.maximum.group.count";
     
+    public static final String MAXIMUM_FACET_VALUES = "facet.maximum.values";
+    
     public static final String STREAMING_ENABLED = "facet.streaming.enabled";
     
     public static final String FACETED_SEARCH_TYPE = "facet.search.type";
@@ -40,6 +42,8 @@ public class FacetedConfiguration {
     
     protected int maximumFacetGroupCount = Integer.MAX_VALUE;
     
+    protected int maximumFacetValues = Integer.MAX_VALUE;
+    
     protected boolean isStreaming = true;
     
     protected boolean hasFieldLimits = false;
@@ -146,6 +150,38 @@ public class FacetedConfiguration {
         return maximumFacetGroupCount;
     }
     
+    /**
+     * Sets the maximum number of values returned for each facet. Only the values with the largest counts are kept.
+     * 
+     * @param max
+     * @throws IllegalArgumentException
+     *             if max is negative
+     */
+    public void setMaximumFacetValues(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException(MAXIMUM_FACET_VALUES + " must not be negative: " + max);
+        }
+        this.maximumFacetValues = max;
+    }
+    
+    /**
+     * Returns the maximum number of values returned for each facet.
+     * 
+     * @return
+     */
+    public int getMaximumFacetValues() {
+        return maximumFacetValues;
+    }
+    
+    /**
+     * If maximum facet values is not the max value, we assume that it was set and therefore only the top values are kept.
+     * 
+     * @return
+     */
+    public boolean isTopValuesEnabled() {
+        return (maximumFacetValues != Integer.MAX_VALUE);
+    }
+    
     /**
      * If maximum facet group count is not the max value, we assume that it was set and therefore grouping is enabled.
      * 
@@ -189,8 +225,8 @@ public class FacetedConfiguration {
     
     @Override
     public String toString() {
-        return "Maximum FacetGroupCount : " + maximumFacetGroupCount + "\n" + "Minimum Facet Count : " + minimumFacetCount + "\n" + "Faceted Fields: "
-                        + facetedFields + "\n" + "Faceted Table Name: " + facetTableName + "\n" + "Faceted Metadata Table Name: " + facetMetadataTableName
-                        + "\n" + "Faceted Hash Table Name: " + facetHashTableName + "\n";
+        return "Maximum FacetGroupCount : " + maximumFacetGroupCount + "\n" + "Maximum Facet Values : " + maximumFacetValues + "\n" + "Minimum Facet Count : "
+                        + minimumFacetCount + "\n" + "Faceted Fields: " + facetedFields + "\n" + "Faceted Table Name: " + facetTableName + "\n"
+                        + "Faceted Metadata Table Name: " + facetMetadataTableName + "\n" + "Faceted Hash Table Name: " + facetHashTableName + "\n";
     }
 }
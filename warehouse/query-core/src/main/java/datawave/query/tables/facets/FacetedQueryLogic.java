@@ -10,6 +10,7 @@ import java.util.TreeSet;
 import datawave.query.DocumentSerialization;
 import datawave.query.config.ShardQueryConfiguration;
 import datawave.query.function.FacetedGrouping;
+import datawave.query.function.TopKEstimation;
 import datawave.query.function.deserializer.DocumentDeserializer;
 import datawave.query.function.serializer.DocumentSerializer;
 import datawave.query.iterator.QueryOptions;
@@ -118,6 +119,11 @@ public class FacetedQueryLogic extends IndexQueryLogic {
             facetedConfig.setMaximumFacetGroupCount(Integer.parseInt(maximumGroupCount));
         }
         
+        final String maximumValues = settings.findParameter(FacetedConfiguration.MAXIMUM_FACET_VALUES).getParameterValue().trim();
+        if (org.apache.commons.lang.StringUtils.isNotBlank(maximumValues)) {
+            facetedConfig.setMaximumFacetValues(Integer.parseInt(maximumValues));
+        }
+        
         final String minimumCount = settings.findParameter(FacetedConfiguration.MINIMUM_COUNT).getParameterValue().trim();
         if (org.apache.commons.lang.StringUtils.isNotBlank(minimumCount)) {
             facetedConfig.setMinimumCount(Integer.parseInt(minimumCount));
@@ -145,6 +151,10 @@ public class FacetedQueryLogic extends IndexQueryLogic {
         
         functionList.add(new FacetedGrouping(facetedConfig));
         
+        if (facetedConfig.isTopValuesEnabled()) {
+            functionList.add(new TopKEstimation(facetedConfig.getMaximumFacetValues()));
+        }
+        
         EmptyValueFunction filter = new EmptyValueFunction(deserializer);
         
         List<Predicate<Entry<Key,Value>>> filterList = Lists.newArrayList();
@@ -179,6 +189,7 @@ public class FacetedQueryLogic extends IndexQueryLogic {
         optionalParams.add(FacetedConfiguration.FACETED_SEARCH_TYPE);
         optionalParams.add(FacetedConfiguration.FACETED_FIELDS);
         optionalParams.add(FacetedConfiguration.MAXIMUM_GROUP_COUNT);
+        optionalParams.add(FacetedConfiguration.MAXIMUM_FACET_VALUES);
         optionalParams.add(FacetedConfiguration.STREAMING_ENABLED);
         return optionalParams;
     }
@@ -201,6 +212,14 @@ public class FacetedQueryLogic extends IndexQueryLogic {
         facetedConfig.setMaximumFacetGroupCount(maxGroup);
     }
     
+    /**
+     * @param maxValues
+     *            the maximum number of values returned for each facet
+     */
+    public void setMaximumFacetValues(final int maxValues) {
+        facetedConfig.setMaximumFacetValues(maxValues);
+    }
+    
     public void setFacetTableName(String facetTableName) {
         facetedConfig.setFacetTableName(facetTableName);
     }
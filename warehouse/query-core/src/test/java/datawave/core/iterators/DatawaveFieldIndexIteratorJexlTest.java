@@ -7,7 +7,10 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Text;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.fst.FST;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -16,9 +19,13 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 public class DatawaveFieldIndexIteratorJexlTest {
     
@@ -136,4 +143,115 @@ public class DatawaveFieldIndexIteratorJexlTest {
         Assert.assertEquals(new Key(row, fiName, fieldValueNullAppended), r.getStartKey());
         Assert.assertEquals(new Key(row, fiName, new Text("y" + Constants.MAX_UNICODE_STRING)), r.getEndKey());
     }
+    
+    @Test
+    public void regexMatchesAndSeeksPastValuesThatCannotMatch_test() throws IOException {
+        DatawaveFieldIndexRegexIteratorJexl iteratorJexl = DatawaveFieldIndexRegexIteratorJexl.builder().withFieldName("FIELD").withFieldValue("(foo|bar)baz.*")
+                        .withMaxRangeSplit(1).withIvaratorCacheDirs(cacheDirs).build();
+        
+        Text row = new Text("row");
+        Text fiName = new Text("fi" + Constants.NULL + "FIELD");
+        
+        Assert.assertTrue(iteratorJexl.matches(new Key(row, fiName, new Text("barbazz" + Constants.NULL + "datatype" + Constants.NULL + "uid"))));
+        Assert.assertFalse(iteratorJexl.matches(new Key(row, fiName, new Text("barba" + Constants.NULL + "datatype" + Constants.NULL + "uid"))));
+        
+        Key key = new Key(row, fiName, new Text("bat" + Constants.NULL + "datatype" + Constants.NULL + "uid"));
+        Assert.assertEquals(new Key(row, fiName, new Text("f")), iteratorJexl.getNextSeekKey(key));
+        key = new Key(row, fiName, new Text("barbay" + Constants.NULL + "datatype" + Constants.NULL + "uid"));
+        Assert.assertEquals(new Key(row, fiName, new Text("barbaz")), iteratorJexl.getNextSeekKey(key));
+        
+        // a key filtered out for some other reason does not skip the rest of its value
+        key = new Key(row, fiName, new Text("barbazz" + Constants.NULL + "datatype" + Constants.NULL + "uid"));
+        Assert.assertNull(iteratorJexl.getNextSeekKey(key));
+        
+        // nothing after foo can match
+        key = new Key(row, fiName, new Text("fop" + Constants.NULL + "datatype" + Constants.NULL + "uid"));
+        Assert.assertTrue(new Range(new Key(row, fiName), new Key(row, fiName, new Text(Constants.MAX_UNICODE_STRING))).afterEndKey(iteratorJexl
+                        .getNextSeekKey(key)));
+    }
+    
+    @Test
+    public void regexWithUnsupportedSyntaxDoesNotSeek_test() throws IOException {
+        DatawaveFieldIndexRegexIteratorJexl iteratorJexl = DatawaveFieldIndexRegexIteratorJexl.builder().withFieldName("FIELD")
+                        .withFieldValue("[\u00e9\u00e8]t.*").withMaxRangeSplit(1).withIvaratorCacheDirs(cacheDirs).build();
+        
+        Text row = new Text("row");
+        Text fiName = new Text("fi" + Constants.NULL + "FIELD");
+        Key key = new Key(row, fiName, new Text("\u00e9t\u00e9" + Constants.NULL + "datatype" + Constants.NULL + "uid"));
+        
+        Assert.assertTrue(iteratorJexl.matches(key));
+        Assert.assertNull(iteratorJexl.getNextSeekKey(new Key(row, fiName, new Text("bar" + Constants.NULL + "datatype" + Constants.NULL + "uid"))));
+    }
+    
+    @Test
+    public void fstListLeapfrogsToTheNextValue_test() throws IOException {
+        SortedSet<String> values = new TreeSet<>(Arrays.asList("apple", "banana", "cherry"));
+        DatawaveFieldIndexListIteratorJexl iteratorJexl = DatawaveFieldIndexListIteratorJexl.builder()
+                        .withFST(DatawaveFieldIndexListIteratorJexl.getFST(values)).withFieldName("FIELD").withMaxRangeSplit(1).withIvaratorCacheDirs(cacheDirs)
+                        .build();
+        assertLeapfrogs(iteratorJexl);
+    }
+    
+    @Test
+    public void valueListLeapfrogsToTheNextValue_test() throws IOException {
+        DatawaveFieldIndexListIteratorJexl iteratorJexl = DatawaveFieldIndexListIteratorJexl.builder().withValues(Arrays.asList("cherry", "apple", "banana"))
+                        .withFieldName("FIELD").withMaxRangeSplit(1).withIvaratorCacheDirs(cacheDirs).build();
+        assertLeapfrogs(iteratorJexl);
+    }
+    
+    private void assertLeapfrogs(DatawaveFieldIndexListIteratorJexl iteratorJexl) throws IOException {
+        Text row = new Text("row");
+        Text fiName = new Text("fi" + Constants.NULL + "FIELD");
+        String suffix = Constants.NULL + "datatype" + Constants.NULL + "uid";
+        
+        Assert.assertTrue(iteratorJexl.matches(new Key(row, fiName, new Text("banana" + suffix))));
+        Assert.assertFalse(iteratorJexl.matches(new Key(row, fiName, new Text("avocado" + suffix))));
+        
+        Assert.assertEquals(new Key(row, fiName, new Text("apple")), iteratorJexl.getNextSeekKey(new Key(row, fiName, new Text("aardvark" + suffix))));
+        Assert.assertEquals(new Key(row, fiName, new Text("banana")), iteratorJexl.getNextSeekKey(new Key(row, fiName, new Text("avocado" + suffix))));
+        Assert.assertEquals(new Key(row, fiName, new Text("cherry")), iteratorJexl.getNextSeekKey(new Key(row, fiName, new Text("bananas" + suffix))));
+        
+        // a matching value filtered out for some other reason, and values that sort differently as UTF-8, are scanned
+        Assert.assertNull(iteratorJexl.getNextSeekKey(new Key(row, fiName, new Text("banana" + suffix))));
+        Assert.assertNull(iteratorJexl.getNextSeekKey(new Key(row, fiName, new Text("\ud83d\ude00" + suffix))));
+        
+        // nothing after cherry can match
+        Key seekKey = iteratorJexl.getNextSeekKey(new Key(row, fiName, new Text("date" + suffix)));
+        Assert.assertTrue(new Range(new Key(row, fiName), new Key(row, fiName, new Text(Constants.MAX_UNICODE_STRING))).afterEndKey(seekKey));
+    }
+    
+    @Test
+    public void fstManagerCachesFsts_test() throws IOException {
+        DatawaveFieldIndexListIteratorJexl.FSTManager.clear();
+        long maxBytes = DatawaveFieldIndexListIteratorJexl.FSTManager.getMaxBytes();
+        try {
+            Path apples = saveFST("apple", "apples");
+            Path bananas = saveFST("banana", "bananas");
+            
+            long hits = DatawaveFieldIndexListIteratorJexl.FSTManager.getStats().hitCount();
+            long misses = DatawaveFieldIndexListIteratorJexl.FSTManager.getStats().missCount();
+            FST<Object> fst = DatawaveFieldIndexListIteratorJexl.FSTManager.get(apples, null, fs);
+            Assert.assertSame(fst, DatawaveFieldIndexListIteratorJexl.FSTManager.get(apples, null, fs));
+            Assert.assertEquals(hits + 1, DatawaveFieldIndexListIteratorJexl.FSTManager.getStats().hitCount());
+            Assert.assertEquals(misses + 1, DatawaveFieldIndexListIteratorJexl.FSTManager.getStats().missCount());
+            Assert.assertEquals(fst.ramBytesUsed(), DatawaveFieldIndexListIteratorJexl.FSTManager.getCachedBytes());
+            
+            // only one of the fsts fits once the cache is shrunk
+            DatawaveFieldIndexListIteratorJexl.FSTManager.setMaxBytes(fst.ramBytesUsed() + 1);
+            DatawaveFieldIndexListIteratorJexl.FSTManager.get(bananas, null, fs);
+            Assert.assertEquals(1, DatawaveFieldIndexListIteratorJexl.FSTManager.getStats().evictionCount());
+            Assert.assertTrue(DatawaveFieldIndexListIteratorJexl.FSTManager.getCachedBytes() <= fst.ramBytesUsed() + 1);
+        } finally {
+            DatawaveFieldIndexListIteratorJexl.FSTManager.setMaxBytes(maxBytes);
+            DatawaveFieldIndexListIteratorJexl.FSTManager.clear();
+        }
+    }
+    
+    private Path saveFST(String... values) throws IOException {
+        File file = temporaryFolder.newFile();
+        try (OutputStreamDataOutput out = new OutputStreamDataOutput(new FileOutputStream(file))) {
+            DatawaveFieldIndexListIteratorJexl.getFST(new TreeSet<>(Arrays.asList(values))).save(out);
+        }
+        return new Path(file.toURI());
+    }
 }
@@ -0,0 +1,155 @@
+package datawave.core.iterators;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+public class RegexDfaTest {
+    
+    private static final Logger log = Logger.getLogger(RegexDfaTest.class);
+    
+    private static final String[] SUPPORTED = {"abc", "a.c", "a.*", ".*bc", ".*b.*", "a+b?c*", "(ab|cd)+e", "[a-c]{2,3}x", "[^a-c]+", "\\d+\\.\\d*",
+            "\\w+@\\w+\\.com", "\\s?\\S+", "(?:foo|bar)baz.*", "x{0}y", "a{2,}", "a*?b", "^abc$", "", "[\\d_-]+", "\\Q.*\\E.", "café.*", ".",
+            "[^a]", "\\W\\D", "a|", "(a|b)*abb", "\\x41\\u00e9", ".*(ab|ba){2}.*"};
+    
+    private static final String[] UNSUPPORTED = {"(?i)abc", "a\\bc", "(a)\\1", "a*+", "(?=a)a", "[a-z&&[^b]]", "[é]", "\\p{Alpha}", "a{", "a^b"};
+    
+    private static final String ALPHABET = "abcdxy019_.-@ \n\ré\u0085 😀";
+    
+    private static String randomValue(Random random) {
+        StringBuilder value = new StringBuilder();
+        for (int i = random.nextInt(8); i > 0; i--) {
+            int index = random.nextInt(ALPHABET.length() - 1);
+            if (Character.isHighSurrogate(ALPHABET.charAt(index))) {
+                value.append(ALPHABET, index, index + 2);
+            } else if (!Character.isLowSurrogate(ALPHABET.charAt(index))) {
+                value.append(ALPHABET.charAt(index));
+            }
+        }
+        return value.toString();
+    }
+    
+    private static boolean matches(RegexDfa dfa, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return dfa.matches(bytes, 0, bytes.length);
+    }
+    
+    private static int compare(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+    
+    @Test
+    public void testUnsupportedReturnsNull() {
+        for (String regex : UNSUPPORTED) {
+            Assert.assertNull(regex, RegexDfa.compile(regex));
+        }
+    }
+    
+    @Test
+    public void testMatchesPattern() {
+        Random random = new Random(11);
+        for (String regex : SUPPORTED) {
+            RegexDfa dfa = RegexDfa.compile(regex);
+            Assert.assertNotNull(regex, dfa);
+            Pattern pattern = Pattern.compile(regex);
+            for (int i = 0; i < 2000; i++) {
+                String value = randomValue(random);
+                Assert.assertEquals(regex + " against " + value, pattern.matcher(value).matches(), matches(dfa, value));
+            }
+        }
+    }
+    
+    @Test
+    public void testNextPrefixSkipsOnlyNonMatches() {
+        Random random = new Random(13);
+        for (String regex : SUPPORTED) {
+            RegexDfa dfa = RegexDfa.compile(regex);
+            Pattern pattern = Pattern.compile(regex);
+            
+            // a sorted set of values as they would appear in the field index
+            TreeSet<byte[]> values = new TreeSet<>(RegexDfaTest::compare);
+            for (int i = 0; i < 500; i++) {
+                String value = randomValue(random);
+                if (!value.contains("\0")) {
+                    values.add(value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            
+            for (byte[] value : values) {
+                if (dfa.matches(value, 0, value.length)) {
+                    continue;
+                }
+                byte[] prefix = dfa.nextPrefix(value, 0, value.length);
+                Assert.assertTrue(regex, prefix == null || compare(prefix, value) > 0);
+                for (byte[] skipped : (prefix == null ? values.tailSet(value, false) : values.subSet(value, false, prefix, false))) {
+                    Assert.assertFalse(regex + " skipped " + new String(skipped, StandardCharsets.UTF_8),
+                                    pattern.matcher(new String(skipped, StandardCharsets.UTF_8)).matches());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testNextPrefix() {
+        RegexDfa dfa = RegexDfa.compile("(?:foo|bar)baz.*");
+        byte[] value = "bat".getBytes(StandardCharsets.UTF_8);
+        Assert.assertArrayEquals("f".getBytes(StandardCharsets.UTF_8), dfa.nextPrefix(value, 0, value.length));
+        value = "barbay".getBytes(StandardCharsets.UTF_8);
+        Assert.assertArrayEquals("barbaz".getBytes(StandardCharsets.UTF_8), dfa.nextPrefix(value, 0, value.length));
+        value = "g".getBytes(StandardCharsets.UTF_8);
+        Assert.assertNull(dfa.nextPrefix(value, 0, value.length));
+    }
+    
+    @Test
+    public void testThroughput() {
+        String regex = ".*(ab|cd|ef|gh|ij|kl|mn|op)x[0-9]+";
+        RegexDfa dfa = RegexDfa.compile(regex);
+        Pattern pattern = Pattern.compile(regex);
+        Random random = new Random(17);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder value = new StringBuilder();
+            for (int j = 0; j < 40; j++) {
+                value.append((char) ('a' + random.nextInt(26)));
+            }
+            values.add(value.toString());
+        }
+        List<byte[]> bytes = new ArrayList<>();
+        for (String value : values) {
+            bytes.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        int passes = 100;
+        long startTime = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            for (String value : values) {
+                pattern.matcher(value).matches();
+            }
+        }
+        long patternTime = System.nanoTime() - startTime;
+        
+        startTime = System.nanoTime();
+        for (int pass = 0; pass < passes; pass++) {
+            for (byte[] value : bytes) {
+                dfa.matches(value, 0, value.length);
+            }
+        }
+        long dfaTime = System.nanoTime() - startTime;
+        
+        log.info(String.format("Matched %d values in %d ns/value with a Pattern, %d ns/value with a %s", passes * values.size(),
+                        patternTime / (passes * values.size()), dfaTime / (passes * values.size()), dfa));
+    }
+}
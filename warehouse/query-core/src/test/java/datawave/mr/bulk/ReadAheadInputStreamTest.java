@@ -0,0 +1,148 @@
+package datawave.mr.bulk;
+
+import org.apache.hadoop.fs.PositionedReadable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReadAheadInputStreamTest {
+    
+    private static final int LENGTH = 10000;
+    
+    private byte[] file;
+    private ByteArrayReadable source;
+    private ExecutorService executor;
+    
+    @Before
+    public void setup() {
+        file = new byte[LENGTH];
+        new Random(42).nextBytes(file);
+        source = new ByteArrayReadable(file);
+        executor = Executors.newFixedThreadPool(2);
+    }
+    
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testSequentialRead() throws IOException {
+        ReadAheadInputStream in = new ReadAheadInputStream(source, LENGTH, 1000, 3, executor);
+        byte[] read = new byte[LENGTH];
+        int total = 0;
+        int n;
+        // odd sized reads that straddle the read ahead blocks
+        while ((n = in.read(read, total, Math.min(333, LENGTH - total))) > 0) {
+            total += n;
+        }
+        assertEquals(LENGTH, total);
+        assertArrayEquals(file, read);
+        assertEquals(-1, in.read());
+        
+        // all but the first couple of reads were served from the blocks read ahead
+        assertTrue("made " + source.reads.get() + " reads", source.reads.get() <= 2 + (LENGTH / 1000));
+        in.close();
+        assertTrue(source.closed);
+    }
+    
+    @Test
+    public void testSeekDiscardsReadAhead() throws IOException {
+        ReadAheadInputStream in = new ReadAheadInputStream(source, LENGTH, 1000, 2, executor);
+        byte[] buffer = new byte[100];
+        in.read(buffer, 0, 100);
+        in.read(buffer, 0, 100);
+        assertEquals(200, in.getPos());
+        
+        // jump back and forth as a reader would to the index and then the next range
+        for (long position : new long[] {9500, 50, 5000, 5100, 5200, 150}) {
+            in.seek(position);
+            in.read(buffer, 0, 100);
+            assertArrayEquals(Arrays.copyOfRange(file, (int) position, (int) position + 100), buffer);
+            assertEquals(position + 100, in.getPos());
+        }
+    }
+    
+    @Test
+    public void testPositionedReads() throws IOException {
+        ReadAheadInputStream in = new ReadAheadInputStream(source, LENGTH, 512, 4, executor);
+        byte[] buffer = new byte[1500];
+        for (long position = 0; position + buffer.length <= LENGTH; position += buffer.length) {
+            in.readFully(position, buffer);
+            assertArrayEquals(Arrays.copyOfRange(file, (int) position, (int) position + buffer.length), buffer);
+        }
+        assertEquals(0, in.getPos());
+    }
+    
+    @Test(expected = EOFException.class)
+    public void testReadPastEnd() throws IOException {
+        ReadAheadInputStream in = new ReadAheadInputStream(source, LENGTH, 1000, 2, executor);
+        in.readFully(LENGTH - 10, new byte[20]);
+    }
+    
+    @Test(expected = IOException.class)
+    public void testReadAheadFailure() throws IOException {
+        ReadAheadInputStream in = new ReadAheadInputStream(source, LENGTH, 1000, 2, executor);
+        byte[] buffer = new byte[500];
+        source.failFrom = 1000;
+        // the second read starts reading ahead from 1000, and the third gets the failure from the read ahead
+        in.read(buffer, 0, 500);
+        in.read(buffer, 0, 500);
+        in.read(buffer, 0, 500);
+    }
+    
+    private static class ByteArrayReadable implements PositionedReadable, Closeable {
+        private final byte[] data;
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile long failFrom = Long.MAX_VALUE;
+        private volatile boolean closed = false;
+        
+        ByteArrayReadable(byte[] data) {
+            this.data = data;
+        }
+        
+        @Override
+        public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+            reads.incrementAndGet();
+            if (position >= failFrom) {
+                throw new IOException("failed read at " + position);
+            }
+            if (position >= data.length) {
+                return -1;
+            }
+            int n = (int) Math.min(length, data.length - position);
+            System.arraycopy(data, (int) position, buffer, offset, n);
+            return n;
+        }
+        
+        @Override
+        public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+            if (read(position, buffer, offset, length) < length) {
+                throw new EOFException();
+            }
+        }
+        
+        @Override
+        public void readFully(long position, byte[] buffer) throws IOException {
+            readFully(position, buffer, 0, buffer.length);
+        }
+        
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -153,6 +153,8 @@ public class ShardQueryConfigurationTest {
         Assert.assertEquals(DocumentSerialization.DEFAULT_RETURN_TYPE, config.getReturnType());
         Assert.assertEquals(10000, config.getEventPerDayThreshold());
         Assert.assertEquals(10, config.getShardsPerDayThreshold());
+        Assert.assertNull(config.getTermCardinalityIndexPath());
+        Assert.assertEquals(-1L, config.getMaxTermCardinality());
         Assert.assertEquals(2500, config.getMaxTermThreshold());
         Assert.assertEquals(2500, config.getMaxDepthThreshold());
         Assert.assertEquals(500, config.getMaxUnfieldedExpansionThreshold());
@@ -194,6 +196,7 @@ public class ShardQueryConfigurationTest {
         Assert.assertEquals(new UniqueFields(), config.getUniqueFields());
         Assert.assertFalse(config.getCacheModel());
         Assert.assertTrue(config.isTrackSizes());
+        Assert.assertFalse(config.isCompileEvaluation());
         Assert.assertEquals(Lists.newArrayList(), config.getContentFieldNames());
         Assert.assertNull(config.getActiveQueryLogNameSource());
         Assert.assertEquals("", config.getActiveQueryLogName());
@@ -456,7 +459,7 @@ public class ShardQueryConfigurationTest {
      */
     @Test
     public void testCheckForNewAdditions() throws IOException {
-        int expectedObjectCount = 182;
+        int expectedObjectCount = 185;
         ShardQueryConfiguration config = ShardQueryConfiguration.create();
         ObjectMapper mapper = new ObjectMapper();
         JsonNode root = mapper.readTree(mapper.writeValueAsString(config));
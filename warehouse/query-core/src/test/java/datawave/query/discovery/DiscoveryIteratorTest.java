@@ -199,6 +199,52 @@ public class DiscoveryIteratorTest {
         assertFalse(disc.hasTop());
     }
     
+    @Test
+    public void testSumCounts() throws Throwable {
+        DiscoveryIterator disc = new DiscoveryIterator();
+        
+        Map<String,String> map = Maps.newHashMap();
+        map.put(DiscoveryLogic.SUM_COUNTS, "true");
+        
+        TreeMap<Key,Value> ohMap = buildMap("term", "20130101");
+        ohMap.putAll(buildMap("term", "20130102"));
+        ohMap.putAll(buildMap("term", "20130103"));
+        ohMap.putAll(buildMap("term2", "20130101"));
+        disc.init(new SortedMapIterator(ohMap), map, null);
+        
+        disc.seek(new Range(), Collections.emptyList(), false);
+        
+        assertTrue(disc.hasTop());
+        Key key = disc.getTopKey();
+        assertEquals("term", key.getRow().toString());
+        assertEquals("field", key.getColumnFamily().toString());
+        // all of the dates for the field have been consumed
+        assertEquals("\uffff", key.getColumnQualifier().toString());
+        
+        DataInputBuffer in = new DataInputBuffer();
+        in.reset(disc.getTopValue().get(), disc.getTopValue().getSize());
+        ArrayWritable valWrapper = new ArrayWritable(DiscoveredThing.class);
+        valWrapper.readFields(in);
+        Writable[] values = valWrapper.get();
+        assertEquals(3, values.length);
+        Set<String> types = Sets.newHashSet("t1", "t2", "t3");
+        for (Writable value : values) {
+            DiscoveredThing thing = (DiscoveredThing) value;
+            assertEquals("term", thing.getTerm());
+            assertTrue(types.remove(thing.getType()));
+            assertEquals("20130101-20130103", thing.getDate());
+            assertEquals(720L, thing.getCount());
+        }
+        
+        // reseek on top key
+        disc.seek(new Range(key, false, new Key("term99"), false), Collections.emptyList(), false);
+        assertTrue(disc.hasTop());
+        assertEquals("term2", disc.getTopKey().getRow().toString());
+        
+        disc.next();
+        assertFalse(disc.hasTop());
+    }
+    
     @Test
     public void testReverseIndex() throws Throwable {
         Connector con = new InMemoryInstance("DiscoveryIteratorTest").getConnector("root", new PasswordToken(""));
@@ -11,6 +11,7 @@ import datawave.query.util.MetadataHelperFactory;
 import datawave.util.TableName;
 import datawave.webservice.query.QueryImpl;
 import datawave.webservice.query.configuration.GenericQueryConfiguration;
+import datawave.webservice.query.exception.BadRequestQueryException;
 import datawave.webservice.query.result.event.DefaultResponseObjectFactory;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
@@ -27,6 +28,7 @@ import org.junit.Test;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -280,4 +282,53 @@ public class DiscoveryLogicTest {
         assertEquals(ImmutableSet.of(Pair.with("xxx.skydiver", "OCCUPATION"), Pair.with("yyy.skydiver", "OCCUPATION")), matches);
     }
     
+    @Test
+    public void testSumCounts() throws Throwable {
+        Map<String,String> params = new HashMap<>();
+        params.put(DiscoveryLogic.SUM_COUNTS, "true");
+        
+        List<DiscoveredThing> things = new ArrayList<>();
+        for (Iterator<DiscoveredThing> it = runTestQuery("bbc OR onyx", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102")); it
+                        .hasNext();) {
+            things.add(it.next());
+        }
+        
+        assertEquals(4, things.size());
+        for (DiscoveredThing thing : things) {
+            assertEquals("20130101-20130102", thing.getDate());
+            // 10 shards per day with a count of 24 each
+            assertEquals(480L, thing.getCount());
+        }
+    }
+    
+    @Test
+    public void testTopK() throws Throwable {
+        Map<String,String> params = new HashMap<>();
+        params.put(DiscoveryLogic.SUM_COUNTS, "true");
+        params.put(DiscoveryLogic.TOP_K, "2");
+        
+        List<Pair<String,String>> matches = new ArrayList<>();
+        for (Iterator<DiscoveredThing> it = runTestQuery("bbc OR onyx OR *nyx", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102")); it
+                        .hasNext();) {
+            DiscoveredThing thing = it.next();
+            matches.add(Pair.with(thing.getTerm(), thing.getField()));
+        }
+        
+        // the counts are equal, so the ties are broken by term and field. onyx is found in both the forward and reverse index but only returned once.
+        assertEquals(Arrays.asList(Pair.with("bbc", "NETWORK"), Pair.with("onyx", "POKEMON")), matches);
+    }
+    
+    @Test(expected = BadRequestQueryException.class)
+    public void testTopKNotANumber() throws Throwable {
+        Map<String,String> params = new HashMap<>();
+        params.put(DiscoveryLogic.TOP_K, "two");
+        runTestQuery("bbc", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102"));
+    }
+    
+    @Test(expected = BadRequestQueryException.class)
+    public void testTopKNotPositive() throws Throwable {
+        Map<String,String> params = new HashMap<>();
+        params.put(DiscoveryLogic.TOP_K, "0");
+        runTestQuery("bbc", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102"));
+    }
 }
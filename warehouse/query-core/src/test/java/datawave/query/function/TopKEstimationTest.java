@@ -0,0 +1,88 @@
+package datawave.query.function;
+
+import datawave.query.attributes.Attribute;
+import datawave.query.attributes.Attributes;
+import datawave.query.attributes.Cardinality;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.FieldValueCardinality;
+import datawave.query.tables.facets.FacetedConfiguration;
+import org.apache.accumulo.core.data.Key;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+
+public class TopKEstimationTest {
+    
+    private static final Key KEY = new Key("20190101_0", "datatype\0uid");
+    
+    private static Cardinality cardinality(String field, String value, int count) {
+        FieldValueCardinality fvc = new FieldValueCardinality();
+        fvc.setFieldName(field);
+        fvc.setContent(value);
+        for (int i = 0; i < count; i++) {
+            fvc.setDocId("uid" + i);
+        }
+        return new Cardinality(fvc, KEY, true);
+    }
+    
+    private static Set<String> values(Document doc, String field) {
+        Set<String> values = new HashSet<>();
+        Attribute<?> attribute = doc.get(field);
+        if (attribute instanceof Attributes) {
+            for (Attribute<?> value : ((Attributes) attribute).getAttributes()) {
+                values.add(((Cardinality) value).getContent().getFloorValue());
+            }
+        } else if (attribute != null) {
+            values.add(((Cardinality) attribute).getContent().getFloorValue());
+        }
+        return values;
+    }
+    
+    private static Document document() {
+        Document doc = new Document();
+        doc.put("CITY", cardinality("CITY", "paris", 50));
+        doc.put("CITY", cardinality("CITY", "rome", 5));
+        doc.put("CITY", cardinality("CITY", "london", 30));
+        doc.put("CITY", cardinality("CITY", "berlin", 1));
+        doc.put("STATE", cardinality("STATE", "ohio", 2));
+        doc.put("STATE", cardinality("STATE", "utah", 1));
+        doc.put("COUNTRY", cardinality("COUNTRY", "italy", 3));
+        return doc;
+    }
+    
+    @Test
+    public void testKeepsLargestValues() {
+        Map.Entry<Key,Document> result = new TopKEstimation(2).apply(Maps.immutableEntry(KEY, document()));
+        
+        Assert.assertEquals(KEY, result.getKey());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("paris", "london")), values(result.getValue(), "CITY"));
+        // facets with no more than the maximum number of values are kept whole
+        Assert.assertEquals(new HashSet<>(Arrays.asList("ohio", "utah")), values(result.getValue(), "STATE"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("italy")), values(result.getValue(), "COUNTRY"));
+    }
+    
+    @Test
+    public void testKeepsLargestValue() {
+        Map.Entry<Key,Document> result = new TopKEstimation(1).apply(Maps.immutableEntry(KEY, document()));
+        
+        Assert.assertEquals(new HashSet<>(Arrays.asList("paris")), values(result.getValue(), "CITY"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("ohio")), values(result.getValue(), "STATE"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("italy")), values(result.getValue(), "COUNTRY"));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaximumRejected() {
+        new TopKEstimation(-1);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaximumParameterRejected() {
+        new FacetedConfiguration().setMaximumFacetValues(-1);
+    }
+}
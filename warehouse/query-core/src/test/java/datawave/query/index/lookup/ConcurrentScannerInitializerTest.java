@@ -0,0 +1,110 @@
+package datawave.query.index.lookup;
+
+import com.google.common.collect.Lists;
+import datawave.query.jexl.JexlNodeFactory;
+import datawave.query.util.Tuple2;
+import datawave.query.util.Tuples;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentScannerInitializerTest {
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    
+    /**
+     * Stands in for the scanner of a term, recording whether it was ever started
+     */
+    private static class TermIterator implements Iterator<Tuple2<String,IndexInfo>> {
+        private final Iterator<Tuple2<String,IndexInfo>> delegate;
+        private volatile boolean scanned = false;
+        
+        TermIterator(String... shards) {
+            List<Tuple2<String,IndexInfo>> tuples = Lists.newArrayList();
+            for (String shard : shards) {
+                tuples.add(Tuples.tuple(shard, new IndexInfo(-1)));
+            }
+            this.delegate = tuples.iterator();
+        }
+        
+        @Override
+        public boolean hasNext() {
+            scanned = true;
+            return delegate.hasNext();
+        }
+        
+        @Override
+        public Tuple2<String,IndexInfo> next() {
+            scanned = true;
+            return delegate.next();
+        }
+    }
+    
+    private static ConcurrentScannerInitializer initializer(TermIterator itr, String field, long cost) {
+        return new ConcurrentScannerInitializer(ScannerStream.initialized(itr, JexlNodeFactory.buildEQNode(field, "value")), cost);
+    }
+    
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testCheapestAbsentSkipsOtherScanners() {
+        TermIterator cheap = new TermIterator();
+        TermIterator expensive = new TermIterator("20190314_0", "20190315_0");
+        List<ConcurrentScannerInitializer> todo = Lists.newArrayList(initializer(expensive, "EXPENSIVE", 1000000L), initializer(cheap, "CHEAP", 5L));
+        
+        Collection<BaseIndexStream> streams = ConcurrentScannerInitializer.initializeIntersectedScannerStreams(todo, executor);
+        
+        assertTrue(todo.isEmpty());
+        assertEquals(2, streams.size());
+        for (BaseIndexStream stream : streams) {
+            assertEquals(IndexStream.StreamContext.ABSENT, stream.context());
+        }
+        assertTrue(cheap.scanned);
+        assertFalse(expensive.scanned);
+    }
+    
+    @Test
+    public void testCheapestPresentInitializesOthers() {
+        TermIterator cheap = new TermIterator("20190315_0");
+        TermIterator expensive = new TermIterator("20190314_0", "20190315_0");
+        TermIterator unknown = new TermIterator("20190315_0");
+        List<ConcurrentScannerInitializer> todo = Lists.newArrayList(initializer(expensive, "EXPENSIVE", 1000000L), initializer(cheap, "CHEAP", 5L),
+                        initializer(unknown, "UNKNOWN", ConcurrentScannerInitializer.UNKNOWN_COST));
+        
+        Collection<BaseIndexStream> streams = ConcurrentScannerInitializer.initializeIntersectedScannerStreams(todo, executor);
+        
+        assertEquals(3, streams.size());
+        for (BaseIndexStream stream : streams) {
+            assertEquals(IndexStream.StreamContext.VARIABLE, stream.context());
+        }
+        assertTrue(expensive.scanned);
+        assertTrue(unknown.scanned);
+    }
+    
+    @Test
+    public void testUnknownCostsInitializeAll() {
+        TermIterator absent = new TermIterator();
+        TermIterator present = new TermIterator("20190314_0");
+        List<ConcurrentScannerInitializer> todo = Lists.newArrayList(new ConcurrentScannerInitializer(ScannerStream.initialized(absent,
+                        JexlNodeFactory.buildEQNode("ABSENT", "value"))), new ConcurrentScannerInitializer(ScannerStream.initialized(present,
+                        JexlNodeFactory.buildEQNode("PRESENT", "value"))));
+        
+        Collection<BaseIndexStream> streams = ConcurrentScannerInitializer.initializeIntersectedScannerStreams(todo, executor);
+        
+        assertEquals(2, streams.size());
+        assertTrue(absent.scanned);
+        assertTrue(present.scanned);
+    }
+}
@@ -14,6 +14,7 @@ import datawave.data.type.util.NumericalEncoder;
 import datawave.ingest.protobuf.Uid;
 import datawave.query.CloseableIterable;
 import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.index.stats.TermCardinalityIndex;
 import datawave.query.jexl.JexlASTHelper;
 import datawave.query.jexl.visitors.JexlStringBuildingVisitor;
 import datawave.query.planner.QueryPlan;
@@ -30,11 +31,16 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.commons.jexl2.parser.ASTJexlScript;
 import org.apache.commons.jexl2.parser.JexlNode;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.Text;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -55,6 +61,9 @@ public class RangeStreamTest {
     private static Connector connector;
     private ShardQueryConfiguration config;
     
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
     @BeforeClass
     public static void setupAccumulo() throws Exception {
         
@@ -1369,6 +1378,50 @@ public class RangeStreamTest {
         assertTrue("Expected ranges not found in query plan: " + expectedRanges.toString(), expectedRanges.isEmpty());
     }
     
+    // A && B, where B is estimated to match too much to be looked up
+    @Test
+    public void testIntersection_LargeTermIsDelayed() throws Exception {
+        String originalQuery = "(FOO == 'lowest_card' && FOO == 'high_card')";
+        ASTJexlScript script = JexlASTHelper.parseJexlQuery(originalQuery);
+        
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd");
+        config.setBeginDate(sdf.parse("20190310"));
+        config.setEndDate(sdf.parse("20190320"));
+        
+        Multimap<String,Type<?>> dataTypes = HashMultimap.create();
+        dataTypes.putAll("FOO", Sets.newHashSet(new LcNoDiacriticsType()));
+        
+        config.setQueryFieldsDatatypes(dataTypes);
+        config.setIndexedFields(dataTypes);
+        
+        TermCardinalityIndex.Builder builder = new TermCardinalityIndex.Builder(100, 10);
+        builder.add("FOO", "high_card", "20190310", 1000000);
+        builder.add("FOO", "lowest_card", "20190310", 2);
+        Path path = new Path(temporaryFolder.newFile("tci").toURI());
+        builder.build().save(FileSystem.getLocal(new Configuration()), path);
+        config.setTermCardinalityIndexPath(path.toString());
+        config.setMaxTermCardinality(1000);
+        
+        MockMetadataHelper helper = new MockMetadataHelper();
+        helper.setIndexedFields(dataTypes.keySet());
+        
+        // only the shards of 'lowest_card' are searched, including 20190315_49 which 'high_card' is not in
+        Range range1 = makeTestRange("20190310_1", "datatype1\u0000a.b.c");
+        Range range2 = makeTestRange("20190314_22", "datatype1\u0000a.b.c");
+        Range range3 = makeTestRange("20190315_49", "datatype1\u0000a.b.c");
+        Set<Range> expectedRanges = Sets.newHashSet(range1, range2, range3);
+        
+        for (QueryPlan queryPlan : new RangeStream(config, new ScannerFactory(config.getConnector()), helper).streamPlans(script)) {
+            // the delayed term is still evaluated against each shard
+            assertTrue(queryPlan.getQueryString(), queryPlan.getQueryString().contains("high_card"));
+            for (Range range : queryPlan.getRanges()) {
+                assertTrue("Tried to remove unexpected range " + range.toString() + "\nfrom expected ranges: " + expectedRanges.toString(),
+                                expectedRanges.remove(range));
+            }
+        }
+        assertTrue("Expected ranges not found in query plan: " + expectedRanges.toString(), expectedRanges.isEmpty());
+    }
+    
     // A && (B || C)
     @Test
     public void testIntersection_NestedUnionOfLowCardinalityTerm_withSeek() throws Exception {
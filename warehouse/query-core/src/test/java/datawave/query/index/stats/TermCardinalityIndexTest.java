@@ -0,0 +1,153 @@
+package datawave.query.index.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+
+import datawave.ingest.protobuf.Uid;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TermCardinalityIndexTest {
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private TermCardinalityIndex createIndex() {
+        TermCardinalityIndex.Builder builder = new TermCardinalityIndex.Builder(100, 2);
+        builder.add("COLOR", "blue", "20180101", 10);
+        builder.add("COLOR", "blue", "20180101", 5);
+        builder.add("COLOR", "red", "20180101", 3);
+        builder.add("COLOR", "red", "20180102", 4);
+        builder.add("NAME", "alice", "20180101", 500);
+        builder.add("NAME", "bob", "20180101", 5);
+        builder.add("NAME", "charlie", "20180101", 7);
+        builder.add("NAME", "dave", "20180101", 8);
+        return builder.build();
+    }
+    
+    @Test
+    public void testExactCounts() {
+        TermCardinalityIndex index = createIndex();
+        Assert.assertEquals(15, index.estimate("COLOR", "blue", "20180101"));
+        Assert.assertEquals(3, index.estimate("COLOR", "red", "20180101"));
+        Assert.assertEquals(4, index.estimate("COLOR", "red", "20180102"));
+        // the field was kept exactly, so an unseen value does not match anything
+        Assert.assertEquals(0, index.estimate("COLOR", "green", "20180101"));
+        Assert.assertEquals(0, index.estimate("SIZE", "large", "20180101"));
+        Assert.assertEquals(18, index.getCount("COLOR", "20180101"));
+        Assert.assertEquals(2, index.getCardinality("COLOR", "20180101"));
+    }
+    
+    @Test
+    public void testHeavyTermsAndAverage() {
+        TermCardinalityIndex index = createIndex();
+        Assert.assertEquals(500, index.estimate("NAME", "alice", "20180101"));
+        Assert.assertEquals(520, index.getCount("NAME", "20180101"));
+        Assert.assertEquals(4, index.getCardinality("NAME", "20180101"));
+        // the 20 remaining over the 3 values that were not heavy
+        Assert.assertEquals(7, index.estimate("NAME", "bob", "20180101"));
+        Assert.assertEquals(7, index.estimate("NAME", "zed", "20180101"));
+    }
+    
+    @Test
+    public void testDateRange() throws Exception {
+        TermCardinalityIndex index = createIndex();
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd HH:mm");
+        Assert.assertEquals(7, index.estimate("COLOR", "red", format.parse("20180101 12:00"), format.parse("20180102 01:00")));
+        Assert.assertEquals(4, index.estimate("COLOR", "red", format.parse("20180102 00:00"), format.parse("20180105 00:00")));
+        Assert.assertEquals(Arrays.asList("20171231", "20180101", "20180102"),
+                        TermCardinalityIndex.days(format.parse("20171231 23:00"), format.parse("20180102 00:00")));
+    }
+    
+    @Test
+    public void testHasField() throws Exception {
+        TermCardinalityIndex index = createIndex();
+        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd HH:mm");
+        Assert.assertTrue(index.hasField("COLOR", format.parse("20171230 00:00"), format.parse("20180101 00:00")));
+        Assert.assertTrue(index.hasField("COLOR", format.parse("20180102 00:00"), format.parse("20180103 00:00")));
+        Assert.assertFalse(index.hasField("NAME", format.parse("20180102 00:00"), format.parse("20180103 00:00")));
+        Assert.assertFalse(index.hasField("SIZE", format.parse("20180101 00:00"), format.parse("20180102 00:00")));
+    }
+    
+    @Test
+    public void testWriteAndRead() throws Exception {
+        TermCardinalityIndex index = createIndex();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(bytes));
+        TermCardinalityIndex read = TermCardinalityIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        
+        Assert.assertEquals(100, read.getHeavyTermCount());
+        Assert.assertEquals(2, read.getMaxExactValues());
+        Assert.assertEquals(15, read.estimate("COLOR", "blue", "20180101"));
+        Assert.assertEquals(0, read.estimate("COLOR", "green", "20180101"));
+        Assert.assertEquals(500, read.estimate("NAME", "alice", "20180101"));
+        Assert.assertEquals(7, read.estimate("NAME", "bob", "20180101"));
+        Assert.assertEquals(4, read.getCardinality("NAME", "20180101"));
+    }
+    
+    @Test
+    public void testBuildFromShardIndex() {
+        TermCardinalityIndex.Builder builder = new TermCardinalityIndex.Builder(100, 10);
+        builder.add(new Key("blue", "COLOR", "20180101_0\u0000csv"), uids(2));
+        builder.add(new Key("blue", "COLOR", "20180101_1\u0000csv"), uids(3));
+        builder.add(new Key("blue", "COLOR", "20180102_0\u0000csv"), uids(1));
+        builder.add(new Key("red", "COLOR", "20180101_0\u0000csv"), uids(4));
+        builder.add(new Key("red", "COLOR", "2018"), uids(4));
+        TermCardinalityIndex index = builder.build();
+        
+        Assert.assertEquals(5, index.estimate("COLOR", "blue", "20180101"));
+        Assert.assertEquals(1, index.estimate("COLOR", "blue", "20180102"));
+        Assert.assertEquals(4, index.estimate("COLOR", "red", "20180101"));
+        Assert.assertEquals(9, index.getCount("COLOR", "20180101"));
+    }
+    
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "tci");
+        Path path = new Path(file.toURI());
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Assert.assertNull(TermCardinalityIndex.load(path.toString(), 0));
+        
+        Iterable<Map.Entry<Key,Value>> shardIndex = Arrays.asList(entry(new Key("blue", "COLOR", "20180101_0\u0000csv"), uids(2)),
+                        entry(new Key("red", "COLOR", "20180101_0\u0000csv"), uids(4)));
+        TermCardinalityIndexBuilder.build(shardIndex, 100, 10).save(fs, path);
+        TermCardinalityIndex loaded = TermCardinalityIndex.load(path.toString(), 60000);
+        Assert.assertEquals(2, loaded.estimate("COLOR", "blue", "20180101"));
+        // the loaded copy is reused without checking the file again
+        Assert.assertSame(loaded, TermCardinalityIndex.load(path.toString(), 60000));
+        
+        TermCardinalityIndex.Builder builder = new TermCardinalityIndex.Builder(100, 10);
+        builder.add("COLOR", "blue", "20180101", 7);
+        builder.build().save(fs, path);
+        Assert.assertTrue(file.setLastModified(file.lastModified() + 5000));
+        Assert.assertSame(loaded, TermCardinalityIndex.load(path.toString(), 60000));
+        // once the copy is old enough the replaced file is read again
+        Assert.assertEquals(7, TermCardinalityIndex.load(path.toString(), 0).estimate("COLOR", "blue", "20180101"));
+    }
+    
+    private static Map.Entry<Key,Value> entry(Key key, Value value) {
+        return new AbstractMap.SimpleEntry<>(key, value);
+    }
+    
+    private Value uids(int count) {
+        Uid.List.Builder builder = Uid.List.newBuilder();
+        builder.setCOUNT(count);
+        builder.setIGNORE(false);
+        return new Value(builder.build().toByteArray());
+    }
+}
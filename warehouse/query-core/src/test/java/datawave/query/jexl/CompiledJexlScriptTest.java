@@ -0,0 +1,117 @@
+package datawave.query.jexl;
+
+import datawave.query.attributes.Content;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.ValueTuple;
+import org.apache.accumulo.core.data.Key;
+import org.apache.commons.jexl2.Script;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class CompiledJexlScriptTest {
+    
+    private static final Set<String> FIELDS = new HashSet<>(Arrays.asList("FOO", "BAR", "BAZ"));
+    
+    private static final String[] QUERIES = {"FOO == 'bar'", "FOO != 'bar'", "FOO =~ 'ba.*'", "FOO !~ 'ba.*'", "FOO == 'bar' && BAR == 'baz'",
+            "FOO == 'bar' || BAR == 'baz'", "!(FOO == 'bar')", "FOO == 'bar' && !(BAR =~ 'b.*')", "(FOO == 'x' || FOO == 'y') && BAR == 'baz'",
+            "FOO == 'x' || (BAR == 'baz' && BAZ == 'qux')", "MISSING == 'a' || FOO == 'bar'", "MISSING != 'a' && FOO == 'bar'", "FOO == BAR",
+            "FOO < 'c'", "FOO >= 'bar' && BAR <= 'c'", "((_Bounded_ = true) && (FOO >= 'b' && FOO <= 'c'))",
+            "((_Bounded_ = true) && (BAZ > 'a' && BAZ < 'z')) && FOO == 'bar'", "((_Delayed_ = true) && (FOO == 'bar'))",
+            "FOO == 'bar' && filter:includeRegex(BAR, 'ba.*')", "filter:includeRegex(FOO, 'x.*') || BAZ =~ 'q.*'",
+            "FOO == 'bar' && BAR == 'baz' && BAZ == 'qux'"};
+    
+    private static DatawaveJexlContext context(String[]... fields) {
+        Document d = new Document();
+        for (String[] field : fields) {
+            d.put(field[0], new Content(field[1], new Key("shard", "datatype\0uid"), true));
+        }
+        DatawaveJexlContext context = new DatawaveJexlContext();
+        d.visit(FIELDS, context);
+        return context;
+    }
+    
+    private static List<DatawaveJexlContext> contexts() {
+        List<DatawaveJexlContext> contexts = new ArrayList<>();
+        contexts.add(context());
+        contexts.add(context(new String[] {"FOO", "bar"}));
+        contexts.add(context(new String[] {"FOO", "bar"}, new String[] {"BAR", "baz"}));
+        contexts.add(context(new String[] {"FOO", "bar"}, new String[] {"FOO", "y"}, new String[] {"BAR", "baz"}, new String[] {"BAZ", "qux"}));
+        contexts.add(context(new String[] {"FOO", "x"}, new String[] {"BAR", "x"}, new String[] {"BAZ", "a"}));
+        return contexts;
+    }
+    
+    private static Set<String> hits(HitListArithmetic arithmetic) {
+        Set<String> hits = new HashSet<>();
+        for (ValueTuple hit : arithmetic.getHitTuples()) {
+            hits.add(hit.getFieldName() + ':' + hit.getValue());
+        }
+        arithmetic.clear();
+        return hits;
+    }
+    
+    @Test
+    public void testMatchesInterpreter() {
+        for (String query : QUERIES) {
+            DatawaveJexlEngine engine = ArithmeticJexlEngines.getEngine(new DefaultArithmetic());
+            Script script = engine.createScript(query);
+            CompiledJexlScript compiled = new CompiledJexlScript(engine, engine.parse(query));
+            
+            for (DatawaveJexlContext context : contexts()) {
+                Assert.assertEquals(query + " against " + context, ArithmeticJexlEngines.isMatched(script.execute(context)),
+                                ArithmeticJexlEngines.isMatched(compiled.execute(context)));
+            }
+        }
+    }
+    
+    @Test
+    public void testHitsMatchInterpreter() {
+        for (String query : QUERIES) {
+            HitListArithmetic arithmetic = new HitListArithmetic();
+            DatawaveJexlEngine engine = ArithmeticJexlEngines.getEngine(arithmetic);
+            Script script = engine.createScript(query);
+            CompiledJexlScript compiled = new CompiledJexlScript(engine, engine.parse(query));
+            
+            for (DatawaveJexlContext context : contexts()) {
+                boolean expected = ArithmeticJexlEngines.isMatched(script.execute(context));
+                Set<String> expectedHits = hits(arithmetic);
+                
+                Assert.assertEquals(query + " against " + context, expected, ArithmeticJexlEngines.isMatched(compiled.execute(context)));
+                Assert.assertEquals(query + " against " + context, expectedHits, hits(arithmetic));
+            }
+        }
+    }
+    
+    @Test
+    public void testOnlyFunctionsAreInterpreted() {
+        DatawaveJexlEngine engine = ArithmeticJexlEngines.getEngine(new DefaultArithmetic());
+        
+        String query = "FOO == 'bar' && (BAR =~ 'b.*' || !(BAZ == 'qux')) && ((_Bounded_ = true) && (FOO >= 'b' && FOO <= 'c'))";
+        Assert.assertEquals(0, new CompiledJexlScript(engine, engine.parse(query)).getInterpretedNodeCount());
+        
+        query = "FOO == 'bar' && filter:includeRegex(BAR, 'ba.*')";
+        Assert.assertEquals(1, new CompiledJexlScript(engine, engine.parse(query)).getInterpretedNodeCount());
+    }
+    
+    @Test
+    public void testLargeOrList() {
+        List<String> uuids = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            uuids.add("FOO == '" + UUID.randomUUID().toString() + "'");
+        }
+        uuids.add("FOO == 'bar'");
+        String query = String.join(" || ", uuids);
+        
+        DatawaveJexlEngine engine = ArithmeticJexlEngines.getEngine(new DefaultArithmetic());
+        CompiledJexlScript compiled = new CompiledJexlScript(engine, engine.parse(query));
+        
+        Assert.assertTrue(ArithmeticJexlEngines.isMatched(compiled.execute(context(new String[] {"FOO", "bar"}))));
+        Assert.assertFalse(ArithmeticJexlEngines.isMatched(compiled.execute(context(new String[] {"FOO", "baz"}))));
+    }
+}
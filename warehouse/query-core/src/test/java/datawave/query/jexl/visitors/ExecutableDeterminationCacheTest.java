@@ -0,0 +1,93 @@
+package datawave.query.jexl.visitors;
+
+import datawave.query.config.ShardQueryConfiguration;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.util.MetadataHelper;
+import org.apache.commons.jexl2.parser.ASTDelayedPredicate;
+import org.apache.commons.jexl2.parser.ASTJexlScript;
+import org.apache.commons.jexl2.parser.JexlNode;
+import org.apache.commons.jexl2.parser.ParseException;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class ExecutableDeterminationCacheTest extends EasyMockSupport {
+    private ShardQueryConfiguration config;
+    private MetadataHelper helper;
+    private Set<String> indexedFields;
+    private Set<String> indexOnlyFields;
+    private Set<String> nonEventFields;
+    
+    @Before
+    public void setup() {
+        config = createMock(ShardQueryConfiguration.class);
+        helper = createMock(MetadataHelper.class);
+        
+        EasyMock.expect(config.getDatatypeFilter()).andReturn(null).anyTimes();
+        
+        indexedFields = new HashSet<>();
+        indexedFields.add("INDEX_ONLY_FIELD");
+        indexedFields.add("INDEXED_FIELD");
+        
+        indexOnlyFields = new HashSet<>();
+        indexOnlyFields.add("INDEX_ONLY_FIELD");
+        
+        nonEventFields = new HashSet<>();
+        nonEventFields.add("INDEX_ONLY_FIELD");
+    }
+    
+    private ExecutableDeterminationVisitor.STATE expected(JexlNode node, Object parentage, boolean forFieldIndex) {
+        return ExecutableDeterminationVisitor.getState(node, parentage, config, indexedFields, indexOnlyFields, nonEventFields, forFieldIndex, null, helper);
+    }
+    
+    @Test
+    public void testReusesStates() throws ParseException {
+        ASTJexlScript query = JexlASTHelper.parseJexlQuery("(INDEXED_FIELD == 'a' && EVENT_FIELD == 'b') || (INDEXED_FIELD == 'a' && EVENT_FIELD == 'b')");
+        JexlNode or = query.jjtGetChild(0);
+        
+        replayAll();
+        
+        ExecutableDeterminationCache states = new ExecutableDeterminationCache(config, indexedFields, indexOnlyFields, nonEventFields, helper);
+        for (boolean forFieldIndex : new boolean[] {false, true}) {
+            Assert.assertEquals(expected(query, "", forFieldIndex), states.getState(query, "", forFieldIndex));
+            Assert.assertEquals(expected(or.jjtGetChild(0), "", forFieldIndex), states.getState(or.jjtGetChild(0), "", forFieldIndex));
+            // identical subtrees share a state
+            Assert.assertEquals(expected(or.jjtGetChild(1), "", forFieldIndex), states.getState(or.jjtGetChild(1), "", forFieldIndex));
+        }
+        Assert.assertEquals(4, states.getMisses());
+        Assert.assertEquals(2, states.getHits());
+        
+        Assert.assertTrue(states.isExecutable(query, null, false));
+        Assert.assertEquals(4, states.getMisses());
+        Assert.assertEquals(3, states.getHits());
+        
+        verifyAll();
+    }
+    
+    @Test
+    public void testNegationAndRewrites() throws ParseException {
+        ASTJexlScript query = JexlASTHelper.parseJexlQuery("INDEXED_FIELD == 'a' && INDEX_ONLY_FIELD == 'b'");
+        JexlNode and = query.jjtGetChild(0);
+        
+        replayAll();
+        
+        ExecutableDeterminationCache states = new ExecutableDeterminationCache(config, indexedFields, indexOnlyFields, nonEventFields, helper);
+        Assert.assertEquals(expected(and, "", true), states.getState(and, "", true));
+        Assert.assertEquals(expected(and, "!", true), states.getState(and, "!", true));
+        Assert.assertEquals(expected(and, "!!", true), states.getState(and, "!!", true));
+        Assert.assertEquals(2, states.getMisses());
+        Assert.assertEquals(1, states.getHits());
+        
+        // a rewritten subtree is determined again
+        ASTDelayedPredicate.create(and.jjtGetChild(1));
+        Assert.assertEquals(expected(and, "", true), states.getState(and, "", true));
+        Assert.assertEquals(3, states.getMisses());
+        
+        verifyAll();
+    }
+}
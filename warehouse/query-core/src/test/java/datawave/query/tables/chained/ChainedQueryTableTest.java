@@ -0,0 +1,189 @@
+package datawave.query.tables.chained;
+
+import datawave.query.tables.chained.strategy.BatchedChainStrategy;
+import datawave.webservice.common.connection.AccumuloConnectionFactory;
+import datawave.webservice.query.Query;
+import datawave.webservice.query.QueryImpl;
+import datawave.webservice.query.configuration.GenericQueryConfiguration;
+import datawave.webservice.query.logic.BaseQueryLogic;
+import datawave.webservice.query.logic.QueryLogicTransformer;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ChainedQueryTableTest {
+    
+    private final AtomicInteger latterQueries = new AtomicInteger();
+    private final AtomicInteger closedLatterQueries = new AtomicInteger();
+    
+    /**
+     * Queries for the comma separated former results of its batch
+     */
+    private static class ListChainStrategy extends BatchedChainStrategy<String,String> {
+        @Override
+        protected Query buildLatterQuery(Query initialQuery, Iterator<String> initialQueryResults, String latterLogicName) {
+            List<String> values = new ArrayList<>();
+            initialQueryResults.forEachRemaining(values::add);
+            QueryImpl query = new QueryImpl();
+            query.setId(UUID.randomUUID());
+            query.setQuery(String.join(",", values));
+            return query;
+        }
+    }
+    
+    /**
+     * Returns each comma separated value of its query with a prefix
+     */
+    private class ListQueryLogic extends BaseQueryLogic<String> {
+        private final String prefix;
+        private final boolean cloned;
+        
+        public ListQueryLogic(String prefix, boolean cloned) {
+            this.prefix = prefix;
+            this.cloned = cloned;
+            setLogicName(prefix + "QueryLogic");
+        }
+        
+        @Override
+        public GenericQueryConfiguration initialize(Connector connection, Query settings, Set<Authorizations> runtimeQueryAuthorizations) throws Exception {
+            GenericQueryConfiguration config = new GenericQueryConfiguration() {};
+            config.setQueryString(settings.getQuery());
+            return config;
+        }
+        
+        @Override
+        public void setupQuery(GenericQueryConfiguration configuration) throws Exception {
+            List<String> results = new ArrayList<>();
+            for (String value : configuration.getQueryString().split(",")) {
+                results.add(prefix + value);
+            }
+            iterator = results.iterator();
+        }
+        
+        @Override
+        public AccumuloConnectionFactory.Priority getConnectionPriority() {
+            return AccumuloConnectionFactory.Priority.NORMAL;
+        }
+        
+        @Override
+        public QueryLogicTransformer getTransformer(Query settings) {
+            return null;
+        }
+        
+        @Override
+        public Set<String> getOptionalQueryParameters() {
+            return Collections.emptySet();
+        }
+        
+        @Override
+        public Set<String> getRequiredQueryParameters() {
+            return Collections.emptySet();
+        }
+        
+        @Override
+        public Set<String> getExampleQueries() {
+            return Collections.emptySet();
+        }
+        
+        @Override
+        public Object clone() {
+            latterQueries.incrementAndGet();
+            return new ListQueryLogic(prefix, true);
+        }
+        
+        @Override
+        public void close() {
+            super.close();
+            if (cloned) {
+                closedLatterQueries.incrementAndGet();
+            }
+        }
+    }
+    
+    private class ListChainedQueryTable extends ChainedQueryTable<String,String> {
+        @Override
+        public QueryLogicTransformer getTransformer(Query settings) {
+            return null;
+        }
+        
+        @Override
+        public Set<String> getExampleQueries() {
+            return Collections.emptySet();
+        }
+        
+        @Override
+        public Object clone() {
+            return new ListChainedQueryTable();
+        }
+    }
+    
+    private ChainedQueryTable<String,String> createLogic(int batchSize, int resultQueueSize) {
+        ListChainStrategy strategy = new ListChainStrategy();
+        strategy.setBatchSize(batchSize);
+        strategy.setMaxConcurrentBatches(2);
+        strategy.setResultQueueSize(resultQueueSize);
+        
+        ChainedQueryTable<String,String> logic = new ListChainedQueryTable();
+        logic.setChainStrategy(strategy);
+        logic.setLogic1(new ListQueryLogic("former", false));
+        logic.setLogic2(new ListQueryLogic("latter", false));
+        return logic;
+    }
+    
+    private static Query query(int count) {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(Integer.toString(i));
+        }
+        QueryImpl query = new QueryImpl();
+        query.setId(UUID.randomUUID());
+        query.setQuery(String.join(",", values));
+        return query;
+    }
+    
+    @Test
+    public void testChainedResults() throws Exception {
+        ChainedQueryTable<String,String> logic = createLogic(3, 5);
+        logic.setupQuery(logic.initialize(null, query(20), null));
+        
+        Set<String> results = new HashSet<>();
+        Iterator<String> iterator = logic.iterator();
+        while (iterator.hasNext()) {
+            Assert.assertTrue(results.add(iterator.next()));
+        }
+        Assert.assertEquals(20, results.size());
+        Assert.assertTrue(results.contains("latterformer0"));
+        Assert.assertTrue(results.contains("latterformer19"));
+        Assert.assertEquals(7, latterQueries.get());
+        Assert.assertEquals(7, closedLatterQueries.get());
+        logic.close();
+    }
+    
+    @Test(timeout = 10000)
+    public void testCloseStopsLatterQueries() throws Exception {
+        ChainedQueryTable<String,String> logic = createLogic(10, 1);
+        logic.setupQuery(logic.initialize(null, query(1000), null));
+        
+        Iterator<String> iterator = logic.iterator();
+        Assert.assertTrue(iterator.hasNext());
+        iterator.next();
+        logic.close();
+        Assert.assertFalse(iterator.hasNext());
+        
+        // the running latter queries give up on their results and are closed, no more are launched
+        while (closedLatterQueries.get() < latterQueries.get()) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(latterQueries.get() < 100);
+    }
+}
@@ -0,0 +1,250 @@
+package datawave.query.tables.chained.strategy;
+
+import datawave.webservice.common.connection.AccumuloConnectionFactory;
+import datawave.webservice.query.Query;
+import datawave.webservice.query.QueryImpl;
+import datawave.webservice.query.configuration.GenericQueryConfiguration;
+import datawave.webservice.query.logic.BaseQueryLogic;
+import datawave.webservice.query.logic.QueryLogicTransformer;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class BatchedChainStrategyTest {
+    
+    /**
+     * Queries for the comma separated former results of its batch
+     */
+    private static class ListChainStrategy extends BatchedChainStrategy<Integer,String> {
+        @Override
+        protected Query buildLatterQuery(Query initialQuery, Iterator<Integer> initialQueryResults, String latterLogicName) {
+            List<String> values = new ArrayList<>();
+            while (initialQueryResults.hasNext()) {
+                int value = initialQueryResults.next();
+                // leave out the batches that are entirely multiples of 7
+                if (value % 7 != 0) {
+                    values.add(Integer.toString(value));
+                }
+            }
+            if (values.isEmpty()) {
+                return null;
+            }
+            QueryImpl query = new QueryImpl();
+            query.setId(UUID.randomUUID());
+            query.setQuery(String.join(",", values));
+            return query;
+        }
+    }
+    
+    /**
+     * Returns each comma separated value of its query prefixed with "result"
+     */
+    private static class ListQueryLogic extends BaseQueryLogic<String> {
+        private final String failOn;
+        
+        public ListQueryLogic(String failOn) {
+            this.failOn = failOn;
+            setLogicName("ListQueryLogic");
+        }
+        
+        @Override
+        public GenericQueryConfiguration initialize(Connector connection, Query settings, Set<Authorizations> runtimeQueryAuthorizations) throws Exception {
+            GenericQueryConfiguration config = new GenericQueryConfiguration() {};
+            config.setQueryString(settings.getQuery());
+            return config;
+        }
+        
+        @Override
+        public void setupQuery(GenericQueryConfiguration configuration) throws Exception {
+            List<String> results = new ArrayList<>();
+            for (String value : configuration.getQueryString().split(",")) {
+                if (value.equals(failOn)) {
+                    throw new IllegalStateException("Failed on " + value);
+                }
+                results.add("result" + value);
+            }
+            iterator = results.iterator();
+        }
+        
+        @Override
+        public AccumuloConnectionFactory.Priority getConnectionPriority() {
+            return AccumuloConnectionFactory.Priority.NORMAL;
+        }
+        
+        @Override
+        public QueryLogicTransformer getTransformer(Query settings) {
+            return null;
+        }
+        
+        @Override
+        public Set<String> getOptionalQueryParameters() {
+            return Collections.emptySet();
+        }
+        
+        @Override
+        public Set<String> getRequiredQueryParameters() {
+            return Collections.emptySet();
+        }
+        
+        @Override
+        public Set<String> getExampleQueries() {
+            return Collections.emptySet();
+        }
+        
+        @Override
+        public Object clone() {
+            return new ListQueryLogic(failOn);
+        }
+    }
+    
+    private static List<Integer> range(int count) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+    
+    private static Query initialQuery() {
+        QueryImpl query = new QueryImpl();
+        query.setId(UUID.randomUUID());
+        return query;
+    }
+    
+    @Test
+    public void testAllResultsReturned() throws Exception {
+        ListChainStrategy strategy = new ListChainStrategy();
+        strategy.setBatchSize(3);
+        strategy.setMaxConcurrentBatches(2);
+        strategy.setResultQueueSize(5);
+        
+        Iterator<String> results = strategy.runChainedQuery(null, initialQuery(), null, range(100).iterator(), new ListQueryLogic(null));
+        
+        Set<String> expected = new HashSet<>();
+        for (int value : range(100)) {
+            if (value % 7 != 0) {
+                expected.add("result" + value);
+            }
+        }
+        Set<String> actual = new HashSet<>();
+        while (results.hasNext()) {
+            Assert.assertTrue(actual.add(results.next()));
+        }
+        Assert.assertEquals(expected, actual);
+        Assert.assertFalse(results.hasNext());
+    }
+    
+    @Test
+    public void testEmptyInitialResults() throws Exception {
+        ListChainStrategy strategy = new ListChainStrategy();
+        Iterator<String> results = strategy.runChainedQuery(null, initialQuery(), null, Collections.<Integer> emptyIterator(), new ListQueryLogic(null));
+        Assert.assertFalse(results.hasNext());
+    }
+    
+    @Test(timeout = 10000)
+    public void testResultsBeforeInitialResultsDrained() throws Exception {
+        CountDownLatch firstResult = new CountDownLatch(1);
+        Iterator<Integer> values = range(20).iterator();
+        
+        // the former results after the first batch are held back until the caller has seen a latter result
+        Iterator<Integer> initialResults = new Iterator<Integer>() {
+            int count = 0;
+            
+            @Override
+            public boolean hasNext() {
+                if (count == 10) {
+                    try {
+                        Assert.assertTrue(firstResult.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+                return values.hasNext();
+            }
+            
+            @Override
+            public Integer next() {
+                count++;
+                return values.next();
+            }
+        };
+        
+        ListChainStrategy strategy = new ListChainStrategy();
+        strategy.setBatchSize(10);
+        Iterator<String> results = strategy.runChainedQuery(null, initialQuery(), null, initialResults, new ListQueryLogic(null));
+        
+        Assert.assertTrue(results.hasNext());
+        results.next();
+        firstResult.countDown();
+        
+        int count = 1;
+        while (results.hasNext()) {
+            results.next();
+            count++;
+        }
+        Assert.assertEquals(17, count);
+    }
+    
+    @Test
+    public void testFailurePropagated() throws Exception {
+        ListChainStrategy strategy = new ListChainStrategy();
+        strategy.setBatchSize(4);
+        Iterator<String> results = strategy.runChainedQuery(null, initialQuery(), null, range(40).iterator(), new ListQueryLogic("22"));
+        
+        try {
+            while (results.hasNext()) {
+                results.next();
+            }
+            Assert.fail("Expected the failed batch to be reported");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+    
+    @Test(timeout = 10000)
+    public void testSlowCallerTimesOut() throws Exception {
+        ListChainStrategy strategy = new ListChainStrategy();
+        strategy.setBatchSize(1);
+        strategy.setResultQueueSize(1);
+        strategy.setResultTimeoutMs(50);
+        Iterator<String> results = strategy.runChainedQuery(null, initialQuery(), null, range(1000).iterator(), new ListQueryLogic(null));
+        
+        Assert.assertTrue(results.hasNext());
+        results.next();
+        Thread.sleep(500);
+        try {
+            while (results.hasNext()) {
+                results.next();
+            }
+            Assert.fail("Expected the latter queries to give up on the caller");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+    
+    @Test
+    public void testCloseStopsBatches() throws Exception {
+        ListChainStrategy strategy = new ListChainStrategy();
+        strategy.setBatchSize(1);
+        strategy.setResultQueueSize(1);
+        BatchedChainStrategy<Integer,String>.BatchedResults results = (BatchedChainStrategy<Integer,String>.BatchedResults) strategy.runChainedQuery(null,
+                        initialQuery(), null, range(1000).iterator(), new ListQueryLogic(null));
+        
+        Assert.assertTrue(results.hasNext());
+        results.next();
+        results.close();
+        Assert.assertFalse(results.hasNext());
+    }
+}
@@ -1,5 +1,6 @@
 package datawave.webservice.query.database;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -27,6 +28,8 @@ import javax.sql.rowset.RowSetProvider;
 
 import datawave.configuration.spring.SpringBean;
 import datawave.webservice.results.cached.CachedResultsParameters;
+import datawave.webservice.results.cached.CachedResultsStore;
+import datawave.webservice.results.cached.CachedRunningQuery;
 import org.apache.log4j.Logger;
 
 /**
@@ -109,6 +112,25 @@ public class CachedResultsCleanupBean {
         }
     }
     
+    /**
+     * Method that is invoked every 5 minutes from the Timer service to evict result sets from the local cached results store, if there is one, that have
+     * not been used recently or exceed its size limit.
+     */
+    @Schedule(hour = "*", minute = "*/5", persistent = false)
+    public void evictLocalStore() {
+        CachedResultsStore store = CachedRunningQuery.getStore();
+        if (store != null) {
+            try {
+                int evicted = store.evict();
+                if (evicted > 0) {
+                    log.info("Evicted " + evicted + " result sets from the local cached results store");
+                }
+            } catch (IOException e) {
+                log.error("Error evicting locally stored cached results: " + e.getMessage(), e);
+            }
+        }
+    }
+    
     private void removeCrqRow(String id) {
         
         try (Connection con = ds.getConnection(); PreparedStatement ps = con.prepareStatement("DELETE FROM cachedResultsQuery WHERE tableName = ? OR view = ?")) {
@@ -136,6 +136,7 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * CachedResultsBean loads the results of a predefined query into a relational database (MySQL) so that the user can run SQL queries against the data, which
@@ -238,6 +239,7 @@ public class CachedResultsBean {
     
     private static Map<String,RunningQuery> loadingQueryMap = Collections.synchronizedMap(new HashMap<>());
     private static Set<String> loadingQueries = Collections.synchronizedSet(new HashSet<>());
+    private static CachedResultsStore localStore = null;
     private URL importFileUrl = null;
     private CachedResultsParameters cp = new CachedResultsParameters();
     
@@ -259,6 +261,7 @@ public class CachedResultsBean {
         }
         
         CachedRunningQuery.setDatasource(ds);
+        CachedRunningQuery.setStore(getLocalStore(cachedResultsConfiguration));
         CachedRunningQuery.setQueryFactory(queryFactory);
         CachedRunningQuery.setResponseObjectFactory(responseObjectFactory);
         
@@ -272,6 +275,18 @@ public class CachedResultsBean {
         }
     }
     
+    /**
+     * The local store is shared by every instance of this bean, and is only created if a local store directory is configured
+     */
+    private static synchronized CachedResultsStore getLocalStore(CachedResultsConfiguration configuration) {
+        if (localStore == null && configuration.isLocalStoreEnabled()) {
+            localStore = new ColumnarCachedResultsStore(new File(configuration.getLocalStoreDirectory()), configuration.getLocalStoreMaxBytes(),
+                            TimeUnit.HOURS.toMillis(configuration.getLocalStoreMaxAgeHours()), configuration.getLocalStoreMaxResident());
+            log.info("Cached results are also stored in " + configuration.getLocalStoreDirectory());
+        }
+        return localStore;
+    }
+    
     protected void loadBatch(PreparedStatement ps, String owner, String queryId, String logicName, Map<String,Integer> fieldMap, CacheableQueryRow cqo,
                     int maxFieldSize) throws SQLException {
         
@@ -331,6 +346,25 @@ public class CachedResultsBean {
         
     }
     
+    private static CachedResultsStore appendToStore(CachedResultsStore store, String viewName, CacheableQueryRow row) {
+        try {
+            store.append(viewName, row);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to store cached results for " + viewName + " locally, they will be read from the database", e);
+            removeFromStore(store, viewName);
+            return null;
+        }
+    }
+    
+    private static void removeFromStore(CachedResultsStore store, String viewName) {
+        try {
+            store.remove(viewName);
+        } catch (IOException e) {
+            log.error("Unable to remove locally stored cached results for " + viewName, e);
+        }
+    }
+    
     protected GenericResponse<String> load(@Required("queryId") String queryId, String alias, String nameBase) {
         
         GenericResponse<String> response = new GenericResponse<>();
@@ -362,6 +396,8 @@ public class CachedResultsBean {
         Span span = null;
         boolean queryLockedException = false;
         int rowsPerBatch = cachedResultsConfiguration.getRowsPerBatch();
+        // rows are also written to the local store, if there is one, until it fails
+        CachedResultsStore store = CachedRunningQuery.getStore();
         try {
             
             // This RunningQuery may be in use. Make a copy using the defined Query.
@@ -580,6 +616,9 @@ public class CachedResultsBean {
                                 loadBatch(ps, owner, queryId, logic.getLogicName(), fieldMap, cacheableQueryObject, maxLength);
                                 dataWritten = true;
                                 rowsWritten++;
+                                if (store != null) {
+                                    store = appendToStore(store, viewName, cacheableQueryObject);
+                                }
                             } catch (SQLException e) {
                                 loadBatchException = e;
                                 String msg = e.getMessage();
@@ -624,6 +663,15 @@ public class CachedResultsBean {
             // Create the view of the table
             viewCreated = createView(tableName, viewName, con, viewCreated, fieldMap);
             
+            if (store != null) {
+                try {
+                    store.seal(viewName);
+                } catch (IOException e) {
+                    log.warn("Unable to store cached results for " + viewName + " locally, they will be read from the database", e);
+                    removeFromStore(store, viewName);
+                }
+            }
+            
             // create the CachedRunningQuery and store it under the originalQueryName, but do not activate it
             crq = new CachedRunningQuery(q, logic, viewName, alias, owner, viewName, cachedResultsConfiguration.getDefaultPageSize(), queryId,
                             fieldMap.keySet(), null, metricFactory);
@@ -689,6 +737,9 @@ public class CachedResultsBean {
             } else {
                 log.error(t.getMessage(), t);
             }
+            if (store != null) {
+                removeFromStore(store, viewName);
+            }
             if (con != null) {
                 Statement s = null;
                 try {
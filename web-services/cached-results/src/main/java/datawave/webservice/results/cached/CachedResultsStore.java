@@ -0,0 +1,91 @@
+package datawave.webservice.results.cached;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+
+/**
+ * Storage for the rows of a cached result set. A store is loaded once per query with {@link #append(String, CacheableQueryRow)}, {@link #seal(String)}
+ * marks the load as complete, and the rows may then be re-read any number of times with a different field projection, ordering and page window.
+ */
+public interface CachedResultsStore extends Closeable {
+    
+    /**
+     * Add a row to the result set being loaded for the given query
+     * 
+     * @param queryId
+     *            the id of the cached results query
+     * @param row
+     *            the row to add
+     * @throws IOException
+     *             if the row cannot be stored
+     */
+    void append(String queryId, CacheableQueryRow row) throws IOException;
+    
+    /**
+     * Mark the load of the given query as complete. No rows may be appended after a result set is sealed.
+     * 
+     * @param queryId
+     *            the id of the cached results query
+     * @throws IOException
+     *             if the result set cannot be persisted
+     */
+    void seal(String queryId) throws IOException;
+    
+    /**
+     * @param queryId
+     *            the id of the cached results query
+     * @return true if a sealed result set exists for the query
+     */
+    boolean contains(String queryId);
+    
+    /**
+     * @param queryId
+     *            the id of the cached results query
+     * @return the number of rows in the result set
+     * @throws IOException
+     *             if the result set cannot be read
+     */
+    int getTotalRows(String queryId) throws IOException;
+    
+    /**
+     * Return a window of rows from the result set.
+     * 
+     * @param queryId
+     *            the id of the cached results query
+     * @param fields
+     *            the variable fields to return, null or empty for all fields. The fixed columns are always returned.
+     * @param order
+     *            a comma separated list of <code>FIELD [ASC|DESC]</code> terms, null to order by event id
+     * @param rowBegin
+     *            the first row to return, 1 based
+     * @param rowEnd
+     *            the last row to return, inclusive
+     * @return the rows, possibly fewer than requested if the end of the result set was reached
+     * @throws IOException
+     *             if the result set cannot be read
+     */
+    List<CacheableQueryRow> getRows(String queryId, Collection<String> fields, String order, int rowBegin, int rowEnd) throws IOException;
+    
+    /**
+     * Remove the result set for the given query
+     * 
+     * @param queryId
+     *            the id of the cached results query
+     * @throws IOException
+     *             if the result set cannot be removed
+     */
+    void remove(String queryId) throws IOException;
+    
+    /**
+     * Remove result sets that have exceeded the configured age or size limits
+     * 
+     * @return the number of result sets removed
+     * @throws IOException
+     *             if a result set cannot be removed
+     */
+    int evict() throws IOException;
+}
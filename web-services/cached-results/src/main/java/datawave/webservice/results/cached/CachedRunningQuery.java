@@ -51,6 +51,9 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     
     private static DataSource datasource = null;
     
+    // the local store of loaded results, null if results are only read from the database
+    private static CachedResultsStore store = null;
+    
     private static final long serialVersionUID = 1L;
     
     private static ResponseObjectFactory responseObjectFactory;
@@ -71,6 +74,8 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     };
     
     private transient position currentRow = position.BEFORE_FIRST;
+    // whether this query was activated against the local store rather than the database
+    private transient boolean storeActivated = false;
     private static QueryLogicFactory queryFactory = null;
     
     // fields below are persisted
@@ -543,7 +548,9 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     }
     
     public boolean isActivated() {
-        if (this.connection != null && this.statement != null && this.crs != null) {
+        if (this.storeActivated) {
+            return true;
+        } else if (this.connection != null && this.statement != null && this.crs != null) {
             return true;
         } else {
             return false;
@@ -580,6 +587,26 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         
         long start = System.currentTimeMillis();
         
+        if (isStoreBacked()) {
+            // pages are read from the local store, so the database connection is not needed
+            DbUtils.closeQuietly(connection);
+            this.connection = null;
+            try {
+                this.totalRows = store.getTotalRows(this.view);
+                this.currentRow = position.BEFORE_FIRST;
+                this.storeActivated = true;
+                this.getMetric().setQuery("local store: " + this.view);
+            } catch (IOException e) {
+                log.error(e.getMessage(), e);
+                throw new SQLException(e);
+            } finally {
+                updateTimestamp();
+                setMetricsInfo();
+                this.getMetric().setSetupTime((System.currentTimeMillis() - start));
+            }
+            return;
+        }
+        
         try {
             
             if (log.isTraceEnabled()) {
@@ -651,6 +678,14 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         updateTimestamp();
         long pageStartTime = System.currentTimeMillis();
         
+        if (this.storeActivated) {
+            ResultsPage resultList = storeRows(rowBegin, rowEnd, pageByteTrigger);
+            long now = System.currentTimeMillis();
+            this.getMetric().addPageTime(resultList.getResults().size(), (now - pageStartTime), pageStartTime, now);
+            updateTimestamp();
+            return resultList;
+        }
+        
         // We need to apply a default ORDER BY clause if one does not EXIST in the query
         StringBuilder query = new StringBuilder(this.sqlQuery);
         if (!this.sqlQuery.toUpperCase().contains(" ORDER BY ")) {
@@ -736,7 +771,9 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         }
         
         ResultsPage resultList = new ResultsPage();
-        if (nextPageOfResults()) {
+        if (this.storeActivated) {
+            resultList = storePage(this.lastPageNumber + 1, pageByteTrigger);
+        } else if (nextPageOfResults()) {
             resultList = convert(this.crs, pageByteTrigger);
         }
         
@@ -774,7 +811,11 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         }
         
         ResultsPage resultList = new ResultsPage();
-        if (previousPageOfResults()) {
+        if (this.storeActivated) {
+            if (this.lastPageNumber > 1) {
+                resultList = storePage(this.lastPageNumber - 1, pageByteTrigger);
+            }
+        } else if (previousPageOfResults()) {
             resultList = convert(this.crs, pageByteTrigger);
         }
         
@@ -799,6 +840,61 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         return this.lastPageNumber;
     }
     
+    /**
+     * The local store can serve a query that only projects and orders the loaded fields. Conditions, grouping and functions need the database.
+     * 
+     * @return true if the rows of this query can be read from the local store
+     */
+    public boolean isStoreBacked() {
+        if (store == null || this.view == null || StringUtils.isNotBlank(this.conditions) || StringUtils.isNotBlank(this.grouping)) {
+            return false;
+        }
+        if (StringUtils.contains(this.fields, LPAREN) || StringUtils.contains(this.order, LPAREN)) {
+            return false;
+        }
+        return store.contains(this.view);
+    }
+    
+    private ResultsPage storePage(int page, long pageByteTrigger) throws SQLException {
+        int rowBegin = ((page - 1) * this.pagesize) + 1;
+        return storeRows(rowBegin, rowBegin + this.pagesize - 1, pageByteTrigger);
+    }
+    
+    private ResultsPage storeRows(int rowBegin, int rowEnd, long pageByteTrigger) throws SQLException {
+        List<String> selected = null;
+        if (StringUtils.isNotBlank(this.fields) && !this.fields.trim().equals("*")) {
+            selected = new ArrayList<>();
+            for (String field : StringUtils.split(this.fields, ',')) {
+                selected.add(StringUtils.remove(field, BACKTICK).trim());
+            }
+        }
+        List<CacheableQueryRow> rows;
+        try {
+            rows = store.getRows(this.view, selected, StringUtils.remove(this.order, BACKTICK), rowBegin, rowEnd);
+        } catch (IOException e) {
+            throw new SQLException(e);
+        }
+        
+        boolean hitPageByteTrigger = false;
+        if (pageByteTrigger != 0) {
+            long resultBytes = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                resultBytes += ObjectSizeOf.Sizer.getObjectSize(rows.get(i));
+                if (resultBytes >= pageByteTrigger) {
+                    hitPageByteTrigger = (i + 1 < rows.size());
+                    rows = rows.subList(0, i + 1);
+                    break;
+                }
+            }
+        }
+        
+        if (this.cacheableLogic == null || rows.isEmpty()) {
+            return new ResultsPage();
+        } else {
+            return new ResultsPage(this.cacheableLogic.readFromCache(rows), (hitPageByteTrigger ? ResultsPage.Status.PARTIAL : ResultsPage.Status.COMPLETE));
+        }
+    }
+    
     /**
      * Convert the cached row set into a result list.
      * 
@@ -865,6 +961,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     }
     
     public void resetConnection() {
+        this.storeActivated = false;
         this.connection = null;
         this.statement = null;
         this.crs = null;
@@ -1217,6 +1314,14 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         return crq;
     }
     
+    public static void setStore(CachedResultsStore store) {
+        CachedRunningQuery.store = store;
+    }
+    
+    public static CachedResultsStore getStore() {
+        return store;
+    }
+    
     public static void setDatasource(DataSource datasource) {
         CachedRunningQuery.datasource = datasource;
     }
@@ -0,0 +1,465 @@
+package datawave.webservice.results.cached;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import datawave.marking.MarkingFunctions;
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+import datawave.webservice.query.cachedresults.CacheableQueryRowImpl;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+
+/**
+ * A {@link CachedResultsStore} that keeps each cached result set in a file on local disk, one dictionary encoded column per field. Sealed result sets are
+ * loaded on demand and a bounded number are kept resident. The ordering computed for an <code>order by</code> is kept with the resident result set so that
+ * paging through a sorted result set only sorts once.
+ */
+public class ColumnarCachedResultsStore implements CachedResultsStore {
+    
+    private static Logger log = Logger.getLogger(ColumnarCachedResultsStore.class);
+    
+    private static final int FILE_MAGIC = 0x44574352;
+    private static final int FILE_VERSION = 1;
+    private static final String FILE_SUFFIX = ".columns";
+    private static final Pattern VALID_QUERY_ID = Pattern.compile("[A-Za-z0-9_\\-.]+");
+    
+    private static final String DEFAULT_ORDER = "_eventId_";
+    private static final String USER = "_user_";
+    private static final String QUERY_ID = "_queryId_";
+    private static final String LOGIC_NAME = "_logicName_";
+    private static final String DATATYPE = "_datatype_";
+    private static final String EVENT_ID = "_eventId_";
+    private static final String ROW = "_row_";
+    private static final String COLF = "_colf_";
+    private static final String MARKINGS = "_markings_";
+    private static final List<String> FIXED_COLUMNS = Arrays.asList(USER, QUERY_ID, LOGIC_NAME, DATATYPE, EVENT_ID, ROW, COLF, MARKINGS);
+    
+    private final File directory;
+    private final long maxBytes;
+    private final long maxAgeMs;
+    
+    private final Map<String,ResultColumns> loading = new HashMap<>();
+    private final Map<String,ResultColumns> resident;
+    
+    /**
+     * @param directory
+     *            the local directory in which result sets are stored
+     * @param maxBytes
+     *            the maximum number of bytes of result sets to keep on disk, 0 for no limit
+     * @param maxAgeMs
+     *            the maximum time since a result set was last used before it is evicted, 0 for no limit
+     * @param maxResident
+     *            the maximum number of sealed result sets to keep in memory
+     */
+    public ColumnarCachedResultsStore(File directory, long maxBytes, long maxAgeMs, final int maxResident) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Unable to create cached results directory " + directory);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAgeMs = maxAgeMs;
+        this.resident = new LinkedHashMap<String,ResultColumns>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,ResultColumns> eldest) {
+                return size() > maxResident;
+            }
+        };
+    }
+    
+    @Override
+    public synchronized void append(String queryId, CacheableQueryRow row) {
+        ResultColumns columns = loading.get(validate(queryId));
+        if (columns == null) {
+            if (resident.containsKey(queryId) || file(queryId).exists()) {
+                throw new IllegalStateException("Cached results for " + queryId + " have already been sealed");
+            }
+            columns = new ResultColumns();
+            loading.put(queryId, columns);
+        }
+        columns.append(row);
+    }
+    
+    @Override
+    public void seal(String queryId) throws IOException {
+        ResultColumns columns;
+        synchronized (this) {
+            columns = loading.remove(validate(queryId));
+            if (columns == null) {
+                // nothing was appended, seal an empty result set
+                columns = new ResultColumns();
+            }
+        }
+        File file = file(queryId);
+        File tmp = new File(directory, "." + queryId + FILE_SUFFIX + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            columns.write(out);
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Unable to rename " + tmp + " to " + file);
+        }
+        synchronized (this) {
+            resident.put(queryId, columns);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Sealed " + columns.numRows + " cached rows for " + queryId + " in " + file.length() + " bytes, ~" + columns.estimatedBytes()
+                            + " bytes resident");
+        }
+    }
+    
+    @Override
+    public boolean contains(String queryId) {
+        synchronized (this) {
+            if (resident.containsKey(validate(queryId))) {
+                return true;
+            }
+        }
+        return file(queryId).exists();
+    }
+    
+    @Override
+    public int getTotalRows(String queryId) throws IOException {
+        return get(queryId).numRows;
+    }
+    
+    @Override
+    public List<CacheableQueryRow> getRows(String queryId, Collection<String> fields, String order, int rowBegin, int rowEnd) throws IOException {
+        ResultColumns columns = get(queryId);
+        int[] ordering = columns.ordering(StringUtils.isBlank(order) ? DEFAULT_ORDER : order);
+        Set<String> selected = columns.select(fields);
+        int begin = Math.max(rowBegin, 1) - 1;
+        int end = Math.min(rowEnd, columns.numRows);
+        List<CacheableQueryRow> rows = new ArrayList<>(Math.max(end - begin, 0));
+        for (int i = begin; i < end; i++) {
+            rows.add(columns.row(ordering[i], selected));
+        }
+        return rows;
+    }
+    
+    @Override
+    public void remove(String queryId) throws IOException {
+        synchronized (this) {
+            loading.remove(validate(queryId));
+            resident.remove(queryId);
+        }
+        File file = file(queryId);
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Unable to delete " + file);
+        }
+    }
+    
+    @Override
+    public int evict() throws IOException {
+        long now = System.currentTimeMillis();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX) && !name.startsWith("."));
+        if (files == null) {
+            return 0;
+        }
+        // most recently used first
+        Arrays.sort(files, Comparator.comparingLong((File f) -> f.lastModified()).reversed());
+        int evicted = 0;
+        long totalBytes = 0;
+        for (File file : files) {
+            long length = file.length();
+            totalBytes += length;
+            boolean expired = (maxAgeMs > 0 && (now - file.lastModified()) > maxAgeMs);
+            boolean overSize = (maxBytes > 0 && totalBytes > maxBytes);
+            if (expired || overSize) {
+                String name = file.getName();
+                remove(name.substring(0, name.length() - FILE_SUFFIX.length()));
+                totalBytes -= length;
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.debug("Evicted " + evicted + " cached result sets from " + directory);
+        }
+        return evicted;
+    }
+    
+    @Override
+    public synchronized void close() {
+        loading.clear();
+        resident.clear();
+    }
+    
+    private ResultColumns get(String queryId) throws IOException {
+        ResultColumns columns;
+        synchronized (this) {
+            columns = resident.get(validate(queryId));
+        }
+        File file = file(queryId);
+        if (columns == null) {
+            if (!file.exists()) {
+                throw new IllegalArgumentException("No cached results exist for " + queryId);
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                    throw new IOException("Unrecognized cached results file " + file);
+                }
+                columns = ResultColumns.read(in);
+            }
+            synchronized (this) {
+                resident.put(queryId, columns);
+            }
+        }
+        // the modification time is the last use, which survives restarts and drives eviction
+        file.setLastModified(System.currentTimeMillis());
+        return columns;
+    }
+    
+    private File file(String queryId) {
+        return new File(directory, queryId + FILE_SUFFIX);
+    }
+    
+    private static String validate(String queryId) {
+        if (queryId == null || !VALID_QUERY_ID.matcher(queryId).matches()) {
+            throw new IllegalArgumentException("Invalid cached results query id: " + queryId);
+        }
+        return queryId;
+    }
+    
+    /**
+     * The columns of a single cached result set. Each variable field has a value column, a column of combined markings and visibility, and a column of
+     * timestamps.
+     */
+    private static class ResultColumns {
+        
+        private final Map<String,DictionaryColumn> fixed = new HashMap<>();
+        private final Map<String,DictionaryColumn> values = new TreeMap<>();
+        private final Map<String,DictionaryColumn> markings = new HashMap<>();
+        private final Map<String,DictionaryColumn> timestamps = new HashMap<>();
+        private final Map<String,int[]> orderings = new HashMap<>();
+        private int numRows = 0;
+        
+        ResultColumns() {
+            for (String column : FIXED_COLUMNS) {
+                fixed.put(column, new DictionaryColumn());
+            }
+        }
+        
+        void append(CacheableQueryRow row) {
+            int r = numRows++;
+            fixed.get(USER).set(r, row.getUser());
+            fixed.get(QUERY_ID).set(r, row.getQueryId());
+            fixed.get(LOGIC_NAME).set(r, row.getLogicName());
+            fixed.get(DATATYPE).set(r, row.getDataType());
+            fixed.get(EVENT_ID).set(r, row.getEventId());
+            fixed.get(ROW).set(r, row.getRow());
+            fixed.get(COLF).set(r, row.getColFam());
+            fixed.get(MARKINGS).set(r, MarkingFunctions.Encoding.toString(new TreeMap<>(row.getMarkings())));
+            for (Map.Entry<String,String> entry : row.getColumnValues().entrySet()) {
+                String field = entry.getKey();
+                column(values, field).set(r, entry.getValue());
+                String marking = MarkingFunctions.Encoding.toString(new TreeMap<>(row.getColumnMarkings(field)));
+                String visibility = row.getColumnVisibility(field);
+                column(markings, field).set(r, (visibility == null ? marking : marking + ':' + visibility));
+                Long timestamp = row.getColumnTimestamp(field);
+                column(timestamps, field).set(r, (timestamp == null ? null : timestamp.toString()));
+            }
+            orderings.clear();
+        }
+        
+        Set<String> select(Collection<String> fields) {
+            if (fields == null || fields.isEmpty() || fields.contains("*")) {
+                return values.keySet();
+            }
+            Set<String> selected = new LinkedHashSet<>();
+            for (String field : fields) {
+                selected.add(field.replace("`", "").trim());
+            }
+            return selected;
+        }
+        
+        /**
+         * @return the row numbers in the requested order
+         */
+        synchronized int[] ordering(String order) {
+            int[] ordering = orderings.get(order);
+            if (ordering == null) {
+                List<DictionaryColumn> keys = new ArrayList<>();
+                List<Boolean> descending = new ArrayList<>();
+                for (String term : CachedRunningQuery.tokenizeOutsideParens(order, ',')) {
+                    String[] parts = CachedRunningQuery.tokenizeOutsideParens(term, ' ');
+                    String field = parts[0].replace("`", "").trim();
+                    if (field.contains("(") || parts.length > 2) {
+                        throw new IllegalArgumentException("Unsupported order by term for local cached results: " + term);
+                    }
+                    DictionaryColumn column = fixed.containsKey(field) ? fixed.get(field) : values.get(field);
+                    if (column == null) {
+                        // unknown fields are null for every row and do not affect the order
+                        continue;
+                    }
+                    keys.add(column);
+                    descending.add(parts.length == 2 && parts[1].equalsIgnoreCase("DESC"));
+                }
+                ordering = new int[numRows];
+                for (int i = 0; i < numRows; i++) {
+                    ordering[i] = i;
+                }
+                if (!keys.isEmpty()) {
+                    sort(ordering, keys, descending);
+                }
+                orderings.put(order, ordering);
+            }
+            return ordering;
+        }
+        
+        CacheableQueryRow row(int r, Set<String> selected) {
+            CacheableQueryRowImpl row = new CacheableQueryRowImpl();
+            row.setUser(fixed.get(USER).get(r));
+            row.setQueryId(fixed.get(QUERY_ID).get(r));
+            row.setLogicName(fixed.get(LOGIC_NAME).get(r));
+            row.setDataType(fixed.get(DATATYPE).get(r));
+            row.setEventId(fixed.get(EVENT_ID).get(r));
+            row.setRow(fixed.get(ROW).get(r));
+            row.setColFam(fixed.get(COLF).get(r));
+            String rowMarkings = fixed.get(MARKINGS).get(r);
+            if (!StringUtils.isEmpty(rowMarkings)) {
+                row.setMarkings(MarkingFunctions.Encoding.fromString(rowMarkings));
+            }
+            
+            long characters = 0;
+            Map<String,Set<String>> columnValues = new HashMap<>();
+            Map<String,Map<String,String>> columnMarkings = new HashMap<>();
+            Map<String,String> columnVisibilities = new HashMap<>();
+            Map<String,Long> columnTimestamps = new HashMap<>();
+            for (String field : selected) {
+                Set<String> fieldValues = new LinkedHashSet<>();
+                columnValues.put(field, fieldValues);
+                characters += field.length();
+                DictionaryColumn valueColumn = values.get(field);
+                String value = (valueColumn == null ? null : valueColumn.get(r));
+                if (value == null) {
+                    continue;
+                }
+                fieldValues.add(value);
+                characters += value.length();
+                String combined = markings.get(field).get(r);
+                if (combined != null) {
+                    int x = combined.lastIndexOf(':');
+                    columnMarkings.put(field, MarkingFunctions.Encoding.fromString(x >= 0 ? combined.substring(0, x) : combined));
+                    columnVisibilities.put(field, x >= 0 ? combined.substring(x + 1) : "");
+                }
+                String timestamp = timestamps.get(field).get(r);
+                if (timestamp != null) {
+                    columnTimestamps.put(field, Long.valueOf(timestamp));
+                }
+            }
+            row.setVariableColumnNames(new TreeSet<>(selected));
+            row.setColumnValues(columnValues);
+            row.setColumnMarkingsMap(columnMarkings);
+            row.setColumnColumnVisibilityMap(columnVisibilities);
+            row.setColumnTimestampMap(columnTimestamps);
+            row.setSizeInStoredCharacters(characters);
+            return row;
+        }
+        
+        long estimatedBytes() {
+            long bytes = 0;
+            for (Map<String,DictionaryColumn> columns : Arrays.asList(fixed, values, markings, timestamps)) {
+                for (DictionaryColumn column : columns.values()) {
+                    bytes += column.estimatedBytes();
+                }
+            }
+            return bytes;
+        }
+        
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(numRows);
+            for (String column : FIXED_COLUMNS) {
+                fixed.get(column).write(out);
+            }
+            out.writeInt(values.size());
+            for (Map.Entry<String,DictionaryColumn> entry : values.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+                markings.get(entry.getKey()).write(out);
+                timestamps.get(entry.getKey()).write(out);
+            }
+        }
+        
+        static ResultColumns read(DataInputStream in) throws IOException {
+            ResultColumns columns = new ResultColumns();
+            columns.numRows = in.readInt();
+            for (String column : FIXED_COLUMNS) {
+                columns.fixed.put(column, DictionaryColumn.read(in));
+            }
+            int numFields = in.readInt();
+            for (int i = 0; i < numFields; i++) {
+                String field = in.readUTF();
+                columns.values.put(field, DictionaryColumn.read(in));
+                columns.markings.put(field, DictionaryColumn.read(in));
+                columns.timestamps.put(field, DictionaryColumn.read(in));
+            }
+            return columns;
+        }
+        
+        private static DictionaryColumn column(Map<String,DictionaryColumn> columns, String field) {
+            DictionaryColumn column = columns.get(field);
+            if (column == null) {
+                column = new DictionaryColumn();
+                columns.put(field, column);
+            }
+            return column;
+        }
+        
+        /**
+         * A stable merge sort of row numbers by the ranks of the key columns, which avoids boxing the (potentially millions of) row numbers
+         */
+        private static void sort(int[] ordering, List<DictionaryColumn> keys, List<Boolean> descending) {
+            int[] buffer = new int[ordering.length];
+            for (int width = 1; width < ordering.length; width *= 2) {
+                for (int lo = 0; lo < ordering.length; lo += 2 * width) {
+                    int mid = Math.min(lo + width, ordering.length);
+                    int hi = Math.min(lo + 2 * width, ordering.length);
+                    int i = lo, j = mid, k = lo;
+                    while (i < mid && j < hi) {
+                        buffer[k++] = (compare(ordering[j], ordering[i], keys, descending) < 0) ? ordering[j++] : ordering[i++];
+                    }
+                    while (i < mid) {
+                        buffer[k++] = ordering[i++];
+                    }
+                    while (j < hi) {
+                        buffer[k++] = ordering[j++];
+                    }
+                }
+                System.arraycopy(buffer, 0, ordering, 0, ordering.length);
+            }
+        }
+        
+        private static int compare(int row1, int row2, List<DictionaryColumn> keys, List<Boolean> descending) {
+            for (int i = 0; i < keys.size(); i++) {
+                int c = keys.get(i).compare(row1, row2);
+                if (c != 0) {
+                    return descending.get(i) ? -c : c;
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package datawave.webservice.results.cached;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A column of nullable string values stored as integer codes into a dictionary of the distinct values. Cached result columns tend to have few distinct values
+ * (datatypes, markings, timestamps, enumerated fields) so the dictionary keeps the footprint small, and ordering is done by comparing precomputed ranks of the
+ * codes rather than the strings themselves.
+ */
+class DictionaryColumn {
+    
+    static final int NULL = -1;
+    
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String,Integer> codes = new HashMap<>();
+    private int[] rows = new int[16];
+    private int size = 0;
+    private int[] ranks = null;
+    private long dictionaryChars = 0;
+    
+    /**
+     * Set the value for a row. Rows that are skipped are null.
+     * 
+     * @param row
+     *            the 0 based row
+     * @param value
+     *            the value, may be null
+     */
+    void set(int row, String value) {
+        ensureCapacity(row + 1);
+        rows[row] = encode(value);
+        if (row >= size) {
+            size = row + 1;
+        }
+    }
+    
+    String get(int row) {
+        int code = code(row);
+        return (code == NULL ? null : dictionary.get(code));
+    }
+    
+    int code(int row) {
+        return (row < size ? rows[row] : NULL);
+    }
+    
+    /**
+     * @return the rank of each code in ascending value order, indexed by code
+     */
+    int[] ranks() {
+        if (ranks == null) {
+            Integer[] sorted = new Integer[dictionary.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = i;
+            }
+            Arrays.sort(sorted, (a, b) -> dictionary.get(a).compareTo(dictionary.get(b)));
+            int[] r = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                r[sorted[i]] = i;
+            }
+            ranks = r;
+        }
+        return ranks;
+    }
+    
+    /**
+     * Compare two rows by value, nulls first
+     */
+    int compare(int row1, int row2) {
+        int c1 = code(row1);
+        int c2 = code(row2);
+        if (c1 == c2) {
+            return 0;
+        } else if (c1 == NULL) {
+            return -1;
+        } else if (c2 == NULL) {
+            return 1;
+        }
+        int[] r = ranks();
+        return Integer.compare(r[c1], r[c2]);
+    }
+    
+    int cardinality() {
+        return dictionary.size();
+    }
+    
+    long estimatedBytes() {
+        return (4L * size) + (2L * dictionaryChars) + (48L * dictionary.size());
+    }
+    
+    void write(DataOutput out) throws IOException {
+        out.writeInt(dictionary.size());
+        for (String value : dictionary) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(rows[i]);
+        }
+    }
+    
+    static DictionaryColumn read(DataInput in) throws IOException {
+        DictionaryColumn column = new DictionaryColumn();
+        int cardinality = in.readInt();
+        for (int i = 0; i < cardinality; i++) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            column.encode(new String(bytes, StandardCharsets.UTF_8));
+        }
+        column.size = in.readInt();
+        column.rows = new int[Math.max(column.size, 1)];
+        for (int i = 0; i < column.size; i++) {
+            column.rows[i] = in.readInt();
+        }
+        return column;
+    }
+    
+    private int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+            dictionaryChars += value.length();
+            ranks = null;
+        }
+        return code;
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity > rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(capacity, rows.length * 2));
+        }
+        // rows between the current size and this one were skipped and are null
+        if (capacity - 1 > size) {
+            Arrays.fill(rows, size, capacity - 1, NULL);
+        }
+    }
+}
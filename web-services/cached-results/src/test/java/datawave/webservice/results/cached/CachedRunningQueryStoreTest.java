@@ -0,0 +1,151 @@
+package datawave.webservice.results.cached;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import datawave.webservice.query.QueryImpl;
+import datawave.webservice.query.cache.QueryMetricFactoryImpl;
+import datawave.webservice.query.cache.ResultsPage;
+import datawave.webservice.query.cachedresults.CacheableLogic;
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+import datawave.webservice.query.cachedresults.CacheableQueryRowImpl;
+import datawave.webservice.query.logic.QueryLogic;
+import datawave.webservice.query.logic.QueryLogicTransformer;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.powermock.reflect.Whitebox;
+
+public class CachedRunningQueryStoreTest {
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private interface CacheableTransformer extends QueryLogicTransformer, CacheableLogic {}
+    
+    private ColumnarCachedResultsStore store;
+    private QueryLogic<?> logic;
+    private Connection connection;
+    
+    @Before
+    public void setup() throws Exception {
+        store = new ColumnarCachedResultsStore(temporaryFolder.newFolder(), 0, 0, 2);
+        CachedRunningQuery.setStore(store);
+        for (int i = 1; i <= 5; i++) {
+            store.append("v1", createRow("e" + i, "name" + (6 - i)));
+        }
+        store.seal("v1");
+        
+        // the rows read from the cache are the results
+        CacheableTransformer transformer = EasyMock.createMock(CacheableTransformer.class);
+        EasyMock.expect(transformer.readFromCache(EasyMock.anyObject())).andAnswer(() -> new ArrayList<>((List<?>) EasyMock.getCurrentArguments()[0]))
+                        .anyTimes();
+        logic = EasyMock.createMock(QueryLogic.class);
+        EasyMock.expect(logic.getLogicName()).andReturn("EventQuery").anyTimes();
+        EasyMock.expect(logic.getTransformer(EasyMock.anyObject())).andReturn(transformer).anyTimes();
+        // the database connection is released as soon as the query is activated against the store
+        connection = EasyMock.createMock(Connection.class);
+        connection.close();
+        EasyMock.replay(transformer, logic, connection);
+    }
+    
+    @After
+    public void cleanup() {
+        CachedRunningQuery.setStore(null);
+    }
+    
+    private CacheableQueryRow createRow(String eventId, String name) {
+        CacheableQueryRowImpl row = new CacheableQueryRowImpl();
+        row.setUser("me");
+        row.setQueryId("q1");
+        row.setLogicName("EventQuery");
+        row.setDataType("csv");
+        row.setEventId(eventId);
+        row.setRow("20180101_0");
+        row.setColFam("csv\0" + eventId);
+        Map<String,Set<String>> values = new HashMap<>();
+        values.put("NAME", new LinkedHashSet<>(Collections.singleton(name)));
+        row.setColumnValues(values);
+        row.setVariableColumnNames(values.keySet());
+        row.setColumnColumnVisibilityMap(Collections.singletonMap("NAME", "PUBLIC"));
+        row.setColumnTimestampMap(Collections.singletonMap("NAME", 1000L));
+        return row;
+    }
+    
+    private CachedRunningQuery createQuery(String view) {
+        QueryImpl query = new QueryImpl();
+        query.setUserDN("userDn");
+        return new CachedRunningQuery(query, logic, "crq1", null, "me", view, 2, "q1", Collections.singleton("NAME"), null, new QueryMetricFactoryImpl());
+    }
+    
+    private static String eventIds(ResultsPage page) {
+        StringBuilder sb = new StringBuilder();
+        for (Object result : page.getResults()) {
+            sb.append(((CacheableQueryRow) result).getEventId()).append(' ');
+        }
+        return sb.toString().trim();
+    }
+    
+    @Test
+    public void testPagesFromStore() throws Exception {
+        CachedRunningQuery crq = createQuery("v1");
+        Assert.assertTrue(crq.isStoreBacked());
+        crq.activate(connection, logic);
+        Assert.assertTrue(crq.isActivated());
+        Assert.assertNull(crq.getConnection());
+        Assert.assertEquals(5, crq.getTotalRows());
+        
+        Assert.assertEquals("e1 e2", eventIds(crq.next(0)));
+        Assert.assertEquals("e3 e4", eventIds(crq.next(0)));
+        Assert.assertEquals("e5", eventIds(crq.next(0)));
+        Assert.assertTrue(crq.next(0).getResults().isEmpty());
+        Assert.assertEquals("e5", eventIds(crq.previous(0)));
+        Assert.assertEquals("e3 e4", eventIds(crq.previous(0)));
+        Assert.assertEquals("e2 e3 e4", eventIds(crq.getRows(2, 4, 0)));
+        
+        EasyMock.verify(connection);
+    }
+    
+    @Test
+    public void testOrderAndByteTrigger() throws Exception {
+        CachedRunningQuery crq = createQuery("v1");
+        Whitebox.setInternalState(crq, "fields", "`NAME`");
+        Whitebox.setInternalState(crq, "order", "`NAME` ASC");
+        Assert.assertTrue(crq.isStoreBacked());
+        crq.activate(connection, logic);
+        
+        Assert.assertEquals("e5 e4", eventIds(crq.next(0)));
+        ResultsPage partial = crq.getRows(1, 5, 1);
+        Assert.assertEquals("e5", eventIds(partial));
+        Assert.assertEquals(ResultsPage.Status.PARTIAL, partial.getStatus());
+    }
+    
+    @Test
+    public void testDatabaseNeeded() throws Exception {
+        Assert.assertFalse(createQuery("v2").isStoreBacked());
+        
+        CachedRunningQuery crq = createQuery("v1");
+        Whitebox.setInternalState(crq, "conditions", "NAME = 'name1'");
+        Assert.assertFalse(crq.isStoreBacked());
+        Whitebox.setInternalState(crq, "conditions", (Object) null);
+        Whitebox.setInternalState(crq, "grouping", "NAME");
+        Assert.assertFalse(crq.isStoreBacked());
+        Whitebox.setInternalState(crq, "grouping", (Object) null);
+        Whitebox.setInternalState(crq, "fields", "COUNT(*)");
+        Assert.assertFalse(crq.isStoreBacked());
+        
+        CachedRunningQuery.setStore(null);
+        Assert.assertFalse(createQuery("v1").isStoreBacked());
+    }
+}
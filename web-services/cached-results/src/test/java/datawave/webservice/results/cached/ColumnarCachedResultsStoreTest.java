@@ -0,0 +1,174 @@
+package datawave.webservice.results.cached;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+import datawave.webservice.query.cachedresults.CacheableQueryRowImpl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ColumnarCachedResultsStoreTest {
+    
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    
+    private File directory;
+    private ColumnarCachedResultsStore store;
+    
+    @Before
+    public void setup() throws Exception {
+        directory = temporaryFolder.newFolder();
+        store = new ColumnarCachedResultsStore(directory, 0, 0, 2);
+    }
+    
+    private CacheableQueryRow createRow(String eventId, String name, String age) {
+        CacheableQueryRowImpl row = new CacheableQueryRowImpl();
+        row.setUser("me");
+        row.setQueryId("q1");
+        row.setLogicName("EventQuery");
+        row.setDataType("csv");
+        row.setEventId(eventId);
+        row.setRow("20180101_0");
+        row.setColFam("csv\0" + eventId);
+        Map<String,Set<String>> values = new HashMap<>();
+        Map<String,String> visibilities = new HashMap<>();
+        Map<String,Long> timestamps = new HashMap<>();
+        if (name != null) {
+            values.put("NAME", new LinkedHashSet<>(Collections.singleton(name)));
+            visibilities.put("NAME", "PUBLIC");
+            timestamps.put("NAME", 1000L);
+        }
+        if (age != null) {
+            values.put("AGE", new LinkedHashSet<>(Collections.singleton(age)));
+            visibilities.put("AGE", "PRIVATE");
+            timestamps.put("AGE", 2000L);
+        }
+        row.setColumnValues(values);
+        row.setVariableColumnNames(values.keySet());
+        row.setColumnColumnVisibilityMap(visibilities);
+        row.setColumnTimestampMap(timestamps);
+        return row;
+    }
+    
+    private void load(String queryId) throws Exception {
+        store.append(queryId, createRow("e3", "charlie", "30"));
+        store.append(queryId, createRow("e1", "alice", "40"));
+        store.append(queryId, createRow("e2", "bob", null));
+        store.append(queryId, createRow("e4", "alice", "20"));
+        store.seal(queryId);
+    }
+    
+    private String eventIds(List<CacheableQueryRow> rows) {
+        StringBuilder sb = new StringBuilder();
+        for (CacheableQueryRow row : rows) {
+            sb.append(row.getEventId()).append(' ');
+        }
+        return sb.toString().trim();
+    }
+    
+    @Test
+    public void testDefaultOrderIsEventId() throws Exception {
+        load("q1");
+        Assert.assertTrue(store.contains("q1"));
+        Assert.assertEquals(4, store.getTotalRows("q1"));
+        Assert.assertEquals("e1 e2 e3 e4", eventIds(store.getRows("q1", null, null, 1, 10)));
+    }
+    
+    @Test
+    public void testOrderByMultipleFields() throws Exception {
+        load("q1");
+        Assert.assertEquals("e4 e1 e2 e3", eventIds(store.getRows("q1", null, "NAME, AGE", 1, 4)));
+        Assert.assertEquals("e1 e4 e2 e3", eventIds(store.getRows("q1", null, "`NAME` ASC, AGE DESC", 1, 4)));
+        // nulls sort first
+        Assert.assertEquals("e2 e4 e3 e1", eventIds(store.getRows("q1", null, "AGE", 1, 4)));
+        Assert.assertEquals("e1 e3 e4 e2", eventIds(store.getRows("q1", null, "AGE DESC", 1, 4)));
+    }
+    
+    @Test
+    public void testPaging() throws Exception {
+        load("q1");
+        Assert.assertEquals("e1 e2", eventIds(store.getRows("q1", null, null, 1, 2)));
+        Assert.assertEquals("e3 e4", eventIds(store.getRows("q1", null, null, 3, 4)));
+        Assert.assertEquals("e4", eventIds(store.getRows("q1", null, null, 4, 6)));
+        Assert.assertTrue(store.getRows("q1", null, null, 5, 6).isEmpty());
+    }
+    
+    @Test
+    public void testFieldsAndColumnMetadata() throws Exception {
+        load("q1");
+        CacheableQueryRow row = store.getRows("q1", Collections.singleton("AGE"), null, 1, 1).get(0);
+        Assert.assertEquals("e1", row.getEventId());
+        Assert.assertEquals("csv", row.getDataType());
+        Assert.assertEquals("csv\0e1", row.getColFam());
+        Assert.assertEquals(Collections.singletonList("AGE"), row.getVariableColumnNames());
+        Assert.assertEquals("40", row.getColumnValues().get("AGE"));
+        Assert.assertEquals("PRIVATE", row.getColumnVisibility("AGE"));
+        Assert.assertEquals(Long.valueOf(2000L), row.getColumnTimestamp("AGE"));
+        
+        row = store.getRows("q1", null, null, 2, 2).get(0);
+        Assert.assertEquals("e2", row.getEventId());
+        Assert.assertEquals("bob", row.getColumnValues().get("NAME"));
+        Assert.assertEquals("", row.getColumnValues().get("AGE"));
+    }
+    
+    @Test
+    public void testReloadFromDisk() throws Exception {
+        load("q1");
+        store.close();
+        
+        ColumnarCachedResultsStore reopened = new ColumnarCachedResultsStore(directory, 0, 0, 2);
+        Assert.assertTrue(reopened.contains("q1"));
+        Assert.assertEquals(4, reopened.getTotalRows("q1"));
+        Assert.assertEquals("e4 e1 e2 e3", eventIds(reopened.getRows("q1", null, "NAME, AGE", 1, 4)));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testAppendAfterSeal() throws Exception {
+        load("q1");
+        store.append("q1", createRow("e5", "dave", "50"));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testFunctionsInOrderAreRejected() throws Exception {
+        load("q1");
+        store.getRows("q1", null, "LOWER(NAME)", 1, 4);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQueryId() throws Exception {
+        store.append("../q1", createRow("e1", "alice", "40"));
+    }
+    
+    @Test
+    public void testEvictByAge() throws Exception {
+        store = new ColumnarCachedResultsStore(directory, 0, 60 * 1000, 2);
+        load("q1");
+        load("q2");
+        Assert.assertTrue(new File(directory, "q1.columns").setLastModified(System.currentTimeMillis() - 120 * 1000));
+        Assert.assertEquals(1, store.evict());
+        Assert.assertFalse(store.contains("q1"));
+        Assert.assertTrue(store.contains("q2"));
+    }
+    
+    @Test
+    public void testEvictBySize() throws Exception {
+        load("q1");
+        long size = new File(directory, "q1.columns").length();
+        store = new ColumnarCachedResultsStore(directory, size + (size / 2), 0, 2);
+        load("q2");
+        Assert.assertTrue(new File(directory, "q1.columns").setLastModified(System.currentTimeMillis() - 120 * 1000));
+        Assert.assertEquals(1, store.evict());
+        Assert.assertFalse(store.contains("q1"));
+        Assert.assertTrue(store.contains("q2"));
+    }
+}
@@ -635,6 +635,8 @@ public abstract class BaseQueryMetric implements HasMarkings, Serializable {
     @XmlElementWrapper(name = "predictions")
     @XmlElement(name = "prediction")
     protected Set<Prediction> predictions = new HashSet<Prediction>();
+    @XmlElement
+    protected Map<String,String> delegateMetrics = new HashMap<String,String>();
     
     protected int lastWrittenHash = 0;
     protected long numUpdates = 0;
@@ -864,6 +866,17 @@ public abstract class BaseQueryMetric implements HasMarkings, Serializable {
         this.predictions.add(prediction);
     }
     
+    /**
+     * @return the metrics of the delegates of a composite query, keyed by delegate, as <code>results/elapsed ms/blocked ms</code>
+     */
+    public Map<String,String> getDelegateMetrics() {
+        return this.delegateMetrics;
+    }
+    
+    public void addDelegateMetric(String delegate, long numResults, long elapsedTime, long blockedTime) {
+        this.delegateMetrics.put(delegate, numResults + "/" + elapsedTime + "/" + blockedTime);
+    }
+    
     public void setError(Throwable t) {
         if (t.getCause() instanceof QueryException) {
             QueryException qe = (QueryException) t.getCause();
@@ -1024,6 +1037,10 @@ public abstract class BaseQueryMetric implements HasMarkings, Serializable {
         this.predictions = predictions;
     }
     
+    public void setDelegateMetrics(Map<String,String> delegateMetrics) {
+        this.delegateMetrics = delegateMetrics;
+    }
+    
     @Override
     public void setMarkings(Map<String,String> markings) {
         if (markings == null || markings.isEmpty()) {
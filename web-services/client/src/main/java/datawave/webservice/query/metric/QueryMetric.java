@@ -5,7 +5,9 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -106,6 +108,9 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                 this.predictions.add(p.duplicate());
             }
         }
+        if (other.delegateMetrics != null) {
+            this.delegateMetrics = new HashMap<String,String>(other.delegateMetrics);
+        }
     }
     
     public BaseQueryMetric duplicate() {
@@ -121,7 +126,7 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                         .append(this.getErrorMessage()).append(this.getCreateCallTime()).append(this.getErrorCode()).append(this.getQueryName())
                         .append(this.getParameters()).append(this.getSourceCount()).append(this.getNextCount()).append(this.getSeekCount())
                         .append(this.getYieldCount()).append(this.getDocRanges()).append(this.getFiRanges()).append(this.getPlan()).append(this.getVersion())
-                        .append(this.getLoginTime()).append(this.getPredictions()).toHashCode();
+                        .append(this.getLoginTime()).append(this.getPredictions()).append(this.getDelegateMetrics()).toHashCode();
     }
     
     @Override
@@ -149,7 +154,8 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                             .append(this.getYieldCount(), other.getYieldCount()).append(this.getDocRanges(), other.getDocRanges())
                             .append(this.getFiRanges(), other.getFiRanges()).append(this.getPlan(), other.getPlan())
                             .append(this.getVersion(), other.getVersion()).append(this.getLoginTime(), other.getLoginTime())
-                            .append(this.getPredictions(), other.getPredictions()).append(this.getMarkings(), other.getMarkings()).isEquals();
+                            .append(this.getPredictions(), other.getPredictions()).append(this.getDelegateMetrics(), other.getDelegateMetrics())
+                            .append(this.getMarkings(), other.getMarkings()).isEquals();
         } else {
             return false;
         }
@@ -189,6 +195,7 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
         buf.append(" FI Ranges: ").append(this.getFiRanges());
         buf.append(" Login Time: ").append(this.getLoginTime());
         buf.append(" Predictions: ").append(this.getPredictions());
+        buf.append(" Delegate Metrics: ").append(this.getDelegateMetrics());
         buf.append(" Version: ").append(this.getVersion());
         buf.append("\n");
         return buf.toString();
@@ -376,6 +383,12 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
             if (message.version != null) {
                 output.writeString(37, message.version, false);
             }
+            
+            if (message.delegateMetrics != null) {
+                for (Map.Entry<String,String> entry : message.delegateMetrics.entrySet()) {
+                    output.writeString(38, entry.getKey() + ":" + entry.getValue(), true);
+                }
+            }
         }
         
         public void mergeFrom(Input input, QueryMetric message) throws IOException {
@@ -511,6 +524,14 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                     case 37:
                         message.version = input.readString();
                         break;
+                    case 38:
+                        if (message.delegateMetrics == null) {
+                            message.delegateMetrics = new HashMap<String,String>();
+                        }
+                        String delegateMetric = input.readString();
+                        int separator = delegateMetric.indexOf(':');
+                        message.delegateMetrics.put(delegateMetric.substring(0, separator), delegateMetric.substring(separator + 1));
+                        break;
                     default:
                         input.handleUnknownField(number, this);
                         break;
@@ -595,6 +616,8 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
                     return "predictions";
                 case 37:
                     return "version";
+                case 38:
+                    return "delegateMetrics";
                 default:
                     return null;
             }
@@ -645,6 +668,7 @@ public class QueryMetric extends BaseQueryMetric implements Serializable, Messag
             fieldMap.put("loginTime", 35);
             fieldMap.put("predictions", 36);
             fieldMap.put("version", 37);
+            fieldMap.put("delegateMetrics", 38);
         }
     };
     
@@ -9,6 +9,11 @@ public class CachedResultsConfiguration {
     private int maxPageSize = 0;
     private long pageByteTrigger = 0;
     private Map<String,String> parameters = new HashMap<>();
+    // local directory of the columnar cached results store, blank to read cached results from the database only
+    private String localStoreDirectory = null;
+    private long localStoreMaxBytes = 0;
+    private long localStoreMaxAgeHours = 24;
+    private int localStoreMaxResident = 16;
     
     public int getDefaultPageSize() {
         return defaultPageSize;
@@ -45,4 +50,40 @@ public class CachedResultsConfiguration {
     public int getRowsPerBatch() {
         return Integer.parseInt(getParameters().get("ROWS_PER_BATCH"));
     }
+    
+    public String getLocalStoreDirectory() {
+        return localStoreDirectory;
+    }
+    
+    public void setLocalStoreDirectory(String localStoreDirectory) {
+        this.localStoreDirectory = localStoreDirectory;
+    }
+    
+    public boolean isLocalStoreEnabled() {
+        return localStoreDirectory != null && !localStoreDirectory.trim().isEmpty();
+    }
+    
+    public long getLocalStoreMaxBytes() {
+        return localStoreMaxBytes;
+    }
+    
+    public void setLocalStoreMaxBytes(long localStoreMaxBytes) {
+        this.localStoreMaxBytes = localStoreMaxBytes;
+    }
+    
+    public long getLocalStoreMaxAgeHours() {
+        return localStoreMaxAgeHours;
+    }
+    
+    public void setLocalStoreMaxAgeHours(long localStoreMaxAgeHours) {
+        this.localStoreMaxAgeHours = localStoreMaxAgeHours;
+    }
+    
+    public int getLocalStoreMaxResident() {
+        return localStoreMaxResident;
+    }
+    
+    public void setLocalStoreMaxResident(int localStoreMaxResident) {
+        this.localStoreMaxResident = localStoreMaxResident;
+    }
 }
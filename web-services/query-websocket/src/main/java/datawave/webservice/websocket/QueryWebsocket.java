@@ -3,32 +3,49 @@ package datawave.webservice.websocket;
 import static datawave.webservice.metrics.Constants.REQUEST_LOGIN_TIME_HEADER;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Queue;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
+import javax.websocket.EncodeException;
 import javax.websocket.OnClose;
 import javax.websocket.OnMessage;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
 import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
+import javax.ws.rs.core.MultivaluedMap;
 
 import datawave.security.websocket.WebsocketSecurityConfigurator;
 import datawave.security.websocket.WebsocketSecurityInterceptor;
 import datawave.webservice.query.exception.QueryException;
 import datawave.webservice.query.runner.AsyncQueryStatusObserver;
 import datawave.webservice.query.runner.QueryExecutorBean;
+import datawave.webservice.query.runner.QueryStatusObserver;
+import datawave.webservice.query.runner.StreamingQueryStatusObserver;
 import datawave.webservice.result.BaseQueryResponse;
+import datawave.webservice.result.EventQueryResponseBase;
 import datawave.webservice.result.GenericResponse;
 import datawave.webservice.result.VoidResponse;
 import datawave.webservice.websocket.codec.JsonQueryMessageDecoder;
 import datawave.webservice.websocket.codec.QueryResponseMessageJsonEncoder;
 import datawave.webservice.websocket.messages.CancelMessage;
 import datawave.webservice.websocket.messages.CreateQueryMessage;
+import datawave.webservice.websocket.messages.CreditMessage;
+import datawave.webservice.websocket.messages.PauseMessage;
 import datawave.webservice.websocket.messages.QueryMessage;
 import datawave.webservice.websocket.messages.QueryResponseMessage;
 import datawave.webservice.websocket.messages.QueryResponseMessage.ResponseType;
+import datawave.webservice.websocket.messages.ResumeMessage;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.Message;
+import io.protostuff.ProtobufIOUtil;
+import io.protostuff.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +56,14 @@ import org.slf4j.LoggerFactory;
  * {@link CancelMessage} while the query is in progress in order to cancel execution of the query. Note that if there is a problem creating the query, a
  * creation failure message is sent and the websocket is closed.
  * <p>
+ * A client that wants to control the rate at which results arrive can include a {@value #STREAM_CREDITS} parameter in the create message. The results are
+ * then sent as they are produced, in batches of at most {@value #STREAM_BATCH_SIZE} results (default {@value #DEFAULT_STREAM_BATCH_SIZE}), each result using
+ * one credit. Once the credits run out, the results of the current page are held and no further page is started until the client grants more with a
+ * {@link CreditMessage}. The client may send a {@link PauseMessage} to stop results, and a {@link ResumeMessage} to continue them, without cancelling the
+ * query, however long the pause. Setting {@value #STREAM_FORMAT} to {@value #STREAM_FORMAT_PROTOBUF} sends each batch as a binary protobuf frame rather than
+ * a JSON message, while the other messages remain JSON. Only event query results are merged into batches, each result of any other response type is sent on
+ * its own.
+ * <p>
  * Per the JSR-356 specification (section 2.1.1), since we have not configured the endpoint otherwise, there shall be one instance of this class per endpoint,
  * per peer.
  * <p>
@@ -54,6 +79,14 @@ public class QueryWebsocket {
     private static final String LOGIC_NAME = "logicName";
     private static final String ACTIVE_QUERY_FUTURE = "activeQueryFuture";
     private static final String ACTIVE_QUERY_ID = "activeQueryId";
+    private static final String ACTIVE_QUERY_CREDITS = "activeQueryCredits";
+    
+    public static final String STREAM_CREDITS = "stream.credits";
+    public static final String STREAM_BATCH_SIZE = "stream.batch.size";
+    public static final String STREAM_FORMAT = "stream.format";
+    public static final String STREAM_FORMAT_JSON = "json";
+    public static final String STREAM_FORMAT_PROTOBUF = "protobuf";
+    public static final int DEFAULT_STREAM_BATCH_SIZE = 10;
     
     private Logger log = LoggerFactory.getLogger(getClass());
     
@@ -80,7 +113,13 @@ public class QueryWebsocket {
                 } else {
                     CreateQueryMessage cqm = (CreateQueryMessage) message;
                     String logicName = (String) session.getUserProperties().get(LOGIC_NAME);
-                    QueryObserver observer = new QueryObserver(log, session);
+                    BaseQueryObserver observer;
+                    try {
+                        observer = createObserver(session, cqm.getParameters());
+                    } catch (IllegalArgumentException e) {
+                        session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.CREATION_FAILURE, e.getMessage()));
+                        break;
+                    }
                     
                     Long startTime = System.nanoTime();
                     Long loginTime = null;
@@ -90,7 +129,7 @@ public class QueryWebsocket {
                         // Ignore -- login time won't be available
                     }
                     
-                    Future<?> activeQuery = queryExecutorBean.executeAsync(logicName, cqm.getParameters(), startTime, loginTime, observer);
+                    Future<?> activeQuery = observer.execute(queryExecutorBean, logicName, cqm.getParameters(), startTime, loginTime);
                     session.getUserProperties().put(ACTIVE_QUERY_FUTURE, activeQuery);
                 }
             }
@@ -99,10 +138,82 @@ public class QueryWebsocket {
                 cancelActiveQuery(session);
             }
                 break;
+            case CREDIT: {
+                ResultCredits credits = (ResultCredits) session.getUserProperties().get(ACTIVE_QUERY_CREDITS);
+                if (credits != null) {
+                    credits.grant(((CreditMessage) message).getCredits());
+                }
+            }
+                break;
+            case PAUSE: {
+                ResultCredits credits = (ResultCredits) session.getUserProperties().get(ACTIVE_QUERY_CREDITS);
+                if (credits != null) {
+                    credits.pause();
+                }
+            }
+                break;
+            case RESUME: {
+                ResultCredits credits = (ResultCredits) session.getUserProperties().get(ACTIVE_QUERY_CREDITS);
+                if (credits != null) {
+                    credits.resume();
+                }
+            }
+                break;
+        }
+    }
+    
+    /**
+     * Create the observer for a new query, removing the streaming parameters, which are not query parameters, from {@code parameters}.
+     * 
+     * @param session
+     *            the websocket session
+     * @param parameters
+     *            the create query parameters
+     * @return a streaming observer if credits were requested, otherwise an observer that sends each page whole
+     * @throws IllegalArgumentException
+     *             if the streaming parameters are not valid
+     */
+    private BaseQueryObserver createObserver(Session session, MultivaluedMap<String,String> parameters) {
+        String credits = parameters.getFirst(STREAM_CREDITS);
+        String batchSize = parameters.getFirst(STREAM_BATCH_SIZE);
+        String format = parameters.getFirst(STREAM_FORMAT);
+        parameters.remove(STREAM_CREDITS);
+        parameters.remove(STREAM_BATCH_SIZE);
+        parameters.remove(STREAM_FORMAT);
+        
+        if (credits == null) {
+            return new QueryObserver(log, session);
+        }
+        
+        ResultCredits resultCredits;
+        int batch = DEFAULT_STREAM_BATCH_SIZE;
+        try {
+            resultCredits = new ResultCredits(Long.parseLong(credits));
+            if (batchSize != null) {
+                batch = Integer.parseInt(batchSize);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + STREAM_CREDITS + " or " + STREAM_BATCH_SIZE + ": " + e.getMessage(), e);
+        }
+        if (resultCredits.getCredits() < 0 || batch < 1) {
+            throw new IllegalArgumentException(STREAM_CREDITS + " must not be negative and " + STREAM_BATCH_SIZE + " must be positive.");
+        }
+        if (format != null && !format.equals(STREAM_FORMAT_JSON) && !format.equals(STREAM_FORMAT_PROTOBUF)) {
+            throw new IllegalArgumentException("Unknown " + STREAM_FORMAT + " " + format + ", expected " + STREAM_FORMAT_JSON + " or "
+                            + STREAM_FORMAT_PROTOBUF);
         }
+        
+        session.getUserProperties().put(ACTIVE_QUERY_CREDITS, resultCredits);
+        return new StreamingQueryObserver(log, session, resultCredits, batch, STREAM_FORMAT_PROTOBUF.equals(format));
     }
     
     protected void cancelActiveQuery(Session session) {
+        // Release the query if it is waiting for credits so that it can see the cancellation
+        ResultCredits credits = (ResultCredits) session.getUserProperties().get(ACTIVE_QUERY_CREDITS);
+        if (credits != null) {
+            credits.cancel();
+        }
+        
         Future<?> activeQuery = (Future<?>) session.getUserProperties().get(ACTIVE_QUERY_FUTURE);
         if (activeQuery != null && !activeQuery.isDone()) {
             // Attempt to cancel the async query call. This will cause the async call to return when it is between next calls.
@@ -119,31 +230,36 @@ public class QueryWebsocket {
         }
     }
     
-    private static class QueryObserver implements AsyncQueryStatusObserver {
-        private Logger log;
-        private Session session;
+    private abstract static class BaseQueryObserver implements QueryStatusObserver {
+        protected Logger log;
+        protected Session session;
         
-        public QueryObserver(Logger log, Session session) {
+        public BaseQueryObserver(Logger log, Session session) {
             this.log = log;
             this.session = session;
         }
         
-        @Override
-        public void queryCreated(GenericResponse<String> createQueryResponse) {
-            session.getUserProperties().put(ACTIVE_QUERY_ID, createQueryResponse.getResult());
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.CREATED, createQueryResponse.getResult()));
+        /**
+         * Run the query asynchronously, reporting to this observer
+         */
+        public abstract Future<?> execute(QueryExecutorBean queryExecutorBean, String logicName, MultivaluedMap<String,String> parameters, Long startTime,
+                        Long loginTime);
+        
+        protected void send(QueryResponseMessage message) {
+            session.getAsyncRemote().sendObject(message);
         }
         
         @Override
-        public void queryResultsAvailable(BaseQueryResponse results) {
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.RESULTS, results));
+        public void queryCreated(GenericResponse<String> createQueryResponse) {
+            session.getUserProperties().put(ACTIVE_QUERY_ID, createQueryResponse.getResult());
+            send(new QueryResponseMessage(ResponseType.CREATED, createQueryResponse.getResult()));
         }
         
         @Override
         public void queryCreateException(QueryException ex) {
             VoidResponse response = new VoidResponse();
             response.addException(ex);
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.CREATION_FAILURE, "Query creation failed", response));
+            send(new QueryResponseMessage(ResponseType.CREATION_FAILURE, "Query creation failed", response));
             try {
                 session.close();
             } catch (IOException e) {
@@ -156,18 +272,20 @@ public class QueryWebsocket {
         public void queryException(QueryException ex) {
             session.getUserProperties().remove(ACTIVE_QUERY_ID);
             session.getUserProperties().remove(ACTIVE_QUERY_FUTURE);
+            session.getUserProperties().remove(ACTIVE_QUERY_CREDITS);
             
             VoidResponse response = new VoidResponse();
             response.addException(ex);
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.ERROR, response));
+            send(new QueryResponseMessage(ResponseType.ERROR, response));
         }
         
         @Override
         public void queryFinished(String queryId) {
             session.getUserProperties().remove(ACTIVE_QUERY_ID);
             session.getUserProperties().remove(ACTIVE_QUERY_FUTURE);
+            session.getUserProperties().remove(ACTIVE_QUERY_CREDITS);
             
-            session.getAsyncRemote().sendObject(new QueryResponseMessage(ResponseType.COMPLETED));
+            send(new QueryResponseMessage(ResponseType.COMPLETED));
             try {
                 session.close();
             } catch (IOException e) {
@@ -176,4 +294,152 @@ public class QueryWebsocket {
             }
         }
     }
+    
+    /**
+     * Sends each page of results whole once it is complete
+     */
+    private static class QueryObserver extends BaseQueryObserver implements AsyncQueryStatusObserver {
+        
+        public QueryObserver(Logger log, Session session) {
+            super(log, session);
+        }
+        
+        @Override
+        public Future<?> execute(QueryExecutorBean queryExecutorBean, String logicName, MultivaluedMap<String,String> parameters, Long startTime,
+                        Long loginTime) {
+            return queryExecutorBean.executeAsync(logicName, parameters, startTime, loginTime, this);
+        }
+        
+        @Override
+        public void queryResultsAvailable(BaseQueryResponse results) {
+            send(new QueryResponseMessage(ResponseType.RESULTS, results));
+        }
+    }
+    
+    /**
+     * Sends the results of a query in batches as they are produced, taking a credit for each result. Results produced once the credits run out are held until
+     * the client grants more, and the next page is not started until they have been sent, so a paused client holds up the query rather than failing it. The
+     * sends block so that a slow client holds up the query rather than queueing results in memory.
+     */
+    private static class StreamingQueryObserver extends BaseQueryObserver implements StreamingQueryStatusObserver {
+        // how often the query is kept alive while the client is not ready for results
+        private static final long KEEP_ALIVE_MS = TimeUnit.SECONDS.toMillis(30);
+        
+        private ResultCredits credits;
+        private int batchSize;
+        private boolean protobuf;
+        private LinkedBuffer buffer = LinkedBuffer.allocate(4096);
+        // the results that were taken credits for but not sent yet
+        private BaseQueryResponse batch;
+        private int batchCount;
+        // the results of the page that the client has not granted credits for yet
+        private Queue<BaseQueryResponse> held = new ArrayDeque<>();
+        
+        public StreamingQueryObserver(Logger log, Session session, ResultCredits credits, int batchSize, boolean protobuf) {
+            super(log, session);
+            this.credits = credits;
+            this.batchSize = batchSize;
+            this.protobuf = protobuf;
+        }
+        
+        @Override
+        public Future<?> execute(QueryExecutorBean queryExecutorBean, String logicName, MultivaluedMap<String,String> parameters, Long startTime,
+                        Long loginTime) {
+            return queryExecutorBean.executeStreamingAsync(logicName, parameters, startTime, loginTime, this);
+        }
+        
+        @Override
+        protected void send(QueryResponseMessage message) {
+            try {
+                session.getBasicRemote().sendObject(message);
+            } catch (IOException | EncodeException e) {
+                log.error("Unable to send " + message.getResponseType() + " message to peer.", e);
+                throw new RuntimeException(e);
+            }
+        }
+        
+        @Override
+        public boolean awaitResultDemand(Runnable keepAlive) throws InterruptedException {
+            while (!credits.isCancelled()) {
+                sendHeld();
+                if (credits.await(KEEP_ALIVE_MS) && held.isEmpty()) {
+                    return true;
+                }
+                keepAlive.run();
+            }
+            return false;
+        }
+        
+        @Override
+        public void queryResultAvailable(BaseQueryResponse result) {
+            if (held.isEmpty() && credits.tryTake(1) > 0) {
+                addToBatch(result);
+            } else {
+                // the client may be waiting on the results it already granted credits for before it grants more
+                flush();
+                held.add(result);
+            }
+        }
+        
+        @Override
+        public void queryPageFinished() {
+            flush();
+        }
+        
+        /**
+         * Send the held results that the client has granted credits for since they were produced
+         */
+        private void sendHeld() {
+            while (!held.isEmpty() && credits.tryTake(1) > 0) {
+                addToBatch(held.remove());
+            }
+            flush();
+        }
+        
+        private void addToBatch(BaseQueryResponse result) {
+            if (batch instanceof EventQueryResponseBase && result instanceof EventQueryResponseBase) {
+                ((EventQueryResponseBase) batch).getEvents().addAll(((EventQueryResponseBase) result).getEvents());
+            } else {
+                flush();
+                batch = result;
+                if (batch instanceof EventQueryResponseBase) {
+                    EventQueryResponseBase events = (EventQueryResponseBase) batch;
+                    events.setEvents((events.getEvents() == null) ? new ArrayList<>() : new ArrayList<>(events.getEvents()));
+                }
+            }
+            batchCount++;
+            // only event query responses can be merged into batches
+            if (batchCount >= batchSize || !(batch instanceof EventQueryResponseBase)) {
+                flush();
+            }
+        }
+        
+        private void flush() {
+            if (batch != null) {
+                if (batch instanceof EventQueryResponseBase) {
+                    ((EventQueryResponseBase) batch).setReturnedEvents((long) batchCount);
+                }
+                sendResults(batch);
+                batch = null;
+                batchCount = 0;
+            }
+        }
+        
+        @SuppressWarnings("unchecked")
+        private void sendResults(BaseQueryResponse results) {
+            if (protobuf && results instanceof Message) {
+                Schema<Object> schema = ((Message<Object>) results).cachedSchema();
+                try {
+                    session.getBasicRemote().sendBinary(ByteBuffer.wrap(ProtobufIOUtil.toByteArray(results, schema, buffer)));
+                } catch (IOException e) {
+                    log.error("Unable to send results to peer.", e);
+                    throw new RuntimeException(e);
+                } finally {
+                    buffer.clear();
+                }
+            } else {
+                send(new QueryResponseMessage(ResponseType.RESULTS, results));
+            }
+        }
+    }
 }
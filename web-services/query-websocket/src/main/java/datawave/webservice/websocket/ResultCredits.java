@@ -0,0 +1,86 @@
+package datawave.webservice.websocket;
+
+/**
+ * Tracks the credits a websocket client has granted for streamed query results. The thread sending results takes a credit for each result, and waits between
+ * pages while there are none or while the client has paused the stream.
+ */
+public class ResultCredits {
+    private long credits;
+    private boolean paused;
+    private boolean cancelled;
+    
+    public ResultCredits(long credits) {
+        this.credits = credits;
+    }
+    
+    public synchronized void grant(long credits) {
+        this.credits += credits;
+        notifyAll();
+    }
+    
+    public synchronized void pause() {
+        paused = true;
+    }
+    
+    public synchronized void resume() {
+        paused = false;
+        notifyAll();
+    }
+    
+    /**
+     * Release any thread waiting for credits. No more credits will be taken once cancelled.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        notifyAll();
+    }
+    
+    /**
+     * Wait until credits are available and the stream is not paused.
+     * 
+     * @param timeoutMs
+     *            how long to wait for credits
+     * @return true if credits are available, false if there were none within {@code timeoutMs} or the stream was cancelled
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public synchronized boolean await(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!cancelled && (paused || credits == 0)) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return !cancelled;
+    }
+    
+    /**
+     * Take up to {@code max} credits without waiting.
+     * 
+     * @param max
+     *            the maximum number of credits to take
+     * @return the number of credits taken, 0 if there are none, the stream is paused or it was cancelled
+     */
+    public synchronized int tryTake(int max) {
+        if (cancelled || paused) {
+            return 0;
+        }
+        int taken = (int) Math.min(max, credits);
+        credits -= taken;
+        return taken;
+    }
+    
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+    
+    public synchronized long getCredits() {
+        return credits;
+    }
+    
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+}
@@ -13,7 +13,10 @@ import javax.ws.rs.core.MultivaluedMap;
 
 import datawave.webservice.websocket.messages.CancelMessage;
 import datawave.webservice.websocket.messages.CreateQueryMessage;
+import datawave.webservice.websocket.messages.CreditMessage;
+import datawave.webservice.websocket.messages.PauseMessage;
 import datawave.webservice.websocket.messages.QueryMessage;
+import datawave.webservice.websocket.messages.ResumeMessage;
 import org.jboss.resteasy.specimpl.MultivaluedMapImpl;
 
 /**
@@ -33,10 +36,28 @@ public class JsonQueryMessageDecoder implements Decoder.Text<QueryMessage> {
         }
         if (map.size() == 1 && map.containsKey("cancel"))
             return new CancelMessage();
+        else if (map.size() == 1 && map.containsKey("credit"))
+            return new CreditMessage(parseCredits(s, map.getFirst("credit")));
+        else if (map.size() == 1 && map.containsKey("pause"))
+            return new PauseMessage();
+        else if (map.size() == 1 && map.containsKey("resume"))
+            return new ResumeMessage();
         else
             return new CreateQueryMessage(map);
     }
     
+    private long parseCredits(String s, String credits) throws DecodeException {
+        try {
+            long value = Long.parseLong(credits);
+            if (value < 0) {
+                throw new DecodeException(s, "Credits must not be negative: " + credits);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new DecodeException(s, "Credits must be a number: " + credits, e);
+        }
+    }
+    
     private void addValueToMap(String key, JsonParser parser, MultivaluedMap<String,String> map) {
         boolean done = true; // By default we expect only a single value, but we could see an array.
         do {
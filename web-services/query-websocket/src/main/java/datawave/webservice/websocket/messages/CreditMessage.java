@@ -0,0 +1,28 @@
+package datawave.webservice.websocket.messages;
+
+/**
+ * A query message for clients to send to grant the server credits for streamed results. Each credit allows the server to send one more result. The client
+ * should send a JSON message with a single property "credit" set to the number of credits granted. For example,
+ * 
+ * <pre>
+ * <code>
+ * { "credit": 100 }
+ * </code>
+ * </pre>
+ */
+public class CreditMessage implements QueryMessage {
+    private long credits;
+    
+    public CreditMessage(long credits) {
+        this.credits = credits;
+    }
+    
+    public long getCredits() {
+        return credits;
+    }
+    
+    @Override
+    public Type getType() {
+        return Type.CREDIT;
+    }
+}
@@ -0,0 +1,18 @@
+package datawave.webservice.websocket.messages;
+
+/**
+ * A query message for clients to send to stop the server from sending streamed results, without cancelling the query, until a {@link ResumeMessage} is sent.
+ * The client should send a JSON message with a single property "pause" set to any simple value. For example,
+ * 
+ * <pre>
+ * <code>
+ * { "pause": true }
+ * </code>
+ * </pre>
+ */
+public class PauseMessage implements QueryMessage {
+    @Override
+    public Type getType() {
+        return Type.PAUSE;
+    }
+}
@@ -5,7 +5,7 @@ package datawave.webservice.websocket.messages;
  */
 public interface QueryMessage {
     enum Type {
-        CREATE, CANCEL
+        CREATE, CANCEL, CREDIT, PAUSE, RESUME
     }
     
     Type getType();
@@ -0,0 +1,18 @@
+package datawave.webservice.websocket.messages;
+
+/**
+ * A query message for clients to send to resume streamed results after a {@link PauseMessage}. The client should send a JSON message with a single property
+ * "resume" set to any simple value. For example,
+ * 
+ * <pre>
+ * <code>
+ * { "resume": true }
+ * </code>
+ * </pre>
+ */
+public class ResumeMessage implements QueryMessage {
+    @Override
+    public Type getType() {
+        return Type.RESUME;
+    }
+}
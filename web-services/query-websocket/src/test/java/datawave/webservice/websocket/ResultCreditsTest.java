@@ -0,0 +1,94 @@
+package datawave.webservice.websocket;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResultCreditsTest {
+    
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testCreditAccounting() throws Exception {
+        ResultCredits credits = new ResultCredits(5);
+        Assert.assertTrue(credits.await(1000));
+        Assert.assertEquals(3, credits.tryTake(3));
+        Assert.assertEquals(2, credits.tryTake(10));
+        Assert.assertEquals(0, credits.tryTake(1));
+        
+        credits.grant(4);
+        Assert.assertEquals(4, credits.getCredits());
+        Assert.assertEquals(1, credits.tryTake(1));
+        Assert.assertEquals(3, credits.getCredits());
+    }
+    
+    @Test
+    public void testWaitForGrant() throws Exception {
+        ResultCredits credits = new ResultCredits(0);
+        Future<Boolean> available = executor.submit(() -> credits.await(60000));
+        Thread.sleep(50);
+        Assert.assertFalse(available.isDone());
+        
+        credits.grant(5);
+        Assert.assertTrue(available.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(5, credits.getCredits());
+    }
+    
+    @Test
+    public void testPauseAndResume() throws Exception {
+        ResultCredits credits = new ResultCredits(5);
+        credits.pause();
+        Assert.assertTrue(credits.isPaused());
+        Assert.assertEquals(0, credits.tryTake(1));
+        
+        Future<Boolean> available = executor.submit(() -> credits.await(60000));
+        Thread.sleep(50);
+        Assert.assertFalse(available.isDone());
+        
+        credits.resume();
+        Assert.assertTrue(available.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, credits.tryTake(1));
+        Assert.assertEquals(4, credits.getCredits());
+    }
+    
+    @Test
+    public void testCancelReleasesWaiter() throws Exception {
+        ResultCredits credits = new ResultCredits(0);
+        Future<Boolean> available = executor.submit(() -> credits.await(60000));
+        Thread.sleep(50);
+        
+        credits.cancel();
+        Assert.assertFalse(available.get(10, TimeUnit.SECONDS));
+        Assert.assertTrue(credits.isCancelled());
+        
+        // no credits are taken once cancelled
+        credits.grant(5);
+        Assert.assertFalse(credits.await(1000));
+        Assert.assertEquals(0, credits.tryTake(1));
+        Assert.assertEquals(5, credits.getCredits());
+    }
+    
+    @Test
+    public void testTimeout() throws Exception {
+        ResultCredits credits = new ResultCredits(0);
+        long start = System.currentTimeMillis();
+        Assert.assertFalse(credits.await(50));
+        Assert.assertTrue(System.currentTimeMillis() - start >= 50);
+        
+        // a paused stream has no credits to take even when some were granted
+        credits.grant(1);
+        credits.pause();
+        Assert.assertFalse(credits.await(50));
+        Assert.assertEquals(1, credits.getCredits());
+    }
+}
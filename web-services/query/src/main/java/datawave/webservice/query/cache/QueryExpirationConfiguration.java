@@ -10,11 +10,21 @@ public class QueryExpirationConfiguration {
     
     public static final int PAGE_TIMEOUT_MIN_DEFAULT = 60;
     public static final int IDLE_TIME_MIN_DEFAULT = 15;
+    public static final int SHARED_QUERY_BUFFER_SIZE_DEFAULT = 1000;
+    public static final int SHARED_QUERY_DETACH_SECONDS_DEFAULT = 30;
+    public static final int SHARED_QUERY_MAX_PRODUCERS_DEFAULT = 16;
     
     private long idleTimeMinutes = IDLE_TIME_MIN_DEFAULT;
     private long callTimeMinutes = PAGE_TIMEOUT_MIN_DEFAULT;
     private long pageSizeShortCircuitCheckTimeMinutes = PAGE_TIMEOUT_MIN_DEFAULT / 2;
     private long pageShortCircuitTimeoutMinutes = Math.round(0.97 * PAGE_TIMEOUT_MIN_DEFAULT);
+    // identical queries created within this many seconds of each other share their results, 0 to disable
+    private long sharedQueryWindowSeconds = 0;
+    private int sharedQueryBufferSize = SHARED_QUERY_BUFFER_SIZE_DEFAULT;
+    // a query reading shared results is detached from them once it has held up the other queries for this many seconds
+    private long sharedQueryDetachSeconds = SHARED_QUERY_DETACH_SECONDS_DEFAULT;
+    // the most shared results read at once, queries beyond that run their own logic
+    private int sharedQueryMaxProducers = SHARED_QUERY_MAX_PRODUCERS_DEFAULT;
     
     public long getIdleTimeMinutes() {
         return idleTimeMinutes;
@@ -80,4 +90,44 @@ public class QueryExpirationConfiguration {
         this.pageShortCircuitTimeoutMinutes = pageShortCircuitTimeoutMinutes;
     }
     
+    public long getSharedQueryWindowSeconds() {
+        return sharedQueryWindowSeconds;
+    }
+    
+    public long getSharedQueryWindowInMS() {
+        return sharedQueryWindowSeconds * 1000;
+    }
+    
+    public void setSharedQueryWindowSeconds(long sharedQueryWindowSeconds) {
+        this.sharedQueryWindowSeconds = sharedQueryWindowSeconds;
+    }
+    
+    public int getSharedQueryBufferSize() {
+        return sharedQueryBufferSize;
+    }
+    
+    public void setSharedQueryBufferSize(int sharedQueryBufferSize) {
+        this.sharedQueryBufferSize = sharedQueryBufferSize;
+    }
+    
+    public long getSharedQueryDetachSeconds() {
+        return sharedQueryDetachSeconds;
+    }
+    
+    public long getSharedQueryDetachInMS() {
+        return sharedQueryDetachSeconds * 1000;
+    }
+    
+    public void setSharedQueryDetachSeconds(long sharedQueryDetachSeconds) {
+        this.sharedQueryDetachSeconds = sharedQueryDetachSeconds;
+    }
+    
+    public int getSharedQueryMaxProducers() {
+        return sharedQueryMaxProducers;
+    }
+    
+    public void setSharedQueryMaxProducers(int sharedQueryMaxProducers) {
+        this.sharedQueryMaxProducers = sharedQueryMaxProducers;
+    }
+    
 }
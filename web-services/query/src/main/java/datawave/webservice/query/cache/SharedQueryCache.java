@@ -0,0 +1,114 @@
+package datawave.webservice.query.cache;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import datawave.webservice.query.logic.QueryLogic;
+import datawave.webservice.query.runner.SharedQueryResults;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.log4j.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A cache of the {@link SharedQueryResults} of queries that were recently created, so that identical queries created shortly afterwards subscribe to the
+ * same results instead of planning and scanning again. The shared results are read on a pool of threads of their own, bounded by the shared query producer
+ * limit, rather than on the threads that serve requests.
+ */
+@Singleton
+// CDI singleton
+public class SharedQueryCache {
+    private final Logger log = Logger.getLogger(SharedQueryCache.class);
+    
+    @Inject
+    private QueryExpirationConfiguration queryExpirationConf;
+    
+    private final Map<String,SharedQueryResults> sharedQueries = new HashMap<>();
+    // the cursors of the queries that are still being created, by query id
+    private final Map<String,SharedQueryResults.Cursor> creating = new HashMap<>();
+    private ExecutorService producers;
+    
+    @PostConstruct
+    public void init() {
+        producers = new ThreadPoolExecutor(0, queryExpirationConf.getSharedQueryMaxProducers(), 60L, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                        new ThreadFactoryBuilder().setNameFormat("SharedQueryResults-%d").setDaemon(true).build());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        producers.shutdownNow();
+    }
+    
+    /**
+     * @return the executor to read shared results on, which rejects them once every producer thread is busy
+     */
+    public ExecutorService getProducers() {
+        return producers;
+    }
+    
+    /**
+     * Subscribe to the shared results of an identical query, or share the results of this query if there is no identical query to subscribe to. The caller
+     * must start the results if the returned cursor {@link SharedQueryResults.Cursor#isLeader() is the leader}.
+     * 
+     * @param key
+     *            the key of the query, see {@link SharedQueryResults#key}
+     * @param logic
+     *            the logic of the query, used if this query shares its results
+     * @param connection
+     *            the connection of the query, used if this query shares its results
+     * @param bufferSize
+     *            the maximum number of results held past the slowest subscriber
+     * @param detachMs
+     *            how long the shared results wait for the slowest subscribers before detaching them
+     * @param windowMs
+     *            how long after an identical query was created that this query may still subscribe to its results
+     * @return a cursor over the shared results
+     */
+    public synchronized SharedQueryResults.Cursor subscribe(String key, QueryLogic<?> logic, Connector connection, int bufferSize, long detachMs,
+                    long windowMs) {
+        SharedQueryResults shared = sharedQueries.get(key);
+        if (shared != null) {
+            SharedQueryResults.Cursor cursor = shared.subscribe(windowMs);
+            if (cursor != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Subscribed to the results of a " + logic.getLogicName() + " query created "
+                                    + (System.currentTimeMillis() - shared.getCreateTime()) + "ms ago");
+                }
+                return cursor;
+            }
+        }
+        
+        shared = new SharedQueryResults(key, logic, connection, bufferSize, detachMs, this::remove);
+        sharedQueries.put(key, shared);
+        return shared.subscribe(windowMs);
+    }
+    
+    /**
+     * Remember the cursor of a query that is being created, so that closing the query before its create call completes closes the cursor
+     */
+    public synchronized void creating(String queryId, SharedQueryResults.Cursor cursor) {
+        creating.put(queryId, cursor);
+    }
+    
+    /**
+     * @return the cursor of a query that was being created, or null if the query was not subscribed to shared results
+     */
+    public synchronized SharedQueryResults.Cursor created(String queryId) {
+        return creating.remove(queryId);
+    }
+    
+    private synchronized void remove(SharedQueryResults shared) {
+        sharedQueries.remove(shared.getKey(), shared);
+    }
+    
+    public synchronized int size() {
+        return sharedQueries.size();
+    }
+}
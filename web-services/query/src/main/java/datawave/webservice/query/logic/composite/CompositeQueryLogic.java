@@ -10,8 +10,15 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.enterprise.inject.Typed;
 
@@ -21,19 +28,24 @@ import datawave.webservice.query.cache.ResultsPage;
 import datawave.webservice.query.configuration.GenericQueryConfiguration;
 import datawave.webservice.query.logic.BaseQueryLogic;
 import datawave.webservice.query.logic.QueryLogicTransformer;
+import datawave.webservice.query.logic.WritesQueryMetrics;
+import datawave.webservice.query.metric.BaseQueryMetric;
 import datawave.webservice.result.BaseResponse;
 
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.functors.NOPTransformer;
+import org.apache.commons.collections4.Transformer;
 import org.apache.commons.collections4.iterators.TransformIterator;
 import org.apache.log4j.Logger;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
- * Query Logic implementation that is configured with more than one query logic delegate. The queries are run in parallel and results are retrieved as they come
- * back from the delegates. This class restricts the delegates such that they have to return the same type of response object and two query logics with the same
- * class name and tableName cannot be configured.
+ * Query Logic implementation that is configured with more than one query logic delegate. The queries are run in parallel, on the configured executor if there
+ * is one, each delegate producing results only while its bounded buffer has room, and results are retrieved from the delegates in turn as they come back.
+ * This class restricts the delegates such that they have to return the same type of response object and two query logics with the same class name and
+ * tableName cannot be configured.
  */
 public class CompositeQueryLogic extends BaseQueryLogic<Object> {
     
@@ -50,16 +62,27 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> {
         }
     }
     
-    private class QueryLogicHolder extends Thread {
+    /**
+     * A delegate of the composite query. It holds a thread of the executor only while its buffer has room for more results, and is submitted again once the
+     * consumer takes one of its results, so that an idle consumer does not tie up the threads shared with other queries.
+     */
+    private class QueryLogicHolder implements Runnable {
         private GenericQueryConfiguration config;
         private TransformIterator transformIterator;
         private Query settings;
-        private boolean started = false;
         private long maxResults;
+        private final String logicName;
+        private int delegateIndex;
+        private volatile Future<?> future = null;
+        private final AtomicReference<DelegateState> state = new AtomicReference<>(DelegateState.NEW);
+        private volatile long resultCount = 0L;
+        private volatile long startTime = 0L;
+        private volatile long elapsedTime = -1L;
+        private volatile long blockedTime = 0L;
+        private volatile long waitStart = 0L;
         
         public QueryLogicHolder(String logicName) {
-            this.setDaemon(true);
-            this.setName(Thread.currentThread().getName() + "-CompositeQueryLogic-" + logicName + "-" + UUID.randomUUID());
+            this.logicName = logicName;
         }
         
         public GenericQueryConfiguration getConfig() {
@@ -90,46 +113,189 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> {
             this.settings = settings;
         }
         
+        public String getLogicName() {
+            return logicName;
+        }
+        
+        public void setDelegateIndex(int delegateIndex) {
+            this.delegateIndex = delegateIndex;
+        }
+        
+        public long getElapsedTime() {
+            if (elapsedTime >= 0) {
+                return elapsedTime;
+            }
+            return (startTime > 0 ? System.currentTimeMillis() - startTime : 0);
+        }
+        
+        /**
+         * @return true if the delegate was submitted, false if the executor rejected it
+         */
+        public boolean start() {
+            return state.compareAndSet(DelegateState.NEW, DelegateState.QUEUED) && submit();
+        }
+        
+        /**
+         * Submit the delegate again if it stopped on a full buffer. Called once the consumer has taken one of its results.
+         */
+        public void resume() {
+            if (state.compareAndSet(DelegateState.WAITING, DelegateState.QUEUED) && !submit()) {
+                results.fail(new IllegalStateException("QueryLogic delegate " + logicName + " was rejected by the composite query executor"));
+            }
+        }
+        
+        private boolean submit() {
+            ExecutorService executor = queryExecutor;
+            try {
+                if (null != executor) {
+                    this.future = executor.submit(this);
+                    return true;
+                }
+            } catch (RejectedExecutionException e) {
+                log.warn("QueryLogic delegate " + logicName + " was rejected by the composite query executor: " + e.getMessage());
+            }
+            finish();
+            return false;
+        }
+        
+        public void cancel() {
+            while (true) {
+                DelegateState current = state.get();
+                if (current == DelegateState.DONE) {
+                    return;
+                } else if (current == DelegateState.RUNNING) {
+                    // the delegate counts itself down when it sees the cancel
+                    Future<?> running = this.future;
+                    if (null != running) {
+                        running.cancel(true);
+                    }
+                    return;
+                } else if (state.compareAndSet(current, DelegateState.DONE)) {
+                    // not running, so it will not count itself down
+                    results.delegateCompleted();
+                    Future<?> queued = this.future;
+                    if (null != queued) {
+                        queued.cancel(false);
+                    }
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * Count down for a delegate that will produce no more results, unless it was already counted down
+         */
+        private void finish() {
+            if (state.getAndSet(DelegateState.DONE) != DelegateState.DONE) {
+                results.delegateCompleted();
+            }
+        }
+        
+        private boolean isCancelled() {
+            return interrupted || results.isTerminated() || Thread.currentThread().isInterrupted();
+        }
+        
         public void run() {
-            long resultCount = 0L;
-            
-            log.trace("Starting thread: " + this.getName());
-            if (!started) {
-                startLatch.countDown();
-                started = true;
+            if (!state.compareAndSet(DelegateState.QUEUED, DelegateState.RUNNING)) {
+                return;
+            }
+            Thread currentThread = Thread.currentThread();
+            String originalName = currentThread.getName();
+            currentThread.setName(originalName + "-CompositeQueryLogic-" + logicName + "-" + settings.getId());
+            long now = System.currentTimeMillis();
+            if (startTime == 0) {
+                startTime = now;
+                log.trace("Starting delegate: " + logicName);
             }
+            if (waitStart > 0) {
+                blockedTime += (now - waitStart);
+                waitStart = 0L;
+            }
+            
+            boolean waiting = false;
             try {
-                Object last = new Object();
                 if (this.getMaxResults() < 0)
                     this.setMaxResults(Long.MAX_VALUE);
-                while ((null != last) && !interrupted && transformIterator.hasNext() && (resultCount < this.getMaxResults())) {
-                    try {
-                        last = transformIterator.next();
-                        if (null != last) {
-                            log.debug(Thread.currentThread().getName() + ": Added object to results");
-                            results.add(last);
+                while (!isCancelled() && (resultCount < this.getMaxResults())) {
+                    if (!results.hasCapacity(delegateIndex)) {
+                        // give the thread back until the consumer takes a result from this buffer
+                        waitStart = System.currentTimeMillis();
+                        state.set(DelegateState.WAITING);
+                        if (isCancelled()) {
+                            break;
                         }
-                    } catch (InterruptedException e) {
-                        log.warn("QueryLogic thread interrupted", e);
+                        // a result taken before this delegate was waiting did not resume it, so carry on here
+                        if (!results.hasCapacity(delegateIndex) || !state.compareAndSet(DelegateState.WAITING, DelegateState.RUNNING)) {
+                            waiting = true;
+                            return;
+                        }
+                        waitStart = 0L;
+                    } else if (transformIterator.hasNext()) {
+                        Object last = transformIterator.next();
+                        if (null == last) {
+                            break;
+                        }
+                        // only this delegate adds to its buffer and there is room, so this does not block
+                        results.add(delegateIndex, last);
+                        log.debug(Thread.currentThread().getName() + ": Added object to results");
+                        resultCount++;
+                    } else {
+                        break;
                     }
-                    resultCount++;
                 }
-                
+            } catch (InterruptedException e) {
+                // the composite was closed or has all of the results it needs
+                log.debug("QueryLogic delegate " + logicName + " interrupted");
             } finally {
-                completionLatch.countDown();
-                log.trace("Finished thread: " + this.getName());
+                currentThread.setName(originalName);
+                if (!waiting) {
+                    elapsedTime = System.currentTimeMillis() - startTime;
+                    finish();
+                    log.trace("Finished delegate: " + logicName + " results: " + resultCount + " elapsed: " + elapsedTime + "ms, waiting on full buffer: "
+                                    + blockedTime + "ms");
+                }
             }
         }
         
     }
     
+    private enum DelegateState {
+        NEW, QUEUED, RUNNING, WAITING, DONE
+    }
+    
     protected static final Logger log = Logger.getLogger(CompositeQueryLogic.class);
     
+    /**
+     * Writes the result count and timing of each delegate into the query metric as the results are consumed. The results have already been transformed by
+     * the delegates, so they are passed through as is.
+     */
+    private class DelegateMetricsTransformer implements Transformer<Object,Object>, WritesQueryMetrics {
+        private final List<QueryLogicHolder> holders;
+        
+        DelegateMetricsTransformer(List<QueryLogicHolder> holders) {
+            this.holders = holders;
+        }
+        
+        @Override
+        public Object transform(Object input) {
+            return input;
+        }
+        
+        @Override
+        public void writeQueryMetrics(BaseQueryMetric metric) {
+            for (QueryLogicHolder holder : holders) {
+                metric.addDelegateMetric(holder.getLogicName(), holder.resultCount, holder.getElapsedTime(), holder.blockedTime);
+            }
+        }
+    }
+    
     private List<BaseQueryLogic<?>> queryLogics = null;
     private QueryLogicTransformer transformer;
     private Priority p = Priority.NORMAL;
+    private ExecutorService executor = null;
+    private ExecutorService queryExecutor = null;
     private volatile boolean interrupted = false;
-    private CountDownLatch startLatch = null;
+    private int delegateBufferSize = 0;
     private CountDownLatch completionLatch = null;
     private Map<BaseQueryLogic<?>,QueryLogicHolder> logicState = new TreeMap<>(new QueryLogicComparator());
     private CompositeQueryLogicResults results = null;
@@ -139,6 +305,8 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> {
     public CompositeQueryLogic(CompositeQueryLogic other) {
         super(other);
         this.queryLogics = new ArrayList<>(other.queryLogics);
+        this.delegateBufferSize = other.delegateBufferSize;
+        this.executor = other.executor;
     }
     
     @Override
@@ -176,10 +344,11 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> {
                 logicQueryStringBuilder.append("(table=" + config.getTableName());
                 logicQueryStringBuilder.append(",query=" + config.getQueryString());
                 logicQueryStringBuilder.append(") ");
-                QueryLogicHolder holder = new QueryLogicHolder(logic.getClass().getSimpleName());
+                QueryLogicHolder holder = new QueryLogicHolder(logic.getClass().getSimpleName() + "." + logic.getTableName());
                 holder.setConfig(config);
                 holder.setSettings(settings);
                 holder.setMaxResults(logic.getMaxResults());
+                holder.setDelegateIndex(logicState.size());
                 logicState.put(logic, holder);
             } catch (Exception e) {
                 log.info(e.getMessage() + " removing query logic " + logic.getClass().getName() + " from CompositeQuery");
@@ -190,9 +359,16 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> {
                 }
             }
         }
-        startLatch = new CountDownLatch(logicState.values().size());
         completionLatch = new CountDownLatch(logicState.values().size());
-        this.results = new CompositeQueryLogicResults(Math.min(settings.getPagesize() * 2, 1000), completionLatch);
+        int bufferSize = this.delegateBufferSize;
+        if (bufferSize <= 0) {
+            // split the buffer between the delegates so that the total buffered does not grow with the number of delegates
+            bufferSize = Math.max(1, Math.min(settings.getPagesize() * 2, 1000) / Math.max(1, logicState.size()));
+        }
+        this.results = new CompositeQueryLogicResults(bufferSize, logicState.size(), completionLatch);
+        if (getMaxResults() >= 0) {
+            this.results.setMaxResults(getMaxResults());
+        }
         if (log.isDebugEnabled()) {
             log.debug("CompositeQuery initialized with the following queryLogics: ");
             for (Entry<BaseQueryLogic<?>,QueryLogicHolder> entry : this.logicState.entrySet()) {
@@ -231,12 +407,30 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> {
             TransformIterator transformIterator = entry.getKey().getTransformIterator(entry.getValue().getSettings());
             entry.getValue().setTransformIterator(transformIterator);
         }
-        for (Entry<BaseQueryLogic<?>,QueryLogicHolder> entry : logicState.entrySet()) {
-            entry.getValue().start();
+        // indexed by the buffer each delegate adds to
+        QueryLogicHolder[] holders = new QueryLogicHolder[logicState.size()];
+        for (QueryLogicHolder holder : logicState.values()) {
+            holders[holder.delegateIndex] = holder;
+        }
+        if (null != this.executor) {
+            this.queryExecutor = this.executor;
+        } else {
+            // no executor is configured, so this query runs its delegates on threads of its own
+            ThreadFactory threadFactory = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("CompositeQueryLogic-%d").build();
+            this.queryExecutor = Executors.newFixedThreadPool(Math.max(1, logicState.size()), threadFactory);
+        }
+        this.results.setTakenListener(delegate -> holders[delegate].resume());
+        for (QueryLogicHolder holder : holders) {
+            if (!holder.start()) {
+                // partial results would look like a complete answer, so the query fails instead
+                this.interrupted = true;
+                for (QueryLogicHolder other : holders) {
+                    other.cancel();
+                }
+                throw new IllegalStateException("QueryLogic delegate " + holder.getLogicName() + " was rejected by the composite query executor");
+            }
         }
-        // Wait until all threads have started
-        startLatch.await();
-        log.trace("All threads have started.");
+        log.trace("All delegates have been submitted.");
     }
     
     @Override
@@ -283,7 +477,7 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> {
     public TransformIterator getTransformIterator(Query settings) {
         // The objects put into the pageQueue have already been transformed.
         // We will iterate over the pagequeue with the No-Op transformer
-        return new TransformIterator(results.iterator(), NOPTransformer.nopTransformer());
+        return new TransformIterator(results.iterator(), new DelegateMetricsTransformer(new ArrayList<>(logicState.values())));
     }
     
     @Override
@@ -296,19 +490,61 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> {
         this.interrupted = true;
         for (Entry<BaseQueryLogic<?>,QueryLogicHolder> entry : logicState.entrySet()) {
             entry.getKey().close();
-            entry.getValue().interrupt();
+            entry.getValue().cancel();
         }
-        for (Entry<BaseQueryLogic<?>,QueryLogicHolder> entry : logicState.entrySet()) {
+        if (this.queryExecutor instanceof ThreadPoolExecutor) {
+            // drop the cancelled delegates that were still queued
+            ((ThreadPoolExecutor) this.queryExecutor).purge();
+        }
+        if (null != completionLatch) {
             try {
-                entry.getValue().join();
+                // delegates that never started were counted down by the cancel
+                if (!completionLatch.await(30, TimeUnit.SECONDS)) {
+                    log.warn("Timed out waiting for " + completionLatch.getCount() + " composite query delegates to complete");
+                }
             } catch (InterruptedException e) {
-                log.error("Error joining query logic thread", e);
-                throw new RuntimeException("Error joining query logic thread", e);
+                log.error("Error waiting for query logic delegates", e);
+                throw new RuntimeException("Error waiting for query logic delegates", e);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            for (QueryLogicHolder holder : logicState.values()) {
+                log.debug("\tLogicName: " + holder.getLogicName() + ", results: " + holder.resultCount + ", elapsed: " + holder.elapsedTime
+                                + "ms, waiting on full buffer: " + holder.blockedTime + "ms");
             }
         }
         logicState.clear();
         if (null != results)
             results.clear();
+        if (null != this.queryExecutor && this.queryExecutor != this.executor) {
+            this.queryExecutor.shutdownNow();
+        }
+        this.queryExecutor = null;
+    }
+    
+    public int getDelegateBufferSize() {
+        return delegateBufferSize;
+    }
+    
+    /**
+     * @param delegateBufferSize
+     *            the number of results each delegate may buffer ahead of the consumer, 0 to divide twice the page size between the delegates
+     */
+    public void setDelegateBufferSize(int delegateBufferSize) {
+        this.delegateBufferSize = delegateBufferSize;
+    }
+    
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+    
+    /**
+     * @param executor
+     *            the executor shared by the delegates of the composite queries, which bounds the number of threads a fan out of composite queries can
+     *            create. A query fails if any of its delegates is rejected. When not set, each query runs its delegates on threads of its own.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
     }
     
     public List<BaseQueryLogic<?>> getQueryLogics() {
@@ -1,38 +1,141 @@
 package datawave.webservice.query.logic.composite;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntConsumer;
 
+/**
+ * The results of the delegates of a composite query. Each delegate has a bounded buffer of its own so that a fast delegate cannot crowd out a slow one, and a
+ * delegate that gets ahead of the consumer stops until the consumer takes one of its results rather than buffering more.
+ */
 public class CompositeQueryLogicResults implements Iterable<Object> {
     
-    private ArrayBlockingQueue<Object> results = null;
+    private List<ArrayBlockingQueue<Object>> results = null;
     private CountDownLatch completionLatch = null;
+    // one permit per buffered result, plus one for each completed delegate so that the consumer does not wait for a result that will not come
+    private Semaphore available = new Semaphore(0);
+    private long maxResults = Long.MAX_VALUE;
+    private volatile boolean terminated = false;
+    private volatile RuntimeException failure = null;
+    private IntConsumer takenListener = null;
     
     public CompositeQueryLogicResults(int pagesize, CountDownLatch completionLatch) {
-        this.results = new ArrayBlockingQueue<>(pagesize);
+        this(pagesize, 1, completionLatch);
+    }
+    
+    public CompositeQueryLogicResults(int delegateBufferSize, int numDelegates, CountDownLatch completionLatch) {
+        this.results = new ArrayList<>(numDelegates);
+        for (int i = 0; i < Math.max(1, numDelegates); i++) {
+            this.results.add(new ArrayBlockingQueue<>(delegateBufferSize));
+        }
         this.completionLatch = completionLatch;
     }
     
     public void add(Object object) throws InterruptedException {
-        this.results.put(object);
+        add(0, object);
+    }
+    
+    public void add(int delegate, Object object) throws InterruptedException {
+        this.results.get(delegate).put(object);
+        this.available.release();
+    }
+    
+    /**
+     * @return true if the buffer of the delegate has room for another result
+     */
+    public boolean hasCapacity(int delegate) {
+        return this.results.get(delegate).remainingCapacity() > 0;
+    }
+    
+    /**
+     * @param takenListener
+     *            told the index of the delegate whenever the consumer takes a result from its buffer
+     */
+    public void setTakenListener(IntConsumer takenListener) {
+        this.takenListener = takenListener;
+    }
+    
+    void taken(int delegate) {
+        if (null != this.takenListener) {
+            this.takenListener.accept(delegate);
+        }
+    }
+    
+    /**
+     * Count down a delegate that will add no more results, waking up a consumer that is waiting for a result
+     */
+    public void delegateCompleted() {
+        this.completionLatch.countDown();
+        this.available.release();
+    }
+    
+    /**
+     * Fail the consumer, which throws the given exception rather than returning the results of the remaining delegates
+     */
+    public void fail(RuntimeException failure) {
+        this.failure = failure;
+        // wake up a consumer waiting for a result
+        this.available.release();
+    }
+    
+    public RuntimeException getFailure() {
+        return failure;
     }
     
     public void clear() {
-        this.results.clear();
+        for (ArrayBlockingQueue<Object> buffer : this.results) {
+            buffer.clear();
+        }
+        this.available.drainPermits();
     }
     
     public int size() {
-        return results.size();
+        int size = 0;
+        for (ArrayBlockingQueue<Object> buffer : this.results) {
+            size += buffer.size();
+        }
+        return size;
     }
     
     public boolean contains(Object o) {
-        return results.contains(o);
+        for (ArrayBlockingQueue<Object> buffer : this.results) {
+            if (buffer.contains(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @param maxResults
+     *            the number of results after which the delegates are told to stop producing
+     */
+    public void setMaxResults(long maxResults) {
+        this.maxResults = maxResults;
+    }
+    
+    public long getMaxResults() {
+        return maxResults;
+    }
+    
+    /**
+     * Tell the delegates that no more results will be consumed
+     */
+    public void terminate() {
+        this.terminated = true;
+    }
+    
+    public boolean isTerminated() {
+        return terminated;
     }
     
     @Override
     public Iterator<Object> iterator() {
-        return new CompositeQueryLogicResultsIterator(this.results, this.completionLatch);
+        return new CompositeQueryLogicResultsIterator(this, this.results, this.available, this.completionLatch);
     }
     
 }
@@ -1,23 +1,36 @@
 package datawave.webservice.query.logic.composite;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 
+/**
+ * Iterates over the delegate buffers in turn, so that results are interleaved fairly across the delegates, until all delegates have completed and their buffers
+ * are drained, or until the maximum number of results has been returned.
+ */
 public class CompositeQueryLogicResultsIterator implements Iterator<Object> {
     
     protected static final Logger log = Logger.getLogger(CompositeQueryLogicResultsIterator.class);
     
-    private ArrayBlockingQueue<Object> results = null;
+    private CompositeQueryLogicResults parent = null;
+    private List<ArrayBlockingQueue<Object>> results = null;
+    private Semaphore available = null;
     private Object nextEntry = null;
     private Object lock = new Object();
     private CountDownLatch completionLatch = null;
+    private int nextDelegate = 0;
+    private long returned = 0;
     
-    public CompositeQueryLogicResultsIterator(ArrayBlockingQueue<Object> results, CountDownLatch completionLatch) {
+    public CompositeQueryLogicResultsIterator(CompositeQueryLogicResults parent, List<ArrayBlockingQueue<Object>> results, Semaphore available,
+                    CountDownLatch completionLatch) {
+        this.parent = parent;
         this.results = results;
+        this.available = available;
         this.completionLatch = completionLatch;
     }
     
@@ -26,17 +39,53 @@ public class CompositeQueryLogicResultsIterator implements Iterator<Object> {
         synchronized (lock) {
             if (nextEntry != null)
                 return true;
+            checkFailure();
+            if (returned >= parent.getMaxResults()) {
+                parent.terminate();
+                return false;
+            }
             try {
-                while (nextEntry == null && (!results.isEmpty() || completionLatch.getCount() > 0)) {
-                    nextEntry = results.poll(1, TimeUnit.SECONDS);
+                while (nextEntry == null && (available.availablePermits() > 0 || completionLatch.getCount() > 0)) {
+                    if (available.tryAcquire(1, TimeUnit.SECONDS)) {
+                        checkFailure();
+                        nextEntry = pollNextDelegate();
+                    }
                 }
-                return true;
+                return nextEntry != null;
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
         }
     }
     
+    /**
+     * Take the next result starting with the delegate after the one last taken from. The permit acquired may have been for a completed delegate rather than a
+     * result, in which case there may be nothing to take.
+     */
+    private Object pollNextDelegate() {
+        for (int i = 0; i < results.size(); i++) {
+            int delegate = (nextDelegate + i) % results.size();
+            Object entry = results.get(delegate).poll();
+            if (entry != null) {
+                nextDelegate = (delegate + 1) % results.size();
+                // the delegate may be waiting for room in its buffer
+                parent.taken(delegate);
+                return entry;
+            }
+        }
+        return null;
+    }
+    
+    private void checkFailure() {
+        RuntimeException failure = parent.getFailure();
+        if (null != failure) {
+            throw failure;
+        }
+    }
+    
+    /**
+     * @return the next result, or null once all of the delegates have completed, as RunningQuery expects
+     */
     @Override
     public Object next() {
         Object current = null;
@@ -45,6 +94,7 @@ public class CompositeQueryLogicResultsIterator implements Iterator<Object> {
             if (hasNext()) {
                 current = nextEntry;
                 nextEntry = null;
+                returned++;
             }
         }
         return current;
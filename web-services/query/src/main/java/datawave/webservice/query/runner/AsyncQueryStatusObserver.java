@@ -1,20 +1,10 @@
 package datawave.webservice.query.runner;
 
-import datawave.webservice.query.exception.QueryException;
 import datawave.webservice.result.BaseQueryResponse;
-import datawave.webservice.result.GenericResponse;
 
 /**
- *
+ * Observes a query run by {@link QueryExecutorBean#executeAsync}, which hands it each page of results once the page is complete.
  */
-public interface AsyncQueryStatusObserver {
-    void queryCreated(GenericResponse<String> createQueryResponse);
-    
+public interface AsyncQueryStatusObserver extends QueryStatusObserver {
     void queryResultsAvailable(BaseQueryResponse results);
-    
-    void queryCreateException(QueryException ex);
-    
-    void queryException(QueryException ex);
-    
-    void queryFinished(String queryId);
 }
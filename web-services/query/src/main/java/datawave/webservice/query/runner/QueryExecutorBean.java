@@ -47,6 +47,7 @@ import datawave.webservice.query.cache.QueryMetricFactory;
 import datawave.webservice.query.cache.QueryTraceCache;
 import datawave.webservice.query.cache.ResultsPage;
 import datawave.webservice.query.cache.RunningQueryTimingImpl;
+import datawave.webservice.query.cache.SharedQueryCache;
 import datawave.webservice.query.configuration.LookupUUIDConfiguration;
 import datawave.webservice.query.exception.BadRequestQueryException;
 import datawave.webservice.query.exception.DatawaveErrorCode;
@@ -158,6 +159,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -184,6 +186,7 @@ public class QueryExecutorBean implements QueryExecutor {
      */
     public static final String EXPAND_VALUES = "expand.values";
     public static final String EXPAND_FIELDS = "expand.fields";
+    public static final String STREAM_RESULTS = "stream.results";
     
     private final Logger log = Logger.getLogger(QueryExecutorBean.class);
     
@@ -211,6 +214,9 @@ public class QueryExecutorBean implements QueryExecutor {
     @Inject
     private QueryExpirationConfiguration queryExpirationConf;
     
+    @Inject
+    private SharedQueryCache sharedQueryCache;
+    
     @Inject
     private Persister persister;
     
@@ -654,6 +660,8 @@ public class QueryExecutorBean implements QueryExecutor {
         AccumuloConnectionFactory.Priority priority;
         Span createSpan = null;
         RunningQuery rq = null;
+        SharedQueryResults.Cursor sharedResults = null;
+        boolean sharedResultsStarted = false;
         try {
             // Default hasResults to true. If a query logic is actually able to set this value,
             // then their value will overwrite this one. Otherwise, we return true so that
@@ -708,6 +716,17 @@ public class QueryExecutorBean implements QueryExecutor {
             } finally {
                 accumuloConnectionRequestBean.requestEnd(q.getId().toString());
             }
+            // An identical query created a moment ago is likely still being planned, so subscribe to its results instead of planning and scanning again
+            if (queryExpirationConf.getSharedQueryWindowInMS() > 0) {
+                String key = SharedQueryResults.key(queryLogicName, q, AuthorizationsUtil.getDowngradedAuthorizations(qp.getAuths(), qd.p));
+                sharedResults = sharedQueryCache.subscribe(key, qd.logic, connection, queryExpirationConf.getSharedQueryBufferSize(),
+                                queryExpirationConf.getSharedQueryDetachInMS(), queryExpirationConf.getSharedQueryWindowInMS());
+                sharedQueryCache.creating(q.getId().toString(), sharedResults);
+                if (!sharedResults.isLeader()) {
+                    connectionFactory.returnConnection(connection);
+                    connection = null;
+                }
+            }
             // If we're supposed to trace this query, then turn tracing on and set information about the query
             // onto the span so that it is saved in the trace table.
             TInfo traceInfo = null;
@@ -730,7 +749,36 @@ public class QueryExecutorBean implements QueryExecutor {
             rq.setActiveCall(true);
             rq.setTraceInfo(traceInfo);
             rq.getMetric().setProxyServers(qd.proxyServers);
-            rq.setConnection(connection);
+            // a query detached from the shared results gets a connection to run its own logic
+            final String connPoolName = qd.logic.getConnPoolName();
+            final AccumuloConnectionFactory.Priority connPriority = priority;
+            final Map<String,String> connTrackingMap = trackingMap;
+            Callable<Connector> connectionSource = () -> connectionFactory.getConnection(connPoolName, connPriority, connTrackingMap);
+            if (sharedResults == null) {
+                rq.setConnection(connection);
+            } else if (sharedResults.isLeader()) {
+                rq.setConnection(connection);
+                final Connector sharedConnection = connection;
+                final QueryLogic<?> sharedLogic = qd.logic;
+                sharedResults.getResults().start(rq.getTransformIterator(), () -> {
+                    try {
+                        sharedLogic.close();
+                    } catch (Exception e) {
+                        log.error("Exception occured while closing shared query logic; may be innocuous if scanners were running.", e);
+                    }
+                    try {
+                        connectionFactory.returnConnection(sharedConnection);
+                    } catch (Exception e) {
+                        log.error("Error returning connection of shared query", e);
+                    }
+                }, sharedQueryCache.getProducers());
+                sharedResultsStarted = true;
+                rq.setSharedResults(sharedResults, connectionSource);
+                // the connection is returned once every query reading the shared results is closed
+                connection = null;
+            } else {
+                rq.setSharedResults(sharedResults, connectionSource);
+            }
             
             // Put in the cache by id. Don't put the cache in by name because multiple users may use the same name
             // and only the last one will be in the cache.
@@ -747,9 +795,16 @@ public class QueryExecutorBean implements QueryExecutor {
                 rq.getMetric().setError(t);
             }
             
-            // close the logic on exception
+            if (sharedResults != null) {
+                if (sharedResults.isLeader() && !sharedResultsStarted) {
+                    sharedResults.getResults().fail(t);
+                }
+                sharedResults.close();
+            }
+            
+            // close the logic on exception, unless it is owned by the shared results
             try {
-                if (null != qd.logic) {
+                if (null != qd.logic && !sharedResultsStarted) {
                     qd.logic.close();
                 }
             } catch (Exception e) {
@@ -806,6 +861,9 @@ public class QueryExecutorBean implements QueryExecutor {
             if (null != q) {
                 // - Remove the logic from the cache
                 qlCache.poll(q.getId().toString());
+                if (sharedResults != null) {
+                    sharedQueryCache.created(q.getId().toString());
+                }
             }
         }
     }
@@ -1373,6 +1431,9 @@ public class QueryExecutorBean implements QueryExecutor {
         } catch (RejectedExecutionException e) {
             // - race condition, query expired while user called next
             throw new PreConditionFailedQueryException(DatawaveErrorCode.QUERY_TIMEOUT_OR_SERVER_ERROR, e, MessageFormat.format("id = {0}", queryId));
+        } catch (SharedQueryResults.DetachedException e) {
+            // - the query fell behind the queries sharing its results, the client has to reset it
+            throw new PreConditionFailedQueryException(DatawaveErrorCode.QUERY_TIMEOUT_OR_SERVER_ERROR, e, MessageFormat.format("id = {0}", queryId));
         }
         
         long pageNum = query.getLastPageNumber();
@@ -1406,7 +1467,61 @@ public class QueryExecutorBean implements QueryExecutor {
     }
     
     /**
-     *
+     * A consumer of the single result responses created by {@link #_next(RunningQuery, String, Collection, Span, PageConsumer)}
+     */
+    private interface PageConsumer {
+        void accept(BaseQueryResponse page, Object result) throws Exception;
+    }
+    
+    /**
+     * Version of {@link #_next(RunningQuery, String, Collection, Span)} that hands each result to the consumer in its own response as soon as the query logic
+     * produces it, rather than holding the entire page of results and its response in memory before it is serialized.
+     */
+    private ResultsPage.Status _next(RunningQuery query, String queryId, Collection<String> proxyServers, Span span, PageConsumer consumer) throws Exception {
+        // If we're tracing this query, then continue the trace for the next call.
+        TInfo traceInfo = query.getTraceInfo();
+        if (traceInfo != null) {
+            span = Trace.trace(traceInfo, "query:next");
+        }
+        
+        QueryLogicTransformer transformer = query.getLogic().getTransformer(query.getSettings());
+        long pageNum = query.getLastPageNumber() + 1;
+        
+        ResultsPage.Status status;
+        try {
+            status = query.next(result -> {
+                BaseQueryResponse response = transformer.createResponse(new ResultsPage(Collections.singletonList(result)));
+                response.setHasResults(true);
+                response.setPageNumber(pageNum);
+                response.setLogicName(query.getLogic().getLogicName());
+                response.setQueryId(queryId);
+                consumer.accept(response, result);
+            });
+        } catch (RejectedExecutionException e) {
+            // - race condition, query expired while user called next
+            throw new PreConditionFailedQueryException(DatawaveErrorCode.QUERY_TIMEOUT_OR_SERVER_ERROR, e, MessageFormat.format("id = {0}", queryId));
+        } catch (SharedQueryResults.DetachedException e) {
+            // - the query fell behind the queries sharing its results, the client has to reset it
+            throw new PreConditionFailedQueryException(DatawaveErrorCode.QUERY_TIMEOUT_OR_SERVER_ERROR, e, MessageFormat.format("id = {0}", queryId));
+        }
+        
+        if (span != null) {
+            span.data("pageNumber", Long.toString(pageNum));
+        }
+        
+        query.getMetric().setProxyServers(proxyServers);
+        
+        testForUncaughtException(query.getSettings(), status == ResultsPage.Status.NONE ? 0 : 1);
+        
+        if (status == ResultsPage.Status.NONE) {
+            NoResultsQueryException qe = new NoResultsQueryException(DatawaveErrorCode.NO_QUERY_RESULTS_FOUND, MessageFormat.format("{0}", queryId));
+            throw new NoResultsException(qe);
+        }
+        return status;
+    }
+    
+    /**
+     * 
      * @param uuid
      * @param uuidType
      * @param uriInfo
@@ -2152,13 +2267,19 @@ public class QueryExecutorBean implements QueryExecutor {
                 }
                 response.addMessage(id + " closed.");
             } else {
-                QueryLogic<?> logic = tuple.getFirst();
-                try {
-                    logic.close();
-                } catch (Exception e) {
-                    log.error("Exception occurred while closing query logic; may be innocuous if scanners were running.", e);
+                SharedQueryResults.Cursor sharedResults = sharedQueryCache.created(id);
+                if (sharedResults != null) {
+                    // the logic and connection are closed and returned by the shared results once nothing reads them
+                    sharedResults.close();
+                } else {
+                    QueryLogic<?> logic = tuple.getFirst();
+                    try {
+                        logic.close();
+                    } catch (Exception e) {
+                        log.error("Exception occurred while closing query logic; may be innocuous if scanners were running.", e);
+                    }
+                    connectionFactory.returnConnection(tuple.getSecond());
                 }
-                connectionFactory.returnConnection(tuple.getSecond());
                 response.addMessage(id + " closed before create completed.");
             }
             
@@ -2211,13 +2332,19 @@ public class QueryExecutorBean implements QueryExecutor {
                 }
                 response.addMessage(id + " closed.");
             } else {
-                QueryLogic<?> logic = tuple.getFirst();
-                try {
-                    logic.close();
-                } catch (Exception e) {
-                    log.error("Exception occurred while closing query logic; may be innocuous if scanners were running.", e);
+                SharedQueryResults.Cursor sharedResults = sharedQueryCache.created(id);
+                if (sharedResults != null) {
+                    // the logic and connection are closed and returned by the shared results once nothing reads them
+                    sharedResults.close();
+                } else {
+                    QueryLogic<?> logic = tuple.getFirst();
+                    try {
+                        logic.close();
+                    } catch (Exception e) {
+                        log.error("Exception occurred while closing query logic; may be innocuous if scanners were running.", e);
+                    }
+                    connectionFactory.returnConnection(tuple.getSecond());
                 }
-                connectionFactory.returnConnection(tuple.getSecond());
                 response.addMessage(id + " closed before create completed.");
             }
             
@@ -2319,13 +2446,19 @@ public class QueryExecutorBean implements QueryExecutor {
                 }
                 response.addMessage(id + " canceled.");
             } else {
-                QueryLogic<?> logic = tuple.getFirst();
-                try {
-                    logic.close();
-                } catch (Exception e) {
-                    log.error("Exception occurred while canceling query logic; may be innocuous if scanners were running.", e);
+                SharedQueryResults.Cursor sharedResults = sharedQueryCache.created(id);
+                if (sharedResults != null) {
+                    // the logic and connection are closed and returned by the shared results once nothing reads them
+                    sharedResults.close();
+                } else {
+                    QueryLogic<?> logic = tuple.getFirst();
+                    try {
+                        logic.close();
+                    } catch (Exception e) {
+                        log.error("Exception occurred while canceling query logic; may be innocuous if scanners were running.", e);
+                    }
+                    connectionFactory.returnConnection(tuple.getSecond());
                 }
-                connectionFactory.returnConnection(tuple.getSecond());
                 response.addMessage(id + " closed before create completed due to cancel.");
             }
             
@@ -2379,13 +2512,19 @@ public class QueryExecutorBean implements QueryExecutor {
                 }
                 response.addMessage(id + " closed.");
             } else {
-                QueryLogic<?> logic = tuple.getFirst();
-                try {
-                    logic.close();
-                } catch (Exception e) {
-                    log.error("Exception occurred while canceling query logic; may be innocuous if scanners were running.", e);
+                SharedQueryResults.Cursor sharedResults = sharedQueryCache.created(id);
+                if (sharedResults != null) {
+                    // the logic and connection are closed and returned by the shared results once nothing reads them
+                    sharedResults.close();
+                } else {
+                    QueryLogic<?> logic = tuple.getFirst();
+                    try {
+                        logic.close();
+                    } catch (Exception e) {
+                        log.error("Exception occurred while canceling query logic; may be innocuous if scanners were running.", e);
+                    }
+                    connectionFactory.returnConnection(tuple.getSecond());
                 }
-                connectionFactory.returnConnection(tuple.getSecond());
                 response.addMessage(id + " closed before create completed due to cancel.");
             }
             
@@ -3180,7 +3319,10 @@ public class QueryExecutorBean implements QueryExecutor {
     /**
      * @param logicName
      * @param queryParameters
-     *
+     *            if {@value #STREAM_RESULTS} is true, each result is written as soon as it is produced instead of buffering a page of results. JSON events
+     *            are written into the events array of one response per page, other JSON results and protobuf results are written as responses of their own,
+     *            and every page ends with its partial results and exception status
+     * 
      * @return {@code datawave.webservice.result.GenericResponse<String>}
      * @RequestHeader X-ProxiedEntitiesChain use when proxying request for user, by specifying a chain of DNs of the identities to proxy
      * @RequestHeader X-ProxiedIssuersChain required when using X-ProxiedEntitiesChain, specify one issuer DN per subject DN listed in X-ProxiedEntitiesChain
@@ -3318,8 +3460,9 @@ public class QueryExecutorBean implements QueryExecutor {
         final Collection<String> proxies = proxyServers;
         final SerializationType serializationType = s;
         final Class<?> queryResponseClass = responseClass;
+        final boolean streamResults = Boolean.parseBoolean(queryParameters.getFirst(STREAM_RESULTS));
         
-        return new ExecuteStreamingOutputResponse(queryId, queryResponseClass, response, rq, serializationType, proxies);
+        return new ExecuteStreamingOutputResponse(queryId, queryResponseClass, response, rq, serializationType, proxies, streamResults);
     }
     
     /**
@@ -3348,6 +3491,63 @@ public class QueryExecutorBean implements QueryExecutor {
     @Asynchronous
     public Future<?> executeAsync(String logicName, MultivaluedMap<String,String> queryParameters, Long startTime, Long loginTime,
                     AsyncQueryStatusObserver observer) {
+        return executeAsync(logicName, queryParameters, startTime, loginTime, observer, new AsyncPages() {
+            @Override
+            public long next(RunningQuery rq, String queryId, Collection<String> proxyServers, Span span) throws Exception {
+                BaseQueryResponse page = _next(rq, queryId, proxyServers, span);
+                long serializationStart = System.nanoTime();
+                observer.queryResultsAvailable(page);
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - serializationStart);
+            }
+        });
+    }
+    
+    /**
+     * Version of {@link #executeAsync(String, MultivaluedMap, Long, Long, AsyncQueryStatusObserver)} that hands each result to the observer as soon as the
+     * query logic produces it. A page is only started once the observer is ready for more results, and the query is not in a call while the observer waits,
+     * so its client may pause the results for longer than a call may take.
+     */
+    @Asynchronous
+    public Future<?> executeStreamingAsync(String logicName, MultivaluedMap<String,String> queryParameters, Long startTime, Long loginTime,
+                    StreamingQueryStatusObserver observer) {
+        return executeAsync(logicName, queryParameters, startTime, loginTime, observer, new AsyncPages() {
+            @Override
+            public boolean awaitNext(RunningQuery rq) throws InterruptedException {
+                // touching the query keeps it from being evicted as idle while the client is not ready for results
+                return observer.awaitResultDemand(rq::touch);
+            }
+            
+            @Override
+            public long next(RunningQuery rq, String queryId, Collection<String> proxyServers, Span span) throws Exception {
+                // the results are handed on as they are produced, so their serialization is part of the call
+                _next(rq, queryId, proxyServers, span, (page, result) -> observer.queryResultAvailable(page));
+                observer.queryPageFinished();
+                return 0;
+            }
+        });
+    }
+    
+    /**
+     * How {@link #executeAsync(String, MultivaluedMap, Long, Long, QueryStatusObserver, AsyncPages)} fetches each page and hands it to the observer
+     */
+    private interface AsyncPages {
+        /**
+         * Wait, outside of any call on the query, until the next page is wanted
+         * 
+         * @return false to stop the query
+         */
+        default boolean awaitNext(RunningQuery rq) throws InterruptedException {
+            return true;
+        }
+        
+        /**
+         * @return the time taken to serialize the page, in milliseconds
+         */
+        long next(RunningQuery rq, String queryId, Collection<String> proxyServers, Span span) throws Exception;
+    }
+    
+    private Future<?> executeAsync(String logicName, MultivaluedMap<String,String> queryParameters, Long startTime, Long loginTime,
+                    QueryStatusObserver observer, AsyncPages pages) {
         Collection<String> proxyServers = null;
         Principal p = ctx.getCallerPrincipal();
         DatawavePrincipal dp;
@@ -3393,13 +3593,18 @@ public class QueryExecutorBean implements QueryExecutor {
             // Loop over each page of query results, and notify the observer about each page.
             // If we get any exception, then break out of the loop and notify the observer about the problem.
             do {
+                try {
+                    if (!pages.awaitNext(rq)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    // cancelled while waiting for the observer
+                    break;
+                }
                 long callStart = System.nanoTime();
                 rq.setActiveCall(true);
                 try {
-                    BaseQueryResponse page = _next(rq, queryId, proxyServers, span);
-                    long serializationStart = System.nanoTime();
-                    observer.queryResultsAvailable(page);
-                    long serializationTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - serializationStart);
+                    long serializationTime = pages.next(rq, queryId, proxyServers, span);
                     
                     if (rq.getLogic().getCollectQueryMetrics()) {
                         PageMetric pm = pageMetrics.get(pageMetrics.size() - 1);
@@ -3462,9 +3667,24 @@ public class QueryExecutorBean implements QueryExecutor {
         private RunningQuery rq = null;
         private SerializationType serializationType = SerializationType.XML;
         private Collection<String> proxies = null;
+        private boolean streamResults = false;
+        private boolean sentResults = false;
+        // the results of a streamed page written so far
+        private long pageResults = 0;
+        // the JSON response of a streamed page, null if its results are written as responses of their own
+        private StreamedJsonResponse<?> jsonResponse = null;
         
         public ExecuteStreamingOutputResponse(String queryId, Class<?> queryResponseClass, VoidResponse errorResponse, RunningQuery rq,
                         SerializationType serializationType, Collection<String> proxies) {
+            this(queryId, queryResponseClass, errorResponse, rq, serializationType, proxies, false);
+        }
+        
+        /**
+         * @param streamResults
+         *            if true, each result is serialized as its own page as soon as the query logic produces it instead of buffering a full page of results
+         */
+        public ExecuteStreamingOutputResponse(String queryId, Class<?> queryResponseClass, VoidResponse errorResponse, RunningQuery rq,
+                        SerializationType serializationType, Collection<String> proxies, boolean streamResults) {
             super();
             this.queryId = queryId;
             this.queryResponseClass = queryResponseClass;
@@ -3472,6 +3692,7 @@ public class QueryExecutorBean implements QueryExecutor {
             this.rq = rq;
             this.serializationType = serializationType;
             this.proxies = proxies;
+            this.streamResults = streamResults;
         }
         
         public String getQueryId() {
@@ -3502,7 +3723,6 @@ public class QueryExecutorBean implements QueryExecutor {
                 try (JsonGenerator jsonGenerator = jsonSerializer.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
                     jsonGenerator.enable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
                     
-                    boolean sentResults = false;
                     boolean done = false;
                     Span span = null;
                     List<PageMetric> pageMetrics = rq.getMetric().getPageTimes();
@@ -3510,51 +3730,47 @@ public class QueryExecutorBean implements QueryExecutor {
                     do {
                         try {
                             long callStart = System.nanoTime();
-                            BaseQueryResponse page = _next(rq, queryId, proxies, span);
-                            PageMetric pm = pageMetrics.get(pageMetrics.size() - 1);
                             
                             // Wrap the output stream so that we can get a byte count
                             CountingOutputStream countingStream = new CountingOutputStream(out);
                             
-                            long serializationStart = System.nanoTime();
-                            switch (serializationType) {
-                                case XML:
-                                    xmlSerializer.marshal(page, countingStream);
-                                    break;
-                                case JSON:
-                                    // First page!
-                                    if (!sentResults) {
-                                        jsonGenerator.writeStartObject();
-                                        jsonGenerator.writeArrayFieldStart("Pages");
-                                        jsonGenerator.flush();
-                                    } else {
-                                        // Delimiter for subsequent pages...
-                                        countingStream.write(',');
+                            long serializationTime;
+                            if (streamResults) {
+                                long[] serializationNanos = new long[1];
+                                ResultsPage.Status status;
+                                Exception failure = null;
+                                try {
+                                    status = _next(rq, queryId, proxies, span, (page, result) -> {
+                                        long serializationStart = System.nanoTime();
+                                        writeResult(page, result, countingStream, xmlSerializer, jsonSerializer, jsonGenerator, buffer);
+                                        serializationNanos[0] += System.nanoTime() - serializationStart;
+                                    });
+                                } catch (Exception e) {
+                                    if (!sentResults || e instanceof NoResultsException || e.getCause() instanceof NoResultsException) {
+                                        throw e;
                                     }
-                                    jsonSerializer.writeValue(countingStream, page);
-                                    break;
-                                case PB:
-                                    @SuppressWarnings("unchecked")
-                                    Message<Object> pb = (Message<Object>) page;
-                                    Schema<Object> pbSchema = pb.cachedSchema();
-                                    ProtobufIOUtil.writeTo(countingStream, page, pbSchema, buffer);
-                                    buffer.clear();
-                                    break;
-                                case YAML:
-                                    @SuppressWarnings("unchecked")
-                                    Message<Object> yaml = (Message<Object>) page;
-                                    Schema<Object> yamlSchema = yaml.cachedSchema();
-                                    YamlIOUtil.writeTo(countingStream, page, yamlSchema, buffer);
-                                    buffer.clear();
-                                    break;
+                                    // the response is already being written, so the failure is reported in the status of the page
+                                    log.error("Query " + queryId + " failed after results were streamed", e);
+                                    rq.getMetric().setError(e);
+                                    status = ResultsPage.Status.PARTIAL;
+                                    failure = e;
+                                    done = true;
+                                }
+                                long serializationStart = System.nanoTime();
+                                endPage(status, failure, countingStream, xmlSerializer, jsonSerializer, jsonGenerator, buffer);
+                                serializationNanos[0] += System.nanoTime() - serializationStart;
+                                serializationTime = TimeUnit.NANOSECONDS.toMillis(serializationNanos[0]);
+                            } else {
+                                BaseQueryResponse page = _next(rq, queryId, proxies, span);
+                                long serializationStart = System.nanoTime();
+                                writePage(page, countingStream, xmlSerializer, jsonSerializer, jsonGenerator, buffer);
+                                serializationTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - serializationStart);
                             }
-                            countingStream.flush();
-                            long serializationTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - serializationStart);
+                            PageMetric pm = pageMetrics.get(pageMetrics.size() - 1);
                             pm.setSerializationTime(serializationTime);
                             long pageCallTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - callStart);
                             pm.setCallTime(pageCallTime);
                             pm.setBytesWritten(countingStream.getCount());
-                            sentResults = true;
                         } catch (Exception e) {
                             if (e instanceof NoResultsException || e.getCause() instanceof NoResultsException) {
                                 // No more results, break out of loop
@@ -3595,15 +3811,137 @@ public class QueryExecutorBean implements QueryExecutor {
             }
         }
         
+        /**
+         * Write a single result response of a streamed page. JSON results are written as elements of the results array of one response per page, protobuf
+         * responses are length delimited so that a client can read them one at a time, and XML and YAML responses are written as they are.
+         */
+        private void writeResult(BaseQueryResponse page, Object result, CountingOutputStream countingStream, Marshaller xmlSerializer,
+                        ObjectMapper jsonSerializer, JsonGenerator jsonGenerator, LinkedBuffer buffer) throws Exception {
+            switch (serializationType) {
+                case JSON:
+                    if (!sentResults) {
+                        jsonGenerator.writeStartObject();
+                        jsonGenerator.writeArrayFieldStart("Pages");
+                    }
+                    if (pageResults == 0) {
+                        jsonResponse = StreamedJsonResponse.forResponse(page);
+                    }
+                    if (null != jsonResponse) {
+                        jsonResponse.write(page, jsonGenerator);
+                    } else {
+                        // the response type has no streamed layout, so each result is written as a page of its own
+                        jsonGenerator.writeObject(page);
+                    }
+                    jsonGenerator.flush();
+                    break;
+                case PB:
+                    @SuppressWarnings("unchecked")
+                    Message<Object> pb = (Message<Object>) page;
+                    ProtobufIOUtil.writeDelimitedTo(countingStream, page, pb.cachedSchema(), buffer);
+                    buffer.clear();
+                    break;
+                default:
+                    writePage(page, countingStream, xmlSerializer, jsonSerializer, jsonGenerator, buffer);
+                    break;
+            }
+            countingStream.flush();
+            pageResults++;
+            sentResults = true;
+        }
+        
+        /**
+         * Finish a streamed page with its status: whether the page is partial and the exception that ended the query, if any. The JSON response of the page
+         * gets the fields that summarize its results and the status fields, see {@link StreamedJsonResponse}. The other formats get a response without results
+         * as the last of the page.
+         */
+        private void endPage(ResultsPage.Status status, Exception failure, CountingOutputStream countingStream, Marshaller xmlSerializer,
+                        ObjectMapper jsonSerializer, JsonGenerator jsonGenerator, LinkedBuffer buffer) throws Exception {
+            if (!sentResults) {
+                return;
+            }
+            QueryLogicTransformer transformer = rq.getLogic().getTransformer(rq.getSettings());
+            BaseQueryResponse statusPage = transformer.createResponse(new ResultsPage());
+            statusPage.setHasResults(pageResults > 0);
+            statusPage.setPageNumber(rq.getLastPageNumber());
+            statusPage.setLogicName(rq.getLogic().getLogicName());
+            statusPage.setQueryId(queryId);
+            statusPage.setPartialResults(status == ResultsPage.Status.PARTIAL);
+            if (null != failure) {
+                QueryException qe = new QueryException(DatawaveErrorCode.QUERY_NEXT_ERROR, failure, MessageFormat.format("query_id: {0}", queryId));
+                statusPage.addException(qe.getBottomQueryException());
+            }
+            
+            if (serializationType == SerializationType.JSON) {
+                if (null != jsonResponse && pageResults > 0) {
+                    jsonResponse.end(statusPage, jsonGenerator);
+                } else if (pageResults > 0 || null != failure) {
+                    jsonGenerator.writeObject(statusPage);
+                }
+                jsonGenerator.flush();
+            } else if (pageResults > 0 || null != failure) {
+                if (serializationType == SerializationType.PB) {
+                    @SuppressWarnings("unchecked")
+                    Message<Object> pb = (Message<Object>) statusPage;
+                    ProtobufIOUtil.writeDelimitedTo(countingStream, statusPage, pb.cachedSchema(), buffer);
+                    buffer.clear();
+                    countingStream.flush();
+                } else {
+                    writePage(statusPage, countingStream, xmlSerializer, jsonSerializer, jsonGenerator, buffer);
+                }
+            }
+            pageResults = 0;
+            jsonResponse = null;
+        }
+        
+        private void writePage(BaseQueryResponse page, CountingOutputStream countingStream, Marshaller xmlSerializer, ObjectMapper jsonSerializer,
+                        JsonGenerator jsonGenerator, LinkedBuffer buffer) throws Exception {
+            switch (serializationType) {
+                case XML:
+                    xmlSerializer.marshal(page, countingStream);
+                    break;
+                case JSON:
+                    // First page!
+                    if (!sentResults) {
+                        jsonGenerator.writeStartObject();
+                        jsonGenerator.writeArrayFieldStart("Pages");
+                        jsonGenerator.flush();
+                    } else {
+                        // Delimiter for subsequent pages...
+                        countingStream.write(',');
+                    }
+                    jsonSerializer.writeValue(countingStream, page);
+                    break;
+                case PB:
+                    @SuppressWarnings("unchecked")
+                    Message<Object> pb = (Message<Object>) page;
+                    Schema<Object> pbSchema = pb.cachedSchema();
+                    ProtobufIOUtil.writeTo(countingStream, page, pbSchema, buffer);
+                    buffer.clear();
+                    break;
+                case YAML:
+                    @SuppressWarnings("unchecked")
+                    Message<Object> yaml = (Message<Object>) page;
+                    Schema<Object> yamlSchema = yaml.cachedSchema();
+                    YamlIOUtil.writeTo(countingStream, page, yamlSchema, buffer);
+                    buffer.clear();
+                    break;
+            }
+            countingStream.flush();
+            sentResults = true;
+        }
     }
     
     private void testForUncaughtException(Query settings, ResultsPage resultList) throws QueryException {
+        testForUncaughtException(settings, resultList.getResults() == null ? 0 : resultList.getResults().size());
+    }
+    
+    private void testForUncaughtException(Query settings, int numResults) throws QueryException {
         QueryUncaughtExceptionHandler handler = settings.getUncaughtExceptionHandler();
         if (handler != null) {
             if (handler.getThrowable() != null) {
-                if (resultList.getResults() != null && !resultList.getResults().isEmpty()) {
-                    log.warn("Exception with Partial Results: resultList.getResults().size() is " + resultList.getResults().size()
-                                    + ", and there was an UncaughtException:" + handler.getThrowable() + " in thread " + handler.getThread());
+                if (numResults > 0) {
+                    log.warn("Exception with Partial Results: resultList.getResults().size() is " + numResults + ", and there was an UncaughtException:"
+                                    + handler.getThrowable() + " in thread " + handler.getThread());
                 } else {
                     if (log.isDebugEnabled()) {
                         log.debug("Throwing:" + handler.getThrowable() + " for query with no results");
@@ -0,0 +1,17 @@
+package datawave.webservice.query.runner;
+
+import datawave.webservice.query.exception.QueryException;
+import datawave.webservice.result.GenericResponse;
+
+/**
+ * The lifecycle of a query run asynchronously, shared by the observers of whole pages and of streamed results
+ */
+public interface QueryStatusObserver {
+    void queryCreated(GenericResponse<String> createQueryResponse);
+    
+    void queryCreateException(QueryException ex);
+    
+    void queryException(QueryException ex);
+    
+    void queryFinished(String queryId);
+}
@@ -22,6 +22,8 @@ import datawave.webservice.query.util.QueryUncaughtExceptionHandler;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.trace.thrift.TInfo;
+import org.apache.commons.collections4.Transformer;
+import org.apache.commons.collections4.functors.NOPTransformer;
 import org.apache.commons.collections4.iterators.TransformIterator;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.log4j.Logger;
@@ -30,9 +32,11 @@ import org.jboss.logging.NDC;
 import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -66,6 +70,11 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     private volatile Future<Object> future = null;
     private QueryPredictor predictor = null;
     private long maxResults = 0;
+    private transient SharedQueryResults.Cursor sharedResults = null;
+    private transient QueryLogic<?> unsharedLogic = null;
+    private transient Transformer sharedTransformer = null;
+    private transient Callable<Connector> connectionSource = null;
+    private transient boolean logicShared = false;
     
     public RunningQuery() {
         super(new QueryMetricFactoryImpl());
@@ -157,6 +166,15 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             return;
         }
         
+        if (this.sharedResults != null) {
+            stopSharing();
+        }
+        if (this.logicShared) {
+            // the shared logic is closed by the last query reading the shared results, so run a copy of it
+            this.logic = (QueryLogic<?>) this.logic.clone();
+            this.logicShared = false;
+        }
+        
         try {
             addNDC();
             applyPrediction(null);
@@ -196,20 +214,140 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
         }
     }
     
+    /**
+     * Page through the shared results of an identical query instead of running the logic of this query. The leader, whose logic produces the shared results,
+     * must have started them with the transform iterator of this query. Resetting the query stops sharing and runs the logic of this query again. If this
+     * query is detached from the shared results before it read any of them, it runs the logic of this query with a connection from the connection source.
+     * Once it has read some, the logic may return its results in a different order when it runs again, so the next call fails and the query has to be reset.
+     * 
+     * @param sharedResults
+     *            a cursor over the shared results
+     * @param connectionSource
+     *            provides the connection to run the logic of this query with once detached
+     */
+    public void setSharedResults(SharedQueryResults.Cursor sharedResults, Callable<Connector> connectionSource) {
+        if (sharedResults.isLeader()) {
+            // the transformer of the shared logic updates the metrics of the leader only
+            this.sharedTransformer = (this.iter != null ? this.iter.getTransformer() : null);
+        } else {
+            this.unsharedLogic = this.logic;
+            this.lastPageNumber = 0;
+            this.getMetric().setLifecycle(QueryMetric.Lifecycle.INITIALIZED);
+        }
+        this.sharedResults = sharedResults;
+        this.connectionSource = connectionSource;
+        this.logic = sharedResults.getLogic();
+        this.connection = sharedResults.getConnection();
+        this.iter = new TransformIterator(new SharedResultsIterator(sharedResults), NOPTransformer.nopTransformer());
+    }
+    
+    /**
+     * Reads the shared results until this query is detached from them, then switches this query over to its own logic
+     */
+    private class SharedResultsIterator implements Iterator<Object> {
+        private final SharedQueryResults.Cursor cursor;
+        
+        private SharedResultsIterator(SharedQueryResults.Cursor cursor) {
+            this.cursor = cursor;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (cursor.hasNext()) {
+                return true;
+            }
+            if (cursor.isDetached() && cursor == sharedResults) {
+                if (cursor.getPosition() > 0) {
+                    throw new SharedQueryResults.DetachedException("Query " + settings.getId() + " fell behind the queries sharing its results after reading "
+                                    + cursor.getPosition() + " of them and has to be reset");
+                }
+                try {
+                    runUnshared();
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to run the logic of a query detached from shared results", e);
+                }
+                return iter.hasNext();
+            }
+            return false;
+        }
+        
+        @Override
+        public Object next() {
+            return cursor.next();
+        }
+    }
+    
+    /**
+     * Run the logic of a query that was detached from shared results before it read any of them
+     */
+    private void runUnshared() throws Exception {
+        long pageNumber = this.lastPageNumber;
+        setConnection(this.connectionSource.call());
+        this.lastPageNumber = pageNumber;
+        log.info("Query " + this.settings.getId() + " detached from shared results, running its own logic");
+    }
+    
+    private void stopSharing() {
+        SharedQueryResults.Cursor cursor = this.sharedResults;
+        this.sharedResults = null;
+        this.sharedTransformer = null;
+        this.connectionSource = null;
+        if (this.unsharedLogic != null) {
+            this.logic = this.unsharedLogic;
+            this.unsharedLogic = null;
+        } else {
+            this.logicShared = true;
+        }
+        cursor.close();
+    }
+    
+    /**
+     * The transformer that updates the metrics of this query as it produces results
+     */
+    private Transformer getResultTransformer() {
+        return (this.sharedResults != null ? this.sharedTransformer : this.iter.getTransformer());
+    }
+    
+    /**
+     * A consumer of results as they are produced by the query logic
+     */
+    public interface ResultConsumer {
+        void accept(Object result) throws Exception;
+    }
+    
     public ResultsPage next() throws Exception {
+        List<Object> resultList = new ArrayList<>();
+        ResultsPage.Status status = next(resultList::add);
+        if (resultList.isEmpty()) {
+            return new ResultsPage();
+        } else {
+            return new ResultsPage(resultList, status);
+        }
+    }
+    
+    /**
+     * Get the next page of results, handing each result to the consumer as soon as the query logic produces it instead of collecting the page in memory. The
+     * page is bounded by the same page size, byte and time triggers as {@link #next()}.
+     * 
+     * @param consumer
+     *            the consumer of the results
+     * @return {@link ResultsPage.Status#NONE} if there were no results, otherwise whether the page is complete or partial
+     * @throws Exception
+     *             if the query logic or the consumer fails
+     */
+    public ResultsPage.Status next(ResultConsumer consumer) throws Exception {
         // update AbstractRunningQuery.lastUsed
         touch();
         long pageStartTime = System.currentTimeMillis();
-        List<Object> resultList = new ArrayList<>();
+        int currentPageCount = 0;
         boolean hitPageByteTrigger = false;
         boolean hitPageTimeTrigger = false;
         try {
             addNDC();
-            int currentPageCount = 0;
             long currentPageBytes = 0;
             
             // test for any exceptions prior to loop as hasNext() would likely be false;
-            testForUncaughtException(resultList.size());
+            testForUncaughtException(currentPageCount);
             
             while (!this.finished && ((future != null) || this.iter.hasNext())) {
                 // if we are canceled, then break out
@@ -288,8 +426,9 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                 }
                 
                 // regardless whether the transform iterator returned a result, it may have updated the metrics (next/seek calls etc.)
-                if (iter.getTransformer() instanceof WritesQueryMetrics) {
-                    ((WritesQueryMetrics) iter.getTransformer()).writeQueryMetrics(this.getMetric());
+                Transformer transformer = getResultTransformer();
+                if (transformer instanceof WritesQueryMetrics) {
+                    ((WritesQueryMetrics) transformer).writeQueryMetrics(this.getMetric());
                 }
                 
                 // if not still waiting on a future, then process the result (or lack thereof)
@@ -299,7 +438,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                         this.finished = true;
                         break;
                     }
-                    resultList.add(o);
+                    consumer.accept(o);
                     if (this.logic.getPageByteTrigger() > 0) {
                         currentPageBytes += ObjectSizeOf.Sizer.getObjectSize(o);
                     }
@@ -307,17 +446,17 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                     numResults++;
                 }
                 
-                testForUncaughtException(resultList.size());
+                testForUncaughtException(currentPageCount);
             }
             
             // if the last hasNext() call failed, then we would catch the exception here
-            testForUncaughtException(resultList.size());
+            testForUncaughtException(currentPageCount);
             
             // Update the metric
             long now = System.currentTimeMillis();
             this.getMetric().addPageTime(currentPageCount, now - pageStartTime, pageStartTime, now);
             this.lastPageNumber++;
-            if (!resultList.isEmpty()) {
+            if (currentPageCount > 0) {
                 this.getMetric().setLifecycle(QueryMetric.Lifecycle.RESULTS);
             }
         } catch (Exception e) {
@@ -337,10 +476,10 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                 }
             }
         }
-        if (resultList.isEmpty()) {
-            return new ResultsPage();
+        if (currentPageCount == 0) {
+            return ResultsPage.Status.NONE;
         } else {
-            return new ResultsPage(resultList, ((hitPageByteTrigger || hitPageTimeTrigger) ? ResultsPage.Status.PARTIAL : ResultsPage.Status.COMPLETE));
+            return ((hitPageByteTrigger || hitPageTimeTrigger) ? ResultsPage.Status.PARTIAL : ResultsPage.Status.COMPLETE);
         }
     }
     
@@ -419,8 +558,22 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     public void closeConnection(AccumuloConnectionFactory factory) throws Exception {
         this.getMetric().setLifecycle(BaseQueryMetric.Lifecycle.CLOSED);
         
-        if (iter != null && iter.getTransformer() instanceof WritesResultCardinalities) {
-            ((WritesResultCardinalities) iter.getTransformer()).writeResultCardinalities();
+        if (iter != null && getResultTransformer() instanceof WritesResultCardinalities) {
+            ((WritesResultCardinalities) getResultTransformer()).writeResultCardinalities();
+        }
+        
+        if (sharedResults != null) {
+            // the connection and logic are returned and closed by the last query reading the shared results
+            connection = null;
+            stopSharing();
+            if (this.queryMetrics != null) {
+                try {
+                    queryMetrics.updateMetric(this.getMetric());
+                } catch (Exception e) {
+                    log.error(e.getMessage());
+                }
+            }
+            return;
         }
         
         if (connection != null) {
@@ -0,0 +1,466 @@
+package datawave.webservice.query.runner;
+
+import datawave.webservice.query.Query;
+import datawave.webservice.query.QueryImpl.Parameter;
+import datawave.webservice.query.logic.QueryLogic;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * The results of one query logic shared by identical queries created at nearly the same time. The query that creates the shared results plans and runs its
+ * logic as usual, and a single producer reads the results of that logic into a buffer. Each query subscribed to the shared results pages through the buffer
+ * with its own {@link Cursor}, so page sizes, result limits, cancellation and expiration remain per query.
+ * 
+ * A query may only subscribe while no results have been dropped from the buffer, so that every subscriber sees every result. The buffer holds at most
+ * {@code bufferSize} results past the slowest subscriber, which means the producer waits for the slowest subscriber rather than holding every result in
+ * memory. So that a subscriber that lags behind or sits idle does not hold up the others for long, the subscribers holding the oldest result are detached once
+ * they have held up a faster subscriber for {@code detachMs}. A detached query that has not read any results runs its own logic, while one that has is
+ * failed with a {@link DetachedException} and has to be reset. The logic is closed, and its connection returned, when the last subscriber closes its cursor.
+ */
+public class SharedQueryResults {
+    
+    private static final Logger log = Logger.getLogger(SharedQueryResults.class);
+    
+    private final String key;
+    private final QueryLogic<?> logic;
+    private final Connector connection;
+    private final int bufferSize;
+    private final long detachMs;
+    private final long createTime = System.currentTimeMillis();
+    private final Consumer<SharedQueryResults> onClose;
+    
+    private final List<Object> buffer = new ArrayList<>();
+    private long bufferStart = 0;
+    private final List<Cursor> cursors = new ArrayList<>();
+    
+    private Runnable closer = null;
+    private boolean started = false;
+    private boolean exhausted = false;
+    private boolean closed = false;
+    private Throwable failure = null;
+    
+    /**
+     * @param key
+     *            the key of the query, see {@link #key(String, Query, Set)}
+     * @param logic
+     *            the logic of the query that creates the shared results
+     * @param connection
+     *            the connection of the query that creates the shared results, returned by the closer
+     * @param bufferSize
+     *            the maximum number of results held past the slowest subscriber
+     * @param detachMs
+     *            how long the producer waits for the slowest subscribers before detaching them
+     * @param onClose
+     *            called once the shared results are closed or have failed, so that no more queries subscribe
+     */
+    public SharedQueryResults(String key, QueryLogic<?> logic, Connector connection, int bufferSize, long detachMs, Consumer<SharedQueryResults> onClose) {
+        this.key = key;
+        this.logic = logic;
+        this.connection = connection;
+        this.bufferSize = Math.max(bufferSize, 1);
+        this.detachMs = detachMs;
+        this.onClose = onClose;
+    }
+    
+    /**
+     * Build the key under which identical queries share results: the logic, query string, date range, parameters and the authorizations the query runs with.
+     * Page size, query name and expiration are not part of the key since they do not change the results.
+     */
+    public static String key(String queryLogicName, Query settings, Set<Authorizations> auths) {
+        StringBuilder key = new StringBuilder();
+        key.append(queryLogicName).append('\n').append(settings.getQuery()).append('\n');
+        key.append(time(settings.getBeginDate())).append('\n').append(time(settings.getEndDate())).append('\n');
+        TreeSet<String> parameters = new TreeSet<>();
+        if (settings.getParameters() != null) {
+            for (Parameter parameter : settings.getParameters()) {
+                parameters.add(parameter.getParameterName() + '=' + parameter.getParameterValue());
+            }
+        }
+        key.append(parameters).append('\n');
+        TreeSet<String> authorizations = new TreeSet<>();
+        if (auths != null) {
+            for (Authorizations authorization : auths) {
+                authorizations.add(new TreeSet<>(authorization.getAuthorizationsStrings()).toString());
+            }
+        }
+        key.append(authorizations);
+        return key.toString();
+    }
+    
+    private static long time(Date date) {
+        return (date == null ? -1 : date.getTime());
+    }
+    
+    public String getKey() {
+        return key;
+    }
+    
+    public QueryLogic<?> getLogic() {
+        return logic;
+    }
+    
+    public long getCreateTime() {
+        return createTime;
+    }
+    
+    /**
+     * Subscribe a query to the shared results
+     * 
+     * @param windowMs
+     *            how long after the shared results were created that a query may still subscribe
+     * @return a cursor over the shared results starting at the first result, or null if it is too late to subscribe
+     */
+    public synchronized Cursor subscribe(long windowMs) {
+        if (closed || failure != null || bufferStart > 0 || System.currentTimeMillis() - createTime > windowMs) {
+            return null;
+        }
+        Cursor cursor = new Cursor(cursors.isEmpty());
+        cursors.add(cursor);
+        return cursor;
+    }
+    
+    /**
+     * Start reading the results of the logic into the buffer, once the query that created the shared results has been planned.
+     * 
+     * @param source
+     *            the results of the logic
+     * @param closer
+     *            closes the logic and returns its connection, run when the last subscriber closes
+     * @param executor
+     *            the executor to read the results on, or null to start a thread. If the executor rejects the producer, every subscriber is detached.
+     */
+    public void start(Iterator<?> source, Runnable closer, ExecutorService executor) {
+        boolean closeNow;
+        synchronized (this) {
+            this.closer = closer;
+            this.started = true;
+            closeNow = closed;
+        }
+        if (closeNow) {
+            closer.run();
+            return;
+        }
+        Runnable producer = () -> produce(source);
+        if (executor != null) {
+            try {
+                executor.execute(producer);
+            } catch (RejectedExecutionException e) {
+                log.warn("No thread available to read the results of shared query " + logic.getLogicName() + ", its subscribers run their own logic");
+                detachAll();
+            }
+        } else {
+            Thread thread = new Thread(producer, "SharedQueryResults-" + Integer.toHexString(key.hashCode()));
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    /**
+     * Fail the shared results, for example if the logic could not be planned. Subscribers see the failure once they have read the results already buffered.
+     */
+    public void fail(Throwable t) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = t;
+            }
+            notifyAll();
+        }
+        onClose.accept(this);
+    }
+    
+    private void produce(Iterator<?> source) {
+        try {
+            while (true) {
+                synchronized (this) {
+                    // the time since the slowest subscribers were first seen behind the others at their current position
+                    long lagStart = -1;
+                    long lagPosition = -1;
+                    while (!closed && buffer.size() >= bufferSize) {
+                        long min = minPosition();
+                        if (!isLagging(min)) {
+                            lagStart = -1;
+                        } else if (lagStart < 0 || min != lagPosition) {
+                            lagStart = System.currentTimeMillis();
+                            lagPosition = min;
+                        }
+                        long remaining = (lagStart < 0 ? detachMs : lagStart + detachMs - System.currentTimeMillis());
+                        if (remaining > 0) {
+                            wait(remaining);
+                        } else {
+                            detachSlowest();
+                            lagStart = -1;
+                        }
+                    }
+                    if (closed) {
+                        return;
+                    }
+                }
+                // read outside of the lock so that subscribers can page through the buffer meanwhile
+                Object result = (source.hasNext() ? source.next() : null);
+                synchronized (this) {
+                    if (result == null) {
+                        exhausted = true;
+                        notifyAll();
+                        return;
+                    }
+                    buffer.add(result);
+                    notifyAll();
+                }
+            }
+        } catch (Throwable t) {
+            synchronized (this) {
+                if (closed) {
+                    // the logic was closed underneath the producer
+                    return;
+                }
+            }
+            log.error("Failed to read the results of shared query " + logic.getLogicName(), t);
+            fail(t);
+        }
+    }
+    
+    /**
+     * @return true if some subscriber is ahead of the slowest ones and held up by them. Called with the lock held.
+     */
+    private boolean isLagging(long min) {
+        for (Cursor cursor : cursors) {
+            if (cursor.position > min) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Detach the subscribers holding the oldest buffered result so that the others can move on. Called with the lock held.
+     */
+    private void detachSlowest() {
+        long min = minPosition();
+        List<Cursor> slowest = new ArrayList<>();
+        for (Cursor cursor : cursors) {
+            if (cursor.position == min) {
+                slowest.add(cursor);
+            }
+        }
+        for (Cursor cursor : slowest) {
+            cursor.detached = true;
+            cursors.remove(cursor);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Detached " + slowest.size() + " subscribers " + (bufferStart + buffer.size() - min) + " results behind from shared query "
+                            + logic.getLogicName());
+        }
+        drop(minPosition());
+    }
+    
+    /**
+     * Detach every subscriber and close the shared results
+     */
+    private void detachAll() {
+        Runnable closeLogic;
+        synchronized (this) {
+            for (Cursor cursor : cursors) {
+                cursor.detached = true;
+            }
+            cursors.clear();
+            closed = true;
+            buffer.clear();
+            closeLogic = (started ? closer : null);
+            notifyAll();
+        }
+        onClose.accept(this);
+        if (closeLogic != null) {
+            closeLogic.run();
+        }
+    }
+    
+    private void unsubscribe(Cursor cursor) {
+        boolean last;
+        Runnable closeLogic = null;
+        synchronized (this) {
+            if (!cursors.remove(cursor)) {
+                return;
+            }
+            last = cursors.isEmpty();
+            if (last) {
+                closed = true;
+                buffer.clear();
+                closeLogic = (started ? closer : null);
+            } else {
+                trim();
+            }
+            notifyAll();
+        }
+        if (last) {
+            onClose.accept(this);
+            if (closeLogic != null) {
+                closeLogic.run();
+            }
+        }
+    }
+    
+    /**
+     * Drop the results every subscriber has read. Called with the lock held.
+     */
+    private void trim() {
+        long min = minPosition();
+        int read = (int) (min - bufferStart);
+        // drop in chunks to avoid shifting the buffer on every result
+        if (read >= bufferSize / 4 || read == buffer.size()) {
+            drop(min);
+        }
+    }
+    
+    /**
+     * Drop the results before the position. Called with the lock held.
+     */
+    private void drop(long position) {
+        int read = (int) (position - bufferStart);
+        if (read > 0) {
+            buffer.subList(0, read).clear();
+            bufferStart = position;
+            notifyAll();
+        }
+    }
+    
+    private long minPosition() {
+        long min = Long.MAX_VALUE;
+        for (Cursor cursor : cursors) {
+            min = Math.min(min, cursor.position);
+        }
+        return min;
+    }
+    
+    /**
+     * One subscriber's position in the shared results
+     */
+    public class Cursor implements Iterator<Object> {
+        private final boolean leader;
+        private long position = 0;
+        private boolean closed = false;
+        private boolean detached = false;
+        
+        private Cursor(boolean leader) {
+            this.leader = leader;
+        }
+        
+        /**
+         * @return true if this is the cursor of the query that created the shared results and is responsible for starting them
+         */
+        public boolean isLeader() {
+            return leader;
+        }
+        
+        public SharedQueryResults getResults() {
+            return SharedQueryResults.this;
+        }
+        
+        public QueryLogic<?> getLogic() {
+            return logic;
+        }
+        
+        public Connector getConnection() {
+            return connection;
+        }
+        
+        /**
+         * @return true if this subscriber was detached from the shared results and has to continue with its own logic
+         */
+        public boolean isDetached() {
+            synchronized (SharedQueryResults.this) {
+                return detached;
+            }
+        }
+        
+        /**
+         * @return the number of shared results this subscriber has read
+         */
+        public long getPosition() {
+            synchronized (SharedQueryResults.this) {
+                return position;
+            }
+        }
+        
+        /**
+         * Wait for the next result. Interrupting the waiting thread, as cancelling the query does, only stops this subscriber. Returns false once detached.
+         */
+        @Override
+        public boolean hasNext() {
+            synchronized (SharedQueryResults.this) {
+                while (!closed && !detached && !SharedQueryResults.this.closed && position >= bufferStart + buffer.size() && !exhausted && failure == null) {
+                    try {
+                        SharedQueryResults.this.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+                if (closed || detached || SharedQueryResults.this.closed) {
+                    return false;
+                }
+                if (position < bufferStart + buffer.size()) {
+                    return true;
+                }
+                if (failure != null) {
+                    throw new RuntimeException("Shared query " + logic.getLogicName() + " failed", failure);
+                }
+                return false;
+            }
+        }
+        
+        @Override
+        public Object next() {
+            synchronized (SharedQueryResults.this) {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object result = buffer.get((int) (position - bufferStart));
+                position++;
+                trim();
+                return result;
+            }
+        }
+        
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove() is not supported by this Iterator.");
+        }
+        
+        /**
+         * Stop reading the shared results. The last subscriber to close closes the logic.
+         */
+        public void close() {
+            synchronized (SharedQueryResults.this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            unsubscribe(this);
+        }
+    }
+    
+    /**
+     * Thrown to a subscriber that was detached after it read some of the shared results. Its own logic may return the results in a different order, so it
+     * cannot carry on from where it left off.
+     */
+    public static class DetachedException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+        
+        public DetachedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package datawave.webservice.query.runner;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import datawave.webservice.result.BaseQueryResponse;
+import datawave.webservice.result.DefaultEventQueryResponse;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes the JSON response of a page whose results are streamed one at a time. The fields that describe the page are written with the first result, each
+ * result is then written as an element of the results array, and the page ends with the fields that summarize its results and with its status.
+ * <p>
+ * The layout of the response is written explicitly for each response type, so a type is streamed this way only if it has an implementation here, see
+ * {@link #forResponse(BaseQueryResponse)}. A new instance is used for each page.
+ * 
+ * @param <T>
+ *            the response type
+ */
+abstract class StreamedJsonResponse<T extends BaseQueryResponse> {
+    
+    private final Class<T> responseClass;
+    private final String resultsField;
+    private boolean started = false;
+    
+    protected StreamedJsonResponse(Class<T> responseClass, String resultsField) {
+        this.responseClass = responseClass;
+        this.resultsField = resultsField;
+    }
+    
+    /**
+     * @param response
+     *            a response of the query logic
+     * @return the streamed JSON response for the type of the response, or null if it has none and each result must be written as a response of its own
+     */
+    static StreamedJsonResponse<?> forResponse(BaseQueryResponse response) {
+        // the exact type, as a subclass may add fields
+        if (response.getClass() == DefaultEventQueryResponse.class) {
+            return new EventQueryResponse();
+        }
+        return null;
+    }
+    
+    /**
+     * Write the results of a response into the results array of the page, starting the page if these are its first results.
+     */
+    void write(BaseQueryResponse response, JsonGenerator generator) throws IOException {
+        T typed = responseClass.cast(response);
+        if (!started) {
+            generator.writeStartObject();
+            generator.writeStringField("LogicName", response.getLogicName());
+            generator.writeStringField("QueryId", response.getQueryId());
+            generator.writeNumberField("PageNumber", response.getPageNumber());
+            generator.writeArrayFieldStart(resultsField);
+            started = true;
+        }
+        List<?> results = getResults(typed);
+        if (null != results) {
+            for (Object result : results) {
+                generator.writeObject(result);
+            }
+        }
+        summarize(typed);
+    }
+    
+    /**
+     * End the page with the summary of its results and the status of a response without results.
+     */
+    void end(BaseQueryResponse status, JsonGenerator generator) throws IOException {
+        if (!started) {
+            throw new IllegalStateException("No results were written for the page");
+        }
+        generator.writeEndArray();
+        writeSummary(generator);
+        generator.writeBooleanField("HasResults", status.getHasResults());
+        generator.writeBooleanField("PartialResults", status.isPartialResults());
+        generator.writeNumberField("OperationTimeMS", status.getOperationTimeMS());
+        if (null != status.getMessages()) {
+            generator.writeObjectField("Messages", status.getMessages());
+        }
+        if (null != status.getExceptions()) {
+            generator.writeObjectField("Exceptions", status.getExceptions());
+        }
+        generator.writeEndObject();
+    }
+    
+    protected abstract List<?> getResults(T response);
+    
+    /**
+     * Add the fields of a response that summarize its results to the summary of the page.
+     */
+    protected abstract void summarize(T response);
+    
+    protected abstract void writeSummary(JsonGenerator generator) throws IOException;
+    
+    /**
+     * The events of a {@link DefaultEventQueryResponse}, summarized by the fields of the events and the number of events.
+     */
+    static class EventQueryResponse extends StreamedJsonResponse<DefaultEventQueryResponse> {
+        
+        private final Set<String> fields = new LinkedHashSet<>();
+        private long returnedEvents = 0;
+        private Long totalEvents = null;
+        
+        EventQueryResponse() {
+            super(DefaultEventQueryResponse.class, "Events");
+        }
+        
+        @Override
+        protected List<?> getResults(DefaultEventQueryResponse response) {
+            return response.getEvents();
+        }
+        
+        @Override
+        protected void summarize(DefaultEventQueryResponse response) {
+            if (null != response.getFields()) {
+                fields.addAll(response.getFields());
+            }
+            if (null != response.getReturnedEvents()) {
+                returnedEvents += response.getReturnedEvents();
+            }
+            if (null != response.getTotalEvents()) {
+                totalEvents = (null == totalEvents ? 0 : totalEvents) + response.getTotalEvents();
+            }
+        }
+        
+        @Override
+        protected void writeSummary(JsonGenerator generator) throws IOException {
+            generator.writeObjectField("Fields", fields);
+            generator.writeNumberField("ReturnedEvents", returnedEvents);
+            if (null != totalEvents) {
+                generator.writeNumberField("TotalEvents", totalEvents);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package datawave.webservice.query.runner;
+
+import datawave.webservice.result.BaseQueryResponse;
+
+/**
+ * Observes a query run by {@link QueryExecutorBean#executeStreamingAsync}, which hands it each result as soon as the query logic produces it.
+ */
+public interface StreamingQueryStatusObserver extends QueryStatusObserver {
+    
+    /**
+     * Wait until the observer is ready for more results. Called before each page, while the query is not in a call, so the wait is not bounded by the time a
+     * call may take.
+     * 
+     * @param keepAlive
+     *            to be run at least once a minute while waiting, to keep the query from being evicted as idle
+     * @return true to produce the next page, false if no more results are wanted
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    boolean awaitResultDemand(Runnable keepAlive) throws InterruptedException;
+    
+    /**
+     * Called for each result, with a response holding just that result. Throwing fails the query.
+     */
+    void queryResultAvailable(BaseQueryResponse result) throws Exception;
+    
+    /**
+     * Called once all results of a page were handed to the observer.
+     */
+    void queryPageFinished() throws Exception;
+}
@@ -1,6 +1,7 @@
 package datawave.webservice.query.logic.composite;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -10,6 +11,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import datawave.marking.MarkingFunctions;
 import datawave.security.authorization.DatawavePrincipal;
@@ -28,6 +34,8 @@ import datawave.webservice.query.logic.BaseQueryLogicTransformer;
 import datawave.webservice.query.logic.DatawaveRoleManager;
 import datawave.webservice.query.logic.EasyRoleManager;
 import datawave.webservice.query.logic.QueryLogicTransformer;
+import datawave.webservice.query.logic.WritesQueryMetrics;
+import datawave.webservice.query.metric.QueryMetric;
 import datawave.webservice.query.result.EdgeQueryResponseBase;
 import datawave.webservice.query.result.edge.EdgeBase;
 import datawave.webservice.result.BaseQueryResponse;
@@ -845,4 +853,291 @@ public class CompositeQueryLogicTest {
         Assert.assertEquals(0, c.getQueryLogics().size());
         
     }
+    
+    @Test
+    public void testResultsInterleaveDelegates() throws Exception {
+        CountDownLatch completionLatch = new CountDownLatch(2);
+        CompositeQueryLogicResults results = new CompositeQueryLogicResults(4, 2, completionLatch);
+        results.add(0, "a1");
+        results.add(0, "a2");
+        results.add(0, "a3");
+        results.add(1, "b1");
+        completionLatch.countDown();
+        completionLatch.countDown();
+        
+        List<Object> ordered = new ArrayList<>();
+        Iterator<Object> iter = results.iterator();
+        while (iter.hasNext()) {
+            ordered.add(iter.next());
+        }
+        Assert.assertEquals(Arrays.asList("a1", "b1", "a2", "a3"), ordered);
+        Assert.assertNull(iter.next());
+    }
+    
+    @Test
+    public void testResultsStopAtMaxResults() throws Exception {
+        CountDownLatch completionLatch = new CountDownLatch(1);
+        CompositeQueryLogicResults results = new CompositeQueryLogicResults(4, 1, completionLatch);
+        results.setMaxResults(2);
+        results.add(0, "a1");
+        results.add(0, "a2");
+        results.add(0, "a3");
+        
+        // the delegate has not completed, but no more results are needed
+        Iterator<Object> iter = results.iterator();
+        Assert.assertEquals("a1", iter.next());
+        Assert.assertEquals("a2", iter.next());
+        Assert.assertFalse(iter.hasNext());
+        Assert.assertTrue(results.isTerminated());
+    }
+    
+    @Test
+    public void testCompositeMaxResultsStopsDelegates() throws Exception {
+        List<BaseQueryLogic<?>> logics = new ArrayList<>();
+        TestQueryLogic logic1 = new TestQueryLogic();
+        TestQueryLogic2 logic2 = new TestQueryLogic2();
+        logics.add(logic1);
+        logics.add(logic2);
+        
+        logic1.getData().put(key1, value1);
+        logic1.getData().put(key2, value2);
+        logic1.getData().put(key5, value5);
+        logic1.getData().put(key6, value6);
+        logic2.getData().put(key3, value3);
+        logic2.getData().put(key4, value4);
+        logic2.getData().put(key7, value7);
+        logic2.getData().put(key8, value8);
+        
+        QueryImpl settings = new QueryImpl();
+        settings.setPagesize(100);
+        settings.setQueryAuthorizations(auths.toString());
+        settings.setQuery("FOO == 'BAR'");
+        settings.setParameters(new HashSet<>());
+        settings.setId(UUID.randomUUID());
+        
+        CompositeQueryLogic c = new CompositeQueryLogic();
+        c.setMaxResults(3);
+        c.setDelegateBufferSize(1);
+        logic1.setMaxResults(-1);
+        logic2.setMaxResults(-1);
+        c.setQueryLogics(logics);
+        c.initialize((Connector) null, (Query) settings, Collections.singleton(auths));
+        c.setupQuery(null);
+        TransformIterator iter = c.getTransformIterator((Query) settings);
+        
+        List<Object> results = new ArrayList<>();
+        while (iter.hasNext()) {
+            Object o = iter.next();
+            if (null == o)
+                break;
+            results.add(o);
+        }
+        Assert.assertEquals(3, results.size());
+        
+        // the delegates are waiting on their full buffers and must be counted down by the close
+        c.close();
+    }
+    
+    private CompositeQueryLogic createCompositeQueryLogic(QueryImpl settings) {
+        List<BaseQueryLogic<?>> logics = new ArrayList<>();
+        TestQueryLogic logic1 = new TestQueryLogic();
+        TestQueryLogic2 logic2 = new TestQueryLogic2();
+        logics.add(logic1);
+        logics.add(logic2);
+        
+        logic1.getData().put(key1, value1);
+        logic1.getData().put(key2, value2);
+        logic2.getData().put(key3, value3);
+        logic1.setMaxResults(-1);
+        logic2.setMaxResults(-1);
+        
+        settings.setPagesize(100);
+        settings.setQueryAuthorizations(auths.toString());
+        settings.setQuery("FOO == 'BAR'");
+        settings.setParameters(new HashSet<>());
+        settings.setId(UUID.randomUUID());
+        
+        CompositeQueryLogic c = new CompositeQueryLogic();
+        c.setQueryLogics(logics);
+        return c;
+    }
+    
+    @Test
+    public void testDelegateMetrics() throws Exception {
+        QueryImpl settings = new QueryImpl();
+        CompositeQueryLogic c = createCompositeQueryLogic(settings);
+        c.initialize((Connector) null, (Query) settings, Collections.singleton(auths));
+        c.setupQuery(null);
+        TransformIterator iter = c.getTransformIterator((Query) settings);
+        
+        int count = 0;
+        while (iter.hasNext() && null != iter.next()) {
+            count++;
+        }
+        Assert.assertEquals(3, count);
+        
+        QueryMetric metric = new QueryMetric();
+        Assert.assertTrue(iter.getTransformer() instanceof WritesQueryMetrics);
+        ((WritesQueryMetrics) iter.getTransformer()).writeQueryMetrics(metric);
+        Assert.assertEquals(2, metric.getDelegateMetrics().size());
+        Assert.assertTrue(metric.getDelegateMetrics().get("TestQueryLogic.table1").startsWith("2/"));
+        Assert.assertTrue(metric.getDelegateMetrics().get("TestQueryLogic2.table1").startsWith("1/"));
+        c.close();
+    }
+    
+    @Test
+    public void testRejectedDelegatesAreCountedDown() throws Exception {
+        // a pool with one thread and no queue rejects the second delegate while the first is running
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        CountDownLatch block = new CountDownLatch(1);
+        executor.submit(() -> {
+            block.await();
+            return null;
+        });
+        
+        QueryImpl settings = new QueryImpl();
+        CompositeQueryLogic c = createCompositeQueryLogic(settings);
+        c.setExecutor(executor);
+        c.initialize((Connector) null, (Query) settings, Collections.singleton(auths));
+        try {
+            c.setupQuery(null);
+            Assert.fail("Expected the delegates to be rejected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        
+        long start = System.currentTimeMillis();
+        c.close();
+        Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+        block.countDown();
+        executor.shutdown();
+    }
+    
+    @Test
+    public void testQueryFailsWhenAnyDelegateIsRejected() throws Exception {
+        // one of the two threads is busy and there is no queue, so only the first delegate is accepted
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+        CountDownLatch block = new CountDownLatch(1);
+        executor.submit(() -> {
+            block.await();
+            return null;
+        });
+        
+        QueryImpl settings = new QueryImpl();
+        CompositeQueryLogic c = createCompositeQueryLogic(settings);
+        c.setExecutor(executor);
+        c.initialize((Connector) null, (Query) settings, Collections.singleton(auths));
+        try {
+            c.setupQuery(null);
+            Assert.fail("Expected the query to fail when a delegate is rejected");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().contains("was rejected"));
+        }
+        
+        long start = System.currentTimeMillis();
+        c.close();
+        Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+        block.countDown();
+        executor.shutdown();
+    }
+    
+    @Test
+    public void testWaitingDelegatesReleaseTheirThreads() throws Exception {
+        List<BaseQueryLogic<?>> logics = new ArrayList<>();
+        TestQueryLogic logic1 = new TestQueryLogic();
+        TestQueryLogic2 logic2 = new TestQueryLogic2();
+        logics.add(logic1);
+        logics.add(logic2);
+        
+        logic1.getData().put(key1, value1);
+        logic1.getData().put(key2, value2);
+        logic1.getData().put(key5, value5);
+        logic1.getData().put(key6, value6);
+        logic2.getData().put(key3, value3);
+        logic2.getData().put(key4, value4);
+        logic2.getData().put(key7, value7);
+        logic2.getData().put(key8, value8);
+        logic1.setMaxResults(-1);
+        logic2.setMaxResults(-1);
+        
+        QueryImpl settings = new QueryImpl();
+        settings.setPagesize(100);
+        settings.setQueryAuthorizations(auths.toString());
+        settings.setQuery("FOO == 'BAR'");
+        settings.setParameters(new HashSet<>());
+        settings.setId(UUID.randomUUID());
+        
+        // a single thread is enough for both delegates, as neither keeps it while its buffer is full
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        CompositeQueryLogic c = new CompositeQueryLogic();
+        c.setDelegateBufferSize(1);
+        c.setExecutor(executor);
+        c.setQueryLogics(logics);
+        c.initialize((Connector) null, (Query) settings, Collections.singleton(auths));
+        c.setupQuery(null);
+        
+        // nothing is consumed yet, so both delegates fill their buffers and give the thread back
+        long start = System.currentTimeMillis();
+        while ((executor.getCompletedTaskCount() < 2 || executor.getActiveCount() > 0) && System.currentTimeMillis() - start < 10000) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, executor.getCompletedTaskCount());
+        Assert.assertEquals(0, executor.getActiveCount());
+        
+        TransformIterator iter = c.getTransformIterator((Query) settings);
+        List<Object> results = new ArrayList<>();
+        while (iter.hasNext()) {
+            Object o = iter.next();
+            if (null == o)
+                break;
+            results.add(o);
+        }
+        Assert.assertEquals(8, results.size());
+        c.close();
+        executor.shutdown();
+    }
+    
+    @Test
+    public void testRejectedResumeFailsQuery() throws Exception {
+        CountDownLatch completionLatch = new CountDownLatch(1);
+        CompositeQueryLogicResults results = new CompositeQueryLogicResults(1, 1, completionLatch);
+        results.add(0, "a1");
+        results.setTakenListener(delegate -> results.fail(new IllegalStateException("rejected")));
+        
+        Iterator<Object> iter = results.iterator();
+        Assert.assertEquals("a1", iter.next());
+        try {
+            iter.hasNext();
+            Assert.fail("Expected the failure of the delegate to be thrown");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("rejected", e.getMessage());
+        }
+    }
+    
+    @Test
+    public void testCloseCountsDownQueuedDelegates() throws Exception {
+        // the only thread of the pool is busy, so the delegates are queued and never run
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(2));
+        CountDownLatch block = new CountDownLatch(1);
+        executor.submit(() -> {
+            block.await();
+            return null;
+        });
+        
+        QueryImpl settings = new QueryImpl();
+        CompositeQueryLogic c = createCompositeQueryLogic(settings);
+        c.setExecutor(executor);
+        c.initialize((Connector) null, (Query) settings, Collections.singleton(auths));
+        c.setupQuery(null);
+        Assert.assertEquals(2, executor.getQueue().size());
+        
+        long start = System.currentTimeMillis();
+        c.close();
+        Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+        Assert.assertEquals(0, executor.getQueue().size());
+        // the shared executor is not shut down with the query
+        Assert.assertFalse(executor.isShutdown());
+        block.countDown();
+        executor.shutdown();
+    }
 }
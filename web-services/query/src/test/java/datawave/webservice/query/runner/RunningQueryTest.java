@@ -9,6 +9,7 @@ import datawave.security.util.DnUtils.NpeUtils;
 import datawave.webservice.common.connection.AccumuloConnectionFactory;
 import datawave.webservice.query.QueryImpl;
 import datawave.webservice.query.cache.QueryMetricFactoryImpl;
+import datawave.webservice.query.cache.ResultsPage;
 import datawave.webservice.query.configuration.GenericQueryConfiguration;
 import datawave.webservice.query.logic.BaseQueryLogic;
 import datawave.webservice.query.logic.DatawaveRoleManager;
@@ -19,6 +20,7 @@ import datawave.webservice.query.logic.composite.CompositeQueryLogicTest;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
 import org.apache.accumulo.core.security.Authorizations;
+import org.apache.commons.collections4.TransformerUtils;
 import org.apache.commons.collections4.iterators.TransformIterator;
 import org.junit.Assert;
 import org.junit.Before;
@@ -39,6 +41,7 @@ import java.util.UUID;
 
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.createNiceMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
@@ -191,4 +194,91 @@ public class RunningQueryTest {
             Assert.fail("NullPointer encountered. This could be caused by configuration being null. Check logic.initialize() ");
         }
     }
+    
+    @Test
+    public void testNextWithConsumer() throws Exception {
+        DatawaveUser user = new DatawaveUser(userDN, UserType.USER, null, null, null, 0L);
+        DatawavePrincipal principal = new DatawavePrincipal(Collections.singletonList(user));
+        InMemoryInstance instance = new InMemoryInstance("test instance");
+        Connector connector = instance.getConnector("root", new PasswordToken(""));
+        
+        QueryLogic<?> logic = createNiceMock(BaseQueryLogic.class);
+        expect(logic.initialize(anyObject(), anyObject(), anyObject())).andReturn(new SampleGenericQueryConfiguration());
+        expect(logic.getTransformIterator(settings)).andReturn(
+                        new TransformIterator(Arrays.asList("a", "b", "c").iterator(), TransformerUtils.nopTransformer()));
+        expect(logic.getResultLimit(settings.getDnList())).andReturn(-1L);
+        expect(logic.getMaxResults()).andReturn(-1L).anyTimes();
+        expect(logic.getMaxWork()).andReturn(-1L).anyTimes();
+        replay(logic);
+        settings.setPagesize(2);
+        
+        RunningQuery query = new RunningQuery(connector, connectionPriority, logic, settings, methodAuths, principal, new QueryMetricFactoryImpl());
+        
+        List<Object> results = new ArrayList<>();
+        assertEquals(ResultsPage.Status.COMPLETE, query.next(results::add));
+        assertEquals(Arrays.asList("a", "b"), results);
+        
+        results.clear();
+        assertEquals(ResultsPage.Status.COMPLETE, query.next(results::add));
+        assertEquals(Collections.singletonList("c"), results);
+        
+        results.clear();
+        assertEquals(ResultsPage.Status.NONE, query.next(results::add));
+        assertEquals(0, results.size());
+        assertEquals(3L, query.getMetric().getNumResults());
+    }
+    
+    @Test
+    public void testDetachedFromSharedResults() throws Exception {
+        DatawaveUser user = new DatawaveUser(userDN, UserType.USER, null, null, null, 0L);
+        DatawavePrincipal principal = new DatawavePrincipal(Collections.singletonList(user));
+        InMemoryInstance instance = new InMemoryInstance("test instance");
+        Connector connector = instance.getConnector("root", new PasswordToken(""));
+        
+        QueryLogic<?> sharedLogic = createNiceMock(BaseQueryLogic.class);
+        expect(sharedLogic.getMaxWork()).andReturn(-1L).anyTimes();
+        replay(sharedLogic);
+        // the logic of the queries, which returns the results in a different order than the shared logic did
+        QueryLogic<?> logic = createNiceMock(BaseQueryLogic.class);
+        expect(logic.initialize(anyObject(), anyObject(), anyObject())).andReturn(new SampleGenericQueryConfiguration());
+        expect(logic.getTransformIterator(settings)).andReturn(
+                        new TransformIterator(Arrays.asList("c", "b", "a").iterator(), TransformerUtils.nopTransformer()));
+        expect(logic.getResultLimit(settings.getDnList())).andReturn(-1L).anyTimes();
+        expect(logic.getMaxResults()).andReturn(-1L).anyTimes();
+        expect(logic.getMaxWork()).andReturn(-1L).anyTimes();
+        replay(logic);
+        settings.setPagesize(1);
+        
+        SharedQueryResults shared = new SharedQueryResults("key", sharedLogic, null, 1, 50, results -> {});
+        SharedQueryResults.Cursor leader = shared.subscribe(60000);
+        RunningQuery reading = new RunningQuery(null, connectionPriority, logic, settings, methodAuths, principal, new QueryMetricFactoryImpl());
+        reading.setSharedResults(shared.subscribe(60000), () -> connector);
+        RunningQuery idle = new RunningQuery(null, connectionPriority, logic, settings, methodAuths, principal, new QueryMetricFactoryImpl());
+        idle.setSharedResults(shared.subscribe(60000), () -> connector);
+        shared.start(Arrays.asList("a", "b", "c").iterator(), () -> {}, null);
+        
+        List<Object> results = new ArrayList<>();
+        assertEquals(ResultsPage.Status.COMPLETE, reading.next(results::add));
+        assertEquals(Collections.singletonList("a"), results);
+        // both queries fall behind the leader and are detached
+        List<Object> leaderResults = new ArrayList<>();
+        while (leader.hasNext()) {
+            leaderResults.add(leader.next());
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), leaderResults);
+        
+        // a query that read some of the shared results cannot carry on from where it left off
+        try {
+            reading.next(results::add);
+            Assert.fail("Expected the query to fail once detached");
+        } catch (SharedQueryResults.DetachedException e) {
+            assertEquals(Collections.singletonList("a"), results);
+        }
+        
+        // a query that did not read any runs its own logic from the start
+        results.clear();
+        assertEquals(ResultsPage.Status.COMPLETE, idle.next(results::add));
+        assertEquals(Collections.singletonList("c"), results);
+        leader.close();
+    }
 }
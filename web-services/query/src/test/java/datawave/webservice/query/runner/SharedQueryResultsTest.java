@@ -0,0 +1,230 @@
+package datawave.webservice.query.runner;
+
+import datawave.webservice.query.QueryImpl;
+import datawave.webservice.query.logic.QueryLogic;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SharedQueryResultsTest {
+    
+    private final QueryLogic<?> logic = createNiceMock(QueryLogic.class);
+    private final AtomicInteger closed = new AtomicInteger();
+    private final List<SharedQueryResults> removed = new ArrayList<>();
+    
+    @Before
+    public void setup() {
+        replay(logic);
+    }
+    
+    private SharedQueryResults results(int bufferSize) {
+        return results(bufferSize, 60000);
+    }
+    
+    private SharedQueryResults results(int bufferSize, long detachMs) {
+        return new SharedQueryResults("key", logic, null, bufferSize, detachMs, removed::add);
+    }
+    
+    private static List<Object> read(SharedQueryResults.Cursor cursor, int count) {
+        List<Object> read = new ArrayList<>();
+        while (read.size() < count && cursor.hasNext()) {
+            read.add(cursor.next());
+        }
+        return read;
+    }
+    
+    @Test
+    public void testSubscribersSeeAllResults() {
+        SharedQueryResults results = results(2);
+        SharedQueryResults.Cursor leader = results.subscribe(60000);
+        SharedQueryResults.Cursor follower = results.subscribe(60000);
+        assertTrue(leader.isLeader());
+        assertFalse(follower.isLeader());
+        
+        List<Object> expected = Arrays.asList("a", "b", "c", "d", "e");
+        results.start(expected.iterator(), closed::incrementAndGet, null);
+        
+        // the producer stays at most two results ahead of the slowest subscriber
+        assertEquals(expected.subList(0, 2), read(leader, 2));
+        assertEquals(expected.subList(0, 4), read(follower, 4));
+        assertEquals(expected.subList(2, 5), read(leader, 5));
+        assertEquals(expected.subList(4, 5), read(follower, 5));
+        assertFalse(leader.hasNext());
+        assertFalse(follower.hasNext());
+        
+        leader.close();
+        assertEquals(0, closed.get());
+        follower.close();
+        assertEquals(1, closed.get());
+        assertEquals(Collections.singletonList(results), removed);
+    }
+    
+    @Test
+    public void testNoSubscribersOnceResultsAreDropped() {
+        SharedQueryResults results = results(4);
+        SharedQueryResults.Cursor leader = results.subscribe(60000);
+        SharedQueryResults.Cursor follower = results.subscribe(60000);
+        
+        results.start(Arrays.asList("a", "b", "c").iterator(), closed::incrementAndGet, null);
+        assertEquals(3, read(leader, 3).size());
+        // the follower has not read anything yet, so nothing was dropped
+        assertNotNull(results.subscribe(60000));
+        
+        SharedQueryResults late = results(4);
+        leader = late.subscribe(60000);
+        late.start(Arrays.asList("a", "b", "c").iterator(), closed::incrementAndGet, null);
+        assertEquals(3, read(leader, 3).size());
+        assertNull(late.subscribe(60000));
+        follower.close();
+    }
+    
+    @Test
+    public void testNoSubscribersAfterWindowOrClose() throws InterruptedException {
+        SharedQueryResults results = results(4);
+        SharedQueryResults.Cursor leader = results.subscribe(60000);
+        Thread.sleep(5);
+        assertNull(results.subscribe(1));
+        
+        leader.close();
+        assertNull(results.subscribe(60000));
+        // the logic was never started, so there is nothing to close
+        assertEquals(0, closed.get());
+        results.start(Collections.emptyIterator(), closed::incrementAndGet, null);
+        assertEquals(1, closed.get());
+    }
+    
+    @Test
+    public void testFailurePropagates() {
+        SharedQueryResults results = results(4);
+        SharedQueryResults.Cursor leader = results.subscribe(60000);
+        SharedQueryResults.Cursor follower = results.subscribe(60000);
+        
+        results.fail(new IllegalStateException("planning failed"));
+        assertEquals(Collections.singletonList(results), removed);
+        try {
+            follower.hasNext();
+            fail("Expected the failure of the shared query");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertNull(results.subscribe(60000));
+        leader.close();
+        follower.close();
+    }
+    
+    @Test
+    public void testIdleSubscriberIsDetached() {
+        SharedQueryResults results = results(2, 50);
+        SharedQueryResults.Cursor leader = results.subscribe(60000);
+        SharedQueryResults.Cursor idle = results.subscribe(60000);
+        
+        List<Object> expected = Arrays.asList("a", "b", "c", "d", "e");
+        results.start(expected.iterator(), closed::incrementAndGet, null);
+        
+        // the leader reads past the buffer once the producer gave up waiting for the idle subscriber
+        assertEquals(expected, read(leader, 5));
+        assertFalse(leader.isDetached());
+        assertTrue(idle.isDetached());
+        assertEquals(0, idle.getPosition());
+        assertFalse(idle.hasNext());
+        
+        idle.close();
+        assertEquals(0, closed.get());
+        leader.close();
+        assertEquals(1, closed.get());
+    }
+    
+    @Test
+    public void testSubscribersAtTheSamePositionAreNotDetached() throws InterruptedException {
+        SharedQueryResults results = results(2, 50);
+        SharedQueryResults.Cursor leader = results.subscribe(60000);
+        SharedQueryResults.Cursor follower = results.subscribe(60000);
+        
+        List<Object> expected = Arrays.asList("a", "b", "c", "d", "e");
+        results.start(expected.iterator(), closed::incrementAndGet, null);
+        assertEquals(expected.subList(0, 1), read(leader, 1));
+        assertEquals(expected.subList(0, 1), read(follower, 1));
+        // both subscribers are held up by the reader, not by each other
+        Thread.sleep(200);
+        assertFalse(leader.isDetached());
+        assertFalse(follower.isDetached());
+        for (int i = 1; i < expected.size(); i++) {
+            assertEquals(expected.subList(i, i + 1), read(leader, 1));
+            assertEquals(expected.subList(i, i + 1), read(follower, 1));
+        }
+        assertFalse(follower.isDetached());
+        leader.close();
+        follower.close();
+        assertEquals(1, closed.get());
+    }
+    
+    @Test
+    public void testRejectedProducerDetachesSubscribers() {
+        SharedQueryResults results = results(2);
+        SharedQueryResults.Cursor leader = results.subscribe(60000);
+        SharedQueryResults.Cursor follower = results.subscribe(60000);
+        
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        results.start(Arrays.asList("a", "b").iterator(), closed::incrementAndGet, executor);
+        assertTrue(leader.isDetached());
+        assertTrue(follower.isDetached());
+        assertFalse(leader.hasNext());
+        assertEquals(1, closed.get());
+        assertEquals(Collections.singletonList(results), removed);
+        assertNull(results.subscribe(60000));
+        
+        leader.close();
+        follower.close();
+        assertEquals(1, closed.get());
+    }
+    
+    @Test
+    public void testKey() {
+        QueryImpl query = new QueryImpl();
+        query.setQuery("FOO == 'bar'");
+        query.setBeginDate(new Date(0));
+        query.setEndDate(new Date(1000));
+        query.setPagesize(10);
+        query.addParameter("b", "2");
+        query.addParameter("a", "1");
+        
+        QueryImpl other = new QueryImpl();
+        other.setQuery("FOO == 'bar'");
+        other.setBeginDate(new Date(0));
+        other.setEndDate(new Date(1000));
+        other.setPagesize(100);
+        other.addParameter("a", "1");
+        other.addParameter("b", "2");
+        
+        HashSet<Authorizations> auths = new HashSet<>(Collections.singleton(new Authorizations("A", "B")));
+        HashSet<Authorizations> reordered = new HashSet<>(Collections.singleton(new Authorizations("B", "A")));
+        assertEquals(SharedQueryResults.key("EventQuery", query, auths), SharedQueryResults.key("EventQuery", other, reordered));
+        
+        assertNotEquals(SharedQueryResults.key("EventQuery", query, auths), SharedQueryResults.key("LuceneQuery", other, auths));
+        assertNotEquals(SharedQueryResults.key("EventQuery", query, auths),
+                        SharedQueryResults.key("EventQuery", other, Collections.singleton(new Authorizations("A"))));
+        other.setEndDate(new Date(2000));
+        assertNotEquals(SharedQueryResults.key("EventQuery", query, auths), SharedQueryResults.key("EventQuery", other, auths));
+    }
+}
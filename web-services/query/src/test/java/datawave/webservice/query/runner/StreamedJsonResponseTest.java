@@ -0,0 +1,118 @@
+package datawave.webservice.query.runner;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationIntrospector;
+import datawave.webservice.query.exception.DatawaveErrorCode;
+import datawave.webservice.query.exception.QueryException;
+import datawave.webservice.query.result.event.DefaultEvent;
+import datawave.webservice.query.result.event.DefaultField;
+import datawave.webservice.query.result.event.EventBase;
+import datawave.webservice.result.DefaultEdgeQueryResponse;
+import datawave.webservice.result.DefaultEventQueryResponse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StreamedJsonResponseTest {
+    
+    private ObjectMapper mapper;
+    private ByteArrayOutputStream out;
+    private JsonGenerator generator;
+    
+    @Before
+    public void setup() throws Exception {
+        // configured as the execute response is
+        mapper = new ObjectMapper();
+        mapper.enable(MapperFeature.USE_WRAPPER_NAME_AS_PROPERTY_NAME);
+        mapper.setAnnotationIntrospector(AnnotationIntrospector.pair(new JacksonAnnotationIntrospector(), new JaxbAnnotationIntrospector(mapper
+                        .getTypeFactory())));
+        out = new ByteArrayOutputStream();
+        generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+    }
+    
+    private DefaultEventQueryResponse response(String... fields) {
+        DefaultEvent event = new DefaultEvent();
+        List<DefaultField> eventFields = new ArrayList<>();
+        for (String field : fields) {
+            eventFields.add(new DefaultField(field, "PUBLIC", 0L, field.toLowerCase()));
+        }
+        event.setFields(eventFields);
+        
+        DefaultEventQueryResponse response = new DefaultEventQueryResponse();
+        response.setEvents(Collections.<EventBase> singletonList(event));
+        response.setFields(Arrays.asList(fields));
+        response.setReturnedEvents(1L);
+        response.setLogicName("EventQuery");
+        response.setQueryId("query-1");
+        response.setPageNumber(3);
+        response.setHasResults(true);
+        return response;
+    }
+    
+    private JsonNode read() throws Exception {
+        generator.close();
+        return mapper.readTree(out.toByteArray());
+    }
+    
+    @Test
+    public void testEventsAreWrittenIntoOneResponse() throws Exception {
+        StreamedJsonResponse<?> streamed = StreamedJsonResponse.forResponse(response("A"));
+        streamed.write(response("A", "B"), generator);
+        streamed.write(response("B", "C"), generator);
+        
+        DefaultEventQueryResponse status = new DefaultEventQueryResponse();
+        status.setHasResults(true);
+        streamed.end(status, generator);
+        
+        JsonNode page = read();
+        assertEquals("EventQuery", page.get("LogicName").asText());
+        assertEquals("query-1", page.get("QueryId").asText());
+        assertEquals(3, page.get("PageNumber").asLong());
+        assertEquals(2, page.get("Events").size());
+        assertEquals(mapper.valueToTree(response("A", "B").getEvents().get(0)), page.get("Events").get(0));
+        assertEquals(mapper.valueToTree(Arrays.asList("A", "B", "C")), page.get("Fields"));
+        assertEquals(2, page.get("ReturnedEvents").asLong());
+        assertNull(page.get("TotalEvents"));
+        assertTrue(page.get("HasResults").asBoolean());
+        assertFalse(page.get("PartialResults").asBoolean());
+        assertNull(page.get("Exceptions"));
+    }
+    
+    @Test
+    public void testPageEndsWithItsStatus() throws Exception {
+        StreamedJsonResponse<?> streamed = StreamedJsonResponse.forResponse(response("A"));
+        streamed.write(response("A"), generator);
+        
+        DefaultEventQueryResponse status = new DefaultEventQueryResponse();
+        status.setHasResults(true);
+        status.setPartialResults(true);
+        status.addException(new QueryException(DatawaveErrorCode.QUERY_NEXT_ERROR).getBottomQueryException());
+        streamed.end(status, generator);
+        
+        JsonNode page = read();
+        assertEquals(1, page.get("Events").size());
+        assertTrue(page.get("PartialResults").asBoolean());
+        assertEquals(1, page.get("Exceptions").size());
+    }
+    
+    @Test
+    public void testResponsesWithoutStreamedLayout() {
+        assertNull(StreamedJsonResponse.forResponse(new DefaultEdgeQueryResponse()));
+    }
+}